@@ -0,0 +1,114 @@
+#!/usr/bin/env bash
+set -euo pipefail
+# Read-stack benchmark: latency of fast reads while many slow clients hold connections open,
+# servlet application (Tomcat, JDBC) against ReactiveReadApplication (Netty, R2DBC).
+#
+# For each stack:
+#   1. SLOW_CLIENTS clients download SLOW_PATH (an export) at SLOW_RATE each, keeping their connections busy
+#   2. after SETTLE_SECONDS, FAST_REQUESTS requests to FAST_PATH run FAST_CONCURRENCY at a time
+#   3. p50/p95/p99 latency and the number of failed fast requests are reported
+# The servlet stack serves each slow download on a request thread (200 by default), the reactive stack
+# from Netty's event loops with the database cursor held back by the slow reader.
+#
+# Both applications run from the same jar, against the database of the chosen PROFILES (e.g. the local
+# profile's PostgreSQL container, seeded with the "seed" profile). Admission control is switched off so
+# that the servlet numbers measure the thread pool, not the limiter.
+# Usage: ./scripts/read-stack-benchmark.sh [path/to/app.jar]
+# Example:
+#   ./mvnw clean package -DskipTests && SLOW_CLIENTS=500 PROFILES=local ./scripts/read-stack-benchmark.sh
+# Results are printed and written to target/read-stack-benchmark.csv.
+
+JAR=${1:-$(ls target/*SNAPSHOT.jar | head -1)}
+PROFILES=${PROFILES:-local}
+SERVLET_PORT=${SERVLET_PORT:-18080}
+REACTIVE_PORT=${REACTIVE_PORT:-18081}
+SLOW_CLIENTS=${SLOW_CLIENTS:-400}
+SLOW_RATE=${SLOW_RATE:-4k}
+SLOW_PATH=${SLOW_PATH:-/api/v1/students/export}
+SETTLE_SECONDS=${SETTLE_SECONDS:-5}
+FAST_REQUESTS=${FAST_REQUESTS:-500}
+FAST_CONCURRENCY=${FAST_CONCURRENCY:-16}
+FAST_PATH=${FAST_PATH:-/api/v1/students/page?page=0&size=20}
+FAST_TIMEOUT_SECONDS=${FAST_TIMEOUT_SECONDS:-30}
+READY_TIMEOUT_SECONDS=${READY_TIMEOUT_SECONDS:-120}
+JAVA=${JAVA:-java}
+WORK_DIR=${WORK_DIR:-target/read-stack-benchmark}
+CSV=target/read-stack-benchmark.csv
+
+now_ms() { date +%s%3N; }
+
+# stack -> launch command
+command_for() {
+  case $1 in
+    servlet)  echo "$JAVA -Dspring.profiles.active=$PROFILES -Dapp.admission.enabled=false -Dserver.port=$SERVLET_PORT -jar $JAR" ;;
+    reactive) echo "$JAVA -Dspring.profiles.active=$PROFILES -Dserver.port=$REACTIVE_PORT \
+-Dloader.main=com.syscomz.springbootfullstackprofessional.reactive.ReactiveReadApplication \
+-cp $JAR org.springframework.boot.loader.launch.PropertiesLauncher" ;;
+  esac
+}
+
+port_for() {
+  case $1 in
+    servlet)  echo "$SERVLET_PORT" ;;
+    reactive) echo "$REACTIVE_PORT" ;;
+  esac
+}
+
+start() {
+  local stack=$1 port started pid
+  port=$(port_for "$stack")
+  started=$(now_ms)
+  # shellcheck disable=SC2086
+  $(command_for "$stack") > "$WORK_DIR/$stack.log" 2>&1 &
+  pid=$!
+  until curl -fs -o /dev/null "http://localhost:$port/actuator/health/readiness"; do
+    if ! kill -0 "$pid" 2>/dev/null || (( $(now_ms) - started > READY_TIMEOUT_SECONDS * 1000 )); then
+      echo "$stack did not become ready, see $WORK_DIR/$stack.log" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 0.2
+  done
+  echo "$pid"
+}
+
+# Prints one line per fast request: "<http code> <latency ms>"
+fast_requests() {
+  local url=$1
+  seq 1 "$FAST_REQUESTS" | xargs -P "$FAST_CONCURRENCY" -I{} \
+    curl -s -o /dev/null --max-time "$FAST_TIMEOUT_SECONDS" -w '%{http_code} %{time_total}\n' "$url" \
+    | awk '{ printf "%s %d\n", $1, $2 * 1000 }'
+}
+
+percentile() {
+  sort -n | awk -v p="$1" '{ v[NR] = $1 } END { if (NR == 0) { print "-"; exit } i = int((NR * p + 99) / 100); print v[i < 1 ? 1 : i] }'
+}
+
+mkdir -p "$WORK_DIR"
+echo "stack,slow_clients,fast_requests,failed,p50_ms,p95_ms,p99_ms" > "$CSV"
+printf "%-9s %12s %8s %8s %8s %8s\n" "stack" "slow clients" "failed" "p50 ms" "p95 ms" "p99 ms"
+for stack in servlet reactive; do
+  pid=$(start "$stack")
+  base="http://localhost:$(port_for "$stack")"
+  fast_requests "$base$FAST_PATH" > /dev/null   # warm up both the JVM and the database
+
+  slow=()
+  for _ in $(seq 1 "$SLOW_CLIENTS"); do
+    curl -s -o /dev/null --limit-rate "$SLOW_RATE" "$base$SLOW_PATH" &
+    slow+=($!)
+  done
+  sleep "$SETTLE_SECONDS"
+
+  fast_requests "$base$FAST_PATH" > "$WORK_DIR/$stack-fast.txt"
+  kill "${slow[@]}" 2>/dev/null || true
+  wait "${slow[@]}" 2>/dev/null || true
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+
+  failed=$(awk '$1 != 200' "$WORK_DIR/$stack-fast.txt" | wc -l | tr -d ' ')
+  latencies() { awk '$1 == 200 { print $2 }' "$WORK_DIR/$stack-fast.txt"; }
+  p50=$(latencies | percentile 50) p95=$(latencies | percentile 95) p99=$(latencies | percentile 99)
+  echo "$stack,$SLOW_CLIENTS,$FAST_REQUESTS,$failed,$p50,$p95,$p99" >> "$CSV"
+  printf "%-9s %12s %8s %8s %8s %8s\n" "$stack" "$SLOW_CLIENTS" "$failed" "$p50" "$p95" "$p99"
+done
+echo "Raw results: $CSV"
@@ -0,0 +1,112 @@
+#!/usr/bin/env bash
+set -euo pipefail
+# Startup benchmark: time-to-ready and first-request latency for each startup mode.
+#
+# Modes (each started RUNS times from the same extracted jar, medians reported):
+#   jvm            java -jar, plain bean definitions, eager beans
+#   lazy           + "fast-startup" profile (lazy initialization, background JPA bootstrap)
+#   cds            + AppCDS archive from a training run
+#   cds-lazy       CDS and the "fast-startup" profile
+#   aot-cds-lazy   + Spring AOT bean definitions (only when the jar was built with ./mvnw -P aot package)
+#
+# time-to-ready : from process launch until /actuator/health/readiness answers 200
+# first-request : latency of the first FIRST_REQUEST_PATH request once ready (lazy beans are created here)
+#
+# Needs a reachable database for the chosen PROFILES (e.g. the local profile's PostgreSQL container).
+# Usage: ./scripts/startup-benchmark.sh [path/to/app.jar]
+# Example:
+#   ./mvnw -P aot clean package -DskipTests && RUNS=10 PROFILES=local ./scripts/startup-benchmark.sh
+# Results are printed and written to target/startup-benchmark.csv.
+
+JAR=${1:-$(ls target/*SNAPSHOT.jar | head -1)}
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+PROFILES=${PROFILES:-local}
+FIRST_REQUEST_PATH=${FIRST_REQUEST_PATH:-/api/v1/students/page?page=0&size=20}
+READY_TIMEOUT_SECONDS=${READY_TIMEOUT_SECONDS:-120}
+JAVA=${JAVA:-java}
+WORK_DIR=${WORK_DIR:-target/startup-benchmark}
+CSV=target/startup-benchmark.csv
+
+now_ms() { date +%s%3N; }
+
+# Same layout as the Docker image: one extracted copy, so every mode uses an identical classpath
+prepare() {
+  rm -rf "$WORK_DIR"
+  mkdir -p "$WORK_DIR/extracted" "$WORK_DIR/app"
+  cp "$JAR" "$WORK_DIR/application.jar"
+  (cd "$WORK_DIR" && "$JAVA" -Djarmode=tools -jar application.jar extract --layers --destination extracted >/dev/null)
+  for layer in dependencies spring-boot-loader snapshot-dependencies application; do
+    cp -R "$WORK_DIR/extracted/$layer/." "$WORK_DIR/app/"
+  done
+}
+
+has_aot() {
+  unzip -l "$JAR" | grep -q '__BeanDefinitions.class'
+}
+
+# mode -> JVM arguments (the archive, if any, is trained with the same arguments)
+jvm_args() {
+  case $1 in
+    jvm)          echo "-Dspring.profiles.active=$PROFILES" ;;
+    lazy)         echo "-Dspring.profiles.active=$PROFILES,fast-startup" ;;
+    cds)          echo "-XX:SharedArchiveFile=$1.jsa -Dspring.profiles.active=$PROFILES" ;;
+    cds-lazy)     echo "-XX:SharedArchiveFile=$1.jsa -Dspring.profiles.active=$PROFILES,fast-startup" ;;
+    aot-cds-lazy) echo "-XX:SharedArchiveFile=$1.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=$PROFILES,fast-startup" ;;
+  esac
+}
+
+train() {
+  local mode=$1 args
+  args=$(jvm_args "$mode" | sed "s/-XX:SharedArchiveFile=/-XX:ArchiveClassesAtExit=/")
+  echo "Training CDS archive for $mode" >&2
+  # shellcheck disable=SC2086
+  (cd "$WORK_DIR/app" && "$JAVA" $args -Dspring.context.exit=onRefresh -Dserver.port=0 -jar application.jar > "train-$mode.log" 2>&1)
+}
+
+# Prints "<time-to-ready ms> <first-request ms>"
+run_once() {
+  local mode=$1 args started pid ready first
+  args=$(jvm_args "$mode")
+  started=$(now_ms)
+  # shellcheck disable=SC2086
+  (cd "$WORK_DIR/app" && exec "$JAVA" $args -Dserver.port="$PORT" -jar application.jar > "run-$mode.log" 2>&1) &
+  pid=$!
+  until curl -fs -o /dev/null "http://localhost:$PORT/actuator/health/readiness"; do
+    if ! kill -0 "$pid" 2>/dev/null || (( $(now_ms) - started > READY_TIMEOUT_SECONDS * 1000 )); then
+      echo "$mode did not become ready, see $WORK_DIR/app/run-$mode.log" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 0.05
+  done
+  ready=$(( $(now_ms) - started ))
+  first=$(curl -fs -o /dev/null -w '%{time_total}' "http://localhost:$PORT$FIRST_REQUEST_PATH")
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$ready $(awk -v s="$first" 'BEGIN { printf "%d", s * 1000 }')"
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+prepare
+modes=(jvm lazy cds cds-lazy)
+if has_aot; then modes+=(aot-cds-lazy); else echo "Jar has no AOT classes, skipping aot-cds-lazy (build with -P aot)" >&2; fi
+
+echo "mode,run,time_to_ready_ms,first_request_ms" > "$CSV"
+printf "%-14s %18s %18s\n" "mode" "time-to-ready ms" "first-request ms"
+for mode in "${modes[@]}"; do
+  [[ $mode == *cds* ]] && train "$mode"
+  run_once "$mode" > /dev/null   # warm the OS page cache and the database
+  readies=() firsts=()
+  for run in $(seq 1 "$RUNS"); do
+    read -r ready first < <(run_once "$mode")
+    readies+=("$ready") firsts+=("$first")
+    echo "$mode,$run,$ready,$first" >> "$CSV"
+  done
+  printf "%-14s %18s %18s\n" "$mode" \
+    "$(printf '%s\n' "${readies[@]}" | median)" "$(printf '%s\n' "${firsts[@]}" | median)"
+done
+echo "Raw results: $CSV"
@@ -18,7 +18,13 @@ package com.syscomz.springbootfullstackprofessional;
  * capabilities, simplifying the setup and reducing boilerplate code.
  */ 
 import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.data.web.config.EnableSpringDataWebSupport.PageSerializationMode;
 /*
@@ -32,8 +38,16 @@ import org.springframework.data.web.config.EnableSpringDataWebSupport.PageSerial
  * to manage the application's lifecycle.
  * Gotcha: Ensure that this class is located in a package that is a parent to all other packages
  * containing Spring components to ensure they are discovered during component scanning.
+ * The annotation is spelled out so that the component scan can leave out the reactive package: that is
+ * a separate application (ReactiveReadApplication) sharing this jar, and R2DBC is its business only.
  */
-@SpringBootApplication
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = R2dbcAutoConfiguration.class)
+@ComponentScan(excludeFilters = {
+		@ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+		@ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+		@ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.syscomz\\.springbootfullstackprofessional\\.reactive\\..*")
+})
 @EnableSpringDataWebSupport(pageSerializationMode = PageSerializationMode.VIA_DTO)
 public class SpringBootFullStackProfessionalApplication {
 	/*
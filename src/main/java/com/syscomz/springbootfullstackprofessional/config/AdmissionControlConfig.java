@@ -0,0 +1,39 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers {@link AdmissionControlFilter} on {@code /api/*}, disabled by {@code app.admission.enabled=false}.
+ * <p>
+ * It runs after the Spring Security chain, so an authenticated principal is available to key the
+ * per-client limits on.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper,
+                                                         MeterRegistry meterRegistry) {
+        return new AdmissionControlFilter(properties, objectMapper, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(AdmissionControlFilter filter,
+                                                                                             AdmissionProperties properties) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
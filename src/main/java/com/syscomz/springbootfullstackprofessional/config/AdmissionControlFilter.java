@@ -0,0 +1,204 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syscomz.springbootfullstackprofessional.student.exception.ApiError;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for the expensive student reads: the unpaged and paged lists, CSV export and stats.
+ * <p>
+ * A request in one of those classes first takes a token from its client's bucket ({@link ClientIdentity}),
+ * then a slot in the class's bulkhead. When all slots are busy it waits up to {@code max-wait} in a
+ * bounded queue. Requests that run out of tokens, find the queue full or time out get 429 with
+ * {@code Retry-After} and the usual {@link ApiError} body, before any database work. Other requests pass
+ * straight through.
+ * </p>
+ * <p>
+ * Outcomes are counted in {@code app.admission.requests} (tags {@code endpoint}, {@code outcome} =
+ * accepted | queued | rejected, {@code reason}); slots in use are gauged as {@code app.admission.in_flight}.
+ * </p>
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum Endpoint { LIST, EXPORT, STATS }
+
+    private static final String BASE = "/api/v1/students";
+
+    private final Map<Endpoint, AdmissionProperties.Limit> limits = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Bulkhead> bulkheads = new EnumMap<>(Endpoint.class);
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        limits.put(Endpoint.LIST, properties.getList());
+        limits.put(Endpoint.EXPORT, properties.getExport());
+        limits.put(Endpoint.STATS, properties.getStats());
+        limits.forEach((endpoint, limit) -> {
+            Bulkhead bulkhead = new Bulkhead(limit);
+            bulkheads.put(endpoint, bulkhead);
+            Gauge.builder("app.admission.in_flight", bulkhead, Bulkhead::inFlight)
+                    .tag("endpoint", tag(endpoint))
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = classify(request);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AdmissionProperties.Limit limit = limits.get(endpoint);
+        long now = clock.getAsLong();
+        long waitNanos = buckets.computeIfAbsent(ClientIdentity.of(request) + "|" + endpoint,
+                key -> new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), now)).tryConsume(now);
+        if (waitNanos > 0) {
+            count(endpoint, "rejected", "rate_limit");
+            reject(request, response, Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L),
+                    "Too many requests for this endpoint, slow down");
+            return;
+        }
+
+        Bulkhead bulkhead = bulkheads.get(endpoint);
+        String outcome = bulkhead.acquire();
+        if (outcome == null) {
+            count(endpoint, "rejected", "concurrency");
+            reject(request, response, Math.max(1, limit.getMaxWait().toSeconds()),
+                    "The server is busy with similar requests, try again shortly");
+            return;
+        }
+        count(endpoint, outcome, "none");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; an idle client's next request starts a fresh one.
+     */
+    @Scheduled(fixedDelayString = "${app.admission.cleanup-interval:1m}")
+    public void purgeIdleBuckets() {
+        long now = clock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    static Endpoint classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) return null;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.length() > 1 && path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        if (!path.startsWith(BASE)) return null;
+        String rest = path.substring(BASE.length());
+        if (rest.isEmpty() || rest.equals("/page") || rest.equals("/search") || rest.equals("/changes")) return Endpoint.LIST;
+        if (rest.equals("/export") || (rest.startsWith("/export/jobs/") && rest.endsWith("/file"))) return Endpoint.EXPORT;
+        if (rest.startsWith("/stats/")) return Endpoint.STATS;
+        return null;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds, String message)
+            throws IOException {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ApiError(status.value(), status.getReasonPhrase(), message, request.getRequestURI(), List.of()));
+    }
+
+    private void count(Endpoint endpoint, String outcome, String reason) {
+        Counter.builder("app.admission.requests")
+                .tag("endpoint", tag(endpoint))
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String tag(Endpoint endpoint) {
+        return endpoint.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Concurrency limit with a bounded wait queue.
+     */
+    private static final class Bulkhead {
+        private final Semaphore slots;
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final long maxWaitNanos;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        Bulkhead(AdmissionProperties.Limit limit) {
+            this.maxConcurrent = Math.max(1, limit.getMaxConcurrent());
+            this.slots = new Semaphore(maxConcurrent, true);
+            this.maxQueued = Math.max(0, limit.getMaxQueued());
+            this.maxWaitNanos = limit.getMaxWait().toNanos();
+        }
+
+        // "accepted" or "queued" once a slot is held, null when rejected
+        String acquire() {
+            if (slots.tryAcquire()) return "accepted";
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return null;
+            }
+            try {
+                return slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) ? "queued" : null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        void release() {
+            slots.release();
+        }
+
+        double inFlight() {
+            return maxConcurrent - slots.availablePermits();
+        }
+    }
+}
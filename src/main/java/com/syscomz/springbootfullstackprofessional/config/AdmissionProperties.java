@@ -0,0 +1,61 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits applied by {@link AdmissionControlFilter}, bound from {@code app.admission.*}.
+ * <p>
+ * Each endpoint class has a per-client token bucket ({@code rate-per-second} refill, {@code burst}
+ * capacity) and a bulkhead shared by all clients ({@code max-concurrent} running, at most
+ * {@code max-queued} more waiting up to {@code max-wait} for a slot). The defaults keep the three
+ * classes together below the default Hikari pool size of 10, leaving connections for the CRUD endpoints.
+ * Override them per profile in {@code application-<profile>.properties}.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private final Limit list = new Limit(10, 20, 4, 16, Duration.ofSeconds(2));
+    private final Limit export = new Limit(0.5, 5, 2, 4, Duration.ofSeconds(5));
+    private final Limit stats = new Limit(20, 40, 2, 16, Duration.ofSeconds(1));
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Limit getList() { return list; }
+    public Limit getExport() { return export; }
+    public Limit getStats() { return stats; }
+
+    public static class Limit {
+        private double ratePerSecond;
+        private int burst;
+        private int maxConcurrent;
+        private int maxQueued;
+        private Duration maxWait;
+
+        public Limit() {
+            this(10, 20, 4, 16, Duration.ofSeconds(2));
+        }
+
+        public Limit(double ratePerSecond, int burst, int maxConcurrent, int maxQueued, Duration maxWait) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.maxWait = maxWait;
+        }
+
+        public double getRatePerSecond() { return ratePerSecond; }
+        public void setRatePerSecond(double ratePerSecond) { this.ratePerSecond = ratePerSecond; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+        public int getMaxQueued() { return maxQueued; }
+        public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+        public Duration getMaxWait() { return maxWait; }
+        public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+    }
+}
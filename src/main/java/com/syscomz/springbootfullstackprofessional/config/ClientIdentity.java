@@ -0,0 +1,27 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+/**
+ * Resolves the identity that per-client limits and ownership checks are keyed on.
+ * <p>
+ * The authenticated principal name when there is one, otherwise the remote address. With
+ * {@code server.forward-headers-strategy=native} (application.properties) Tomcat takes that address
+ * from {@code X-Forwarded-For} when the request comes from a trusted internal proxy, so behind the
+ * load balancer it is the real client's rather than the proxy's.
+ * </p>
+ */
+public final class ClientIdentity {
+
+    private ClientIdentity() {}
+
+    public static String of(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null && !principal.getName().isBlank()) {
+            return "user:" + principal.getName();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
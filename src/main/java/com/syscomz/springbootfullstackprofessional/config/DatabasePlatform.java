@@ -0,0 +1,62 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Identifies the database product behind the application's {@link DataSource}.
+ * <p>
+ * Production runs on PostgreSQL while tests run on H2; code paths that rely on PostgreSQL-only
+ * features (pg_trgm similarity, LISTEN/NOTIFY, ...) ask this bean instead of sniffing JDBC URLs.
+ * The product name is looked up once, on first use, so startup does not open a connection.
+ * </p>
+ */
+@Component
+public class DatabasePlatform {
+
+    private final Supplier<String> productNameLookup;
+    private volatile String productName;
+
+    @Autowired
+    public DatabasePlatform(DataSource dataSource) {
+        this.productNameLookup = () -> {
+            try {
+                return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            } catch (MetaDataAccessException ex) {
+                return "unknown";
+            }
+        };
+    }
+
+    private DatabasePlatform(String productName) {
+        this.productNameLookup = () -> productName;
+        this.productName = productName;
+    }
+
+    /**
+     * Fixed platform, for unit tests and tools that run without a datasource.
+     */
+    public static DatabasePlatform named(String productName) {
+        return new DatabasePlatform(productName);
+    }
+
+    public String getProductName() {
+        String name = productName;
+        if (name == null) {
+            name = productNameLookup.get();
+            productName = name;
+        }
+        return name;
+    }
+
+    public boolean isPostgres() {
+        return getProductName().toLowerCase(Locale.ROOT).contains("postgres");
+    }
+}
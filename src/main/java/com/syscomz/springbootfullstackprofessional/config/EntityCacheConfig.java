@@ -0,0 +1,74 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import com.syscomz.springbootfullstackprofessional.student.Student;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for {@link Student}, held in a local Ehcache heap through JCache.
+ * <p>
+ * The region is bounded to {@code app.cache.student.max-entries} entries (least recently used go first),
+ * each expiring {@code app.cache.student.time-to-live} after it was stored, so edits made behind the
+ * application's back are not served forever. Regions Hibernate asks for beyond those created here fail
+ * startup instead of silently growing without bounds. Hibernate statistics are switched on so Spring
+ * Boot publishes the cache hits, misses and puts as {@code hibernate.second.level.cache.*} metrics.
+ * </p>
+ * <p>
+ * With {@code app.cache.student.enabled=false} the second-level cache is switched off entirely.
+ * </p>
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "app.cache.student", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManager entityCacheManager(@Value("${app.cache.student.max-entries:10000}") long maxEntries,
+                                           @Value("${app.cache.student.time-to-live:10m}") Duration timeToLive) {
+        // A private manager per application context: contexts (e.g. in tests) must never share cached rows.
+        // The URI only names the manager; the configuration is given here rather than read from it.
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("student-entity-cache-" + UUID.randomUUID()),
+                ConfigurationBuilder.newConfigurationBuilder()
+                        .withCache(Student.CACHE_REGION, CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                                        ResourcePoolsBuilder.heap(Math.max(1, maxEntries)))
+                                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive)))
+                        .build());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheProperties(ObjectProvider<CacheManager> entityCacheManager) {
+        return properties -> {
+            CacheManager cacheManager = entityCacheManager.getIfAvailable();
+            if (cacheManager == null) {
+                // Explicitly off: with hibernate-jcache on the classpath Hibernate would otherwise pick it up
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                return;
+            }
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
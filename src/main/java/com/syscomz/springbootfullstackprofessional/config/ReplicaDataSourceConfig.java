@@ -0,0 +1,95 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write split between the primary database and a read replica.
+ * <p>
+ * Active only when {@code app.datasource.replica.url} is set; otherwise Spring Boot's single
+ * {@code spring.datasource} pool is used unchanged. The primary pool is built from {@code spring.datasource.*}
+ * (pool settings under {@code spring.datasource.hikari.*}). The replica pool is built from
+ * {@code app.datasource.replica.url/username/password/driver-class-name}, with pool settings under
+ * {@code app.datasource.replica.hikari.*}. Service methods marked {@code @Transactional(readOnly = true)}
+ * read from the replica; see {@link ReadWriteRoutingDataSource}.
+ * </p>
+ * <p>
+ * With {@code app.datasource.replica.read-your-writes-window} above zero (default 5s), a client that
+ * has just written reads from the primary for that long; see {@link ReadYourWritesFilter}.
+ * With {@link WorkloadDataSourceConfig} on as well, the primary pool becomes the interactive pool and the
+ * primary side is split between it and the bulk and reporting pools.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        if (pool.getPoolName() == null) pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource replicaDataSource(Environment environment,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                              @Value("${app.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName) {
+        DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password);
+        if (!driverClassName.isBlank()) builder.driverClassName(driverClassName);
+        HikariDataSource pool = builder.build();
+        Binder.get(environment).bind("app.datasource.replica.hikari", Bindable.ofInstance(pool));
+        if (pool.getPoolName() == null) pool.setPoolName("replica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Qualifier("bulkDataSource") ObjectProvider<DataSource> bulk,
+                                 @Qualifier("reportingDataSource") ObjectProvider<DataSource> reporting,
+                                 Environment environment) {
+        DataSource writes = primary;
+        if (bulk.getIfAvailable() != null) {
+            // Workload pools are on: the primary pool serves interactive work
+            WorkloadDataSourceConfig.applyStatementTimeout(primary, Workload.Type.INTERACTIVE, environment);
+            writes = new WorkloadRoutingDataSource(primary, bulk.getObject(), reporting.getObject());
+        }
+        // The pools are not default candidates, so everything else (JPA, Flyway, JdbcTemplate) only sees this proxy
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(writes, replica));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.setEnabled(!window.isZero() && !window.isNegative());
+        return registration;
+    }
+}
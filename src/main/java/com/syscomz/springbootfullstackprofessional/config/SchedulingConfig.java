@@ -0,0 +1,12 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} housekeeping tasks (expired export job cleanup, ...).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
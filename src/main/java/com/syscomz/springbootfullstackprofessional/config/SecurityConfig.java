@@ -1,30 +1,47 @@
 package com.syscomz.springbootfullstackprofessional.config;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 
 /**
  * Security configuration for the application.
  * <p>
  * This configuration disables CSRF protection for API endpoints to allow
- * stateless REST API operations. All requests are permitted without authentication.
+ * stateless REST API operations. API requests are permitted without authentication.
+ * </p>
+ * <p>
+ * Actuator write operations, and the {@code flightrecorder} endpoint as a whole (its status reveals
+ * dump paths on the server), require HTTP Basic authentication as a user with the
+ * {@value #ACTUATOR_ADMIN_ROLE} role. The user is configured with {@code spring.security.user.*};
+ * without a configured password Spring Boot generates a random one at startup, so these operations
+ * stay closed unless an operator sets one.
  * </p>
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    static final String ACTUATOR_ADMIN_ROLE = "ACTUATOR_ADMIN";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers(EndpointRequest.to("flightrecorder")).hasRole(ACTUATOR_ADMIN_ROLE)
+                .requestMatchers(new AndRequestMatcher(EndpointRequest.toAnyEndpoint(),
+                        request -> !HttpMethod.GET.matches(request.getMethod()))).hasRole(ACTUATOR_ADMIN_ROLE)
                 .anyRequest().permitAll()
-            );
-        
+            )
+            .httpBasic(Customizer.withDefaults());
+
         return http.build();
     }
 }
@@ -0,0 +1,48 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+
+/**
+ * Keeps the beans that must exist before the application reports ready out of lazy initialization.
+ * <p>
+ * The "fast-startup" profile turns on {@code spring.main.lazy-initialization}, so controllers, services
+ * and most infrastructure are only created on first use. The exceptions are the datasource, Flyway and
+ * the JPA entity manager factory (schema and mapping errors must fail the deployment, not the first
+ * request) and beans with {@code @Scheduled} methods (they are only scheduled once created).
+ * Filters and servlet registrations are always created eagerly by the web server.
+ * </p>
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, definition, beanType) -> isStartupCritical(beanType);
+    }
+
+    static boolean isStartupCritical(Class<?> beanType) {
+        if (beanType == null) return false;
+        return DataSource.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)
+                || FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType);
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Boolean>) (Method method) ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null).isEmpty();
+    }
+}
@@ -0,0 +1,44 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+/**
+ * Token bucket refilled continuously at a fixed rate, up to a fixed capacity.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, int capacity, long now) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = Math.max(ratePerSecond, 1e-9) / 1_000_000_000d;
+        this.tokens = this.capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes one token. Returns 0 when one was available, otherwise the nanoseconds until one will be.
+     */
+    synchronized long tryConsume(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    // A full bucket behaves exactly like a new one, so it can be dropped
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Kind of database traffic a method (or every method of a class) produces; picks the connection pool its
+ * statements run on when {@code app.datasource.workloads.enabled=true}. Unmarked work is {@link Type#INTERACTIVE}.
+ * <p>
+ * Like {@code @Transactional}, it only takes effect on calls made through the Spring proxy. Work on other
+ * threads or behind self-invocation uses {@link WorkloadRoutingDataSource#callAs} instead.
+ * </p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    Type value();
+
+    enum Type {
+        /**
+         * Short CRUD and lookup statements behind user requests.
+         */
+        INTERACTIVE,
+        /**
+         * Large writes and full-table scans: seeding, migrations, rebuilding caches and rollups.
+         */
+        BULK,
+        /**
+         * Long reads behind exports and aggregate statistics.
+         */
+        REPORTING
+    }
+}
@@ -0,0 +1,140 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Separate connection pools for interactive, bulk and reporting traffic, so a long export or a seeding run
+ * cannot take the connections CRUD requests wait for.
+ * <p>
+ * Active only when {@code app.datasource.workloads.enabled=true}. All three pools connect to
+ * {@code spring.datasource.*} and start from {@code spring.datasource.hikari.*}. The interactive pool keeps
+ * those settings; the bulk and reporting pools default to {@value #DEFAULT_POOL_SIZE} connections and are
+ * tuned under {@code app.datasource.workloads.bulk.hikari.*} and {@code app.datasource.workloads.reporting.hikari.*}.
+ * {@code app.datasource.workloads.<workload>.statement-timeout} caps every statement on that pool's
+ * connections unless the pool sets its own {@code connection-init-sql}: PostgreSQL's {@code statement_timeout},
+ * or H2's session {@code QUERY_TIMEOUT}, which a statement setting its own timeout replaces. Flyway migrates
+ * through the bulk pool. Methods pick their pool with {@link Workload}; see {@link WorkloadRoutingDataSource}.
+ * </p>
+ * <p>
+ * Each pool publishes {@code hikaricp.connections.*} metrics tagged with its name ({@code interactive},
+ * {@code bulk}, {@code reporting}); {@code hikaricp.connections.acquire} is the time spent waiting for a connection.
+ * With a read replica ({@link ReplicaDataSourceConfig}) the split applies to the primary: the replica pool
+ * stays shared by every read-only transaction.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.workloads", name = "enabled", havingValue = "true")
+public class WorkloadDataSourceConfig {
+
+    static final int DEFAULT_POOL_SIZE = 2;
+
+    @Bean(defaultCandidate = false)
+    @FlywayDataSource
+    public HikariDataSource bulkDataSource(DataSourceProperties properties, Environment environment,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return pool(Workload.Type.BULK, properties, environment, meterRegistry);
+    }
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource reportingDataSource(DataSourceProperties properties, Environment environment,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        return pool(Workload.Type.REPORTING, properties, environment, meterRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor workloadAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Workload.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new WorkloadInterceptor());
+        // Outside @Transactional, so the workload is set before the transaction fetches a connection
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * Without a replica: the interactive pool is a pool of its own; with one, it is the replica config's primary pool.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "app.datasource.workloads", name = "enabled", havingValue = "true")
+    @ConditionalOnExpression("'${app.datasource.replica.url:}' == ''")
+    static class SingleDatabase {
+
+        @Bean(defaultCandidate = false)
+        public HikariDataSource interactiveDataSource(DataSourceProperties properties, Environment environment,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+            return pool(Workload.Type.INTERACTIVE, properties, environment, meterRegistry);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("interactiveDataSource") DataSource interactive,
+                                     @Qualifier("bulkDataSource") DataSource bulk,
+                                     @Qualifier("reportingDataSource") DataSource reporting) {
+            return new LazyConnectionDataSourceProxy(new WorkloadRoutingDataSource(interactive, bulk, reporting));
+        }
+    }
+
+    static HikariDataSource pool(Workload.Type workload, DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        String name = workload.name().toLowerCase(Locale.ROOT);
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        if (workload == Workload.Type.INTERACTIVE) {
+            if (pool.getPoolName() == null) pool.setPoolName(name);
+        } else {
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(DEFAULT_POOL_SIZE);
+            binder.bind("app.datasource.workloads." + name + ".hikari", Bindable.ofInstance(pool));
+        }
+        applyStatementTimeout(pool, workload, environment);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return pool;
+    }
+
+    /**
+     * Sets {@code app.datasource.workloads.<workload>.statement-timeout}, if any, as the pool's connection init SQL.
+     */
+    static void applyStatementTimeout(HikariDataSource pool, Workload.Type workload, Environment environment) {
+        String property = "app.datasource.workloads." + workload.name().toLowerCase(Locale.ROOT) + ".statement-timeout";
+        Duration timeout = Binder.get(environment).bind(property, Duration.class).orElse(null);
+        if (timeout == null || pool.getConnectionInitSql() != null) return;
+        String url = pool.getJdbcUrl() == null ? "" : pool.getJdbcUrl();
+        if (url.startsWith("jdbc:postgresql:")) {
+            pool.setConnectionInitSql("SET statement_timeout = " + timeout.toMillis());
+        } else if (url.startsWith("jdbc:h2:")) {
+            pool.setConnectionInitSql("SET QUERY_TIMEOUT " + timeout.toMillis());
+        } else {
+            throw new IllegalStateException(String.format("%s is only supported on PostgreSQL and H2, not %s", property, url));
+        }
+    }
+}
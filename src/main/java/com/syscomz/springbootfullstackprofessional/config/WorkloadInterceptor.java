@@ -0,0 +1,40 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs calls to {@link Workload}-annotated methods and classes as their workload; see {@link WorkloadRoutingDataSource}.
+ */
+class WorkloadInterceptor implements MethodInterceptor {
+
+    private final Map<Method, Optional<Workload.Type>> workloads = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() == null ? null : AopUtils.getTargetClass(invocation.getThis());
+        Optional<Workload.Type> workload = workloads.computeIfAbsent(invocation.getMethod(), m -> find(m, targetClass));
+        if (workload.isEmpty()) return invocation.proceed();
+        Workload.Type previous = WorkloadRoutingDataSource.enter(workload.get());
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadRoutingDataSource.restore(previous);
+        }
+    }
+
+    // The method's own annotation wins over its class's
+    private static Optional<Workload.Type> find(Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        Workload annotation = AnnotatedElementUtils.findMergedAnnotation(specific, Workload.class);
+        if (annotation == null) annotation = AnnotatedElementUtils.findMergedAnnotation(specific.getDeclaringClass(), Workload.class);
+        return Optional.ofNullable(annotation).map(Workload::value);
+    }
+}
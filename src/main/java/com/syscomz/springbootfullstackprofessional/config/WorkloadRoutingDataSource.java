@@ -0,0 +1,72 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Sends each connection to the pool of the current thread's {@link Workload}, {@link Workload.Type#INTERACTIVE}
+ * unless a {@code @Workload} method or {@link #callAs} says otherwise.
+ * <p>
+ * As with {@link ReadWriteRoutingDataSource}, the pool is chosen when a connection is actually fetched,
+ * so this must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * A transaction keeps the connection it started with: a {@code @Workload} method called inside a running
+ * transaction joins that transaction's pool.
+ * </p>
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Workload.Type> CURRENT = new ThreadLocal<>();
+
+    public WorkloadRoutingDataSource(DataSource interactive, DataSource bulk, DataSource reporting) {
+        setTargetDataSources(Map.of(Workload.Type.INTERACTIVE, interactive, Workload.Type.BULK, bulk,
+                Workload.Type.REPORTING, reporting));
+        setDefaultTargetDataSource(interactive);
+        afterPropertiesSet();
+    }
+
+    public static Workload.Type current() {
+        Workload.Type workload = CURRENT.get();
+        return workload == null ? Workload.Type.INTERACTIVE : workload;
+    }
+
+    /**
+     * Runs {@code work} on the current thread as {@code workload}, then restores the previous workload.
+     */
+    public static <T> T callAs(Workload.Type workload, Callable<T> work) throws Exception {
+        Workload.Type previous = enter(workload);
+        try {
+            return work.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runAs(Workload.Type workload, Runnable work) {
+        Workload.Type previous = enter(workload);
+        try {
+            work.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // Sets the thread's workload and returns the one to restore afterwards
+    static Workload.Type enter(Workload.Type workload) {
+        Workload.Type previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(Workload.Type previous) {
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return current();
+    }
+}
@@ -0,0 +1,45 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires the custom JDK Flight Recorder events into the request and repository paths.
+ * <p>
+ * Request events are produced by a MVC interceptor on {@code /api/v1/students/**}; query events by
+ * an advice added to every Spring Data repository proxy. Both can be switched off with
+ * {@code app.jfr.enabled=false}; the on-demand recording endpoint lives in {@link FlightRecorderEndpoint}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new FlightRecorderRequestInterceptor())
+                .addPathPatterns("/api/v1/students", "/api/v1/students/**");
+    }
+
+    // static: BeanPostProcessors must not drag the enclosing configuration into early initialization
+    @Bean
+    static BeanPostProcessor flightRecorderRepositoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, info) -> proxyFactory.addAdvice(
+                                    new FlightRecorderQueryInterceptor(info.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Actuator endpoint that controls an on-demand JDK Flight Recorder recording.
+ * <p>
+ * {@code GET /actuator/flightrecorder} reports the current recording, and
+ * {@code POST /actuator/flightrecorder/{start|dump|stop}} starts one, writes a snapshot of it to
+ * {@code app.jfr.dump-dir}, or stops it (writing a final dump). The recording is bounded by
+ * {@code app.jfr.max-age} and {@code app.jfr.max-size}, and only the newest {@code app.jfr.max-dumps}
+ * files are kept, so leaving it running cannot fill the disk.
+ * </p>
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderEndpoint.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path dumpDirectory;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final int maxDumps;
+    private final String settings;
+
+    private Recording recording;
+
+    public FlightRecorderEndpoint(@Value("${app.jfr.dump-dir:${java.io.tmpdir}/students-jfr}") String dumpDirectory,
+                                  @Value("${app.jfr.max-age:10m}") Duration maxAge,
+                                  @Value("${app.jfr.max-size:100MB}") DataSize maxSize,
+                                  @Value("${app.jfr.max-dumps:5}") int maxDumps,
+                                  @Value("${app.jfr.settings:profile}") String settings) {
+        this.dumpDirectory = Paths.get(dumpDirectory);
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.maxDumps = Math.max(1, maxDumps);
+        this.settings = settings;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", recording == null ? "NONE" : recording.getState().name());
+        if (recording != null) {
+            result.put("name", recording.getName());
+            result.put("startTime", recording.getStartTime());
+            result.put("size", recording.getSize());
+        }
+        result.put("settings", settings);
+        result.put("maxAge", maxAge.toString());
+        result.put("maxSize", maxSize.toBytes());
+        result.put("dumpDirectory", dumpDirectory.toAbsolutePath().toString());
+        result.put("dumps", listDumps().stream().map(p -> p.getFileName().toString()).toList());
+        return result;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> control(@Selector String action) {
+        switch (action) {
+            case "start" -> start();
+            case "dump" -> {
+                requireRunning();
+                Path file = dump();
+                Map<String, Object> result = status();
+                result.put("file", file.toAbsolutePath().toString());
+                return result;
+            }
+            case "stop" -> {
+                requireRunning();
+                recording.stop();
+                Path file = dump();
+                recording.close();
+                recording = null;
+                Map<String, Object> result = status();
+                result.put("file", file.toAbsolutePath().toString());
+                return result;
+            }
+            default -> throw new InvalidEndpointRequestException("Unknown action '" + action + "'", "expected start, dump or stop");
+        }
+        return status();
+    }
+
+    private void start() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return; // idempotent: one bounded recording at a time
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(settings));
+            r.setName("students-on-demand");
+            r.setToDisk(true);
+            r.setMaxAge(maxAge);
+            r.setMaxSize(maxSize.toBytes());
+            r.start();
+            recording = r;
+            log.info("Started JFR recording (settings={}, maxAge={}, maxSize={})", settings, maxAge, maxSize);
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Cannot load JFR settings '" + settings + "'", ex);
+        }
+    }
+
+    private Path dump() {
+        try {
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve("students-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+            recording.dump(file);
+            pruneDumps();
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write JFR dump to " + dumpDirectory, ex);
+        }
+    }
+
+    private void requireRunning() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new InvalidEndpointRequestException("No JFR recording is running", "start a recording first");
+        }
+    }
+
+    private void pruneDumps() throws IOException {
+        List<Path> dumps = listDumps();
+        for (int i = 0; i < dumps.size() - maxDumps; i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+
+    // Oldest first; file names embed a sortable UTC timestamp
+    private List<Path> listDumps() {
+        if (!Files.isDirectory(dumpDirectory)) return List.of();
+        try (Stream<Path> files = Files.list(dumpDirectory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList();
+        } catch (IOException ex) {
+            return List.of();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
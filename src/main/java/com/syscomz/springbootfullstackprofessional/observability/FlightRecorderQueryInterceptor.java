@@ -0,0 +1,56 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+/**
+ * Repository proxy advice that records one {@link StudentQueryEvent} per repository method call,
+ * tagged with the repository and method name and the number of rows handed back.
+ */
+class FlightRecorderQueryInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    FlightRecorderQueryInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        StudentQueryEvent event = new StudentQueryEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.query = invocation.getMethod().getName();
+                event.rows = failed ? 0 : rowCount(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    static long rowCount(Object result) {
+        if (result == null) return 0;
+        if (result instanceof Collection<?> c) return c.size();
+        if (result instanceof Slice<?> s) return s.getNumberOfElements();
+        if (result instanceof Optional<?> o) return o.isPresent() ? 1 : 0;
+        if (result instanceof BaseStream<?, ?> || result instanceof Iterable<?>) return -1;
+        return 1;
+    }
+}
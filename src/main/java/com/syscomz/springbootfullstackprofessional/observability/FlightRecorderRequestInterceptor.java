@@ -0,0 +1,44 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Wraps every student API request in a {@link StudentRequestEvent}.
+ * <p>
+ * The event is begun in {@code preHandle} and committed in {@code afterCompletion}; when no
+ * recording is running {@code shouldCommit()} is false and the cost is a couple of field writes.
+ * </p>
+ */
+class FlightRecorderRequestInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = FlightRecorderRequestInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        StudentRequestEvent event = new StudentRequestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        if (!(request.getAttribute(EVENT_ATTRIBUTE) instanceof StudentRequestEvent event)) return;
+        request.removeAttribute(EVENT_ATTRIBUTE);
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = request.getMethod();
+            event.path = request.getRequestURI();
+            event.handler = handler instanceof HandlerMethod hm ? hm.getMethod().getName() : handler.getClass().getSimpleName();
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+}
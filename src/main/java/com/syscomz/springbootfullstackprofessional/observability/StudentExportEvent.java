@@ -0,0 +1,41 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event covering one CSV export, from the cache lookup (and rendering, on a miss) to the last byte written.
+ */
+@Name("com.syscomz.students.Export")
+@Label("Student Export")
+@Category({"Students", "Export"})
+@Description("CSV export of the student table")
+public class StudentExportEvent extends Event {
+
+    @Label("Format")
+    String format;
+
+    @Label("Filter")
+    String filter;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Cache Hit")
+    @Description("Served from a previously rendered file")
+    boolean cacheHit;
+
+    public void setFormat(String format) { this.format = format; }
+    public void setFilter(String filter) { this.filter = filter; }
+    public void setRows(long rows) { this.rows = rows; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+    public void setCacheHit(boolean cacheHit) { this.cacheHit = cacheHit; }
+}
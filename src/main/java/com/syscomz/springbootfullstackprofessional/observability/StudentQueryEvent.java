@@ -0,0 +1,33 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event covering one repository method invocation.
+ * <p>
+ * {@code rows} is the number of rows returned to the caller (collection/page size, 0/1 for
+ * optional and scalar results, -1 when it cannot be known up front such as for streams).
+ * </p>
+ */
+@Name("com.syscomz.students.Query")
+@Label("Student Repository Query")
+@Category({"Students", "Database"})
+@Description("Spring Data repository method invocation")
+public class StudentQueryEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Query")
+    String query;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+}
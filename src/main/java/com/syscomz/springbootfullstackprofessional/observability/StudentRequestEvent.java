@@ -0,0 +1,33 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event covering one HTTP request handled by the student API.
+ * <p>
+ * The event duration is the time between the handler being selected and the response
+ * being completed, so it lines up with GC pauses and lock contention in the same recording.
+ * </p>
+ */
+@Name("com.syscomz.students.Request")
+@Label("Student API Request")
+@Category({"Students", "HTTP"})
+@Description("HTTP request handled by the /api/v1/students endpoints")
+public class StudentRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,41 @@
+package com.syscomz.springbootfullstackprofessional.reactive;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.ApiError;
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.List;
+
+/**
+ * {@code GlobalExceptionHandler} for the reactive read API: the same {@link ApiError} payloads.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handleBadRequest(BadRequestException ex, ServerWebExchange exchange) {
+        return build(HttpStatus.BAD_REQUEST, ex.getMessage(), exchange);
+    }
+
+    // Unparseable parameters, e.g. page=abc
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiError> handleInput(ServerWebInputException ex, ServerWebExchange exchange) {
+        return build(HttpStatus.BAD_REQUEST, ex.getReason(), exchange);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiError> handleGeneric(Exception ex, ServerWebExchange exchange) {
+        return build(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), exchange);
+    }
+
+    private ResponseEntity<ApiError> build(HttpStatus status, String message, ServerWebExchange exchange) {
+        String path = exchange.getRequest().getPath().value();
+        return ResponseEntity.status(status).body(new ApiError(status.value(), status.getReasonPhrase(), message, path, List.of()));
+    }
+}
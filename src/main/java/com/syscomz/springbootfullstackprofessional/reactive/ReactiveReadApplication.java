@@ -0,0 +1,38 @@
+package com.syscomz.springbootfullstackprofessional.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Read-only, non-blocking variant of the {@code /api/v1/students} read endpoints: {@code /page},
+ * {@code /search}, {@code /stats/*} and {@code /export}, on WebFlux and Reactor Netty over R2DBC.
+ * <p>
+ * Ships in the same jar as the servlet application and runs as its own process with the
+ * {@code reactive} profile (see {@code application-reactive.properties}):
+ * {@code java -Dloader.main=com.syscomz.springbootfullstackprofessional.reactive.ReactiveReadApplication
+ * -cp app.jar org.springframework.boot.loader.launch.PropertiesLauncher}. It reads the tables the servlet
+ * application migrates and writes, so JDBC, JPA and Flyway are left out; it scans this package only.
+ * Responses have the same shape as the servlet endpoints, built from the same {@code Student},
+ * {@code StudentSort} and {@code StudentFilter} types.
+ * </p>
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class, FlywayAutoConfiguration.class})
+public class ReactiveReadApplication {
+
+    public static void main(String[] args) {
+        application().run(args);
+    }
+
+    /**
+     * The application as {@link #main} runs it; arguments given to {@code run} override its properties.
+     */
+    public static SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(ReactiveReadApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive");
+    }
+}
@@ -0,0 +1,83 @@
+package com.syscomz.springbootfullstackprofessional.reactive;
+
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import java.util.Arrays;
+
+/**
+ * Infrastructure of the {@link ReactiveReadApplication}.
+ * <p>
+ * Tomcat is on the classpath for the servlet application, and Boot would prefer it for a reactive
+ * server too; declaring the Netty factory keeps request handling on Netty's event loops. Security and
+ * CORS mirror {@code SecurityConfig} and {@code CorsConfig}.
+ * </p>
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveReadConfig implements WebFluxConfigurer {
+
+    private final String[] allowedOrigins;
+
+    public ReactiveReadConfig(@Value("${app.cors.origins:http://localhost:3000}") String origins) {
+        this.allowedOrigins = Arrays.stream(origins.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public DatabasePlatform databasePlatform(ConnectionFactory connectionFactory) {
+        return DatabasePlatform.named(connectionFactory.getMetadata().getName());
+    }
+
+    // Read-only transactions, so that exports can hold a server-side cursor open
+    @Bean
+    public TransactionalOperator readOnlyTransactionalOperator(ReactiveTransactionManager transactionManager) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return TransactionalOperator.create(transactionManager, definition);
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchange -> exchange.anyExchange().permitAll())
+                .build();
+    }
+
+    @Override
+    public void addCorsMappings(@NonNull CorsRegistry registry) {
+        registry.addMapping("/api/**")
+                .allowedOrigins(allowedOrigins)
+                .allowedMethods("GET", "OPTIONS")
+                .allowedHeaders("*")
+                .allowCredentials(false);
+    }
+}
@@ -0,0 +1,169 @@
+package com.syscomz.springbootfullstackprofessional.reactive;
+
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentService;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+import com.syscomz.springbootfullstackprofessional.student.export.StudentCsvWriter;
+import com.syscomz.springbootfullstackprofessional.student.stats.FieldStats;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read endpoints of {@code StudentController} with the same paths, parameters and JSON, served without
+ * blocking a thread per request.
+ * <p>
+ * Pages are serialized as {@link PagedModel}, the shape the servlet application produces with
+ * {@code pageSerializationMode = VIA_DTO}. Stats are always exact: the approximate sketches live in
+ * the servlet application, which also answers {@code mode=approx} exactly until they are built.
+ * {@code /export} streams the CSV in chunks of {@value #EXPORT_CHUNK_ROWS} rows as the client reads it;
+ * nothing is cached.
+ * </p>
+ */
+@RestController
+@RequestMapping(path = "api/v1/students")
+public class ReactiveStudentController {
+
+    static final int EXPORT_CHUNK_ROWS = 256;
+
+    private final ReactiveStudentRepository studentRepository;
+
+    public ReactiveStudentController(ReactiveStudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<PagedModel<Student>> getStudentsPaged(@RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "50") int size,
+                                                      @RequestParam(defaultValue = "id") String sortBy,
+                                                      @RequestParam(defaultValue = "asc") String direction,
+                                                      @RequestParam(required = false) List<String> sort) {
+        return studentRepository.page(page, size, StudentSort.parse(sort, sortBy, direction), StudentFilter.NONE, null)
+                .map(PagedModel::new);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<PagedModel<Student>> searchStudents(@RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "50") int size,
+                                                    @RequestParam(defaultValue = "id") String sortBy,
+                                                    @RequestParam(defaultValue = "asc") String direction,
+                                                    @RequestParam(required = false) List<String> sort,
+                                                    @RequestParam(required = false) List<String> gender,
+                                                    @RequestParam(required = false) String domain,
+                                                    @RequestParam(required = false) List<String> nationality,
+                                                    @RequestParam(required = false) List<String> college,
+                                                    @RequestParam(required = false) List<String> major,
+                                                    @RequestParam(required = false) List<String> minor,
+                                                    @RequestParam(required = false) String q) {
+        StudentSort order = StudentSort.parse(sort, sortBy, direction);
+        StudentFilter filter = StudentFilter.of(gender, domain, nationality, college, major, minor);
+        String term = null;
+        if (q != null && !q.isBlank()) {
+            term = q.trim().toLowerCase(Locale.ROOT);
+            if (term.length() < StudentService.MIN_TEXT_QUERY_LENGTH)
+                throw new BadRequestException(String.format("Search term must be at least %d characters long", StudentService.MIN_TEXT_QUERY_LENGTH));
+        }
+        return studentRepository.page(page, size, order, filter, term).map(PagedModel::new);
+    }
+
+    @GetMapping("/stats/gender")
+    public Mono<Map<String, Long>> getGenderStats() {
+        return studentRepository.countByGender().map(counts -> {
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("Male", counts.getOrDefault(Gender.MALE, 0L));
+            result.put("Female", counts.getOrDefault(Gender.FEMALE, 0L));
+            result.put("Other", counts.getOrDefault(Gender.OTHER, 0L));
+            return result;
+        });
+    }
+
+    @GetMapping("/stats/domains")
+    public Mono<ResponseEntity<List<DomainCount>>> getDomainStats(@RequestParam(required = false) Integer top,
+                                                                  @RequestParam(defaultValue = "exact") String mode) {
+        return stats(StudentStatsSketches.Field.DOMAIN, top, mode);
+    }
+
+    @GetMapping("/stats/nationalities")
+    public Mono<ResponseEntity<List<DomainCount>>> getNationalityStats(@RequestParam(required = false) Integer top,
+                                                                       @RequestParam(defaultValue = "exact") String mode) {
+        return stats(StudentStatsSketches.Field.NATIONALITY, top, mode);
+    }
+
+    @GetMapping("/stats/colleges")
+    public Mono<ResponseEntity<List<DomainCount>>> getCollegeStats(@RequestParam(required = false) Integer top,
+                                                                   @RequestParam(defaultValue = "exact") String mode) {
+        return stats(StudentStatsSketches.Field.COLLEGE, top, mode);
+    }
+
+    private Mono<ResponseEntity<List<DomainCount>>> stats(StudentStatsSketches.Field field, Integer top, String mode) {
+        StudentStatsSketches.Mode.parse(mode);
+        if (top != null && top < 1) throw new BadRequestException("top must be at least 1");
+        return studentRepository.countBy(field).map(all -> {
+            FieldStats stats = FieldStats.exact(all, top);
+            return ResponseEntity.ok()
+                    .header("X-Stats-Mode", "exact")
+                    .header("X-Distinct-Count", Long.toString(stats.distinct()))
+                    .body(stats.counts());
+        });
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<Flux<DataBuffer>> exportStudentsCsv(@RequestParam(defaultValue = "id") String sortBy,
+                                                              @RequestParam(defaultValue = "asc") String direction,
+                                                              @RequestParam(required = false) List<String> sort,
+                                                              @RequestParam(required = false) List<String> gender,
+                                                              @RequestParam(required = false) String domain,
+                                                              @RequestParam(required = false) List<String> nationality,
+                                                              @RequestParam(required = false) List<String> college,
+                                                              @RequestParam(required = false) List<String> major,
+                                                              @RequestParam(required = false) List<String> minor) {
+        StudentSort order = StudentSort.parse(sort, sortBy, direction);
+        StudentFilter filter = StudentFilter.of(gender, domain, nationality, college, major, minor);
+        Flux<DataBuffer> body = Flux.concat(
+                Mono.fromSupplier(() -> buffer(StudentCsvWriter.HEADER)),
+                studentRepository.stream(order, filter).buffer(EXPORT_CHUNK_ROWS).map(ReactiveStudentController::csv));
+        String filename = "students-export-" + java.time.LocalDate.now() + ".csv";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    private static DataBuffer csv(List<Student> rows) {
+        StringWriter out = new StringWriter(rows.size() * 128);
+        try {
+            for (Student s : rows) StudentCsvWriter.writeRow(out, s);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer(out.toString());
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
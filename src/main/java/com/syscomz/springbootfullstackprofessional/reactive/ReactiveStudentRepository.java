@@ -0,0 +1,219 @@
+package com.syscomz.springbootfullstackprofessional.reactive;
+
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.StudentSpecifications;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The student reads of {@code StudentRepository} and {@code StudentSpecifications}, as SQL over R2DBC.
+ * <p>
+ * Rows are read with the dictionary values joined in (V8-V13), and mapped to detached {@link Student}s.
+ * Filters on dictionary-encoded columns look the keys up in a subquery, so they still use the
+ * {@code (key, ...)} indexes from V4/V5; only the columns that are filtered on appear in the statement.
+ * Ordering follows {@link StudentSort}, by the dictionary value for dictionary-encoded fields, and
+ * nulls sort as the database sorts them, like the JPA queries. A text search on PostgreSQL is ranked by
+ * trigram similarity, as in {@code StudentService}.
+ * </p>
+ * <p>
+ * {@link #stream} runs in a read-only transaction with a fetch size of {@code app.reactive.export.fetch-size}:
+ * the driver then reads the result through a cursor, one batch per demand from downstream, so a slow
+ * client holds back the database read instead of buffering the table in memory.
+ * </p>
+ */
+@Repository
+public class ReactiveStudentRepository {
+
+    private static final String COLUMNS = "s.id, s.name, s.email, s.gender, n.name AS nationality, c.name AS college, " +
+            "ma.name AS major, mi.name AS minor, s.change_version, s.updated_at, s.created_at";
+    private static final String FROM = " FROM student s" +
+            " JOIN student_nationality n ON n.id = s.nationality_id" +
+            " JOIN student_college c ON c.id = s.college_id" +
+            " LEFT JOIN student_major ma ON ma.id = s.major_id" +
+            " LEFT JOIN student_minor mi ON mi.id = s.minor_id";
+    // Dictionary keys are assigned in value order, so the key columns sort like the values, from their indexes
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "s.id",
+            "name", "s.name",
+            "email", "s.email",
+            "gender", "s.gender",
+            "nationality", "s.nationality_id",
+            "college", "s.college_id",
+            "major", "s.major_id",
+            "minor", "s.minor_id");
+    // Portable form of split_part(email, '@', 2), which H2 lacks; the same for any address with one '@'
+    private static final String DOMAIN = "LOWER(SUBSTRING(email FROM POSITION('@' IN email) + 1))";
+
+    private final DatabaseClient client;
+    private final DatabasePlatform databasePlatform;
+    private final TransactionalOperator readOnlyTx;
+    private final int fetchSize;
+
+    public ReactiveStudentRepository(DatabaseClient client,
+                                     DatabasePlatform databasePlatform,
+                                     TransactionalOperator readOnlyTx,
+                                     @Value("${app.reactive.export.fetch-size:1000}") int fetchSize) {
+        this.client = client;
+        this.databasePlatform = databasePlatform;
+        this.readOnlyTx = readOnlyTx;
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     * A page of the students matching {@code filter} and, when given, the lower-cased {@code term} as a
+     * substring of name or email.
+     */
+    public Mono<Page<Student>> page(int page, int size, StudentSort sort, StudentFilter filter, String term) {
+        boolean ranked = term != null && databasePlatform.isPostgres();
+        PageRequest pageable = ranked ? PageRequest.of(page, size) : PageRequest.of(page, size, sort.toSort());
+        Where where = where(filter, term);
+        String orderBy = ranked
+                ? "GREATEST(similarity(LOWER(s.name), :term), similarity(LOWER(s.email), :term)) DESC, s.id"
+                : orderBy(sort);
+        Map<String, Object> params = new LinkedHashMap<>(where.params());
+        if (ranked) params.put("term", term);
+        params.put("limit", size);
+        params.put("offset", pageable.getOffset());
+        Mono<List<Student>> rows = bind(client.sql("SELECT " + COLUMNS + FROM + where.sql() + " ORDER BY " + orderBy +
+                " LIMIT :limit OFFSET :offset"), params)
+                .map(ReactiveStudentRepository::student)
+                .all()
+                .collectList();
+        // Like PageableExecutionUtils: no count query when the page itself tells the total
+        return rows.flatMap(content -> {
+            if (!content.isEmpty() && content.size() < size) {
+                return Mono.just(new PageImpl<>(content, pageable, pageable.getOffset() + content.size()));
+            }
+            if (content.isEmpty() && pageable.getOffset() == 0) return Mono.just(new PageImpl<>(content, pageable, 0));
+            return count(where).map(total -> new PageImpl<>(content, pageable, total));
+        });
+    }
+
+    /**
+     * Every student matching the filter in {@code sort} order, read through a cursor as fast as it is consumed.
+     */
+    public Flux<Student> stream(StudentSort sort, StudentFilter filter) {
+        Where where = where(filter, null);
+        return bind(client.sql("SELECT " + COLUMNS + FROM + where.sql() + " ORDER BY " + orderBy(sort)), where.params())
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveStudentRepository::student)
+                .all()
+                .as(readOnlyTx::transactional);
+    }
+
+    public Mono<Map<Gender, Long>> countByGender() {
+        return client.sql("SELECT gender, COUNT(*) AS count FROM student GROUP BY gender")
+                .map(row -> Map.entry(Gender.valueOf(row.get("gender", String.class)), row.get("count", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Counts of {@code field}'s values, most frequent first, like the exact {@code StudentRepository} queries.
+     */
+    public Mono<List<DomainCount>> countBy(StudentStatsSketches.Field field) {
+        String sql = switch (field) {
+            case DOMAIN -> "SELECT " + DOMAIN + " AS name, COUNT(*) AS count FROM student " +
+                    "WHERE email IS NOT NULL AND POSITION('@' IN email) > 0 GROUP BY " + DOMAIN + " ORDER BY COUNT(*) DESC";
+            case NATIONALITY -> dictionaryCounts("nationality_id", "student_nationality");
+            case COLLEGE -> dictionaryCounts("college_id", "student_college");
+        };
+        return client.sql(sql)
+                .map(row -> new DomainCount(row.get("name", String.class), row.get("count", Long.class)))
+                .all()
+                .collectList();
+    }
+
+    // Summed per value: one being renumbered has rows under its old and its new key
+    private static String dictionaryCounts(String key, String table) {
+        return "SELECT d.name, CAST(SUM(c.count) AS BIGINT) AS count FROM " +
+                "(SELECT " + key + ", COUNT(*) AS count FROM student WHERE " + key + " IS NOT NULL GROUP BY " + key + ") c " +
+                "JOIN " + table + " d ON d.id = c." + key + " GROUP BY d.name ORDER BY count DESC";
+    }
+
+    private Mono<Long> count(Where where) {
+        return bind(client.sql("SELECT COUNT(*) AS count FROM student s" + where.sql()), where.params())
+                .map(row -> row.get("count", Long.class))
+                .one();
+    }
+
+    private static Where where(StudentFilter filter, String term) {
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (!filter.genders().isEmpty()) {
+            // Enum constants, so written as literals: H2 will not compare a bound string with its ENUM column
+            predicates.add("s.gender IN (" + filter.genders().stream().map(g -> "'" + g.name() + "'").collect(Collectors.joining(", ")) + ")");
+        }
+        dictionary(predicates, params, "nationality_id", "student_nationality", "nationalities", filter.nationalities());
+        dictionary(predicates, params, "college_id", "student_college", "colleges", filter.colleges());
+        dictionary(predicates, params, "major_id", "student_major", "majors", filter.majors());
+        dictionary(predicates, params, "minor_id", "student_minor", "minors", filter.minors());
+        if (filter.domain() != null) {
+            predicates.add("LOWER(s.email) LIKE :domain ESCAPE '\\'");
+            params.put("domain", "%@" + StudentSpecifications.escapeLike(filter.domain()));
+        }
+        if (term != null) {
+            predicates.add("(LOWER(s.name) LIKE :pattern ESCAPE '\\' OR LOWER(s.email) LIKE :pattern ESCAPE '\\')");
+            params.put("pattern", "%" + StudentSpecifications.escapeLike(term) + "%");
+        }
+        return new Where(predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates), params);
+    }
+
+    private static void dictionary(List<String> predicates, Map<String, Object> params, String key, String table,
+                                   String name, Collection<String> values) {
+        if (values.isEmpty()) return;
+        predicates.add("s." + key + " IN (SELECT id FROM " + table + " WHERE name IN (:" + name + "))");
+        params.put(name, List.copyOf(values));
+    }
+
+    private static String orderBy(StudentSort sort) {
+        List<String> keys = new ArrayList<>();
+        for (Sort.Order order : sort.orders()) {
+            keys.add(SORT_COLUMNS.get(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return String.join(", ", keys);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) spec = spec.bind(param.getKey(), param.getValue());
+        return spec;
+    }
+
+    static Student student(Readable row) {
+        Student s = new Student(row.get("name", String.class), row.get("email", String.class),
+                Gender.valueOf(row.get("gender", String.class)), row.get("nationality", String.class),
+                row.get("college", String.class), row.get("major", String.class), row.get("minor", String.class));
+        s.setId(row.get("id", Long.class));
+        s.setChangeVersion(row.get("change_version", Long.class));
+        s.setUpdatedAt(row.get("updated_at", Instant.class));
+        s.setCreatedAt(row.get("created_at", Instant.class));
+        return s;
+    }
+
+    private record Where(String sql, Map<String, Object> params) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.config.ReadWriteRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads: callers asking for the same operation with the same arguments
+ * while one such call is in flight wait for it and share its result instead of each querying the database.
+ * <p>
+ * The first caller (the leader) runs the read in its own read-only transaction, so waiting followers hold
+ * no connection. A follower that waits longer than {@code app.singleflight.timeout}, or the timeout given
+ * for the operation, runs the read itself.
+ * A failure of the leader is rethrown to its followers. Callers already inside a transaction are never
+ * coalesced (they may see their own uncommitted writes), and callers pinned to the primary only share
+ * with each other. Results are shared between threads, so they must not be modified.
+ * </p>
+ * <p>
+ * Calls are counted in {@code app.singleflight.calls} (tags {@code operation}, {@code outcome} =
+ * leader | coalesced | timeout | bypassed).
+ * </p>
+ */
+@Component
+public class SingleFlight {
+
+    private record Key(String operation, List<?> arguments, boolean pinned) {}
+
+    private final Map<Key, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final TransactionTemplate readOnlyTx;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final boolean enabled;
+
+    public SingleFlight(PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.singleflight.timeout:5s}") Duration timeout,
+                        @Value("${app.singleflight.enabled:true}") boolean enabled) {
+        this.readOnlyTx = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (this.readOnlyTx != null) this.readOnlyTx.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs {@code read} in a read-only transaction, or joins an identical call already in flight.
+     *
+     * @param arguments everything the result depends on; compared with {@code equals}
+     */
+    public <T> T execute(String operation, List<?> arguments, Supplier<T> read) {
+        return execute(operation, arguments, timeout, read);
+    }
+
+    /**
+     * Like {@link #execute(String, List, Supplier)}, for reads that take longer than
+     * {@code app.singleflight.timeout}: followers wait up to {@code timeout} for the leader.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, List<?> arguments, Duration timeout, Supplier<T> read) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            count(operation, "bypassed");
+            return readOnly(read);
+        }
+        Key key = new Key(operation, arguments, ReadWriteRoutingDataSource.isPinned());
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> flight = flights.putIfAbsent(key, mine);
+        if (flight == null) {
+            count(operation, "leader");
+            try {
+                T result = readOnly(read);
+                mine.complete(result);
+                return result;
+            } catch (RuntimeException | Error ex) {
+                mine.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                flights.remove(key, mine);
+            }
+        }
+        try {
+            T result = (T) flight.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            count(operation, "coalesced");
+            return result;
+        } catch (TimeoutException ex) {
+            count(operation, "timeout");
+            return readOnly(read);
+        } catch (ExecutionException ex) {
+            count(operation, "coalesced");
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            if (ex.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(String.format("Interrupted while waiting for %s", operation), ex);
+        }
+    }
+
+    /**
+     * Runs {@code read} in a read-only transaction without coalescing (joins the caller's transaction if any).
+     */
+    public <T> T readOnly(Supplier<T> read) {
+        return readOnlyTx == null ? read.get() : readOnlyTx.execute(status -> read.get());
+    }
+
+    int inFlight() {
+        return flights.size();
+    }
+
+    private void count(String operation, String outcome) {
+        Counter.builder("app.singleflight.calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
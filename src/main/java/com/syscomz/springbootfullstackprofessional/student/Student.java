@@ -32,6 +32,16 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.DictionaryConverter;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionaryListener;
+import com.syscomz.springbootfullstackprofessional.student.export.StudentTableVersionListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
 /**
  * Entity class representing a Student in the system.
  * This class is mapped to a database table using JPA annotations and follows
@@ -58,13 +68,36 @@ import jakarta.validation.constraints.NotNull;
  *   <li>Backend validation using Bean Validation annotations (@NotBlank, @Email, @NotNull)</li>
  *   <li>Database validation using JPA column constraints (nullable, unique)</li>
  * </ul>
+ *
+ * <p>Instances loaded by id are kept in the Hibernate second-level cache (region {@value #CACHE_REGION}).
+ * READ_WRITE keeps entries consistent with committed updates and deletes made through JPA; code that
+ * writes the table with plain SQL must evict the region itself.</p>
  */
 @Getter
 @Setter
 @AllArgsConstructor
 @Entity
-@Table(name = "student")
+// Filter and sort indexes as in V4__add_student_filter_indexes.sql and V5__add_student_sort_indexes.sql
+// (on the dictionary keys since V13__add_student_dictionary_key_indexes.sql), for schemas generated by Hibernate
+@Table(name = "student", indexes = {
+        @Index(name = "idx_student_gender_id", columnList = "gender, id"),
+        @Index(name = "idx_student_nationality_key_id", columnList = "nationality_id, id"),
+        @Index(name = "idx_student_college_key_major_key_id", columnList = "college_id, major_id, id"),
+        @Index(name = "idx_student_major_key_id", columnList = "major_id, id"),
+        @Index(name = "idx_student_minor_key_id", columnList = "minor_id, id"),
+        @Index(name = "idx_student_name_id", columnList = "name, id"),
+        @Index(name = "idx_student_college_key_id", columnList = "college_id, id"),
+        @Index(name = "idx_student_college_key_name_id", columnList = "college_id, name, id"),
+        @Index(name = "idx_student_nationality_key_name_id", columnList = "nationality_id, name, id"),
+        @Index(name = "idx_student_change_version", columnList = "change_version", unique = true)
+})
+@EntityListeners({StudentDictionaryListener.class, StudentTableVersionListener.class, StudentChangeHorizonListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Student.CACHE_REGION)
 public class Student {
+    // Second-level cache region holding students by id; sized by EntityCacheConfig
+    public static final String CACHE_REGION = "student";
+
     // Primary key generated by the database (PostgreSQL BIGSERIAL)
     // Aligns with Flyway V0__create_student_table.sql which uses BIGSERIAL
     @Id
@@ -136,20 +169,49 @@ public class Student {
     @Column(nullable = false)                // database validations
     private Gender gender;                   // camelCase naming convention
 
+    // Dictionary-encoded since V8-V13: the row holds a small integer key, the entity and its JSON the value.
+    // Keys are assigned in value order, so sorting by the column sorts by the value.
     @NotBlank
-    @Column(nullable = false)
+    @Convert(converter = DictionaryConverter.Nationality.class)
+    @Column(name = "nationality_id", nullable = false)
     private String nationality;
 
     @NotBlank
-    @Column(nullable = false)
+    @Convert(converter = DictionaryConverter.College.class)
+    @Column(name = "college_id", nullable = false)
     private String college;
 
-    @Column(nullable = true)
+    @Convert(converter = DictionaryConverter.Major.class)
+    @Column(name = "major_id", nullable = true)
     private String major;
 
-    @Column(nullable = true)
+    @Convert(converter = DictionaryConverter.Minor.class)
+    @Column(name = "minor_id", nullable = true)
     private String minor;
 
+    // Change tracking from V6__add_student_change_tracking.sql: every insert and update takes the next
+    // value of the shared change sequence, so GET /changes?since= finds rows written after a version.
+    // Assigned by the database in the same statement (on PostgreSQL by the V11 trigger, after the
+    // transaction has registered with StudentChangeHorizon); read-only in the API.
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}, sql = StudentTombstone.NEXT_CHANGE_VERSION)
+    @ColumnDefault(StudentTombstone.NEXT_CHANGE_VERSION)
+    @Column(name = "change_version", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long changeVersion;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE}, sql = "current_timestamp")
+    @ColumnDefault("current_timestamp")
+    @Column(name = "updated_at", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    // Registration time from V7__add_student_registration_rollups.sql; counted per day in student_daily_rollup
+    @Generated(event = EventType.INSERT, sql = "current_timestamp")
+    @ColumnDefault("current_timestamp")
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant createdAt;
+
     // Convenience constructor excluding id (used for create operations)
     public Student(String name, String email, Gender gender) {
         this.name = name;
@@ -190,6 +252,9 @@ public class Student {
     public void setMajor(String major) { this.major = major; }
     public String getMinor() { return minor; }
     public void setMinor(String minor) { this.minor = minor; }
+    public Long getChangeVersion() { return changeVersion; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public Instant getCreatedAt() { return createdAt; }
 
     // Custom equals & hashCode (id-based if both present; otherwise business fields)
     @Override
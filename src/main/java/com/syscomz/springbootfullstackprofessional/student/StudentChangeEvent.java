@@ -0,0 +1,36 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+/**
+ * Application event published by {@link StudentService} for every successful write.
+ * <p>
+ * In-process read models (prefix index, caches, ...) listen with
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they only see committed changes.
+ * {@code previous} is a detached copy of the row before an update or delete and {@code current} the row
+ * after a create or update; deletes published with {@link #deleted(Long)} only carry the id. RELOADED carries nothing: the table was rewritten in bulk
+ * outside JPA and listeners must rebuild from the database.
+ * </p>
+ */
+public record StudentChangeEvent(Type type, Long studentId, Student previous, Student current) {
+
+    public enum Type { CREATED, UPDATED, DELETED, RELOADED }
+
+    public static StudentChangeEvent created(Student current) {
+        return new StudentChangeEvent(Type.CREATED, current.getId(), null, current);
+    }
+
+    public static StudentChangeEvent updated(Student previous, Student current) {
+        return new StudentChangeEvent(Type.UPDATED, current.getId(), previous, current);
+    }
+
+    public static StudentChangeEvent deleted(Student previous) {
+        return new StudentChangeEvent(Type.DELETED, previous.getId(), previous, null);
+    }
+
+    public static StudentChangeEvent deleted(Long studentId) {
+        return new StudentChangeEvent(Type.DELETED, studentId, null, null);
+    }
+
+    public static StudentChangeEvent reloaded() {
+        return new StudentChangeEvent(Type.RELOADED, null, null, null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The newest change version the change feed can hand out without ever skipping an older one.
+ * <p>
+ * Change versions are taken when a row is written, not when its transaction commits: version 11 can be
+ * committed and visible while the transaction holding version 10 is still running. Every transaction that
+ * writes a student or a tombstone therefore first registers a floor, the last version handed out before
+ * its first write, so that all of its own versions lie above it. The settled version is the lowest floor
+ * still registered, or the last version handed out when there is none; versions up to it are committed
+ * or rolled back for good.
+ * </p>
+ * <p>
+ * On PostgreSQL the trigger from {@code V11__add_student_change_floor_locks.sql} registers the floor as a
+ * transaction-scoped shared advisory lock, which every session on the primary sees in {@code pg_locks}
+ * until the transaction ends. The locks and the sequence are read on the primary, so callers must not be
+ * routed to a replica. Elsewhere (H2 in tests) floors are registered in this JVM, by
+ * {@link StudentChangeHorizonListener} for JPA writes and {@link #beginWrite()} for JDBC writes, and
+ * shared by every application context in it, as an in-memory database is.
+ * </p>
+ */
+@Component
+public class StudentChangeHorizon {
+
+    // Advisory lock keys are FLOOR_LOCK_BASE + floor; pg_locks splits them into classid (high) and objid (low)
+    static final long FLOOR_LOCK_BASE = 1L << 62;
+    private static final Map<Object, Long> IN_PROCESS_FLOORS = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public StudentChangeHorizon(DataSource dataSource, DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.databasePlatform = databasePlatform;
+    }
+
+    /**
+     * Versions up to the returned one are settled. Read it before the rows it bounds.
+     */
+    public long settledVersion() {
+        // The sequence first: a writer that registers after the floors are read takes versions above it
+        long settled = lastVersion();
+        Long floor = databasePlatform.isPostgres()
+                ? jdbcTemplate.queryForObject("SELECT MIN(((l.classid::bigint << 32) | l.objid::bigint) - ?) FROM pg_locks l " +
+                        "WHERE l.locktype = 'advisory' AND l.objsubid = 1 AND l.classid::bigint >= ? " +
+                        "AND l.database = (SELECT oid FROM pg_database WHERE datname = current_database())",
+                        Long.class, FLOOR_LOCK_BASE, FLOOR_LOCK_BASE >>> 32)
+                : IN_PROCESS_FLOORS.values().stream().min(Long::compare).orElse(null);
+        return floor == null ? settled : Math.min(settled, floor);
+    }
+
+    /**
+     * Registers the current transaction's floor before its first student or tombstone write, once per
+     * transaction. A no-op on PostgreSQL, where the trigger does it, and outside transaction synchronization.
+     */
+    void registerTransaction() {
+        if (databasePlatform.isPostgres() || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) return;
+        Write write = beginWrite();
+        TransactionSynchronizationManager.bindResource(this, write);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StudentChangeHorizon.this);
+                write.close();
+            }
+        });
+    }
+
+    /**
+     * Registers a floor for writes that bypass JPA; close it once their transaction has committed or rolled back.
+     */
+    public Write beginWrite() {
+        if (databasePlatform.isPostgres()) return () -> { };
+        Object key = new Object();
+        IN_PROCESS_FLOORS.put(key, lastVersion());
+        return () -> IN_PROCESS_FLOORS.remove(key);
+    }
+
+    // Sequences are not transactional: this is the last version handed out by any session
+    private long lastVersion() {
+        Long last = databasePlatform.isPostgres()
+                ? jdbcTemplate.queryForObject("SELECT pg_sequence_last_value(?::regclass)", Long.class, StudentTombstone.CHANGE_VERSION_SEQUENCE)
+                : jdbcTemplate.queryForObject("SELECT BASE_VALUE - INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?)",
+                        Long.class, StudentTombstone.CHANGE_VERSION_SEQUENCE);
+        return last == null ? 0 : last;
+    }
+
+    /**
+     * A registered floor.
+     */
+    @FunctionalInterface
+    public interface Write extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
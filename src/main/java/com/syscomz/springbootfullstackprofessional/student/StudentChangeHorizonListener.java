@@ -0,0 +1,28 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener on {@code Student} and {@code StudentTombstone} that registers the writing
+ * transaction with {@link StudentChangeHorizon} before the row takes its change version. Hibernate
+ * creates the listener through Spring's bean container; the horizon is looked up lazily because slices
+ * such as {@code @DataJpaTest} do not define it.
+ */
+public class StudentChangeHorizonListener {
+
+    private final ObjectProvider<StudentChangeHorizon> changeHorizon;
+
+    public StudentChangeHorizonListener(ObjectProvider<StudentChangeHorizon> changeHorizon) {
+        this.changeHorizon = changeHorizon;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite(Object entity) {
+        StudentChangeHorizon horizon = changeHorizon.getIfAvailable();
+        if (horizon != null) horizon.registerTransaction();
+    }
+}
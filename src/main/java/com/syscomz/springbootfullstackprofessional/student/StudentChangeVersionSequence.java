@@ -0,0 +1,37 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import org.hibernate.boot.ResourceStreamLocator;
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.boot.spi.AdditionalMappingContributions;
+import org.hibernate.boot.spi.AdditionalMappingContributor;
+import org.hibernate.boot.spi.InFlightMetadataCollector;
+import org.hibernate.boot.spi.MetadataBuildingContext;
+
+/**
+ * Adds {@code student_change_version_seq} to the Hibernate mapping. The sequence has no id generator
+ * of its own, so without this Hibernate would not create it. Columns that default to
+ * {@code nextval(...)} need it in schemas generated by {@code ddl-auto} (tests); with Flyway, V6 has
+ * already created it. Registered in {@code META-INF/services}.
+ */
+public class StudentChangeVersionSequence implements AdditionalMappingContributor {
+
+    @Override
+    public String getContributorName() {
+        return "student-change-version";
+    }
+
+    @Override
+    public void contribute(AdditionalMappingContributions contributions,
+                           InFlightMetadataCollector metadata,
+                           ResourceStreamLocator resourceStreamLocator,
+                           MetadataBuildingContext buildingContext) {
+        Namespace namespace = metadata.getDatabase().getDefaultNamespace();
+        Identifier name = Identifier.toIdentifier(StudentTombstone.CHANGE_VERSION_SEQUENCE);
+        if (namespace.locateSequence(name) == null) {
+            namespace.createSequence(name, physicalName -> new Sequence(getContributorName(),
+                    namespace.getPhysicalName().getCatalog(), namespace.getPhysicalName().getSchema(), physicalName, 1, 1));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import java.util.List;
+
+/**
+ * One page of {@code GET /api/v1/students/changes?since=}: the students inserted or updated and the ids
+ * deleted after {@code since}, in change-version order. Pass {@code next} as the following
+ * {@code since}; while {@code hasMore} is true there is another page already waiting. A student
+ * changed several times appears once, in its current state and at its latest version. Pages end at the
+ * {@link StudentChangeHorizon settled version}, so changes still racing a running transaction wait for a later call.
+ *
+ * @param since    the version the page starts after
+ * @param next     the version of the last change in the page ({@code since} when the page is empty)
+ * @param hasMore  whether changes after {@code next} exist
+ * @param upserted inserted or updated students, each carrying its {@code changeVersion}
+ * @param deleted  ids of deleted students
+ */
+public record StudentChanges(long since, long next, boolean hasMore, List<Student> upserted, List<Long> deleted) {
+}
@@ -0,0 +1,157 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes student lists and pages as dictionary-encoded columns instead of an array of objects.
+ * <p>
+ * Opt-in through {@code Accept: application/vnd.students.columnar+json}. The response carries one array per
+ * column; the low-cardinality columns (gender, nationality, college, major, minor) are sent as a dictionary
+ * of distinct values plus one integer code per row, {@code -1} standing for null:
+ * </p>
+ * <pre>
+ * {"page":{"size":50,"number":0,"totalElements":1,"totalPages":1},
+ *  "rowCount":1,
+ *  "columns":{"id":[1],"name":["Alice"],"email":["alice@gmail.com"],
+ *             "gender":{"dictionary":["FEMALE"],"codes":[0]}, ...}}
+ * </pre>
+ * <p>
+ * {@code page} mirrors the metadata of the default {@code VIA_DTO} page JSON and is omitted for plain lists.
+ * The document is streamed straight to the response with a {@link JsonGenerator}; no intermediate tree is built.
+ * </p>
+ */
+@Component
+public class StudentColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.students.columnar+json";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final List<Map.Entry<String, Function<Student, String>>> DICTIONARY_COLUMNS = List.of(
+            Map.entry("gender", s -> s.getGender() == null ? null : s.getGender().name()),
+            Map.entry("nationality", Student::getNationality),
+            Map.entry("college", Student::getCollege),
+            Map.entry("major", Student::getMajor),
+            Map.entry("minor", Student::getMinor));
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public StudentColumnarHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Page.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType) || !supports(clazz)) return false;
+        // Only Page<Student> / List<Student>; other collections stay with the default JSON converter
+        ResolvableType element = ResolvableType.forType(type != null ? type : clazz).getGeneric(0);
+        return element.resolve() == null || Student.class.isAssignableFrom(element.resolve());
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        Page<?> page = value instanceof Page<?> p ? p : null;
+        Collection<?> rows = page != null ? page.getContent() : (Collection<?>) value;
+        List<Student> students = rows.stream().map(Student.class::cast).toList();
+        try (JsonGenerator json = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            if (page != null) {
+                json.writeObjectFieldStart("page");
+                json.writeNumberField("size", page.getSize());
+                json.writeNumberField("number", page.getNumber());
+                json.writeNumberField("totalElements", page.getTotalElements());
+                json.writeNumberField("totalPages", page.getTotalPages());
+                json.writeEndObject();
+            }
+            json.writeNumberField("rowCount", students.size());
+            json.writeObjectFieldStart("columns");
+
+            json.writeArrayFieldStart("id");
+            for (Student s : students) {
+                if (s.getId() == null) json.writeNull(); else json.writeNumber(s.getId());
+            }
+            json.writeEndArray();
+            writePlainColumn(json, "name", students, Student::getName);
+            writePlainColumn(json, "email", students, Student::getEmail);
+            for (Map.Entry<String, Function<Student, String>> column : DICTIONARY_COLUMNS) {
+                writeDictionaryColumn(json, column.getKey(), students, column.getValue());
+            }
+
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    private static void writePlainColumn(JsonGenerator json, String name, List<Student> students,
+                                         Function<Student, String> accessor) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (Student s : students) json.writeString(accessor.apply(s));
+        json.writeEndArray();
+    }
+
+    private static void writeDictionaryColumn(JsonGenerator json, String name, List<Student> students,
+                                              Function<Student, String> accessor) throws IOException {
+        Map<String, Integer> codesByValue = new HashMap<>();
+        int[] codes = new int[students.size()];
+        String[] dictionary = new String[students.size()];
+        for (int i = 0; i < codes.length; i++) {
+            String v = accessor.apply(students.get(i));
+            if (v == null) {
+                codes[i] = -1;
+                continue;
+            }
+            Integer code = codesByValue.putIfAbsent(v, codesByValue.size());
+            if (code == null) {
+                code = codesByValue.size() - 1;
+                dictionary[code] = v;
+            }
+            codes[i] = code;
+        }
+        json.writeObjectFieldStart(name);
+        json.writeArrayFieldStart("dictionary");
+        for (int i = 0; i < codesByValue.size(); i++) json.writeString(dictionary[i]);
+        json.writeEndArray();
+        json.writeFieldName("codes");
+        json.writeArray(codes, 0, codes.length);
+        json.writeEndObject();
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar student format is write-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar student format is write-only", inputMessage);
+    }
+}
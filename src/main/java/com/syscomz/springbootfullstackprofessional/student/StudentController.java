@@ -25,7 +25,19 @@ package com.syscomz.springbootfullstackprofessional.student;
  * and response size.
  */
 import org.springframework.web.bind.annotation.*;
+import com.syscomz.springbootfullstackprofessional.observability.StudentExportEvent;
+import com.syscomz.springbootfullstackprofessional.student.export.CachedExport;
+import com.syscomz.springbootfullstackprofessional.student.export.ExportFileCache;
+import com.syscomz.springbootfullstackprofessional.student.export.ExportFileResponder;
+import com.syscomz.springbootfullstackprofessional.student.export.ExportParams;
+import com.syscomz.springbootfullstackprofessional.student.export.StudentCsvWriter;
+import com.syscomz.springbootfullstackprofessional.student.stats.FieldStats;
+import com.syscomz.springbootfullstackprofessional.student.stats.RegistrationRollups;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import java.util.Map;
@@ -33,6 +45,7 @@ import java.util.Map;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 /*
  * The StudentController class is annotated with @RestController, marking it as a Spring MVC
  * controller where every method’s return value is automatically serialized to the HTTP response body.
@@ -63,19 +76,32 @@ import org.springframework.http.ResponseEntity;
  */
 public class StudentController {
     private final StudentService studentService;
-    public StudentController(StudentService studentService) {
+    private final ExportFileCache exportFileCache;
+    private final StudentEventStream studentEventStream;
+    private final RegistrationRollups registrationRollups;
+    public StudentController(StudentService studentService, ExportFileCache exportFileCache, StudentEventStream studentEventStream,
+                             RegistrationRollups registrationRollups) {
         this.studentService = studentService;
+        this.exportFileCache = exportFileCache;
+        this.studentEventStream = studentEventStream;
+        this.registrationRollups = registrationRollups;
     }
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, StudentColumnarHttpMessageConverter.MEDIA_TYPE_VALUE})
     public List<Student> getAllStudents() {
         return studentService.getAllStudents();
     }
-    @GetMapping("/page")
+    @GetMapping(value = "/page", produces = {MediaType.APPLICATION_JSON_VALUE, StudentColumnarHttpMessageConverter.MEDIA_TYPE_VALUE})
     public Page<Student> getStudentsPaged(@RequestParam(defaultValue = "0") int page,
                                           @RequestParam(defaultValue = "50") int size,
                                           @RequestParam(defaultValue = "id") String sortBy,
-                                          @RequestParam(defaultValue = "asc") String direction) {
-        return studentService.getStudentsPage(page, size, sortBy, direction);
+                                          @RequestParam(defaultValue = "asc") String direction,
+                                          @RequestParam(required = false) List<String> sort) {
+        return studentService.getStudentsPage(page, size, StudentSort.parse(sort, sortBy, direction));
+    }
+    // Digits only, so non-numeric paths fall through to 404 instead of a conversion error
+    @GetMapping(path = "{studentId:\\d+}")
+    public Student getStudent(@PathVariable("studentId") Long studentId) {
+        return studentService.getStudent(studentId);
     }
     @PostMapping
     public void addStudent(@Valid @RequestBody Student student) {
@@ -91,81 +117,120 @@ public class StudentController {
             @Valid @RequestBody Student student) {
         studentService.updateStudent(studentId, student);
     }
+    // Committed creates, updates and deletes, from this node and others, as Server-Sent Events (see StudentEventStream)
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStudentEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return studentEventStream.subscribe(lastEventId);
+    }
+    // Delta sync: pass the returned "next" as the following since (0 for a full first sync)
+    @GetMapping("/changes")
+    public StudentChanges getChanges(@RequestParam(defaultValue = "0") long since,
+                                     @RequestParam(defaultValue = "500") int limit) {
+        return studentService.getChangesSince(since, limit);
+    }
+    @GetMapping("/suggest")
+    public List<StudentSuggestion> suggestStudents(@RequestParam String prefix,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        return studentService.suggestStudents(prefix, limit);
+    }
+    @GetMapping("/values/{field}")
+    public List<DomainCount> getFieldValues(@PathVariable("field") String field,
+                                            @RequestParam(required = false) String prefix,
+                                            @RequestParam(defaultValue = "100") int limit) {
+        return studentService.getFieldValues(field, prefix, limit);
+    }
     @GetMapping("/stats/gender")
     public Map<String, Long> getGenderStats() {
         return studentService.getGenderStats();
     }
+    // top=N limits the answer to the N most frequent values; mode=approx answers from in-memory sketches
+    // (see StudentStatsSketches for the error bounds, reported in the X-Count-Error-Bound header)
     @GetMapping("/stats/domains")
-    public java.util.List<DomainCount> getDomainStats() {
-        return studentService.getDomainStats();
+    public ResponseEntity<List<DomainCount>> getDomainStats(@RequestParam(required = false) Integer top,
+                                                            @RequestParam(defaultValue = "exact") String mode) {
+        return stats(studentService.getStats(StudentStatsSketches.Field.DOMAIN, top, StudentStatsSketches.Mode.parse(mode)));
     }
     @GetMapping("/stats/nationalities")
-    public java.util.List<DomainCount> getNationalityStats() {
-        return studentService.getNationalityStats();
+    public ResponseEntity<List<DomainCount>> getNationalityStats(@RequestParam(required = false) Integer top,
+                                                                 @RequestParam(defaultValue = "exact") String mode) {
+        return stats(studentService.getStats(StudentStatsSketches.Field.NATIONALITY, top, StudentStatsSketches.Mode.parse(mode)));
     }
     @GetMapping("/stats/colleges")
-    public java.util.List<DomainCount> getCollegeStats() {
-        return studentService.getCollegeStats();
+    public ResponseEntity<List<DomainCount>> getCollegeStats(@RequestParam(required = false) Integer top,
+                                                             @RequestParam(defaultValue = "exact") String mode) {
+        return stats(studentService.getStats(StudentStatsSketches.Field.COLLEGE, top, StudentStatsSketches.Mode.parse(mode)));
+    }
+    // Registrations per day, week or month, read from the daily rollups (see RegistrationRollups)
+    @GetMapping("/stats/timeline")
+    public List<RegistrationRollups.Point> getRegistrationTimeline(@RequestParam(required = false) String from,
+                                                                   @RequestParam(required = false) String to,
+                                                                   @RequestParam(defaultValue = "day") String bucket,
+                                                                   @RequestParam(required = false) List<String> dims) {
+        return registrationRollups.timeline(from, to, bucket, dims);
     }
-    @GetMapping("/search")
+    private static ResponseEntity<List<DomainCount>> stats(FieldStats stats) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("X-Stats-Mode", stats.approximate() ? "approx" : "exact")
+                .header("X-Distinct-Count", Long.toString(stats.distinct()));
+        if (stats.approximate()) {
+            response.header("X-Count-Error-Bound", Long.toString(stats.countErrorBound()))
+                    .header("X-Distinct-Relative-Error", String.format(java.util.Locale.ROOT, "%.4f", stats.distinctRelativeError()));
+        }
+        return response.body(stats.counts());
+    }
+    // Filters: gender, nationality, college, major and minor accept repeated or comma-separated values (IN lists).
+    // Sorting: sort=college,asc&sort=name,desc (see StudentSort for the accepted keys), or the single sortBy/direction pair
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, StudentColumnarHttpMessageConverter.MEDIA_TYPE_VALUE})
     public Page<Student> searchStudents(@RequestParam(defaultValue = "0") int page,
                                         @RequestParam(defaultValue = "50") int size,
                                         @RequestParam(defaultValue = "id") String sortBy,
                                         @RequestParam(defaultValue = "asc") String direction,
-                                        @RequestParam(required = false) String gender,
-                                        @RequestParam(required = false) String domain) {
-        Gender parsedGender = null;
-        if (gender != null && !gender.trim().isEmpty()) {
-            try {
-                parsedGender = Gender.valueOf(gender.trim().toUpperCase());
-            } catch (IllegalArgumentException ex) {
-                parsedGender = null; // treat unknown values as no filter
-            }
-        }
-        return studentService.searchStudents(page, size, sortBy, direction, parsedGender, domain);
+                                        @RequestParam(required = false) List<String> sort,
+                                        @RequestParam(required = false) List<String> gender,
+                                        @RequestParam(required = false) String domain,
+                                        @RequestParam(required = false) List<String> nationality,
+                                        @RequestParam(required = false) List<String> college,
+                                        @RequestParam(required = false) List<String> major,
+                                        @RequestParam(required = false) List<String> minor,
+                                        @RequestParam(required = false) String q) {
+        StudentFilter filter = StudentFilter.of(gender, domain, nationality, college, major, minor);
+        return studentService.searchStudents(page, size, StudentSort.parse(sort, sortBy, direction), filter, q);
     }
     @GetMapping(value = "/export", produces = "text/csv")
-    public ResponseEntity<String> exportStudentsCsv(@RequestParam(defaultValue = "id") String sortBy,
-                                                    @RequestParam(defaultValue = "asc") String direction,
-                                                    @RequestParam(required = false) String gender,
-                                                    @RequestParam(required = false) String domain) {
-        Gender parsedGender = null;
-        if (gender != null && !gender.trim().isEmpty()) {
-            try {
-                parsedGender = Gender.valueOf(gender.trim().toUpperCase());
-            } catch (IllegalArgumentException ex) {
-                parsedGender = null;
-            }
-        }
-        List<Student> all = studentService.searchStudentsAll(sortBy, direction, parsedGender, domain);
-                StringBuilder sb = new StringBuilder();
-                // header
-                sb.append("id,name,email,gender,nationality,college,major,minor\n");
-                for (Student s : all) {
-                        sb.append(csv(s.getId()))
-                            .append(',').append(csv(s.getName()))
-                            .append(',').append(csv(s.getEmail()))
-                            .append(',').append(csv(s.getGender() != null ? s.getGender().name() : ""))
-                            .append(',').append(csv(s.getNationality()))
-                            .append(',').append(csv(s.getCollege()))
-                            .append(',').append(csv(s.getMajor()))
-                            .append(',').append(csv(s.getMinor()))
-                            .append('\n');
-                }
+    public void exportStudentsCsv(@RequestParam(defaultValue = "id") String sortBy,
+                                  @RequestParam(defaultValue = "asc") String direction,
+                                  @RequestParam(required = false) List<String> sort,
+                                  @RequestParam(required = false) List<String> gender,
+                                  @RequestParam(required = false) String domain,
+                                  @RequestParam(required = false) List<String> nationality,
+                                  @RequestParam(required = false) List<String> college,
+                                  @RequestParam(required = false) List<String> major,
+                                  @RequestParam(required = false) List<String> minor,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        ExportParams params = ExportParams.of(StudentSort.parse(sort, sortBy, direction),
+                StudentFilter.of(gender, domain, nationality, college, major, minor));
+        boolean gzip = exportFileCache.shouldCompress(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        StudentExportEvent exportEvent = new StudentExportEvent();
+        exportEvent.begin();
+        CachedExport export = exportFileCache.getOrRender(params.cacheKey(), gzip, out -> {
+            List<Student> all = studentService.searchStudentsAll(params.sort(), params.filter());
+            StudentCsvWriter.writeHeader(out);
+            for (Student s : all) StudentCsvWriter.writeRow(out, s);
+            return all.size();
+        });
         String filename = "students-export-" + java.time.LocalDate.now() + ".csv";
-        return ResponseEntity
-                .ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(sb.toString());
-    }
-    private static String csv(Object value) {
-        if (value == null) return "";
-        String s = String.valueOf(value);
-        if (s.contains("\"") || s.contains(",") || s.contains("\n") || s.contains("\r")) {
-            s = '"' + s.replace("\"", "\"\"") + '"';
+        ExportFileResponder.serve(export, "text/csv", filename, request, response);
+        exportEvent.end();
+        if (exportEvent.shouldCommit()) {
+            exportEvent.setFormat(gzip ? "csv+gzip" : "csv");
+            exportEvent.setFilter(params.toString());
+            exportEvent.setRows(export.rows());
+            exportEvent.setBytes(export.length());
+            exportEvent.setCacheHit(export.cacheHit());
+            exportEvent.commit();
         }
-        return s;
     }
 
 }
@@ -0,0 +1,122 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of realistic-looking students.
+ * <p>
+ * Row {@code i} depends only on the seed and {@code i}, so any subset of rows can be produced in any
+ * order, on any number of threads, and always comes out the same. Names, nationalities, colleges and
+ * subjects are drawn from skewed (roughly Zipfian) distributions rather than uniformly, so value caches,
+ * stats and indexes see a production-like mix of hot and rare values. Emails embed the row index and
+ * are therefore unique within a generated dataset.
+ * </p>
+ */
+public final class StudentDataGenerator {
+
+    private static final Weighted FIRST_NAMES = Weighted.zipf("James", "Mary", "Maria", "Mohammed", "Wei", "Olivia",
+            "Liam", "Emma", "Noah", "Ava", "Sofia", "Lucas", "Aisha", "Hiroshi", "Priya", "Carlos", "Anna", "Ivan",
+            "Fatima", "Jin", "Chloe", "Mateo", "Amara", "Lars", "Ines", "Kwame", "Yuki", "Elena", "Omar", "Nina",
+            "Diego", "Sara", "Arjun", "Leila", "Tomas", "Mei", "Jonas", "Zara", "Felix", "Nadia");
+    private static final Weighted LAST_NAMES = Weighted.zipf("Smith", "Wang", "Garcia", "Kumar", "Johnson", "Li",
+            "Silva", "Kim", "Müller", "Brown", "Nguyen", "Martin", "Rossi", "Hernandez", "Tanaka", "Okafor", "Ivanov",
+            "Dubois", "Singh", "Lopez", "Chen", "Williams", "Jones", "Novak", "Hansen", "Costa", "Ali", "Khan",
+            "Schmidt", "Moreau", "Sato", "Petrov", "Mensah", "Andersson", "Fernandez", "Park", "Cohen", "Yilmaz",
+            "O'Brien", "Zhang");
+    private static final Weighted NATIONALITIES = Weighted.of(
+            "USA", 35, "India", 12, "China", 10, "Canada", 6, "UK", 6, "Brazil", 5, "Germany", 5, "Nigeria", 4,
+            "Mexico", 4, "France", 3, "Japan", 3, "Australia", 3, "South Korea", 2, "Spain", 2);
+    private static final Weighted COLLEGES = Weighted.zipf("Engineering", "Business", "Science", "Arts",
+            "Medicine", "Liberal Arts", "Mathematics", "Law", "Education", "General Studies");
+    private static final Weighted MAJORS = Weighted.zipf("Computer Science", "Business Administration", "Biology",
+            "Economics", "Psychology", "Mechanical Engineering", "Nursing", "Mathematics", "Political Science",
+            "Physics", "Chemistry", "History", "English", "Philosophy", "Music");
+    private static final Weighted MINORS = Weighted.zipf("Statistics", "Spanish", "Psychology", "Music",
+            "Data Science", "French", "Art", "Sociology", "German", "Philosophy");
+    private static final Weighted DOMAINS = Weighted.of(
+            "gmail.com", 38, "edu.example", 14, "yahoo.com", 12, "hotmail.com", 10, "outlook.com", 10,
+            "example.org", 10, "icloud.com", 6);
+    private static final Gender[] GENDERS = {Gender.MALE, Gender.FEMALE, Gender.OTHER};
+    private static final int[] GENDER_WEIGHTS = {48, 49, 3};
+    private static final int MAJOR_DECLARED_PERCENT = 90;
+    private static final int MINOR_DECLARED_PERCENT = 35;
+
+    private final long seed;
+
+    public StudentDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * The student at position {@code index} of this seed's dataset (not persisted, no id).
+     */
+    public Student row(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed, index));
+        String first = FIRST_NAMES.pick(random);
+        String last = LAST_NAMES.pick(random);
+        String domain = DOMAINS.pick(random);
+        String local = (first + "." + last).toLowerCase(Locale.ROOT).replaceAll("[^a-z.]", "");
+        Gender gender = GENDERS[pick(random, GENDER_WEIGHTS)];
+        String nationality = NATIONALITIES.pick(random);
+        String college = COLLEGES.pick(random);
+        String major = random.nextInt(100) < MAJOR_DECLARED_PERCENT ? MAJORS.pick(random) : null;
+        String minor = random.nextInt(100) < MINOR_DECLARED_PERCENT ? MINORS.pick(random) : null;
+        return new Student(first + " " + last, local + "." + index + "@" + domain, gender, nationality, college, major, minor);
+    }
+
+    // SplitMix64 finalizer over seed and index: neighbouring indexes get unrelated streams
+    private static long mix(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int pick(SplittableRandom random, int[] weights) {
+        int total = Arrays.stream(weights).sum();
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Values with integer weights, sampled by binary search over the cumulative weights.
+     */
+    private record Weighted(String[] values, int[] cumulative) {
+
+        static Weighted of(Object... valuesAndWeights) {
+            int n = valuesAndWeights.length / 2;
+            String[] values = new String[n];
+            int[] cumulative = new int[n];
+            int total = 0;
+            for (int i = 0; i < n; i++) {
+                values[i] = (String) valuesAndWeights[2 * i];
+                total += (Integer) valuesAndWeights[2 * i + 1];
+                cumulative[i] = total;
+            }
+            return new Weighted(values, cumulative);
+        }
+
+        // Weight of the k-th value proportional to 1 / k
+        static Weighted zipf(String... values) {
+            int[] cumulative = new int[values.length];
+            int total = 0;
+            for (int i = 0; i < values.length; i++) {
+                total += Math.max(1, 10_000 / (i + 1));
+                cumulative[i] = total;
+            }
+            return new Weighted(values, cumulative);
+        }
+
+        String pick(SplittableRandom random) {
+            int r = random.nextInt(cumulative[cumulative.length - 1]);
+            int i = Arrays.binarySearch(cumulative, r + 1);
+            return values[i >= 0 ? i : -i - 1];
+        }
+    }
+}
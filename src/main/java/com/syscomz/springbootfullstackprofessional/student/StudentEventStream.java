@@ -0,0 +1,377 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events stream of student changes behind {@code GET /api/v1/students/events}.
+ * <p>
+ * Changes reach subscribers after the writing transaction commits. Each change is an event named
+ * {@code created}, {@code updated} or {@code deleted} whose data is a {@link Change}. Writes committed
+ * on other nodes arrive through {@link StudentRemoteChangeEvent} as {@code updated} (which may be a
+ * student the client has not seen yet) or {@code deleted}, and may repeat a change already sent. The SSE
+ * id is {@code <boot id>.<sequence>}: the sequence counts changes in this process, and the boot id,
+ * random per start, tells a reconnect to another node or to a restarted one apart. A {@code resync}
+ * event means changes were skipped and the client must re-fetch what it shows. That happens after a
+ * bulk reload, after a buffer overflow, and when a client reconnects with a {@code Last-Event-ID} older
+ * than the latest change or issued by another process.
+ * </p>
+ * <p>
+ * An idle subscriber holds no thread, only its async request. Each subscriber has a buffer of at most
+ * {@code app.events.buffer-size} students that coalesces per student: a student changed several times
+ * before the subscriber is written to is sent once, in its latest state. A small pool of
+ * {@code app.events.dispatch-threads} threads writes to subscribers, with at most one write in flight per
+ * subscriber. When its buffer overflows, its pending changes are replaced by a single {@code resync}.
+ * </p>
+ * <p>
+ * Writes block while the client's socket buffer is full, holding a pool thread. A subscriber whose write
+ * has been in flight longer than {@code app.events.write-timeout} is dropped: it gets nothing more, its
+ * connection is closed once the write returns, and the pool runs one thread more until then. So a client
+ * that stops reading delays the others by at most the write timeout (checked every second), however
+ * many stall at once; the blocked write itself ends when the connector gives up on the socket.
+ * </p>
+ * <p>
+ * A comment line is sent on connect and every {@code app.events.heartbeat-interval}. It keeps proxies
+ * from closing idle connections, and a failed write removes a dead subscriber. Connections end after
+ * {@code app.events.timeout}; {@code EventSource} reconnects on its own. Beyond
+ * {@code app.events.max-subscribers}, new subscriptions get a 429.
+ * </p>
+ */
+@Component
+public class StudentEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentEventStream.class);
+    private static final String RESYNC = "resync";
+
+    /**
+     * Event data: the change type, the student id and, except for deletes, the student as committed.
+     */
+    public record Change(StudentChangeEvent.Type type, Long studentId, Student student) {}
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final String bootId;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Executor dispatcher;
+    private final ExecutorService ownedDispatcher;
+    // Grown by one for every write that stalls, until it returns
+    private final ThreadPoolExecutor dispatchPool;
+    private final MeterRegistry meterRegistry;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final Duration writeTimeout;
+    private final long epoch = System.nanoTime();
+
+    @Autowired
+    public StudentEventStream(MeterRegistry meterRegistry,
+                              @Value("${app.events.dispatch-threads:4}") int dispatchThreads,
+                              @Value("${app.events.buffer-size:256}") int bufferSize,
+                              @Value("${app.events.timeout:30m}") Duration timeout,
+                              @Value("${app.events.max-subscribers:10000}") int maxSubscribers,
+                              @Value("${app.events.write-timeout:10s}") Duration writeTimeout) {
+        this(meterRegistry, UUID.randomUUID().toString(), newDispatcher(dispatchThreads), bufferSize, timeout, maxSubscribers, writeTimeout);
+    }
+
+    StudentEventStream(MeterRegistry meterRegistry, String bootId, Executor dispatcher, int bufferSize, Duration timeout,
+                       int maxSubscribers, Duration writeTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.bootId = bootId;
+        this.dispatcher = dispatcher;
+        this.ownedDispatcher = dispatcher instanceof ExecutorService service ? service : null;
+        this.dispatchPool = dispatcher instanceof ThreadPoolExecutor pool ? pool : null;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.writeTimeout = writeTimeout;
+        Gauge.builder("app.events.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    static ExecutorService newDispatcher(int threads) {
+        AtomicInteger threadIds = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "student-events-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens a subscription.
+     *
+     * @param lastEventId the {@code Last-Event-ID} of a reconnecting client, or {@code null}
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers)
+            throw new TooManyRequestsException("Too many event stream subscribers, try again later", 30);
+        Subscriber subscriber = new Subscriber(newEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(ex -> subscribers.remove(subscriber));
+        synchronized (subscriber) {
+            subscriber.heartbeat = true;
+            subscriber.resync = missedChanges(lastEventId);
+        }
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    // Overridden in tests to capture what is sent
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // Sequences only compare within one process: an id from another node or an earlier start always resyncs
+    private boolean missedChanges(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return false;
+        String id = lastEventId.trim();
+        int dot = id.lastIndexOf('.');
+        if (dot < 0 || !id.substring(0, dot).equals(bootId)) return true;
+        try {
+            return Long.parseLong(id.substring(dot + 1)) < sequence.get();
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return bootId + "." + sequence;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        long id = sequence.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event, id);
+            schedule(subscriber);
+        }
+    }
+
+    // Published by StudentCoherence outside any transaction, with the rows as committed
+    @EventListener
+    public void onRemoteChange(StudentRemoteChangeEvent event) {
+        if (event.flush()) {
+            onStudentChange(StudentChangeEvent.reloaded());
+            return;
+        }
+        // In id order: the event's id set has none of its own
+        for (Long studentId : event.ids().stream().sorted().toList()) {
+            Student current = event.current().get(studentId);
+            onStudentChange(current == null ? StudentChangeEvent.deleted(studentId) : StudentChangeEvent.updated(null, current));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval:15s}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                subscriber.heartbeat = true;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    // Drops subscribers whose write has not returned within the write timeout and frees up a thread for the rest
+    @Scheduled(fixedDelay = 1000)
+    public void dropStalled() {
+        long now = clock();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince.get();
+            // On the exact start: a write that has returned meanwhile, or the next one, is left alone
+            if (since > 0 && now - since > writeTimeout.toNanos()
+                    && subscriber.sendingSince.compareAndSet(since, Subscriber.STALLED)) {
+                subscribers.remove(subscriber);
+                resizePool(1);
+                Counter.builder("app.events.stalled").register(meterRegistry).increment();
+                log.debug("Dropped an event stream subscriber whose write has not returned for {}", writeTimeout);
+            }
+        }
+    }
+
+    private void resizePool(int delta) {
+        if (dispatchPool == null) return;
+        synchronized (dispatchPool) {
+            // The maximum may never drop below the core size
+            if (delta > 0) dispatchPool.setMaximumPoolSize(dispatchPool.getMaximumPoolSize() + delta);
+            dispatchPool.setCorePoolSize(dispatchPool.getCorePoolSize() + delta);
+            if (delta < 0) dispatchPool.setMaximumPoolSize(dispatchPool.getMaximumPoolSize() + delta);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Subscriber subscriber : subscribers) subscriber.emitter.complete();
+        subscribers.clear();
+        if (ownedDispatcher != null) ownedDispatcher.shutdownNow();
+    }
+
+    // At most one drain per subscriber is queued or running
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RuntimeException ex) {
+                subscriber.draining.set(false);
+                log.debug("Event dispatch rejected", ex);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscribers.contains(subscriber)) {
+                List<SseEmitter.SseEventBuilder> batch = subscriber.take();
+                if (batch.isEmpty()) break;
+                for (SseEmitter.SseEventBuilder event : batch) {
+                    if (!send(subscriber, event)) return; // dropped while it was stalled
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away (or the emitter already completed): forget it
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(ex);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscribers.contains(subscriber) && subscriber.hasWork()) schedule(subscriber);
+    }
+
+    // False when the write stalled and the subscriber was dropped meanwhile
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendingSince.set(clock());
+        boolean sent = false;
+        try {
+            subscriber.emitter.send(event);
+            sent = true;
+        } finally {
+            if (subscriber.sendingSince.getAndSet(Subscriber.IDLE) == Subscriber.STALLED) {
+                resizePool(-1);
+                if (sent) subscriber.emitter.complete();
+                sent = false;
+            }
+        }
+        return sent;
+    }
+
+    // Nanoseconds since this stream was created, always positive
+    private long clock() {
+        return Math.max(1, System.nanoTime() - epoch);
+    }
+
+    private void count(String event) {
+        Counter.builder("app.events.sent").tag("event", event).register(meterRegistry).increment();
+    }
+
+    private final class Subscriber {
+        static final long IDLE = 0;
+        static final long STALLED = -1;
+
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // When the write in flight started (see clock()), IDLE, or STALLED: dropped while writing
+        final AtomicLong sendingSince = new AtomicLong(IDLE);
+        // Latest pending change per student, in order of last change; guarded by this
+        final Map<Long, Pending> pending = new LinkedHashMap<>();
+        boolean resync;
+        boolean heartbeat;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(StudentChangeEvent event, long id) {
+            if (resync) return; // everything is re-fetched anyway
+            if (event.type() == StudentChangeEvent.Type.RELOADED) {
+                overflow();
+                return;
+            }
+            Pending merged = Pending.merge(pending.remove(event.studentId()), event, id);
+            if (pending.size() >= bufferSize) {
+                overflow();
+                return;
+            }
+            pending.put(event.studentId(), merged);
+        }
+
+        private void overflow() {
+            pending.clear();
+            resync = true;
+            Counter.builder("app.events.resyncs").register(meterRegistry).increment();
+        }
+
+        synchronized boolean hasWork() {
+            return resync || heartbeat || !pending.isEmpty();
+        }
+
+        synchronized List<SseEmitter.SseEventBuilder> take() {
+            List<SseEmitter.SseEventBuilder> batch = new ArrayList<>();
+            if (heartbeat) {
+                batch.add(SseEmitter.event().comment("heartbeat"));
+                heartbeat = false;
+            }
+            if (resync) {
+                batch.add(SseEmitter.event().id(eventId(sequence.get())).name(RESYNC).data("{}", MediaType.APPLICATION_JSON));
+                count(RESYNC);
+                resync = false;
+            }
+            for (Pending p : pending.values()) {
+                String name = p.type.name().toLowerCase(Locale.ROOT);
+                batch.add(SseEmitter.event().id(eventId(p.id)).name(name)
+                        .data(new Change(p.type, p.studentId, p.student), MediaType.APPLICATION_JSON));
+                count(name);
+            }
+            pending.clear();
+            return batch;
+        }
+    }
+
+    private record Pending(StudentChangeEvent.Type type, Long studentId, Student student, long id) {
+
+        // Folds a newer change of the same student into the one still waiting to be sent
+        static Pending merge(Pending older, StudentChangeEvent newer, long id) {
+            StudentChangeEvent.Type type = newer.type();
+            if (older != null && older.type == StudentChangeEvent.Type.CREATED && type == StudentChangeEvent.Type.UPDATED) {
+                type = StudentChangeEvent.Type.CREATED; // the subscriber never saw the student: still new to it
+            }
+            return new Pending(type, newer.studentId(), newer.current(), id);
+        }
+    }
+}
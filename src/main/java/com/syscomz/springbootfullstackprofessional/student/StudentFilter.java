@@ -0,0 +1,107 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Normalized student filter shared by search, export and export jobs. Each field is either empty
+ * (no restriction) or the set of accepted values; one value becomes {@code =}, several an {@code IN} list.
+ * <p>
+ * Values are trimmed and blanks dropped; genders are parsed case-insensitively and unknown genders are
+ * ignored, like the original {@code gender} parameter. Sets are sorted, so two requests naming the same
+ * values in a different order produce equal filters (and equal coalescing and cache keys).
+ * </p>
+ *
+ * @param genders       accepted genders
+ * @param domain        lower-cased email domain, or {@code null} for all
+ * @param nationalities accepted nationalities (exact match)
+ * @param colleges      accepted colleges (exact match)
+ * @param majors        accepted majors (exact match)
+ * @param minors        accepted minors (exact match)
+ */
+public record StudentFilter(Set<Gender> genders,
+                            String domain,
+                            SortedSet<String> nationalities,
+                            SortedSet<String> colleges,
+                            SortedSet<String> majors,
+                            SortedSet<String> minors) {
+
+    static final int MAX_VALUES = 100;
+
+    public static final StudentFilter NONE = of(null, null, null, null, null, null);
+
+    public StudentFilter {
+        genders = Collections.unmodifiableSet(genders.isEmpty() ? EnumSet.noneOf(Gender.class) : EnumSet.copyOf(genders));
+        nationalities = Collections.unmodifiableSortedSet(new TreeSet<>(nationalities));
+        colleges = Collections.unmodifiableSortedSet(new TreeSet<>(colleges));
+        majors = Collections.unmodifiableSortedSet(new TreeSet<>(majors));
+        minors = Collections.unmodifiableSortedSet(new TreeSet<>(minors));
+    }
+
+    /**
+     * Filter from raw request parameters; any argument may be {@code null}.
+     */
+    public static StudentFilter of(Collection<String> genders,
+                                   String domain,
+                                   Collection<String> nationalities,
+                                   Collection<String> colleges,
+                                   Collection<String> majors,
+                                   Collection<String> minors) {
+        Set<Gender> parsedGenders = EnumSet.noneOf(Gender.class);
+        if (genders != null) {
+            for (String gender : genders) {
+                if (gender == null || gender.isBlank()) continue;
+                try {
+                    parsedGenders.add(Gender.valueOf(gender.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException ex) {
+                    // unknown values are no filter, as they always were for /search and /export
+                }
+            }
+        }
+        String domainFilter = (domain == null || domain.isBlank()) ? null : domain.trim().toLowerCase(Locale.ROOT);
+        return new StudentFilter(parsedGenders, domainFilter, values("nationality", nationalities),
+                values("college", colleges), values("major", majors), values("minor", minors));
+    }
+
+    /**
+     * The original two-parameter filter.
+     */
+    public static StudentFilter of(Gender gender, String domain) {
+        return of(gender == null ? null : Set.of(gender.name()), domain, null, null, null, null);
+    }
+
+    public boolean isEmpty() {
+        return genders.isEmpty() && domain == null && nationalities.isEmpty() && colleges.isEmpty()
+                && majors.isEmpty() && minors.isEmpty();
+    }
+
+    private static SortedSet<String> values(String field, Collection<String> raw) {
+        SortedSet<String> values = new TreeSet<>();
+        if (raw != null) {
+            for (String value : raw) {
+                if (value != null && !value.isBlank()) values.add(value.trim());
+            }
+        }
+        if (values.size() > MAX_VALUES)
+            throw new BadRequestException(String.format("At most %d %s values may be given", MAX_VALUES, field));
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("gender=").append(genders.isEmpty() ? null : genders)
+                .append(",domain=").append(domain);
+        if (!nationalities.isEmpty()) s.append(",nationality=").append(nationalities);
+        if (!colleges.isEmpty()) s.append(",college=").append(colleges);
+        if (!majors.isEmpty()) s.append(",major=").append(majors);
+        if (!minors.isEmpty()) s.append(",minor=").append(minors);
+        return s.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.stream.Stream;
+
+/**
+ * Filtered queries that need more control than {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}
+ * offers; mixed into {@link StudentRepository}.
+ */
+public interface StudentFilterRepository {
+
+    /**
+     * Streams every student matching {@code filter} for exports; needs an open transaction. Rows are
+     * fetched 1000 at a time, read-only, and not put into the second-level cache.
+     */
+    Stream<Student> streamFiltered(StudentFilter filter, Sort sort);
+}
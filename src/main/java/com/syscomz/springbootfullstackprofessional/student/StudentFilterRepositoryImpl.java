@@ -0,0 +1,42 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.hibernate.CacheMode;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class StudentFilterRepositoryImpl implements StudentFilterRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Student> streamFiltered(StudentFilter filter, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Student> query = cb.createQuery(Student.class);
+        Root<Student> root = query.from(Student.class);
+        Predicate where = StudentSpecifications.matching(filter).toPredicate(root, query, cb);
+        if (where != null) query.where(where);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        // Cache mode GET: a full-table export must not push every row through the second-level cache
+        return entityManager.createQuery(query)
+                .setHint(HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HINT_READ_ONLY, true)
+                .setHint(HINT_CACHE_MODE, CacheMode.GET)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,345 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over normalized student names and emails, used for typeahead.
+ * <p>
+ * The bulk of the index is a set of parallel sorted arrays (key, id, display name) searched with
+ * binary search; display names are shared between the keys of the same student. Writes published by
+ * {@link StudentService} land in a small sorted overlay and shadow the stale base entries of the same
+ * id; once the overlay grows past {@code app.suggest.compact-threshold} entries it is merged into a
+ * fresh base in one linear pass. Writes on other nodes arrive as {@link StudentRemoteChangeEvent}s.
+ * Readers never lock: they read a single volatile {@link State}.
+ * </p>
+ * <p>
+ * Keys are lower-cased, accent-stripped and whitespace-collapsed. A name is indexed in full and from
+ * every later word ("ada lovelace", "lovelace"); an email is indexed in full. The index is built at
+ * startup by streaming the table; until then, or when the table does not fit in
+ * {@code app.suggest.max-memory}, suggestions fall back to a database prefix query.
+ * </p>
+ */
+@Component
+public class StudentPrefixIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentPrefixIndex.class);
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    // Separates the key from the id in overlay map keys, sorts before any printable character
+    private static final char ID_SEPARATOR = '\u0000';
+    // Rough per-entry cost of a key String (object + backing array headers) plus one slot in each array
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final long maxMemoryBytes;
+    private final int compactThreshold;
+    private final Object writeLock = new Object();
+
+    private volatile State state = new State(Base.EMPTY, false, 0);
+
+    public StudentPrefixIndex(StudentRepository studentRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.suggest.enabled:true}") boolean enabled,
+                              @Value("${app.suggest.max-memory:64MB}") DataSize maxMemory,
+                              @Value("${app.suggest.compact-threshold:10000}") int compactThreshold) {
+        this.studentRepository = studentRepository;
+        this.readOnlyTx = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (this.readOnlyTx != null) this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxMemoryBytes = maxMemory.toBytes();
+        this.compactThreshold = Math.max(1, compactThreshold);
+    }
+
+    /**
+     * Returns up to {@code limit} students whose name (or a later word of it) or email starts with
+     * {@code prefix}, in key order, each student at most once.
+     */
+    public List<StudentSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return List.of();
+        State s = state;
+        if (!s.complete) {
+            return fallback(key, limit);
+        }
+        Map<Long, StudentSuggestion> out = new LinkedHashMap<>();
+        Base base = s.base;
+        int i = base.lowerBound(key);
+        Iterator<Map.Entry<String, StudentSuggestion>> overlay =
+                s.overlay.subMap(key, true, key + Character.MAX_VALUE, false).entrySet().iterator();
+        Map.Entry<String, StudentSuggestion> pending = overlay.hasNext() ? overlay.next() : null;
+        while (out.size() < limit) {
+            boolean baseHas = i < base.size && base.keys[i].startsWith(key);
+            if (!baseHas && pending == null) break;
+            if (baseHas && (pending == null || base.keys[i].compareTo(keyPart(pending.getKey())) <= 0)) {
+                long id = base.ids[i];
+                if (!s.shadowed.contains(id)) {
+                    out.putIfAbsent(id, new StudentSuggestion(id, base.names[i]));
+                }
+                i++;
+            } else {
+                out.putIfAbsent(pending.getValue().getId(), pending.getValue());
+                pending = overlay.hasNext() ? overlay.next() : null;
+            }
+        }
+        return new ArrayList<>(out.values());
+    }
+
+    public boolean isReady() {
+        return state.complete;
+    }
+
+    public long estimatedBytes() {
+        return state.estimatedBytes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled || readOnlyTx == null) return;
+        long started = System.nanoTime();
+        try {
+            WorkloadRoutingDataSource.runAs(Workload.Type.BULK, () -> readOnlyTx.executeWithoutResult(tx -> {
+                try (Stream<StudentRepository.SuggestView> rows = studentRepository.streamSuggestViews()) {
+                    load(rows.iterator());
+                }
+            }));
+        } catch (RuntimeException ex) {
+            // Never fail startup over typeahead: stay not ready and serve suggestions from the database
+            log.warn("Could not build student prefix index; suggestions will use the database", ex);
+            return;
+        }
+        State s = state;
+        log.info("Built student prefix index: {} keys, ~{} KB, complete={} in {} ms",
+                s.base.size, s.estimatedBytes / 1024, s.complete, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Replaces the base with the given rows; writes recorded meanwhile stay in the overlay and win
+    void load(Iterator<? extends StudentRepository.SuggestView> rows) {
+        List<Entry> entries = new ArrayList<>();
+        long bytes = 0;
+        boolean complete = true;
+        while (rows.hasNext()) {
+            StudentRepository.SuggestView row = rows.next();
+            List<String> keys = keysFor(row.getName(), row.getEmail());
+            long rowBytes = ENTRY_OVERHEAD_BYTES + (row.getName() == null ? 0 : row.getName().length());
+            for (String k : keys) rowBytes += ENTRY_OVERHEAD_BYTES + k.length();
+            if (bytes + rowBytes > maxMemoryBytes) {
+                complete = false;
+                log.warn("Student prefix index exceeds app.suggest.max-memory={} bytes; suggestions will use the database", maxMemoryBytes);
+                break;
+            }
+            bytes += rowBytes;
+            for (String k : keys) entries.add(new Entry(k, row.getId(), row.getName()));
+        }
+        Base base = Base.EMPTY;
+        if (complete) {
+            entries.sort(Entry.ORDER);
+            base = Base.of(entries);
+        }
+        synchronized (writeLock) {
+            State old = state;
+            state = new State(base, old.overlay, old.overlayKeys, old.shadowed, complete && enabled, bytes);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        if (!enabled) return;
+        switch (event.type()) {
+            case CREATED, UPDATED -> upsert(event.current().getId(), event.current().getName(), event.current().getEmail());
+            case DELETED -> remove(event.studentId());
+            case RELOADED -> rebuild();
+        }
+    }
+
+    @EventListener
+    public void onRemoteChange(StudentRemoteChangeEvent event) {
+        if (!enabled) return;
+        if (event.flush()) {
+            rebuild();
+            return;
+        }
+        for (Long id : event.ids()) {
+            Student current = event.current().get(id);
+            if (current == null) remove(id);
+            else upsert(id, current.getName(), current.getEmail());
+        }
+    }
+
+    void upsert(Long id, String name, String email) {
+        synchronized (writeLock) {
+            State s = state;
+            dropOverlay(s, id);
+            s.shadowed.add(id);
+            List<String> keys = keysFor(name, email);
+            StudentSuggestion suggestion = new StudentSuggestion(id, name);
+            for (String k : keys) s.overlay.put(k + ID_SEPARATOR + id, suggestion);
+            s.overlayKeys.put(id, keys);
+            if (s.overlay.size() >= compactThreshold) compact();
+        }
+    }
+
+    void remove(Long id) {
+        synchronized (writeLock) {
+            State s = state;
+            dropOverlay(s, id);
+            s.shadowed.add(id);
+        }
+    }
+
+    // Merges base (minus shadowed ids) and overlay into a new base; caller holds writeLock
+    private void compact() {
+        State s = state;
+        Base base = s.base;
+        List<Entry> merged = new ArrayList<>(base.size + s.overlay.size());
+        long bytes = 0;
+        Iterator<Map.Entry<String, StudentSuggestion>> overlay = s.overlay.entrySet().iterator();
+        Map.Entry<String, StudentSuggestion> pending = overlay.hasNext() ? overlay.next() : null;
+        int i = 0;
+        while (i < base.size || pending != null) {
+            if (i < base.size && (pending == null || base.keys[i].compareTo(keyPart(pending.getKey())) <= 0)) {
+                if (!s.shadowed.contains(base.ids[i])) merged.add(new Entry(base.keys[i], base.ids[i], base.names[i]));
+                i++;
+            } else {
+                merged.add(new Entry(keyPart(pending.getKey()), pending.getValue().getId(), pending.getValue().getName()));
+                pending = overlay.hasNext() ? overlay.next() : null;
+            }
+        }
+        for (Entry e : merged) bytes += ENTRY_OVERHEAD_BYTES + e.key().length();
+        state = new State(Base.of(merged), s.complete, bytes);
+    }
+
+    private static void dropOverlay(State s, Long id) {
+        List<String> previous = s.overlayKeys.remove(id);
+        if (previous != null) {
+            for (String k : previous) s.overlay.remove(k + ID_SEPARATOR + id);
+        }
+    }
+
+    private List<StudentSuggestion> fallback(String key, int limit) {
+        if (studentRepository == null) return List.of();
+        String pattern = key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return studentRepository.findByNameOrEmailPrefix(pattern, PageRequest.of(0, limit)).stream()
+                .map(st -> new StudentSuggestion(st.getId(), st.getName()))
+                .toList();
+    }
+
+    private static String keyPart(String overlayKey) {
+        return overlayKey.substring(0, overlayKey.lastIndexOf(ID_SEPARATOR));
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    static List<String> keysFor(String name, String email) {
+        Set<String> keys = new LinkedHashSet<>();
+        String n = normalize(name);
+        if (!n.isEmpty()) {
+            keys.add(n);
+            for (int i = n.indexOf(' '); i >= 0; i = n.indexOf(' ', i + 1)) {
+                keys.add(n.substring(i + 1));
+            }
+        }
+        String e = normalize(email);
+        if (!e.isEmpty()) keys.add(e);
+        return new ArrayList<>(keys);
+    }
+
+    private record Entry(String key, long id, String name) {
+        static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+    }
+
+    private static final class Base {
+        static final Base EMPTY = new Base(new String[0], new long[0], new String[0]);
+
+        final String[] keys;
+        final long[] ids;
+        final String[] names;
+        final int size;
+
+        private Base(String[] keys, long[] ids, String[] names) {
+            this.keys = keys;
+            this.ids = ids;
+            this.names = names;
+            this.size = keys.length;
+        }
+
+        static Base of(List<Entry> sorted) {
+            String[] keys = new String[sorted.size()];
+            long[] ids = new long[sorted.size()];
+            String[] names = new String[sorted.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Entry e = sorted.get(i);
+                keys[i] = e.key();
+                ids[i] = e.id();
+                names[i] = e.name();
+            }
+            return new Base(keys, ids, names);
+        }
+
+        // First position whose key is >= the given key
+        int lowerBound(String key) {
+            int pos = Arrays.binarySearch(keys, key);
+            if (pos < 0) return -pos - 1;
+            while (pos > 0 && keys[pos - 1].equals(key)) pos--;
+            return pos;
+        }
+    }
+
+    private static final class State {
+        final Base base;
+        final ConcurrentSkipListMap<String, StudentSuggestion> overlay;
+        final Map<Long, List<String>> overlayKeys;
+        final Set<Long> shadowed;
+        final boolean complete;
+        final long estimatedBytes;
+
+        State(Base base, boolean complete, long estimatedBytes) {
+            this(base, new ConcurrentSkipListMap<>(), new HashMap<>(), ConcurrentHashMap.newKeySet(), complete, estimatedBytes);
+        }
+
+        State(Base base, ConcurrentSkipListMap<String, StudentSuggestion> overlay, Map<Long, List<String>> overlayKeys,
+              Set<Long> shadowed, boolean complete, long estimatedBytes) {
+            this.base = base;
+            this.overlay = overlay;
+            this.overlayKeys = overlayKeys;
+            this.shadowed = shadowed;
+            this.complete = complete;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
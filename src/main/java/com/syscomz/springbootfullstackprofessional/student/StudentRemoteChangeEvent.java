@@ -0,0 +1,36 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Application event for writes committed by another node, published by
+ * {@link com.syscomz.springbootfullstackprofessional.student.coherence.StudentCoherence}.
+ * <p>
+ * Unlike {@link StudentChangeEvent} it carries no previous row, only what is current now, and the same
+ * change may be delivered more than once: listeners replace or drop what they hold for {@code ids} and
+ * never apply deltas. A {@code flush} names no ids: changes may have been missed, so every in-process
+ * read model must be dropped or rebuilt from the database.
+ * </p>
+ *
+ * @param flush   whether everything must be dropped, rather than {@code ids}
+ * @param ids     ids of the students written
+ * @param current the current row of each id that still exists; ids missing here were deleted
+ * @param fields  names of the columns that changed, as in {@link StudentSort#FIELDS}
+ */
+public record StudentRemoteChangeEvent(boolean flush, Set<Long> ids, Map<Long, Student> current, Set<String> fields) {
+
+    public StudentRemoteChangeEvent {
+        ids = Set.copyOf(ids);
+        current = Map.copyOf(current);
+        fields = Set.copyOf(fields);
+    }
+
+    public static StudentRemoteChangeEvent flushAll() {
+        return new StudentRemoteChangeEvent(true, Set.of(), Map.of(), StudentSort.FIELDS);
+    }
+
+    public static StudentRemoteChangeEvent changed(Set<Long> ids, Map<Long, Student> current, Set<String> fields) {
+        return new StudentRemoteChangeEvent(false, ids, current, fields);
+    }
+}
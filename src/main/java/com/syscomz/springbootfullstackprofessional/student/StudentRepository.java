@@ -17,12 +17,18 @@ package com.syscomz.springbootfullstackprofessional.student;
  * Avoid defining business logic in repository interfaces; keep them focused on data access.
  */
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /*
  * The StudentRepository interface extends JpaRepository, providing CRUD operations 
@@ -32,7 +38,8 @@ import java.util.List;
  * enabling component scanning and exception translation.
  */
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpecificationExecutor<Student>,
+        StudentFilterRepository {
     // JPQL request, which is enabled by @Entity in Student object
     @Query("" +
             "SELECT CASE WHEN COUNT(s) > 0 THEN " +
@@ -45,6 +52,56 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     // Spring Data derived query to check email usage excluding a specific student id
     boolean existsByEmailAndIdNot(String email, Long id);
 
+    // Projection used to build the in-memory typeahead index
+    interface SuggestView {
+        Long getId();
+        String getName();
+        String getEmail();
+    }
+
+    // Streams id/name/email for the whole table without materializing entities; needs an open transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS id, s.name AS name, s.email AS email FROM Student s")
+    Stream<SuggestView> streamSuggestViews();
+
+    // Projection used to build the approximate statistics sketches
+    interface StatsView {
+        String getEmail();
+        String getNationality();
+        String getCollege();
+    }
+
+    // Streams the columns behind /stats/* for the whole table; needs an open transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.email AS email, s.nationality AS nationality, s.college AS college FROM Student s")
+    Stream<StatsView> streamStatsViews();
+
+    // Projection used to build the columnar read snapshot; dictionary-encoded columns arrive as values
+    interface SnapshotView {
+        Long getId();
+        String getName();
+        String getEmail();
+        Gender getGender();
+        String getNationality();
+        String getCollege();
+        String getMajor();
+        String getMinor();
+        Long getChangeVersion();
+        Instant getUpdatedAt();
+        Instant getCreatedAt();
+    }
+
+    // Streams every column in id order without materializing entities; needs an open transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS id, s.name AS name, s.email AS email, s.gender AS gender, s.nationality AS nationality, " +
+           "s.college AS college, s.major AS major, s.minor AS minor, s.changeVersion AS changeVersion, " +
+           "s.updatedAt AS updatedAt, s.createdAt AS createdAt FROM Student s ORDER BY s.id")
+    Stream<SnapshotView> streamSnapshotViews();
+
+    // Typeahead fallback while the prefix index is unavailable; pattern is an escaped, lower-cased 'prefix%'
+    @Query("SELECT s FROM Student s WHERE LOWER(s.name) LIKE :pattern OR LOWER(s.email) LIKE :pattern ORDER BY s.name, s.id")
+    List<Student> findByNameOrEmailPrefix(@Param("pattern") String pattern, Pageable pageable);
+
     // Projection for gender counts
     interface GenderCountView {
         Gender getGender();
@@ -63,36 +120,39 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
            nativeQuery = true)
     List<Object[]> countByDomain();
 
-    // Aggregate counts by nationality
-    @Query(value = "SELECT nationality, COUNT(*) as count " +
-                   "FROM student WHERE nationality IS NOT NULL " +
-                   "GROUP BY nationality ORDER BY COUNT(*) DESC",
+    // Aggregate counts by nationality: grouped on the dictionary key, then only the distinct keys are joined to their values
+    // (and summed per value: one being renumbered has rows under its old and its new key)
+    @Query(value = "SELECT d.name AS nationality, CAST(SUM(c.count) AS BIGINT) AS count FROM " +
+                   "(SELECT nationality_id, COUNT(*) AS count FROM student WHERE nationality_id IS NOT NULL GROUP BY nationality_id) c " +
+                   "JOIN student_nationality d ON d.id = c.nationality_id GROUP BY d.name ORDER BY count DESC",
            nativeQuery = true)
     List<Object[]> countByNationality();
 
     // Aggregate counts by college
-    @Query(value = "SELECT college, COUNT(*) as count " +
-                   "FROM student WHERE college IS NOT NULL " +
-                   "GROUP BY college ORDER BY COUNT(*) DESC",
+    @Query(value = "SELECT d.name AS college, CAST(SUM(c.count) AS BIGINT) AS count FROM " +
+                   "(SELECT college_id, COUNT(*) AS count FROM student WHERE college_id IS NOT NULL GROUP BY college_id) c " +
+                   "JOIN student_college d ON d.id = c.college_id GROUP BY d.name ORDER BY count DESC",
            nativeQuery = true)
     List<Object[]> countByCollege();
 
-        // Paged search with optional gender and domain filters
-        // Use native queries and explicit CAST(email AS TEXT) to avoid bytea/lower issues on Postgres
-            @Query(value = "SELECT * FROM student WHERE (:gender IS NULL OR gender = :gender) " +
-                   "AND (:domain IS NULL OR LOWER(CAST(email AS TEXT)) LIKE CONCAT('%@', LOWER(:domain)))",
-               countQuery = "SELECT COUNT(*) FROM student WHERE (:gender IS NULL OR gender = :gender) " +
-                    "AND (:domain IS NULL OR LOWER(CAST(email AS TEXT)) LIKE CONCAT('%@', LOWER(:domain)))",
-               nativeQuery = true)
-            Page<Student> search(@Param("gender") String gender,
-                     @Param("domain") String domain,
-                     Pageable pageable);
-
-        // Unpaged search variant for exports (with sorting)
-            @Query(value = "SELECT * FROM student WHERE (:gender IS NULL OR gender = :gender) " +
-                   "AND (:domain IS NULL OR LOWER(CAST(email AS TEXT)) LIKE CONCAT('%@', LOWER(:domain)))",
-               nativeQuery = true)
-            List<Student> search(@Param("gender") String gender,
-                     @Param("domain") String domain,
-                     org.springframework.data.domain.Sort sort);
+    // Aggregate counts by major
+    @Query(value = "SELECT d.name AS major, CAST(SUM(c.count) AS BIGINT) AS count FROM " +
+                   "(SELECT major_id, COUNT(*) AS count FROM student WHERE major_id IS NOT NULL GROUP BY major_id) c " +
+                   "JOIN student_major d ON d.id = c.major_id GROUP BY d.name ORDER BY count DESC",
+           nativeQuery = true)
+    List<Object[]> countByMajor();
+
+    // Aggregate counts by minor
+    @Query(value = "SELECT d.name AS minor, CAST(SUM(c.count) AS BIGINT) AS count FROM " +
+                   "(SELECT minor_id, COUNT(*) AS count FROM student WHERE minor_id IS NOT NULL GROUP BY minor_id) c " +
+                   "JOIN student_minor d ON d.id = c.minor_id GROUP BY d.name ORDER BY count DESC",
+           nativeQuery = true)
+    List<Object[]> countByMinor();
+
+    // Delta sync: rows inserted or updated in (since, until], oldest first (idx_student_change_version)
+    @Query("SELECT s FROM Student s WHERE s.changeVersion > :since AND s.changeVersion <= :until ORDER BY s.changeVersion")
+    List<Student> findChangedBetween(@Param("since") long since, @Param("until") long until, Pageable limit);
+
+    // Filtered search, export and bulk reads go through JpaSpecificationExecutor with StudentSpecifications
+    // (only the predicates present are rendered) and StudentFilterRepository for streaming
 }
\ No newline at end of file
@@ -1,83 +1,285 @@
 package com.syscomz.springbootfullstackprofessional.student;
 
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionary;
+import com.syscomz.springbootfullstackprofessional.student.export.StudentTableVersion;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Seeds the database with 2,000 random Student rows when the "seed" profile is active.
- * Activation: run the application with SPRING_PROFILES_ACTIVE including "seed" (and a DB profile), e.g.
- *   mvn spring-boot:run -Dspring-boot.run.profiles=local,seed
- * Safe for reruns: if the table already has >= TARGET_COUNT rows, seeding is skipped.
+ * Loads a large, reproducible student dataset when the "seed" profile is active.
+ * <p>
+ * Rows come from {@link StudentDataGenerator}, so the same {@code app.seed.seed} always gives the same
+ * dataset, whatever the parallelism. {@code app.seed.parallelism} workers each hold one connection and
+ * take {@code app.seed.batch-size} rows at a time. They generate the rows and write them with
+ * {@code COPY ... FROM STDIN} on PostgreSQL, or a JDBC batch insert elsewhere, committing every batch.
+ * Progress and the final rows per second are logged.
+ * </p>
+ * <p>
+ * Activation: run with SPRING_PROFILES_ACTIVE including "seed" (and a DB profile), e.g.
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=local,seed -Dspring-boot.run.arguments=--app.seed.count=5000000
+ * The table is filled up to {@code app.seed.count} rows. Emails embed the row index and are unique, so
+ * a rerun continues after the highest index any stored email carries rather than at the row count:
+ * rows deleted since the last run leave gaps in the indexes, and their emails are not reused. The bulk
+ * load bypasses JPA, so afterwards it bumps the table version, evicts the cached entities and publishes
+ * a RELOADED change event for the read models.
+ * </p>
  */
 @Component
 @Profile("seed")
 public class StudentSeeder implements CommandLineRunner {
 
-    private static final int TARGET_COUNT = 2000;
+    private static final Logger log = LoggerFactory.getLogger(StudentSeeder.class);
+    private static final String COLUMNS = "name, email, gender, nationality_id, college_id, major_id, minor_id";
+    // Row index in a generated email (first.last.INDEX@domain); generated local parts have no digits
+    private static final String INDEX_PATTERN = "'[.]([0-9]{1,18})@'";
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
 
-    private final StudentRepository studentRepository;
+    /**
+     * Outcome of a seeding run.
+     */
+    public record SeedReport(long rows, Duration elapsed, int workers) {
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? rows : rows / (elapsed.toNanos() / 1e9);
+        }
+    }
 
-    public StudentSeeder(StudentRepository studentRepository) {
-        this.studentRepository = studentRepository;
+    private final DataSource dataSource;
+    private final StudentDictionary dictionary;
+    private final DatabasePlatform databasePlatform;
+    private final StudentTableVersion tableVersion;
+    private final StudentChangeHorizon changeHorizon;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long targetCount;
+    private final long seed;
+    private final int parallelism;
+    private final int batchSize;
+
+    public StudentSeeder(DataSource dataSource,
+                         StudentDictionary dictionary,
+                         DatabasePlatform databasePlatform,
+                         StudentTableVersion tableVersion,
+                         StudentChangeHorizon changeHorizon,
+                         EntityManagerFactory entityManagerFactory,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${app.seed.count:2000}") long targetCount,
+                         @Value("${app.seed.seed:42}") long seed,
+                         @Value("${app.seed.parallelism:4}") int parallelism,
+                         @Value("${app.seed.batch-size:5000}") int batchSize) {
+        this.dataSource = dataSource;
+        this.dictionary = dictionary;
+        this.databasePlatform = databasePlatform;
+        this.tableVersion = tableVersion;
+        this.changeHorizon = changeHorizon;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.targetCount = targetCount;
+        this.seed = seed;
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
     }
 
     @Override
-    @Transactional
     public void run(String... args) {
-        long existing = studentRepository.count();
-        if (existing >= TARGET_COUNT) {
-            return; // already seeded sufficiently
+        long[] countAndNext = countAndNextIndex();
+        long existing = countAndNext[0];
+        if (existing >= targetCount) {
+            log.info("Student table already has {} rows (app.seed.count={}), not seeding", existing, targetCount);
+            return;
+        }
+        long from = countAndNext[1];
+        SeedReport report = seed(from, from + targetCount - existing);
+        log.info("Seeded {} students in {} ms with {} workers ({} rows/s)",
+                report.rows(), report.elapsed().toMillis(), report.workers(), Math.round(report.rowsPerSecond()));
+    }
+
+    // Row count and the index after the highest one found in an email, in one scan of the table
+    private long[] countAndNextIndex() {
+        String index = databasePlatform.isPostgres()
+                ? "substring(email FROM " + INDEX_PATTERN + ")"
+                : "REGEXP_SUBSTR(email, " + INDEX_PATTERN + ", 1, 1, '', 1)";
+        String sql = "SELECT COUNT(*), COALESCE(MAX(CAST(" + index + " AS BIGINT)) + 1, 0) FROM student";
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return new long[]{rs.getLong(1), rs.getLong(2)};
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not find where to continue seeding students", ex);
+        }
+    }
+
+    /**
+     * Inserts rows {@code [from, to)} of the dataset. Their emails must not be in the table yet.
+     */
+    public SeedReport seed(long from, long to) {
+        StudentDataGenerator generator = new StudentDataGenerator(seed);
+        boolean copy = databasePlatform.isPostgres();
+        int workers = (int) Math.max(1, Math.min(parallelism, (to - from + batchSize - 1) / batchSize));
+        AtomicLong cursor = new AtomicLong(from);
+        AtomicLong written = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        long started = System.nanoTime();
+
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> new Thread(r, "student-seeder-" + threadIds.incrementAndGet()));
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-seeder-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        progress.scheduleAtFixedRate(() -> {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            log.info("Seeding: {} / {} rows ({} rows/s)", written.get(), to - from, Math.round(written.get() / seconds));
+        }, PROGRESS_INTERVAL.toMillis(), PROGRESS_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(pool.submit(() -> WorkloadRoutingDataSource.callAs(Workload.Type.BULK, () -> {
+                    load(generator, cursor, to, written, failed, copy);
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    failed.set(true);
+                    throw new IllegalStateException("Seeding students failed", ex.getCause());
+                }
+            }
+        } catch (InterruptedException ex) {
+            failed.set(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while seeding students", ex);
+        } finally {
+            progress.shutdownNow();
+            pool.shutdown();
+            afterBulkLoad();
+        }
+        return new SeedReport(written.get(), Duration.ofNanos(System.nanoTime() - started), workers);
+    }
+
+    // One worker: claims batches from the shared cursor until the range is exhausted
+    private void load(StudentDataGenerator generator, AtomicLong cursor, long to, AtomicLong written,
+                      AtomicBoolean failed, boolean copy) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                while (!failed.get()) {
+                    long start = cursor.getAndAdd(batchSize);
+                    if (start >= to) break;
+                    long end = Math.min(start + batchSize, to);
+                    // Registered until the batch has committed, so the change feed does not run past its versions
+                    try (StudentChangeHorizon.Write write = changeHorizon.beginWrite()) {
+                        if (copy) copyBatch(connection, generator, start, end);
+                        else insertBatch(connection, generator, start, end);
+                        connection.commit();
+                    }
+                    written.addAndGet(end - start);
+                }
+            } catch (SQLException | IOException | RuntimeException ex) {
+                failed.set(true);
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+            }
         }
-        int toCreate = TARGET_COUNT - (int) existing;
-        List<Student> batch = new ArrayList<>(toCreate);
-
-        String[] firstNames = {"Alex","Jamie","Taylor","Jordan","Casey","Riley","Morgan","Avery","Quinn","Hayden","Evan","Kai","Logan","Peyton","Sawyer"};
-        String[] lastNames  = {"Smith","Johnson","Williams","Brown","Jones","Miller","Davis","Garcia","Rodriguez","Martinez","Hernandez","Lopez","Gonzalez","Wilson","Anderson"};
-        Gender[] genders    = Gender.values();
-        String[] nationalities = {"USA","Canada","UK","Brazil","Germany","France","Japan","Australia"};
-        String[] colleges      = {"Engineering","Business","Arts","Science","Liberal Arts","General Studies","Mathematics","Medicine"};
-        String[] majors        = {"Computer Science","Economics","Biology","Mathematics","History","Physics","Chemistry","Philosophy"};
-        String[] minors        = {"Statistics","Music","Spanish","Art","Psychology","Sociology","French","German"};
-
-        ThreadLocalRandom rnd = ThreadLocalRandom.current();
-        int emailCounterStart = (int) existing + 1; // ensure uniqueness across reruns
-
-        for (int i = 0; i < toCreate; i++) {
-            String first = firstNames[rnd.nextInt(firstNames.length)];
-            String last  = lastNames[rnd.nextInt(lastNames.length)];
-            String name  = first + " " + last;
-            // Diverse domain set to exercise domain-based stats
-            String domain = switch (rnd.nextInt(6)) {
-                case 0 -> "gmail.com";
-                case 1 -> "hotmail.com";
-                case 2 -> "yahoo.com";
-                case 3 -> "outlook.com";
-                case 4 -> "edu.example";
-                default -> "example.org";
-            };
-            String email = "student" + (emailCounterStart + i) + "@" + domain;
-            Gender gender = genders[rnd.nextInt(genders.length)];
-            String nationality = nationalities[rnd.nextInt(nationalities.length)];
-            String college = colleges[rnd.nextInt(colleges.length)];
-            String major = majors[rnd.nextInt(majors.length)];
-            String minor = minors[rnd.nextInt(minors.length)];
-
-            Student s = new Student(name, email, gender, nationality, college, major, minor);
-            batch.add(s);
+    }
+
+    private void insertBatch(Connection connection, StudentDataGenerator generator, long start, long end) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO student (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (long i = start; i < end; i++) {
+                Student s = generator.row(i);
+                insert.setString(1, s.getName());
+                insert.setString(2, s.getEmail());
+                insert.setString(3, s.getGender().name());
+                setNullable(insert, 4, key(StudentDictionary.Column.NATIONALITY, s.getNationality()));
+                setNullable(insert, 5, key(StudentDictionary.Column.COLLEGE, s.getCollege()));
+                setNullable(insert, 6, key(StudentDictionary.Column.MAJOR, s.getMajor()));
+                setNullable(insert, 7, key(StudentDictionary.Column.MINOR, s.getMinor()));
+                insert.addBatch();
+            }
+            insert.executeBatch();
         }
+    }
 
-        // Persist in chunks to avoid memory pressure
-        int chunkSize = 500;
-        for (int start = 0; start < batch.size(); start += chunkSize) {
-            int end = Math.min(start + chunkSize, batch.size());
-            List<Student> chunk = new ArrayList<>(batch.subList(start, end));
-            studentRepository.saveAll(chunk);
+    private void copyBatch(Connection connection, StudentDataGenerator generator, long start, long end)
+            throws SQLException, IOException {
+        StringBuilder csv = new StringBuilder((int) (end - start) * 96);
+        for (long i = start; i < end; i++) {
+            Student s = generator.row(i);
+            csv.append(quote(s.getName())).append(',')
+               .append(quote(s.getEmail())).append(',')
+               .append(s.getGender().name()).append(',')
+               .append(csvField(key(StudentDictionary.Column.NATIONALITY, s.getNationality()))).append(',')
+               .append(csvField(key(StudentDictionary.Column.COLLEGE, s.getCollege()))).append(',')
+               .append(csvField(key(StudentDictionary.Column.MAJOR, s.getMajor()))).append(',')
+               .append(csvField(key(StudentDictionary.Column.MINOR, s.getMinor()))).append('\n');
         }
+        connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY student (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)", new StringReader(csv.toString()));
+    }
+
+    // In COPY's CSV format an unquoted empty field is NULL and a quoted one is an empty string
+    private static String quote(String value) {
+        if (value == null) return "";
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Dictionary key of a generated value; interned outside any transaction, so committed and cached at once
+    private Integer key(StudentDictionary.Column column, String value) {
+        return dictionary.intern(column, value);
+    }
+
+    private static String csvField(Integer key) {
+        return key == null ? "" : key.toString();
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, Integer key) throws SQLException {
+        if (key == null) statement.setNull(index, Types.INTEGER);
+        else statement.setInt(index, key);
+    }
+
+    // Rows were written behind JPA's back: invalidate everything that caches the table
+    private void afterBulkLoad() {
+        tableVersion.bump();
+        entityManagerFactory.getCache().evict(Student.class);
+        eventPublisher.publishEvent(StudentChangeEvent.reloaded());
     }
 }
@@ -53,19 +53,36 @@ package com.syscomz.springbootfullstackprofessional.student;
  * The @Service annotation should be used on classes that contain business logic,
  * not on data access or controller classes.    
  */
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.config.ReadWriteRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.config.Workload;
 import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
 import com.syscomz.springbootfullstackprofessional.student.exception.StudentNotFoundException;
+import com.syscomz.springbootfullstackprofessional.student.snapshot.StudentSnapshotEngine;
+import com.syscomz.springbootfullstackprofessional.student.stats.FieldStats;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /*
  * The StudentService class encapsulates the business logic related to Student entities.
@@ -81,30 +98,164 @@ import java.util.Map;
  */
 @Service
 public class    StudentService {
+    public static final int MIN_TEXT_QUERY_LENGTH = 3;
+    static final int MAX_SUGGESTIONS = 50;
+    static final int MAX_FIELD_VALUES = 500;
+    static final int MAX_CHANGES = 1000;
     private final StudentRepository studentRepository;
-    public StudentService(StudentRepository studentRepository) {
+    private final StudentTombstoneRepository tombstoneRepository;
+    private final DatabasePlatform databasePlatform;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StudentPrefixIndex prefixIndex;
+    private final StudentValueCache valueCache;
+    private final SingleFlight singleFlight;
+    private final StudentStatsSketches statsSketches;
+    private final StudentSnapshotEngine snapshotEngine;
+    private final StudentChangeHorizon changeHorizon;
+    private final Duration exportWaitTimeout;
+    public StudentService(StudentRepository studentRepository,
+                          StudentTombstoneRepository tombstoneRepository,
+                          DatabasePlatform databasePlatform,
+                          ApplicationEventPublisher eventPublisher,
+                          StudentPrefixIndex prefixIndex,
+                          StudentValueCache valueCache,
+                          SingleFlight singleFlight,
+                          StudentStatsSketches statsSketches,
+                          StudentSnapshotEngine snapshotEngine,
+                          StudentChangeHorizon changeHorizon,
+                          @Value("${app.singleflight.export-timeout:5m}") Duration exportWaitTimeout) {
         this.studentRepository = studentRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.databasePlatform = databasePlatform;
+        this.eventPublisher = eventPublisher;
+        this.prefixIndex = prefixIndex;
+        this.valueCache = valueCache;
+        this.singleFlight = singleFlight;
+        this.statsSketches = statsSketches;
+        this.snapshotEngine = snapshotEngine;
+        this.changeHorizon = changeHorizon;
+        this.exportWaitTimeout = exportWaitTimeout;
     }
+    @Transactional(readOnly = true)
+    @Workload(Workload.Type.REPORTING)
     public List<Student> getAllStudents() {
         return studentRepository.findAll(Sort.by(Sort.Direction.ASC, "id"));
     }
-    public Page<Student> getStudentsPage(int page, int size, String sortBy, String direction) {
-        Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        PageRequest pageable = PageRequest.of(page, size, Sort.by(dir, sortBy));
-        return studentRepository.findAll(pageable);
+    /**
+     * Loads one student by id. Repeated reads are answered from the second-level entity cache.
+     */
+    @Transactional(readOnly = true)
+    public Student getStudent(Long studentId) {
+        return studentRepository.findById(studentId)
+                .orElseThrow(() -> new StudentNotFoundException(
+                        String.format("Student with id %d, does not exists!", studentId)));
+    }
+    /**
+     * One page in {@link StudentSort} order, from the {@link StudentSnapshotEngine} when it is enabled and loaded.
+     */
+    public Page<Student> getStudentsPage(int page, int size, StudentSort sort) {
+        return snapshotEngine.search(page, size, sort, StudentFilter.NONE, null)
+                .orElseGet(() -> studentRepository.findAll(PageRequest.of(page, size, sort.toSort())));
+    }
+    /**
+     * Filtered page of students in a validated {@link StudentSort} order, optionally narrowed by a free-text term matched as a case-insensitive
+     * substring of name or email. Only the restrictions present in {@code filter} reach the SQL.
+     * On PostgreSQL a text search is served by the pg_trgm indexes and ranked by similarity (the
+     * requested sort is ignored); elsewhere the same match runs with the requested sort.
+     * Terms shorter than {@value #MIN_TEXT_QUERY_LENGTH} characters cannot use trigram indexes and are rejected.
+     * Identical concurrent requests for the first page share one query. When the {@link StudentSnapshotEngine}
+     * is loaded it answers instead, except ranked text searches on PostgreSQL.
+     */
+    public Page<Student> searchStudents(int page, int size, StudentSort sort, StudentFilter filter, String q) {
+        if (q == null || q.isBlank()) {
+            Optional<Page<Student>> scanned = snapshotEngine.search(page, size, sort, filter, null);
+            if (scanned.isPresent()) return scanned.get();
+            Supplier<Page<Student>> read = () -> studentRepository.findAll(StudentSpecifications.matching(filter),
+                    PageRequest.of(page, size, sort.toSort()));
+            if (page != 0) return singleFlight.readOnly(read);
+            return singleFlight.execute("search", Arrays.asList(size, sort, filter), read);
+        }
+        String term = q.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < MIN_TEXT_QUERY_LENGTH)
+            throw new BadRequestException(String.format("Search term must be at least %d characters long", MIN_TEXT_QUERY_LENGTH));
+        if (!databasePlatform.isPostgres()) {
+            Optional<Page<Student>> scanned = snapshotEngine.search(page, size, sort, filter, term);
+            if (scanned.isPresent()) return scanned.get();
+        }
+        Supplier<Page<Student>> read = () -> findStudentsByText(page, size, sort, filter, term);
+        if (page != 0) return singleFlight.readOnly(read);
+        return singleFlight.execute("search.text", Arrays.asList(size, sort, filter, term), read);
+    }
+    private Page<Student> findStudentsByText(int page, int size, StudentSort sort, StudentFilter filter, String term) {
+        Specification<Student> spec = StudentSpecifications.matching(filter)
+                .and(StudentSpecifications.nameOrEmailLike("%" + StudentSpecifications.escapeLike(term) + "%"));
+        if (databasePlatform.isPostgres()) {
+            return studentRepository.findAll(spec.and(StudentSpecifications.rankedBySimilarity(term)), PageRequest.of(page, size));
+        }
+        return studentRepository.findAll(spec, PageRequest.of(page, size, sort.toSort()));
     }
-    public Page<Student> searchStudents(int page, int size, String sortBy, String direction, Gender gender, String domain) {
-        Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(dir, sortBy));
-        String genderStr = gender == null ? null : gender.name();
-        return studentRepository.search(genderStr, (domain == null || domain.isBlank()) ? null : domain, pageable);
+    /**
+     * Every student matching the filter, for exports. Identical concurrent requests share one query, waiting
+     * for it up to {@code app.singleflight.export-timeout} rather than starting another full read.
+     */
+    @Workload(Workload.Type.REPORTING)
+    public List<Student> searchStudentsAll(StudentSort sort, StudentFilter filter) {
+        return singleFlight.execute("export", Arrays.asList(sort, filter), exportWaitTimeout,
+                () -> studentRepository.findAll(StudentSpecifications.matching(filter), sort.toSort()));
     }
-    public List<Student> searchStudentsAll(String sortBy, String direction, Gender gender, String domain) {
-        Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Sort sort = Sort.by(dir, sortBy);
-        String genderStr = gender == null ? null : gender.name();
-        return studentRepository.search(genderStr, (domain == null || domain.isBlank()) ? null : domain, sort);
+    /**
+     * Students inserted, updated or deleted after change version {@code since}, oldest change first, at
+     * most {@code limit} (capped at {@value #MAX_CHANGES}) per page. Both lists are keyset reads on the
+     * change-version indexes, so a page costs the same however far into the table it starts.
+     * <p>
+     * Versions are taken when a row is written, not when its transaction commits, so a version can become
+     * visible before a lower one held by a transaction still running. Pages therefore end at the
+     * {@link StudentChangeHorizon#settledVersion() settled version}: changes above it wait for the next
+     * call, and a long transaction (a bulk load, say) holds back everything written after it started.
+     * The settled version comes from the primary, so this reads from the primary too.
+     * </p>
+     */
+    @Transactional(readOnly = true)
+    public StudentChanges getChangesSince(long since, int limit) {
+        if (since < 0) throw new BadRequestException("since must not be negative");
+        boolean pinned = ReadWriteRoutingDataSource.isPinned();
+        // The connection is fetched lazily, at the first statement, so pinning here still routes it
+        if (!pinned) ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            return readChanges(since, Math.max(1, Math.min(limit, MAX_CHANGES)));
+        } finally {
+            if (!pinned) ReadWriteRoutingDataSource.unpin();
+        }
+    }
+    private StudentChanges readChanges(long since, int size) {
+        // Read before the rows: everything up to it is committed or rolled back for good
+        long settled = changeHorizon.settledVersion();
+        // One extra row from each side tells whether another page exists
+        Pageable window = PageRequest.of(0, size + 1);
+        List<Student> students = studentRepository.findChangedBetween(since, settled, window);
+        List<StudentTombstone> tombstones = tombstoneRepository.findDeletedBetween(since, settled, window);
+
+        List<Student> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long next = since;
+        int s = 0, t = 0;
+        while (upserted.size() + deleted.size() < size && (s < students.size() || t < tombstones.size())) {
+            boolean takeStudent = t == tombstones.size() || (s < students.size()
+                    && students.get(s).getChangeVersion() < tombstones.get(t).getChangeVersion());
+            if (takeStudent) {
+                Student student = students.get(s++);
+                upserted.add(student);
+                next = student.getChangeVersion();
+            } else {
+                StudentTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone.getStudentId());
+                next = tombstone.getChangeVersion();
+            }
+        }
+        boolean hasMore = s < students.size() || t < tombstones.size();
+        return new StudentChanges(since, next, hasMore, upserted, deleted);
     }
+    @Transactional
     public void addStudent(Student student) {
         Boolean isEmailTaken = studentRepository.selectExistsEmail(student.getEmail());
         if (isEmailTaken)
@@ -115,20 +266,28 @@ public class    StudentService {
         if (student.getMajor() == null) student.setMajor("");
         if (student.getMinor() == null) student.setMinor("");
         studentRepository.save(student);
+        eventPublisher.publishEvent(StudentChangeEvent.created(student));
     }
     @SuppressWarnings("null")
+    @Transactional
     public void deleteStudent(Long studentId) {
-        boolean isStudentNotExists = !studentRepository.existsById(studentId);
-        if (isStudentNotExists)
-            throw new StudentNotFoundException(String.format("Student with id %d, does not exists!", studentId));
-        studentRepository.deleteById(studentId);
+        // Loaded (usually from the entity cache) so listeners learn what was deleted, not just the id
+        Student existing = studentRepository.findById(studentId)
+                .orElseThrow(() -> new StudentNotFoundException(
+                        String.format("Student with id %d, does not exists!", studentId)));
+        Student previous = snapshot(existing);
+        studentRepository.delete(existing);
+        tombstoneRepository.save(new StudentTombstone(studentId));
+        eventPublisher.publishEvent(StudentChangeEvent.deleted(previous));
     }
 
     @SuppressWarnings("null")
+    @Transactional
     public void updateStudent(Long studentId, Student update) {
         Student existing = studentRepository.findById(studentId)
                 .orElseThrow(() -> new StudentNotFoundException(
                         String.format("Student with id %d, does not exists!", studentId)));
+        Student previous = snapshot(existing);
 
         // Validate email uniqueness if changed
         if (update.getEmail() != null && !Objects.equals(update.getEmail(), existing.getEmail())) {
@@ -159,9 +318,44 @@ public class    StudentService {
         }
 
         studentRepository.save(existing);
+        eventPublisher.publishEvent(StudentChangeEvent.updated(previous, existing));
+    }
+
+    /**
+     * Typeahead over names and emails, served from the in-memory {@link StudentPrefixIndex}.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentSuggestion> suggestStudents(String prefix, int limit) {
+        return prefixIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<DomainCount> getFieldValues(String field, String prefix, int limit) {
+        StudentValueCache.Field parsed = StudentValueCache.Field.parse(field);
+        return valueCache.values(parsed, prefix, Math.max(1, Math.min(limit, MAX_FIELD_VALUES)));
+    }
+
+    // Detached copy of the persistent state, taken before an update mutates the managed entity
+    private static Student snapshot(Student s) {
+        Student copy = new Student(s.getName(), s.getEmail(), s.getGender(), s.getNationality(), s.getCollege(), s.getMajor(), s.getMinor());
+        copy.setId(s.getId());
+        copy.setCreatedAt(s.getCreatedAt());
+        return copy;
     }
 
+    @Workload(Workload.Type.REPORTING)
     public Map<String, Long> getGenderStats() {
+        Optional<Map<Gender, Long>> scanned = snapshotEngine.genderCounts();
+        if (scanned.isPresent()) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("Male", scanned.get().get(Gender.MALE));
+            result.put("Female", scanned.get().get(Gender.FEMALE));
+            result.put("Other", scanned.get().get(Gender.OTHER));
+            return Collections.unmodifiableMap(result);
+        }
+        return singleFlight.execute("stats.gender", List.of(), () -> Collections.unmodifiableMap(loadGenderStats()));
+    }
+    private Map<String, Long> loadGenderStats() {
         // Initialize with fixed order and zero defaults
         Map<String, Long> result = new LinkedHashMap<>();
         result.put("Male", 0L);
@@ -178,10 +372,40 @@ public class    StudentService {
         return result;
     }
 
+    /**
+     * Counts of {@code field}'s values, most frequent first, limited to the {@code top} values when given.
+     * {@code EXACT} runs the GROUP BY query. {@code APPROX} reads the in-memory sketches, which cost
+     * nothing per request and keep at most {@code app.stats.sketch.capacity} values. Until the sketches
+     * are built, {@code APPROX} requests are counted exactly.
+     */
+    @Workload(Workload.Type.REPORTING)
+    public FieldStats getStats(StudentStatsSketches.Field field, Integer top, StudentStatsSketches.Mode mode) {
+        if (top != null && top < 1) throw new BadRequestException("top must be at least 1");
+        if (mode == StudentStatsSketches.Mode.APPROX) {
+            int limit = top == null ? statsSketches.capacity() : top;
+            if (limit > statsSketches.capacity())
+                throw new BadRequestException(String.format("top must be at most %d with mode=approx", statsSketches.capacity()));
+            Optional<FieldStats> approx = statsSketches.top(field, limit);
+            if (approx.isPresent()) return approx.get();
+        }
+        List<DomainCount> all = switch (field) {
+            case DOMAIN -> getDomainStats();
+            case NATIONALITY -> getNationalityStats();
+            case COLLEGE -> getCollegeStats();
+        };
+        return FieldStats.exact(all, top);
+    }
+
     /**
      * Returns aggregated counts of students grouped by email domain (lowercased).
      */
+    @Workload(Workload.Type.REPORTING)
     public java.util.List<DomainCount> getDomainStats() {
+        Optional<List<DomainCount>> scanned = snapshotEngine.counts(StudentStatsSketches.Field.DOMAIN);
+        if (scanned.isPresent()) return Collections.unmodifiableList(scanned.get());
+        return singleFlight.execute("stats.domains", List.of(), () -> Collections.unmodifiableList(loadDomainStats()));
+    }
+    private java.util.List<DomainCount> loadDomainStats() {
         java.util.List<DomainCount> result = new java.util.ArrayList<>();
         for (Object[] row : studentRepository.countByDomain()) {
             if (row == null || row.length < 2) continue;
@@ -200,7 +424,13 @@ public class    StudentService {
     /**
      * Returns aggregated counts of students grouped by nationality.
      */
+    @Workload(Workload.Type.REPORTING)
     public java.util.List<DomainCount> getNationalityStats() {
+        Optional<List<DomainCount>> scanned = snapshotEngine.counts(StudentStatsSketches.Field.NATIONALITY);
+        if (scanned.isPresent()) return Collections.unmodifiableList(scanned.get());
+        return singleFlight.execute("stats.nationalities", List.of(), () -> Collections.unmodifiableList(loadNationalityStats()));
+    }
+    private java.util.List<DomainCount> loadNationalityStats() {
         java.util.List<DomainCount> result = new java.util.ArrayList<>();
         for (Object[] row : studentRepository.countByNationality()) {
             if (row == null || row.length < 2) continue;
@@ -219,7 +449,13 @@ public class    StudentService {
     /**
      * Returns aggregated counts of students grouped by college.
      */
+    @Workload(Workload.Type.REPORTING)
     public java.util.List<DomainCount> getCollegeStats() {
+        Optional<List<DomainCount>> scanned = snapshotEngine.counts(StudentStatsSketches.Field.COLLEGE);
+        if (scanned.isPresent()) return Collections.unmodifiableList(scanned.get());
+        return singleFlight.execute("stats.colleges", List.of(), () -> Collections.unmodifiableList(loadCollegeStats()));
+    }
+    private java.util.List<DomainCount> loadCollegeStats() {
         java.util.List<DomainCount> result = new java.util.ArrayList<>();
         for (Object[] row : studentRepository.countByCollege()) {
             if (row == null || row.length < 2) continue;
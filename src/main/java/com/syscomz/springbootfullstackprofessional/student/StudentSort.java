@@ -0,0 +1,120 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Validated sort for paged reads and exports.
+ * <p>
+ * Only key sequences with a supporting index are accepted: every single field, plus
+ * {@code college,name} and {@code nationality,name}. {@code id} is always appended as the last key, so
+ * pages are stable when values repeat, and every accepted sort matches an index from V4/V5 that ends in
+ * {@code id}. A top-N page is then an index range scan rather than a sort of the whole filtered set.
+ * {@code email} is unique, so it needs no tie-breaker. The tie-breaker follows the direction of the last
+ * key, so a uniform direction scans the index forwards or backwards. Mixed directions such as
+ * {@code college,asc + name,desc} are accepted; PostgreSQL serves them with an incremental sort over the
+ * leading key's index.
+ * </p>
+ * <p>
+ * {@code nationality}, {@code college}, {@code major} and {@code minor} hold dictionary keys (V8-V13),
+ * which are assigned in value order, so ordering by the key orders by the value and these sorts keep
+ * their index-ordered scans.
+ * </p>
+ * Anything else is rejected with a 400 instead of failing inside the query.
+ */
+public record StudentSort(List<Sort.Order> orders) {
+
+    public static final Set<String> FIELDS = Set.of("id", "name", "email", "gender", "nationality", "college", "major", "minor");
+    private static final Set<List<String>> MULTI_KEY = Set.of(List.of("college", "name"), List.of("nationality", "name"));
+    private static final Set<String> UNIQUE = Set.of("id", "email");
+
+    public static final StudentSort BY_ID = new StudentSort(List.of(Sort.Order.asc("id")));
+
+    public StudentSort {
+        orders = List.copyOf(orders);
+    }
+
+    /**
+     * Parses repeated {@code sort=field[,asc|desc]} parameters; without any, falls back to the single
+     * {@code sortBy}/{@code direction} pair (which default to {@code id}, {@code asc}).
+     */
+    public static StudentSort parse(Collection<String> sort, String sortBy, String direction) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort != null && !sort.isEmpty()) {
+            // Values arrive as "college,asc" or already split on commas into "college", "asc"
+            for (String part : sort) {
+                for (String token : part.split(",")) {
+                    String t = token.trim();
+                    if (t.isEmpty()) continue;
+                    Sort.Direction dir = direction(t);
+                    if (dir == null) {
+                        orders.add(new Sort.Order(Sort.Direction.ASC, field(t)));
+                    } else if (!orders.isEmpty()) {
+                        Sort.Order last = orders.remove(orders.size() - 1);
+                        orders.add(last.with(dir));
+                    } else {
+                        throw new BadRequestException(String.format("Sort direction %s must follow a field", t));
+                    }
+                }
+            }
+        }
+        if (orders.isEmpty()) {
+            String field = (sortBy == null || sortBy.isBlank()) ? "id" : sortBy.trim();
+            orders.add(new Sort.Order("desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC, field(field)));
+        }
+        return of(orders);
+    }
+
+    /**
+     * Single-key sort, validated like {@link #parse}.
+     */
+    public static StudentSort of(String sortBy, String direction) {
+        return parse(null, sortBy, direction);
+    }
+
+    private static StudentSort of(List<Sort.Order> orders) {
+        List<String> keys = orders.stream().map(Sort.Order::getProperty).toList();
+        if (keys.size() != keys.stream().distinct().count())
+            throw new BadRequestException(String.format("Cannot sort by %s: a field is repeated", String.join(",", keys)));
+        // A trailing explicit id is the tie-breaker itself
+        List<String> leading = keys.size() > 1 && keys.get(keys.size() - 1).equals("id") ? keys.subList(0, keys.size() - 1) : keys;
+        if (leading.size() > 1 && !MULTI_KEY.contains(leading))
+            throw new BadRequestException(String.format("Cannot sort by %s; multi-key sorts supported: %s",
+                    String.join(",", keys), MULTI_KEY.stream().map(k -> String.join(",", k)).sorted().collect(Collectors.joining("; "))));
+        List<Sort.Order> complete = new ArrayList<>(orders);
+        Sort.Order last = complete.get(complete.size() - 1);
+        if (!UNIQUE.contains(last.getProperty())) complete.add(new Sort.Order(last.getDirection(), "id"));
+        return new StudentSort(complete);
+    }
+
+    public Sort toSort() {
+        return Sort.by(orders);
+    }
+
+    private static String field(String name) {
+        if (!FIELDS.contains(name)) throw new BadRequestException(String.format("Cannot sort by %s", name));
+        return name;
+    }
+
+    private static Sort.Direction direction(String token) {
+        return switch (token.toLowerCase(Locale.ROOT)) {
+            case "asc" -> Sort.Direction.ASC;
+            case "desc" -> Sort.Direction.DESC;
+            default -> null;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return orders.stream().map(o -> o.getProperty() + " " + o.getDirection().name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,79 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Criteria for student searches. Only the restrictions that are present end up in the SQL, so every
+ * combination of filters gets its own statement (and plan) that can use the matching index from V4,
+ * instead of one generic {@code (:x IS NULL OR col = :x)} plan that can use none.
+ */
+public final class StudentSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private StudentSpecifications() {
+    }
+
+    /**
+     * Students matching every restriction of {@code filter}: {@code =} for one value, {@code IN} for several.
+     */
+    public static Specification<Student> matching(StudentFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            in(cb, predicates, root.get("gender"), filter.genders());
+            in(cb, predicates, root.get("nationality"), filter.nationalities());
+            in(cb, predicates, root.get("college"), filter.colleges());
+            in(cb, predicates, root.get("major"), filter.majors());
+            in(cb, predicates, root.get("minor"), filter.minors());
+            if (filter.domain() != null) {
+                predicates.add(cb.like(cb.lower(root.get("email")), "%@" + escapeLike(filter.domain()), LIKE_ESCAPE));
+            }
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Case-insensitive match of an escaped, lower-cased LIKE pattern against name or email
+     * (served by the pg_trgm indexes from V3 on PostgreSQL).
+     */
+    public static Specification<Student> nameOrEmailLike(String pattern) {
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("email")), pattern, LIKE_ESCAPE));
+    }
+
+    /**
+     * Orders by trigram similarity of name or email to {@code term}, best first, then id (PostgreSQL only).
+     * Use with an unsorted page request; count queries are left unordered.
+     */
+    public static Specification<Student> rankedBySimilarity(String term) {
+        return (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                Expression<Double> name = cb.function("similarity", Double.class, cb.lower(root.get("name")), cb.literal(term));
+                Expression<Double> email = cb.function("similarity", Double.class, cb.lower(root.get("email")), cb.literal(term));
+                query.orderBy(cb.desc(cb.function("greatest", Double.class, name, email)), cb.asc(root.get("id")));
+            }
+            return null;
+        };
+    }
+
+    // LIKE wildcards typed by the user must match literally
+    public static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static <T> void in(CriteriaBuilder cb, List<Predicate> predicates, Path<T> path, Collection<? extends T> values) {
+        if (values.isEmpty()) return;
+        if (values.size() == 1) predicates.add(cb.equal(path, values.iterator().next()));
+        else predicates.add(path.in(values));
+    }
+}
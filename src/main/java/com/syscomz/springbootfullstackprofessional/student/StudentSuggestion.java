@@ -0,0 +1,22 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+/**
+ * Simple DTO for typeahead results: the student id and display name.
+ */
+public class StudentSuggestion {
+    private Long id;
+    private String name;
+
+    public StudentSuggestion() {}
+
+    public StudentSuggestion(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
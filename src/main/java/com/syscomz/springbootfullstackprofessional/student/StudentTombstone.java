@@ -0,0 +1,66 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+import java.time.Instant;
+
+/**
+ * Marker left behind by a deleted student, so delta-sync clients ({@code GET /changes?since=}) learn
+ * about the delete. It takes a change version from the same sequence as student inserts and updates.
+ * Student ids are never reused, so a student id is either live or tombstoned, never both.
+ */
+@Entity
+@Table(name = "student_tombstone", indexes = {
+        @Index(name = "idx_student_tombstone_change_version", columnList = "change_version", unique = true)
+})
+@EntityListeners(StudentChangeHorizonListener.class)
+public class StudentTombstone {
+
+    // Created by Flyway V6, or by StudentChangeVersionSequence for schemas generated by Hibernate (tests)
+    static final String CHANGE_VERSION_SEQUENCE = "student_change_version_seq";
+    // Understood by PostgreSQL and H2 alike
+    static final String NEXT_CHANGE_VERSION = "nextval('" + CHANGE_VERSION_SEQUENCE + "')";
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Generated(event = EventType.INSERT, sql = NEXT_CHANGE_VERSION)
+    @ColumnDefault(NEXT_CHANGE_VERSION)
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Generated(event = EventType.INSERT, sql = "current_timestamp")
+    @ColumnDefault("current_timestamp")
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    protected StudentTombstone() {
+        // for JPA
+    }
+
+    public StudentTombstone(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -0,0 +1,17 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StudentTombstoneRepository extends JpaRepository<StudentTombstone, Long> {
+
+    // Delta sync: deletes in (since, until], oldest first (idx_student_tombstone_change_version)
+    @Query("SELECT t FROM StudentTombstone t WHERE t.changeVersion > :since AND t.changeVersion <= :until ORDER BY t.changeVersion")
+    List<StudentTombstone> findDeletedBetween(@Param("since") long since, @Param("until") long until, Pageable limit);
+}
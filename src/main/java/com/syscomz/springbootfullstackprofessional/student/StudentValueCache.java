@@ -0,0 +1,184 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the distinct values (with counts) of the free-text picker columns: nationality, college,
+ * major and minor.
+ * <p>
+ * Each column is loaded with one GROUP BY query on first use and then kept current from
+ * {@link StudentChangeEvent}s: creates and updates adjust the counts in place (a value appears when its
+ * count leaves zero and disappears when it drops back), so opening the student form does not touch the
+ * database. Deletes only carry the id, so they drop the loaded columns and the next read reloads them;
+ * bulk reloads do the same.
+ * A per-column generation counter keeps a load that raced with a write from installing stale counts.
+ * </p>
+ */
+@Component
+public class StudentValueCache {
+
+    /**
+     * Columns exposed through {@code GET /api/v1/students/values/{field}}.
+     */
+    public enum Field {
+        NATIONALITY(Student::getNationality),
+        COLLEGE(Student::getCollege),
+        MAJOR(Student::getMajor),
+        MINOR(Student::getMinor);
+
+        private final Function<Student, String> accessor;
+
+        Field(Function<Student, String> accessor) {
+            this.accessor = accessor;
+        }
+
+        public static Field parse(String name) {
+            if (name != null) {
+                for (Field field : values()) {
+                    if (field.name().equalsIgnoreCase(name.trim())) return field;
+                }
+            }
+            throw new BadRequestException(String.format("Unknown field %s, expected one of nationality, college, major, minor", name));
+        }
+    }
+
+    private static final Comparator<DomainCount> BY_COUNT_THEN_VALUE =
+            Comparator.comparingLong(DomainCount::getCount).reversed().thenComparing(DomainCount::getDomain);
+
+    private final Map<Field, Column> columns = new EnumMap<>(Field.class);
+
+    public StudentValueCache(StudentRepository studentRepository) {
+        columns.put(Field.NATIONALITY, new Column(studentRepository::countByNationality));
+        columns.put(Field.COLLEGE, new Column(studentRepository::countByCollege));
+        columns.put(Field.MAJOR, new Column(studentRepository::countByMajor));
+        columns.put(Field.MINOR, new Column(studentRepository::countByMinor));
+    }
+
+    /**
+     * Distinct non-blank values of {@code field}, most frequent first, optionally restricted to values
+     * starting with {@code prefix} (case-insensitive).
+     */
+    public List<DomainCount> values(Field field, String prefix, int limit) {
+        String lowerPrefix = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        List<DomainCount> result = new ArrayList<>();
+        for (DomainCount value : columns.get(field).sorted()) {
+            if (result.size() >= limit) break;
+            if (lowerPrefix.isEmpty() || value.getDomain().toLowerCase(Locale.ROOT).startsWith(lowerPrefix)) {
+                result.add(new DomainCount(value.getDomain(), value.getCount()));
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        for (Map.Entry<Field, Column> entry : columns.entrySet()) {
+            Function<Student, String> accessor = entry.getKey().accessor;
+            switch (event.type()) {
+                case CREATED -> entry.getValue().adjust(null, accessor.apply(event.current()));
+                case UPDATED -> entry.getValue().adjust(accessor.apply(event.previous()), accessor.apply(event.current()));
+                case DELETED, RELOADED -> entry.getValue().invalidate();
+            }
+        }
+    }
+
+    // Written on another node: the counts cannot be adjusted without the previous row, so reload the changed columns
+    @EventListener
+    public void onRemoteChange(StudentRemoteChangeEvent event) {
+        for (Map.Entry<Field, Column> entry : columns.entrySet()) {
+            if (event.flush() || event.fields().contains(entry.getKey().name().toLowerCase(Locale.ROOT))) {
+                entry.getValue().invalidate();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        columns.values().forEach(Column::invalidate);
+    }
+
+    private static final class Column {
+        private final Supplier<List<Object[]>> loader;
+        private long generation;
+        // value -> count, null until loaded; replaced wholesale so readers can use it without locking
+        private volatile Map<String, Long> counts;
+        private volatile List<DomainCount> sorted;
+
+        Column(Supplier<List<Object[]>> loader) {
+            this.loader = loader;
+        }
+
+        List<DomainCount> sorted() {
+            List<DomainCount> current = sorted;
+            if (current != null) return current;
+            long startGeneration;
+            synchronized (this) {
+                startGeneration = generation;
+            }
+            Map<String, Long> loaded = new HashMap<>();
+            for (Object[] row : loader.get()) {
+                if (row == null || row.length < 2 || row[0] == null) continue;
+                String value = String.valueOf(row[0]);
+                if (value.isBlank()) continue;
+                loaded.merge(value, toLong(row[1]), Long::sum);
+            }
+            List<DomainCount> built = sort(loaded);
+            synchronized (this) {
+                // A write landed while we were reading: serve what we read, but let the next call reload
+                if (generation == startGeneration) {
+                    counts = loaded;
+                    sorted = built;
+                }
+            }
+            return built;
+        }
+
+        synchronized void adjust(String before, String after) {
+            generation++;
+            if (Objects.equals(before, after)) return;
+            Map<String, Long> current = counts;
+            if (current == null) return;
+            Map<String, Long> next = new HashMap<>(current);
+            if (before != null && !before.isBlank()) {
+                next.computeIfPresent(before, (k, n) -> n > 1 ? n - 1 : null);
+            }
+            if (after != null && !after.isBlank()) {
+                next.merge(after, 1L, Long::sum);
+            }
+            counts = next;
+            sorted = sort(next);
+        }
+
+        synchronized void invalidate() {
+            generation++;
+            counts = null;
+            sorted = null;
+        }
+
+        private static List<DomainCount> sort(Map<String, Long> counts) {
+            List<DomainCount> list = new ArrayList<>(counts.size());
+            counts.forEach((value, count) -> list.add(new DomainCount(value, count)));
+            list.sort(BY_COUNT_THEN_VALUE);
+            return List.copyOf(list);
+        }
+
+        private static long toLong(Object value) {
+            if (value instanceof Number number) return number.longValue();
+            try { return Long.parseLong(String.valueOf(value)); } catch (NumberFormatException ex) { return 0L; }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.stats.RegistrationRollups;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Warms the read paths up before the application takes traffic.
+ * <p>
+ * Off unless {@code app.warmup.enabled=true}. Once the application is ready, it loads up to
+ * {@code app.warmup.cache-rows} students by id into the second-level entity cache. Then
+ * {@code app.warmup.threads} threads run {@code app.warmup.rounds} rounds of the {@link StudentService}
+ * reads: pages in every sort order, filtered and text searches, suggestions, field values, changes and
+ * every statistics query, plus the registration timeline. That compiles the hot code, fills Hibernate's
+ * query plan cache and the dictionary and value caches, and runs each statement on several pooled
+ * connections, often enough for the PostgreSQL driver to switch them to server-side prepared statements.
+ * </p>
+ * <p>
+ * Spring Boot reports readiness {@code ACCEPTING_TRAFFIC} only after every {@link ApplicationReadyEvent}
+ * listener has returned, so {@code /actuator/health/readiness} stays down until this finishes. The warm-up
+ * stops after {@code app.warmup.budget} whether or not all rounds ran. It never fails startup; failed calls
+ * are counted and logged. Each call is timed as {@code app.warmup.calls} (tags {@code call}, {@code outcome})
+ * and the whole run as {@code app.warmup.duration} (tag {@code outcome}: {@code completed} or {@code budget_exceeded}).
+ * </p>
+ */
+@Component
+public class StudentWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentWarmup.class);
+
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Outcome of a warm-up run.
+     */
+    public record Report(int rounds, long calls, long failures, Duration elapsed, boolean budgetExceeded) {}
+
+    private final StudentService studentService;
+    private final RegistrationRollups registrationRollups;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration budget;
+    private final int rounds;
+    private final int threads;
+    private final int cacheRows;
+
+    public StudentWarmup(StudentService studentService,
+                         RegistrationRollups registrationRollups,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.warmup.enabled:false}") boolean enabled,
+                         @Value("${app.warmup.budget:60s}") Duration budget,
+                         @Value("${app.warmup.rounds:20}") int rounds,
+                         @Value("${app.warmup.threads:4}") int threads,
+                         @Value("${app.warmup.cache-rows:500}") int cacheRows) {
+        this.studentService = studentService;
+        this.registrationRollups = registrationRollups;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.rounds = Math.max(0, rounds);
+        this.threads = Math.max(1, threads);
+        this.cacheRows = Math.max(0, cacheRows);
+    }
+
+    // After the other ready listeners, so the in-memory indexes it exercises are already built
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onApplicationReady() {
+        if (!enabled) return;
+        Report report = warmUp();
+        if (report.budgetExceeded()) {
+            log.warn("Warm-up stopped at app.warmup.budget={} after {} of {} rounds ({} calls, {} failed)",
+                    budget, report.rounds(), rounds, report.calls(), report.failures());
+        } else {
+            log.info("Warm-up finished {} rounds ({} calls, {} failed) in {} ms",
+                    report.rounds(), report.calls(), report.failures(), report.elapsed().toMillis());
+        }
+    }
+
+    public Report warmUp() {
+        long started = System.nanoTime();
+        long deadline = started + budget.toNanos();
+        AtomicBoolean stop = new AtomicBoolean();
+        Calls calls = new Calls(stop, deadline);
+
+        Sample sample = calls.run("sample", this::sample);
+        if (sample == null) sample = new Sample(List.of(), List.of(), List.of(), List.of());
+        for (Long id : sample.ids()) {
+            if (stop.get()) break;
+            calls.run("student", () -> studentService.getStudent(id));
+        }
+
+        List<StudentSort> sorts = new ArrayList<>();
+        for (String field : StudentSort.FIELDS) {
+            sorts.add(StudentSort.of(field, "asc"));
+            sorts.add(StudentSort.of(field, "desc"));
+        }
+        Sample s = sample;
+        AtomicInteger nextRound = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "student-warmup-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (int w = 0; w < threads; w++) {
+                pool.execute(() -> {
+                    for (int round; !stop.get() && (round = nextRound.getAndIncrement()) < rounds; ) {
+                        round(calls, s, sorts, round);
+                        if (!stop.get()) finished.incrementAndGet();
+                    }
+                });
+            }
+            pool.shutdown();
+            long remaining = deadline - System.nanoTime();
+            if (!pool.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) stop.set(true);
+        } catch (InterruptedException ex) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            // Calls in flight finish on their own; the workers are daemons and start nothing new
+            pool.shutdownNow();
+        }
+        boolean exceeded = stop.get();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        Timer.builder("app.warmup.duration")
+                .description("Time spent warming up before accepting traffic")
+                .tag("outcome", exceeded ? "budget_exceeded" : "completed")
+                .register(meterRegistry)
+                .record(elapsed);
+        return new Report(finished.get(), calls.total.get(), calls.failed.get(), elapsed, exceeded);
+    }
+
+    // One round of every read, varied by round number so successive rounds touch different pages and values
+    private void round(Calls calls, Sample sample, List<StudentSort> sorts, int round) {
+        StudentSort sort = sorts.get(round % sorts.size());
+        calls.run("page", () -> studentService.getStudentsPage(round % 5, PAGE_SIZE, sort));
+        calls.run("search", () -> studentService.searchStudents(0, PAGE_SIZE, sort, filter(sample, round), null));
+        if (!sample.terms().isEmpty()) {
+            String term = pick(sample.terms(), round);
+            calls.run("search.text", () -> studentService.searchStudents(0, 20, StudentSort.BY_ID, StudentFilter.NONE, term));
+            calls.run("suggest", () -> studentService.suggestStudents(term.substring(0, 1 + round % term.length()), 10));
+        }
+        StudentValueCache.Field field = StudentValueCache.Field.values()[round % StudentValueCache.Field.values().length];
+        calls.run("values", () -> studentService.getFieldValues(field.name(), "", 10));
+        calls.run("changes", () -> studentService.getChangesSince(0, 100));
+        calls.run("stats.gender", studentService::getGenderStats);
+        calls.run("stats.domains", studentService::getDomainStats);
+        calls.run("stats.nationalities", studentService::getNationalityStats);
+        calls.run("stats.colleges", studentService::getCollegeStats);
+        for (StudentStatsSketches.Field statsField : StudentStatsSketches.Field.values()) {
+            calls.run("stats.approx", () -> studentService.getStats(statsField, 10, StudentStatsSketches.Mode.APPROX));
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        calls.run("timeline", () -> registrationRollups.timeline(today.minusDays(90), today,
+                RegistrationRollups.Bucket.values()[round % RegistrationRollups.Bucket.values().length], round % 2 == 0));
+    }
+
+    private static StudentFilter filter(Sample sample, int round) {
+        String gender = Gender.values()[round % Gender.values().length].name();
+        return switch (round % 3) {
+            case 0 -> StudentFilter.of(List.of(gender), null, null, null, null, null);
+            case 1 -> StudentFilter.of(null, null, sample.nationalities().isEmpty() ? null : List.of(pick(sample.nationalities(), round)),
+                    null, null, null);
+            default -> StudentFilter.of(List.of(gender), null, null,
+                    sample.colleges().isEmpty() ? null : List.of(pick(sample.colleges(), round)), null, null);
+        };
+    }
+
+    private static String pick(List<String> values, int round) {
+        return values.get(round % values.size());
+    }
+
+    // Real ids, search terms and filter values, so the warm-up queries find rows as production ones do
+    private Sample sample() {
+        List<Long> ids = new ArrayList<>();
+        List<String> terms = new ArrayList<>();
+        for (int page = 0; ids.size() < cacheRows; page++) {
+            List<Student> students = studentService.getStudentsPage(page, PAGE_SIZE, StudentSort.BY_ID).getContent();
+            for (Student student : students) {
+                if (ids.size() < cacheRows) ids.add(student.getId());
+                String name = student.getName() == null ? "" : student.getName().trim().toLowerCase(Locale.ROOT);
+                if (terms.size() < 20 && name.length() >= StudentService.MIN_TEXT_QUERY_LENGTH)
+                    terms.add(name.substring(0, StudentService.MIN_TEXT_QUERY_LENGTH));
+            }
+            if (students.size() < PAGE_SIZE) break;
+        }
+        List<String> nationalities = studentService.getFieldValues("nationality", "", 10).stream().map(DomainCount::getDomain).toList();
+        List<String> colleges = studentService.getFieldValues("college", "", 10).stream().map(DomainCount::getDomain).toList();
+        return new Sample(ids, terms, nationalities, colleges);
+    }
+
+    private record Sample(List<Long> ids, List<String> terms, List<String> nationalities, List<String> colleges) {}
+
+    /**
+     * Times each call and counts failures; runs nothing once the budget is spent.
+     */
+    private final class Calls {
+        final AtomicBoolean stop;
+        final long deadline;
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+
+        Calls(AtomicBoolean stop, long deadline) {
+            this.stop = stop;
+            this.deadline = deadline;
+        }
+
+        <T> T run(String name, Supplier<T> call) {
+            if (stop.get() || System.nanoTime() > deadline) {
+                stop.set(true);
+                return null;
+            }
+            long started = System.nanoTime();
+            String outcome = "success";
+            try {
+                return call.get();
+            } catch (RuntimeException ex) {
+                outcome = "error";
+                failed.incrementAndGet();
+                log.debug("Warm-up call {} failed", name, ex);
+                return null;
+            } finally {
+                total.incrementAndGet();
+                Timer.builder("app.warmup.calls")
+                        .description("Read calls made while warming up")
+                        .tag("call", name)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
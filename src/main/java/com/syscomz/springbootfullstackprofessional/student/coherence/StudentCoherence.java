@@ -0,0 +1,375 @@
+package com.syscomz.springbootfullstackprofessional.student.coherence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.config.ReadWriteRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeHorizon;
+import com.syscomz.springbootfullstackprofessional.student.StudentChanges;
+import com.syscomz.springbootfullstackprofessional.student.StudentRemoteChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentService;
+import com.syscomz.springbootfullstackprofessional.student.export.StudentTableVersion;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the in-process caches of several application nodes coherent: each node tells the others which
+ * students it wrote, and drops what it holds for students written elsewhere.
+ * <p>
+ * On PostgreSQL every {@link StudentChangeEvent} becomes a {@code pg_notify} on
+ * {@code app.coherence.channel}, carrying the ids and the changed columns, issued inside the writing
+ * transaction. PostgreSQL delivers it when that transaction commits and drops it on rollback. Each node
+ * {@code LISTEN}s on a dedicated connection outside the pool, opened before the read models load at
+ * startup. The connection is pinged while idle and reopened after {@code app.coherence.reconnect-delay}
+ * when it breaks. Notifications sent while it was down are lost, so a reconnect flushes everything.
+ * </p>
+ * <p>
+ * Other databases (H2 in tests) have no {@code LISTEN}. There each node polls the change feed behind
+ * {@code GET /changes} every {@code app.coherence.poll-interval}. The feed does not say which node wrote
+ * a row, so a node also sees its own writes again. That is harmless, because receivers only replace or
+ * drop. More than {@code app.coherence.max-poll-rows} changes at once are handled as a flush.
+ * </p>
+ * <p>
+ * Receiving evicts the students from the Hibernate second-level cache, invalidates cached exports
+ * ({@link StudentTableVersion}) and publishes a {@link StudentRemoteChangeEvent} with the current rows,
+ * read from the primary. The in-process read models listen for that event. Off unless
+ * {@code app.coherence.enabled=true}.
+ * </p>
+ */
+@Component
+public class StudentCoherence {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentCoherence.class);
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final Map<String, Function<Student, Object>> COLUMNS = Map.of(
+            "name", Student::getName,
+            "email", Student::getEmail,
+            "gender", Student::getGender,
+            "nationality", Student::getNationality,
+            "college", Student::getCollege,
+            "major", Student::getMajor,
+            "minor", Student::getMinor);
+
+    private final String node = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<DataSourceProperties> dataSourceProperties;
+    private final DatabasePlatform databasePlatform;
+    private final StudentService studentService;
+    private final StudentChangeHorizon changeHorizon;
+    private final StudentRepository studentRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final StudentTableVersion tableVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final String channel;
+    private final Duration listenTimeout;
+    private final Duration reconnectDelay;
+    private final int maxPollRows;
+
+    private volatile boolean running;
+    private volatile Thread listener;
+    private volatile Connection connection;
+    // Change version the polling fallback has seen up to; negative while not polling
+    private volatile long polledVersion = -1;
+
+    public StudentCoherence(DataSource dataSource,
+                            ObjectProvider<DataSourceProperties> dataSourceProperties,
+                            DatabasePlatform databasePlatform,
+                            StudentService studentService,
+                            StudentChangeHorizon changeHorizon,
+                            StudentRepository studentRepository,
+                            EntityManagerFactory entityManagerFactory,
+                            StudentTableVersion tableVersion,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.coherence.enabled:false}") boolean enabled,
+                            @Value("${app.coherence.channel:student_changes}") String channel,
+                            @Value("${app.coherence.listen-timeout:10s}") Duration listenTimeout,
+                            @Value("${app.coherence.reconnect-delay:5s}") Duration reconnectDelay,
+                            @Value("${app.coherence.max-poll-rows:10000}") int maxPollRows) {
+        if (!CHANNEL.matcher(channel).matches())
+            throw new IllegalArgumentException(String.format("app.coherence.channel must be a lower-case identifier: %s", channel));
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dataSourceProperties = dataSourceProperties;
+        this.databasePlatform = databasePlatform;
+        this.studentService = studentService;
+        this.changeHorizon = changeHorizon;
+        this.studentRepository = studentRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableVersion = tableVersion;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.channel = channel;
+        this.listenTimeout = listenTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.maxPollRows = Math.max(1, maxPollRows);
+    }
+
+    // Before ApplicationReadyEvent, when the read models load: nothing written after they read the table is missed
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (!enabled || running) return;
+        running = true;
+        if (!databasePlatform.isPostgres()) {
+            polledVersion = changeHorizon.settledVersion();
+            log.info("Student cache coherence: polling the change feed (no LISTEN/NOTIFY on {})", databasePlatform.getProductName());
+            return;
+        }
+        boolean listening = connect();
+        Thread thread = new Thread(() -> listen(!listening), "student-coherence");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+        log.info("Student cache coherence: listening on channel {} as node {}", channel, node);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) thread.interrupt();
+        closeConnection();
+    }
+
+    /**
+     * Tells the other nodes about a write, inside its transaction when there is one.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        if (!enabled || !databasePlatform.isPostgres()) return;
+        StudentInvalidation message = event.type() == StudentChangeEvent.Type.RELOADED
+                ? new StudentInvalidation(node, true, List.of(), Set.of())
+                : new StudentInvalidation(node, false, List.of(event.studentId()), changedFields(event.previous(), event.current()));
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode student invalidation", ex);
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, channel, payload);
+    }
+
+    /**
+     * Polling fallback for databases without {@code LISTEN}: applies the changes committed since the last poll.
+     */
+    @Scheduled(initialDelayString = "${app.coherence.poll-interval:5s}",
+               fixedDelayString = "${app.coherence.poll-interval:5s}")
+    public void poll() {
+        long since = polledVersion;
+        if (!running || since < 0) return;
+        Map<Long, Student> upserted = new LinkedHashMap<>();
+        Set<Long> deleted = new LinkedHashSet<>();
+        StudentChanges page;
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            do {
+                page = studentService.getChangesSince(since, maxPollRows);
+                for (Student s : page.upserted()) {
+                    upserted.put(s.getId(), s);
+                    deleted.remove(s.getId());
+                }
+                for (Long id : page.deleted()) {
+                    deleted.add(id);
+                    upserted.remove(id);
+                }
+                since = page.next();
+                if (upserted.size() + deleted.size() > maxPollRows) {
+                    polledVersion = changeHorizon.settledVersion();
+                    flush("more than " + maxPollRows + " changes");
+                    return;
+                }
+            } while (page.hasMore());
+        } finally {
+            ReadWriteRoutingDataSource.unpin();
+        }
+        polledVersion = since;
+        if (upserted.isEmpty() && deleted.isEmpty()) return;
+        Set<Long> ids = new LinkedHashSet<>(upserted.keySet());
+        ids.addAll(deleted);
+        invalidate(ids, COLUMNS.keySet(), upserted);
+    }
+
+    // Runs on the listener thread until stop(); the first connection was opened by start()
+    private void listen(boolean missed) {
+        while (running) {
+            Connection c = connection;
+            if (c == null) {
+                sleep(reconnectDelay);
+                if (!running || !connect()) continue;
+                c = connection;
+                // Whatever was sent while nobody listened is lost
+                if (missed) flush("reconnected");
+            }
+            try {
+                PGConnection pg = c.unwrap(PGConnection.class);
+                PGNotification[] notifications = pg.getNotifications((int) Math.max(1, listenTimeout.toMillis()));
+                if (notifications == null || notifications.length == 0) {
+                    ping(c);
+                } else {
+                    receive(notifications);
+                }
+            } catch (SQLException ex) {
+                if (!running) return;
+                log.warn("Lost the student coherence channel; reconnecting in {}: {}", reconnectDelay, ex.getMessage());
+                closeConnection();
+                missed = true;
+            } catch (RuntimeException ex) {
+                // A read model failing to refresh must not stop the listener; start over from the database
+                log.warn("Could not apply student invalidations; flushing", ex);
+                flush("failed invalidation");
+            }
+        }
+    }
+
+    private boolean connect() {
+        DataSourceProperties properties = dataSourceProperties.getIfAvailable();
+        if (properties == null) {
+            log.warn("Student cache coherence needs spring.datasource.* to open its LISTEN connection");
+            return false;
+        }
+        try {
+            Connection c = DriverManager.getConnection(properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+            try (Statement statement = c.createStatement()) {
+                statement.execute("LISTEN " + channel);
+            }
+            connection = c;
+            return true;
+        } catch (SQLException ex) {
+            log.warn("Could not listen on student coherence channel {}; retrying in {}: {}", channel, reconnectDelay, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void closeConnection() {
+        Connection c = connection;
+        connection = null;
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (SQLException ex) {
+            // already broken
+        }
+    }
+
+    // getNotifications does not notice a connection that died silently; a round trip does
+    private static void ping(Connection c) throws SQLException {
+        try (Statement statement = c.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private void receive(PGNotification[] notifications) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> fields = new TreeSet<>();
+        for (PGNotification notification : notifications) {
+            StudentInvalidation message;
+            try {
+                message = objectMapper.readValue(notification.getParameter(), StudentInvalidation.class);
+            } catch (JsonProcessingException ex) {
+                log.warn("Unreadable student invalidation {}; flushing", notification.getParameter());
+                flush("unreadable notification");
+                return;
+            }
+            if (node.equals(message.node())) continue;
+            if (message.flush()) {
+                flush("bulk reload on node " + message.node());
+                return;
+            }
+            ids.addAll(message.ids());
+            fields.addAll(message.fields());
+        }
+        if (!ids.isEmpty()) invalidate(ids, fields, null);
+    }
+
+    // current: rows already read (polling), or null to read them here
+    private void invalidate(Set<Long> ids, Set<String> fields, Map<Long, Student> current) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) cache.evict(Student.class, id);
+        tableVersion.bump();
+        Map<Long, Student> rows = current != null ? current : load(ids);
+        eventPublisher.publishEvent(StudentRemoteChangeEvent.changed(ids, rows, fields));
+        log.debug("Invalidated {} students written on other nodes ({})", ids.size(), fields);
+    }
+
+    private void flush(String reason) {
+        log.info("Flushing student caches: {}", reason);
+        entityManagerFactory.getCache().evict(Student.class);
+        tableVersion.bump();
+        eventPublisher.publishEvent(StudentRemoteChangeEvent.flushAll());
+    }
+
+    // From the primary: a replica may not have the write yet
+    private Map<Long, Student> load(Set<Long> ids) {
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            Map<Long, Student> rows = new HashMap<>();
+            readOnlyTx.executeWithoutResult(tx -> studentRepository.findAllById(ids).forEach(s -> rows.put(s.getId(), s)));
+            return rows;
+        } finally {
+            ReadWriteRoutingDataSource.unpin();
+        }
+    }
+
+    static Set<String> changedFields(Student previous, Student current) {
+        if (previous == null || current == null) return COLUMNS.keySet();
+        Set<String> changed = new TreeSet<>();
+        COLUMNS.forEach((name, column) -> {
+            if (!Objects.equals(column.apply(previous), column.apply(current))) changed.add(name);
+        });
+        return changed;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
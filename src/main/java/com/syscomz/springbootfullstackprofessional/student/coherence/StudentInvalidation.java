@@ -0,0 +1,15 @@
+package com.syscomz.springbootfullstackprofessional.student.coherence;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Payload of one coherence notification, sent as JSON on the {@code app.coherence.channel} channel.
+ *
+ * @param node   id of the sending node, so that it can ignore its own notifications
+ * @param flush  whether receivers must drop everything (a bulk reload), rather than {@code ids}
+ * @param ids    ids of the students written
+ * @param fields names of the columns that changed
+ */
+record StudentInvalidation(String node, boolean flush, List<Long> ids, Set<String> fields) {
+}
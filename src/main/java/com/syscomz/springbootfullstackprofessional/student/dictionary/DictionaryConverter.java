@@ -0,0 +1,64 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps a dictionary-encoded {@code Student} column between its value and its key. The entity, its
+ * JSON and JPQL comparisons keep working with strings while the table stores small integers.
+ * Hibernate creates the converters through Spring's bean container, so they share the one
+ * {@link StudentDictionary}.
+ * <p>
+ * Converting a value never inserts it. Values the dictionary does not have become
+ * {@link StudentDictionary#UNKNOWN}, so a filter on one matches nothing. Writes intern their values
+ * first ({@link StudentDictionaryListener}).
+ * </p>
+ */
+public abstract class DictionaryConverter implements AttributeConverter<String, Integer> {
+
+    private final StudentDictionary dictionary;
+    private final StudentDictionary.Column column;
+
+    protected DictionaryConverter(StudentDictionary dictionary, StudentDictionary.Column column) {
+        this.dictionary = dictionary;
+        this.column = column;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String value) {
+        return dictionary.idOf(column, value);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return dictionary.valueOf(column, id);
+    }
+
+    @Converter
+    public static class Nationality extends DictionaryConverter {
+        public Nationality(StudentDictionary dictionary) {
+            super(dictionary, StudentDictionary.Column.NATIONALITY);
+        }
+    }
+
+    @Converter
+    public static class College extends DictionaryConverter {
+        public College(StudentDictionary dictionary) {
+            super(dictionary, StudentDictionary.Column.COLLEGE);
+        }
+    }
+
+    @Converter
+    public static class Major extends DictionaryConverter {
+        public Major(StudentDictionary dictionary) {
+            super(dictionary, StudentDictionary.Column.MAJOR);
+        }
+    }
+
+    @Converter
+    public static class Minor extends DictionaryConverter {
+        public Minor(StudentDictionary dictionary) {
+            super(dictionary, StudentDictionary.Column.MINOR);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Table;
+
+/**
+ * One distinct value of a dictionary-encoded student column, stored once and referenced from
+ * {@code student} by its small integer key (tables from V8__create_student_dictionaries.sql).
+ * <p>
+ * Rows are inserted through {@link StudentDictionary}, and a key means the same value for as long as
+ * its row exists. Keys follow the order of the values, so {@code student} sorts by its key columns
+ * directly. When values crowd between two neighbours, {@link StudentDictionaryRenumbering} gives them
+ * new keys: the old row is retired ({@code replaced_by} set) while the students move over, then deleted.
+ * A name is unique among the current rows (a partial unique index in V8, which Hibernate cannot map). {@code Student} maps the keys as plain strings
+ * with a {@link DictionaryConverter}. The mapping also makes Hibernate create the tables in schemas it
+ * generates (tests).
+ * </p>
+ */
+@MappedSuperclass
+public abstract class DictionaryEntry {
+
+    // Assigned in value order by StudentDictionary, not generated
+    @Id
+    private Integer id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    // Key of the row that took over this value, while it is being renumbered
+    @Column(name = "replaced_by")
+    private Integer replacedBy;
+
+    protected DictionaryEntry() {
+        // for JPA
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getReplacedBy() {
+        return replacedBy;
+    }
+
+    @Entity
+    @Table(name = "student_nationality")
+    public static class Nationality extends DictionaryEntry {
+    }
+
+    @Entity
+    @Table(name = "student_college")
+    public static class College extends DictionaryEntry {
+    }
+
+    @Entity
+    @Table(name = "student_major")
+    public static class Major extends DictionaryEntry {
+    }
+
+    @Entity
+    @Table(name = "student_minor")
+    public static class Minor extends DictionaryEntry {
+    }
+}
@@ -0,0 +1,366 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.student.StudentRemoteChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.exception.ServiceUnavailableException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory, two-way cache of the dictionary tables behind {@code student.nationality_id},
+ * {@code college_id}, {@code major_id} and {@code minor_id}.
+ * <p>
+ * A column's dictionary is loaded the first time the column is used; after that almost every
+ * conversion is a map lookup. The values are low-cardinality, a few hundred per column. Keys are
+ * assigned in value order (in the database's collation), so sorting {@code student} by a key column
+ * sorts it by the value. A miss falls back to the database, because another node may have added the
+ * value, and caches what it finds.
+ * </p>
+ * <p>
+ * A value between two neighbours takes the midpoint of their keys, so values added in order between
+ * the same two run out of keys after a few dozen. When a new key lands within {@value #RENUMBER_GAP}
+ * of a neighbour, {@link StudentDictionaryRenumbering} respaces that part of the dictionary in the
+ * background; a write that still finds no key left fails with a retryable 503 until it is done.
+ * Renumbering drops this cache, here and, through a coherence flush, on the other nodes.
+ * </p>
+ * <p>
+ * Writes {@link #intern} their values before the row is flushed; see {@link StudentDictionaryListener}.
+ * A value added inside a transaction is visible only to that transaction until it commits. So it
+ * is cached only after the commit, and a rollback never leaves a key in the cache that the database
+ * does not have. Lookups that miss never insert. A filter on a value no student has ever had resolves
+ * to {@link #UNKNOWN}, which matches no row, instead of growing the dictionary.
+ * </p>
+ */
+@Component
+public class StudentDictionary {
+
+    /**
+     * Key of a value that is not in the dictionary; never assigned to a row.
+     */
+    public static final int UNKNOWN = -1;
+
+    // Distance between neighbouring keys when values are added past either end
+    static final int KEY_STEP = 1 << 16;
+
+    // A new key this close to a neighbour has the dictionary renumbered
+    static final int RENUMBER_GAP = 1 << 10;
+
+    // Long enough for a renumbering that moves a handful of values
+    private static final long RETRY_AFTER_SECONDS = 10;
+
+    /**
+     * Dictionary-encoded columns of {@code student}.
+     */
+    public enum Column {
+        NATIONALITY("student_nationality", "nationality_id"),
+        COLLEGE("student_college", "college_id"),
+        MAJOR("student_major", "major_id"),
+        MINOR("student_minor", "minor_id");
+
+        private final String table;
+        private final String key;
+
+        Column(String table, String key) {
+            this.table = table;
+            this.key = key;
+        }
+
+        public String table() {
+            return table;
+        }
+
+        /**
+         * The column of {@code student} holding the key.
+         */
+        public String key() {
+            return key;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    // Lazily: the renumbering depends on this dictionary
+    private final ObjectProvider<StudentDictionaryRenumbering> renumbering;
+    private final Map<Column, Entries> entries = new EnumMap<>(Column.class);
+    // Elsewhere than on PostgreSQL: stands in for the table lock of student_dictionary_intern
+    private final Map<Column, ReentrantLock> additions = new EnumMap<>(Column.class);
+
+    public StudentDictionary(DataSource dataSource, DatabasePlatform databasePlatform,
+                             ObjectProvider<StudentDictionaryRenumbering> renumbering) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.databasePlatform = databasePlatform;
+        this.renumbering = renumbering;
+        for (Column column : Column.values()) {
+            entries.put(column, new Entries(column));
+            additions.put(column, new ReentrantLock());
+        }
+    }
+
+    /**
+     * Key of {@code value}, adding it to the dictionary if needed ({@code null} stays {@code null}).
+     */
+    public Integer intern(Column column, String value) {
+        if (value == null) return null;
+        Entries e = entries.get(column);
+        Integer id = e.idOf(value);
+        if (id != null) return id;
+        Map<String, Integer> pending = pendingIfBound(column);
+        if (pending != null && (id = pending.get(value)) != null) return id;
+        id = databasePlatform.isPostgres()
+                ? internOnPostgres(column, value)
+                : internElsewhere(column, value);
+        boolean crowded = crowded(column, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending(column).put(value, id);
+            // Renumbering only sees committed keys
+            if (crowded) TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    renumber(column);
+                }
+            });
+        } else {
+            e.put(id, value);
+            if (crowded) renumber(column);
+        }
+        return id;
+    }
+
+    private Integer internOnPostgres(Column column, String value) {
+        try {
+            return jdbcTemplate.queryForObject("SELECT student_dictionary_intern(?::regclass, ?)", Integer.class, column.table, value);
+        } catch (DataIntegrityViolationException ex) {
+            throw noKeyLeft(column, value);
+        }
+    }
+
+    private ServiceUnavailableException noKeyLeft(Column column, String value) {
+        renumber(column);
+        return new ServiceUnavailableException(String.format(
+                "Cannot add %s yet: no key left next to its neighbours in %s, which is being renumbered", value, column.table),
+                RETRY_AFTER_SECONDS);
+    }
+
+    // Whether the current keys next to id are within RENUMBER_GAP of it
+    private boolean crowded(Column column, int id) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(
+                "SELECT (SELECT MAX(id) FROM " + column.table + " WHERE id < ? AND replaced_by IS NULL), " +
+                "(SELECT MIN(id) FROM " + column.table + " WHERE id > ? AND replaced_by IS NULL)", rs -> {
+                    rs.next();
+                    long below = rs.getLong(1); // 0, the lower bound, when there is none
+                    long above = rs.getLong(2);
+                    if (rs.wasNull()) above = Integer.MAX_VALUE;
+                    return id - below < RENUMBER_GAP || above - id < RENUMBER_GAP;
+                }, id, id));
+    }
+
+    private void renumber(Column column) {
+        StudentDictionaryRenumbering r = renumbering.getIfAvailable();
+        if (r != null) r.request(column);
+    }
+
+    // student_dictionary_intern for H2 (tests): the same keys, with a lock in this JVM instead of the
+    // table lock, also held until the adding transaction ends. Another application context on the same
+    // database may add a value next to the same neighbours and take the same key; retry once it has committed.
+    private Integer internElsewhere(Column column, String value) {
+        lockAdditions(column);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlockAdditions(column);
+                }
+            });
+            return insertElsewhere(column, value);
+        }
+        try {
+            return insertElsewhere(column, value);
+        } finally {
+            unlockAdditions(column);
+        }
+    }
+
+    private Integer insertElsewhere(Column column, String value) {
+        for (int attempt = 1; ; attempt++) {
+            List<Integer> found = jdbcTemplate.queryForList("SELECT id FROM " + column.table + " WHERE name = ? AND replaced_by IS NULL", Integer.class, value);
+            if (!found.isEmpty()) return found.get(0);
+            List<Integer> below = jdbcTemplate.queryForList("SELECT id FROM " + column.table + " WHERE name < ? AND replaced_by IS NULL ORDER BY name DESC LIMIT 1", Integer.class, value);
+            List<Integer> above = jdbcTemplate.queryForList("SELECT id FROM " + column.table + " WHERE name > ? AND replaced_by IS NULL ORDER BY name LIMIT 1", Integer.class, value);
+            int id = keyBetween(below.isEmpty() ? null : below.get(0), above.isEmpty() ? null : above.get(0));
+            if (id == UNKNOWN) throw noKeyLeft(column, value);
+            try {
+                jdbcTemplate.update("INSERT INTO " + column.table + " (id, name) VALUES (?, ?)", id, value);
+                return id;
+            } catch (DuplicateKeyException ex) {
+                if (attempt == 10) throw ex;
+            }
+        }
+    }
+
+    /**
+     * The key for a value ordered between the values with keys {@code below} and {@code above}
+     * ({@code null} at either end), or {@link #UNKNOWN} when they are adjacent. Keys are ordered like
+     * their values: past the last one at either end a value is {@value #KEY_STEP} away, so the first
+     * values of a new dictionary are evenly spaced, and otherwise it takes the midpoint.
+     */
+    static int keyBetween(Integer below, Integer above) {
+        long low = below == null ? 0 : below;
+        long high = above == null ? Integer.MAX_VALUE : above;
+        long key;
+        if (below != null && above == null && low + KEY_STEP < high) key = low + KEY_STEP;
+        else if (below == null && above != null && high - KEY_STEP > low) key = high - KEY_STEP;
+        else key = (low + high) / 2;
+        return key > low && key < high ? (int) key : UNKNOWN;
+    }
+
+    /**
+     * Key of {@code value}, or {@link #UNKNOWN} if no row has ever had it; never inserts.
+     */
+    public Integer idOf(Column column, String value) {
+        if (value == null) return null;
+        Integer id = entries.get(column).idOf(value);
+        if (id != null) return id;
+        Map<String, Integer> pending = pendingIfBound(column);
+        if (pending != null && (id = pending.get(value)) != null) return id;
+        List<Integer> found = jdbcTemplate.queryForList("SELECT id FROM " + column.table + " WHERE name = ? AND replaced_by IS NULL", Integer.class, value);
+        if (found.isEmpty()) return UNKNOWN;
+        // Not pending in this transaction, so the row is committed
+        entries.get(column).put(found.get(0), value);
+        return found.get(0);
+    }
+
+    /**
+     * The value behind {@code id} ({@code null} stays {@code null}).
+     */
+    public String valueOf(Column column, Integer id) {
+        if (id == null) return null;
+        Entries e = entries.get(column);
+        String value = e.valueOf(id);
+        if (value != null) return value;
+        Map<String, Integer> pending = pendingIfBound(column);
+        if (pending != null) {
+            for (Map.Entry<String, Integer> p : pending.entrySet()) {
+                if (p.getValue().equals(id)) return p.getKey();
+            }
+        }
+        List<String> found = jdbcTemplate.queryForList("SELECT name FROM " + column.table + " WHERE id = ?", String.class, id);
+        if (found.isEmpty()) throw new IllegalStateException(String.format("No %s with id %d", column.table, id));
+        e.put(id, found.get(0));
+        return found.get(0);
+    }
+
+    // Renumbering takes it too, elsewhere than on PostgreSQL, where it locks the table
+    void lockAdditions(Column column) {
+        additions.get(column).lock();
+    }
+
+    void unlockAdditions(Column column) {
+        additions.get(column).unlock();
+    }
+
+    /**
+     * Drops what is cached for {@code column}; called when it has been renumbered.
+     */
+    void reset(Column column) {
+        entries.get(column).reset();
+    }
+
+    // Another node may have renumbered a dictionary; a flush is all it sends
+    @EventListener
+    public void onRemoteChange(StudentRemoteChangeEvent event) {
+        if (!event.flush()) return;
+        for (Column column : Column.values()) reset(column);
+    }
+
+    // Values interned by the current transaction, cached once it commits
+    @SuppressWarnings("unchecked")
+    private Map<Column, Map<String, Integer>> pendingAll(boolean create) {
+        Map<Column, Map<String, Integer>> pending =
+                (Map<Column, Map<String, Integer>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            Map<Column, Map<String, Integer>> bound = new EnumMap<>(Column.class);
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StudentDictionary.this);
+                    if (status != STATUS_COMMITTED) return;
+                    bound.forEach((column, values) -> values.forEach((value, id) -> entries.get(column).put(id, value)));
+                }
+            });
+            pending = bound;
+        }
+        return pending;
+    }
+
+    private Map<String, Integer> pending(Column column) {
+        return pendingAll(true).computeIfAbsent(column, c -> new HashMap<>());
+    }
+
+    private Map<String, Integer> pendingIfBound(Column column) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        Map<Column, Map<String, Integer>> pending = pendingAll(false);
+        return pending == null ? null : pending.get(column);
+    }
+
+    private final class Entries {
+        final Column column;
+        final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        final Map<Integer, String> values = new ConcurrentHashMap<>();
+        volatile boolean loaded;
+
+        Entries(Column column) {
+            this.column = column;
+        }
+
+        Integer idOf(String value) {
+            load();
+            return ids.get(value);
+        }
+
+        String valueOf(Integer id) {
+            load();
+            return values.get(id);
+        }
+
+        void put(Integer id, String value) {
+            ids.put(value, id);
+            values.put(id, value);
+        }
+
+        // Lookups in between miss and go to the database
+        synchronized void reset() {
+            loaded = false;
+            ids.clear();
+            values.clear();
+        }
+
+        // Whole table on first use: a few hundred rows. Retired keys still resolve to their value.
+        private void load() {
+            if (loaded) return;
+            synchronized (this) {
+                if (loaded) return;
+                jdbcTemplate.query("SELECT id, name, replaced_by FROM " + column.table, rs -> {
+                    values.put(rs.getInt(1), rs.getString(2));
+                    if (rs.getObject(3) == null) ids.put(rs.getString(2), rs.getInt(1));
+                });
+                loaded = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import com.syscomz.springbootfullstackprofessional.student.Student;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * JPA entity listener on {@code Student} that adds new nationality, college, major and minor values
+ * to the dictionaries before the row is written. The insert or update then finds every key, whichever
+ * code path saved the student. Hibernate creates the listener through Spring's bean container.
+ */
+public class StudentDictionaryListener {
+
+    private final StudentDictionary dictionary;
+
+    public StudentDictionaryListener(StudentDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void onWrite(Student student) {
+        dictionary.intern(StudentDictionary.Column.NATIONALITY, student.getNationality());
+        dictionary.intern(StudentDictionary.Column.COLLEGE, student.getCollege());
+        dictionary.intern(StudentDictionary.Column.MAJOR, student.getMajor());
+        dictionary.intern(StudentDictionary.Column.MINOR, student.getMinor());
+    }
+}
@@ -0,0 +1,362 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionary.Column;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Gives the values in a crowded part of a dictionary new, evenly spaced keys, so that new values keep
+ * fitting between their neighbours (see {@link StudentDictionary}).
+ * <p>
+ * A run finds the first gap between neighbouring keys narrower than {@link StudentDictionary#RENUMBER_GAP}
+ * and widens a window of consecutive values around it until their keys can be {@value #TARGET_GAP}
+ * apart. Then it moves the values one at a time. A move inserts the value under its new key and
+ * retires the old row, under the table lock that additions take, then rewrites the key column of
+ * {@code student} in committed batches. Values moving down go in ascending order and values moving up
+ * in descending order, so every new key lies between the keys the neighbours' rows hold at that moment,
+ * and sorts by the key column stay in value order throughout. Filters through {@link DictionaryConverter}
+ * match the current key only: while a value's rows are being rewritten, a filter on it finds only the
+ * ones already moved.
+ * </p>
+ * <p>
+ * After the moves the cached keys are dropped: the entity cache and {@link StudentDictionary} here, and
+ * through the RELOADED event and {@code StudentCoherence}, on the other nodes. Until then a writer may
+ * still use a retired key; on PostgreSQL the V8 trigger swaps it for the current one. After
+ * {@code app.dictionary.renumber-grace} the retired keys are swept once more and their rows deleted. A
+ * run that died halfway is finished by the next one, and every node starts one per dictionary when it
+ * is ready. On PostgreSQL a session advisory lock keeps two nodes from renumbering the same dictionary.
+ * </p>
+ */
+@Component
+public class StudentDictionaryRenumbering {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentDictionaryRenumbering.class);
+
+    // Spacing a renumbered window aims for: four more values fit at the same place before the next run
+    static final int TARGET_GAP = StudentDictionary.KEY_STEP / 4;
+
+    // Bounds the replanning when values are added next to the window while it moves
+    private static final int MAX_PLANS = 20;
+
+    /**
+     * A value moving from key {@code from} to key {@code to}.
+     */
+    record Move(String name, int from, int to) {
+    }
+
+    /**
+     * A current dictionary row.
+     */
+    record Entry(int key, String name) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final StudentDictionary dictionary;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final Duration grace;
+    private final int batchSize;
+    private final Executor renumberer;
+    private final ExecutorService ownedRenumberer;
+    private final Set<Column> queued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public StudentDictionaryRenumbering(DataSource dataSource,
+                                        DatabasePlatform databasePlatform,
+                                        StudentDictionary dictionary,
+                                        ApplicationEventPublisher eventPublisher,
+                                        ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                        @Value("${app.dictionary.renumber-grace:30s}") Duration grace,
+                                        @Value("${app.dictionary.renumber-batch-size:1000}") int batchSize) {
+        this(dataSource, databasePlatform, dictionary, eventPublisher, entityManagerFactory, grace, batchSize, newRenumberer());
+    }
+
+    StudentDictionaryRenumbering(DataSource dataSource, DatabasePlatform databasePlatform, StudentDictionary dictionary,
+                                 ApplicationEventPublisher eventPublisher, ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                 Duration grace, int batchSize, Executor renumberer) {
+        if (batchSize < 1) throw new IllegalArgumentException("app.dictionary.renumber-batch-size must be positive");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.databasePlatform = databasePlatform;
+        this.dictionary = dictionary;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.grace = grace;
+        this.batchSize = batchSize;
+        this.renumberer = renumberer;
+        this.ownedRenumberer = renumberer instanceof ExecutorService service ? service : null;
+    }
+
+    private static ExecutorService newRenumberer() {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "student-dictionary-renumbering");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Finishes what a node that stopped halfway left behind, and respaces what is already crowded
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        for (Column column : Column.values()) request(column);
+    }
+
+    /**
+     * Renumbers {@code column} on the renumbering thread; a request made while one is queued is covered by it.
+     */
+    public void request(Column column) {
+        if (!queued.add(column)) return;
+        try {
+            renumberer.execute(() -> {
+                queued.remove(column);
+                try {
+                    run(column);
+                } catch (RuntimeException ex) {
+                    log.warn("Could not renumber {}", column.table(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Shutting down
+            queued.remove(column);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ownedRenumberer != null) ownedRenumberer.shutdownNow();
+    }
+
+    // Everything on one connection: the advisory lock belongs to its session
+    void run(Column column) {
+        WorkloadRoutingDataSource.runAs(Workload.Type.BULK, () -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!lock(jdbc, column)) {
+                log.info("{} is being renumbered by another node", column.table());
+                return null;
+            }
+            try {
+                renumber(connection, jdbc, column);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                unlock(jdbc, column);
+            }
+            return null;
+        }));
+    }
+
+    private void renumber(Connection connection, JdbcTemplate jdbc, Column column) throws SQLException, InterruptedException {
+        boolean leftOver = sweepRetired(jdbc, column);
+        int moved = 0;
+        for (int plans = 0; plans < MAX_PLANS; plans++) {
+            List<Move> moves = plan(current(jdbc, column));
+            if (moves.isEmpty()) break;
+            for (Move move : moves) {
+                // Null when a value was added next to it meanwhile: plan again
+                Integer to = retire(connection, jdbc, column, move);
+                if (to == null) break;
+                dictionary.reset(column);
+                sweep(jdbc, column, move.from(), to);
+                moved++;
+            }
+        }
+        if (moved == 0 && !leftOver) return;
+        flush(column);
+        Thread.sleep(grace.toMillis());
+        sweepRetired(jdbc, column);
+        deleteRetired(jdbc, column);
+        log.info("Renumbered {} values of {}", moved, column.table());
+    }
+
+    /**
+     * The moves that respace the window around the first crowded gap of {@code current} (ordered by
+     * key), in an order that keeps every key between its neighbours'; empty when nothing is crowded or
+     * the whole dictionary is too dense to help.
+     */
+    static List<Move> plan(List<Entry> current) {
+        int n = current.size();
+        int gap = -1; // between value gap - 1 and value gap; 0 and n are the ends
+        for (int i = 0; i <= n && gap < 0; i++) {
+            if (keyAt(current, i) - keyAt(current, i - 1) < StudentDictionary.RENUMBER_GAP) gap = i;
+        }
+        if (gap < 0 || n == 0) return List.of();
+        int from = Math.max(0, gap - 1);
+        int to = Math.min(n - 1, gap);
+        boolean left = true;
+        while (step(current, from, to) < TARGET_GAP && (from > 0 || to < n - 1)) {
+            if ((left && from > 0) || to == n - 1) from--;
+            else to++;
+            left = !left;
+        }
+        long step = step(current, from, to);
+        if (step < 2L * StudentDictionary.RENUMBER_GAP) return List.of();
+        long low = keyAt(current, from - 1);
+        List<Move> down = new ArrayList<>();
+        List<Move> up = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            Entry entry = current.get(i);
+            int target = (int) (low + (i - from + 1) * step);
+            if (target < entry.key()) down.add(new Move(entry.name(), entry.key(), target));
+            else if (target > entry.key()) up.add(new Move(entry.name(), entry.key(), target));
+        }
+        Collections.reverse(up);
+        down.addAll(up);
+        return down;
+    }
+
+    // Key of the i-th value, with 0 and Integer.MAX_VALUE past either end
+    private static long keyAt(List<Entry> current, int i) {
+        if (i < 0) return 0;
+        if (i >= current.size()) return Integer.MAX_VALUE;
+        return current.get(i).key();
+    }
+
+    // Spacing of values from..to spread evenly between the keys around them
+    private static long step(List<Entry> current, int from, int to) {
+        return (keyAt(current, to + 1) - keyAt(current, from - 1)) / (to - from + 2);
+    }
+
+    private static List<Entry> current(JdbcTemplate jdbc, Column column) {
+        return jdbc.query("SELECT id, name FROM " + column.table() + " WHERE replaced_by IS NULL ORDER BY id",
+                (rs, i) -> new Entry(rs.getInt(1), rs.getString(2)));
+    }
+
+    // Inserts the value under its new key and retires the old row; returns the new key, or null when
+    // the move no longer fits between the value's neighbours
+    private Integer retire(Connection connection, JdbcTemplate jdbc, Column column, Move move) throws SQLException {
+        boolean postgres = databasePlatform.isPostgres();
+        if (!postgres) dictionary.lockAdditions(column);
+        connection.setAutoCommit(false);
+        try {
+            if (postgres) jdbc.execute("LOCK TABLE " + column.table() + " IN SHARE ROW EXCLUSIVE MODE");
+            List<Entry> current = current(jdbc, column);
+            int at = current.indexOf(new Entry(move.from(), move.name()));
+            if (at < 0) {
+                connection.rollback();
+                return null;
+            }
+            long low = keyAt(current, at - 1);
+            long high = keyAt(current, at + 1);
+            // A key retired earlier in this run may sit on the target
+            Set<Integer> taken = new HashSet<>(jdbc.queryForList("SELECT id FROM " + column.table() +
+                    " WHERE id > ? AND id < ?", Integer.class, low, high));
+            int to = move.to();
+            while (taken.contains(to)) to++;
+            if (to <= low || to >= high) {
+                connection.rollback();
+                return null;
+            }
+            jdbc.update("UPDATE " + column.table() + " SET replaced_by = ? WHERE id = ?", to, move.from());
+            jdbc.update("INSERT INTO " + column.table() + " (id, name) VALUES (?, ?)", to, move.name());
+            connection.commit();
+            return to;
+        } catch (DataIntegrityViolationException ex) {
+            // Elsewhere than on PostgreSQL, another application context on the same database may have taken the key
+            connection.rollback();
+            return null;
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+            if (!postgres) dictionary.unlockAdditions(column);
+        }
+    }
+
+    // Rewrites the students holding key from, a committed batch at a time
+    private void sweep(JdbcTemplate jdbc, Column column, int from, int to) {
+        String update = "UPDATE student SET " + column.key() + " = ? WHERE id IN " +
+                "(SELECT id FROM student WHERE " + column.key() + " = ? ORDER BY id LIMIT ?)";
+        while (jdbc.update(update, to, from, batchSize) > 0) {
+            // next batch
+        }
+    }
+
+    // Sweeps every retired key to its value's current key; false when there is none
+    private boolean sweepRetired(JdbcTemplate jdbc, Column column) {
+        Map<Integer, Integer> replacedBy = retired(jdbc, column);
+        for (Map.Entry<Integer, Integer> retired : replacedBy.entrySet()) {
+            int to = retired.getValue();
+            // Moved again by a run that could not delete the first old row
+            while (replacedBy.containsKey(to)) to = replacedBy.get(to);
+            sweep(jdbc, column, retired.getKey(), to);
+        }
+        return !replacedBy.isEmpty();
+    }
+
+    private void deleteRetired(JdbcTemplate jdbc, Column column) {
+        for (Integer key : retired(jdbc, column).keySet()) {
+            try {
+                jdbc.update("DELETE FROM " + column.table() + " WHERE id = ?", key);
+            } catch (DataIntegrityViolationException ex) {
+                // Written with the retired key after the sweep; the next run sweeps and deletes it
+                log.info("Retired key {} of {} is still in use", key, column.table());
+            }
+        }
+    }
+
+    private static Map<Integer, Integer> retired(JdbcTemplate jdbc, Column column) {
+        Map<Integer, Integer> replacedBy = new HashMap<>();
+        jdbc.query("SELECT id, replaced_by FROM " + column.table() + " WHERE replaced_by IS NOT NULL",
+                rs -> {
+                    replacedBy.put(rs.getInt(1), rs.getInt(2));
+                });
+        return replacedBy;
+    }
+
+    // The rows are unchanged apart from their keys, but every cache of keys must go
+    private void flush(Column column) {
+        dictionary.reset(column);
+        EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+        if (emf != null) emf.getCache().evict(Student.class);
+        eventPublisher.publishEvent(StudentChangeEvent.reloaded());
+    }
+
+    private boolean lock(JdbcTemplate jdbc, Column column) {
+        if (!databasePlatform.isPostgres()) return true; // one renumbering thread per JVM
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT pg_try_advisory_lock(hashtext('student_dictionary_renumbering'), ?)", Boolean.class, column.ordinal()));
+    }
+
+    private void unlock(JdbcTemplate jdbc, Column column) {
+        if (!databasePlatform.isPostgres()) return;
+        jdbc.queryForObject("SELECT pg_advisory_unlock(hashtext('student_dictionary_renumbering'), ?)", Boolean.class, column.ordinal());
+    }
+}
@@ -0,0 +1,15 @@
+package com.syscomz.springbootfullstackprofessional.student.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request is valid but the target resource is not in a state that allows it
+ * (e.g. downloading an export job that has not finished). Maps to HTTP 409 Conflict.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    public ConflictException(String msg) {
+        super(msg);
+    }
+}
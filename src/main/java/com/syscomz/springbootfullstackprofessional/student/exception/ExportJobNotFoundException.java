@@ -0,0 +1,15 @@
+package com.syscomz.springbootfullstackprofessional.student.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an export job id is unknown, expired, or belongs to another client.
+ * Maps to HTTP 404 Not Found.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ExportJobNotFoundException extends RuntimeException {
+    public ExportJobNotFoundException(String msg) {
+        super(msg);
+    }
+}
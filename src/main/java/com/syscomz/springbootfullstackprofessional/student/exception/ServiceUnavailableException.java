@@ -0,0 +1,25 @@
+package com.syscomz.springbootfullstackprofessional.student.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request cannot be served right now but will succeed once background work finishes.
+ * <p>
+ * Maps to HTTP 503 Service Unavailable; {@link GlobalExceptionHandler} adds a {@code Retry-After}
+ * header carrying {@link #getRetryAfterSeconds()}.
+ * </p>
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
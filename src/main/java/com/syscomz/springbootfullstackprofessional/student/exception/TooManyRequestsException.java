@@ -0,0 +1,25 @@
+package com.syscomz.springbootfullstackprofessional.student.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a client exceeds a concurrency or rate limit.
+ * <p>
+ * Maps to HTTP 429 Too Many Requests; {@link GlobalExceptionHandler} adds a {@code Retry-After}
+ * header carrying {@link #getRetryAfterSeconds()}.
+ * </p>
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
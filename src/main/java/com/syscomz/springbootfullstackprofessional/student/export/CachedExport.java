@@ -0,0 +1,48 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A rendered export on disk.
+ * <p>
+ * What is served is {@code channel}, opened while the file was known to exist. The cache may delete the
+ * file at any time after that (eviction, expiry, purge): an open descriptor keeps the data readable
+ * until it is closed. Close it once the response is written.
+ * </p>
+ *
+ * @param file      the CSV file (gzip-compressed when {@code gzip})
+ * @param length    file size in bytes, i.e. the Content-Length of a full response
+ * @param etag      strong entity tag, quoted
+ * @param rows      number of students in the file
+ * @param gzip      whether the file holds the gzip content coding
+ * @param cacheHit  whether this request was served from an earlier rendering
+ * @param temporary whether the file belongs to this request only and must be deleted after serving
+ * @param channel   the open file, or {@code null} until {@link #open()}
+ */
+public record CachedExport(Path file, long length, String etag, long rows, boolean gzip, boolean cacheHit,
+                           boolean temporary, FileChannel channel) implements Closeable {
+
+    public CachedExport(Path file, long length, String etag, long rows, boolean gzip, boolean cacheHit, boolean temporary) {
+        this(file, length, etag, rows, gzip, cacheHit, temporary, null);
+    }
+
+    /**
+     * This export with the file opened for reading.
+     */
+    public CachedExport open() throws IOException {
+        return new CachedExport(file, length, etag, rows, gzip, cacheHit, temporary, FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    CachedExport asHit() {
+        return new CachedExport(file, length, etag, rows, gzip, true, temporary, channel);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+}
@@ -0,0 +1,219 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size-bounded on-disk cache of rendered CSV exports.
+ * <p>
+ * Files are keyed by the SHA-256 of the normalized export parameters, the content coding and the
+ * {@link StudentTableVersion} token taken before rendering, so any write to the table makes earlier
+ * files unreachable. Concurrent requests for the same key render once. Files are written to a temp
+ * name and moved into place, so a reader never sees a partial file. The least recently served files
+ * are deleted once the total size passes {@code app.export.cache.max-size}, and files older than
+ * {@code app.export.cache.max-age} are re-rendered. A returned export comes with its file already open,
+ * under the same lock as eviction, so a file deleted while it is being served stays readable through
+ * that descriptor. The directory only holds files of the current run; it is emptied at startup.
+ * </p>
+ */
+@Component
+public class ExportFileCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportFileCache.class);
+    private static final String SUFFIX = ".csv";
+    private static final String GZIP_SUFFIX = ".csv.gz";
+
+    /**
+     * Writes the export body and returns the number of rows written.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        long render(Writer out) throws IOException;
+    }
+
+    private final StudentTableVersion tableVersion;
+    private final boolean enabled;
+    private final boolean gzipEnabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration maxAge;
+    private final Map<String, Object> renderLocks = new ConcurrentHashMap<>();
+    // Access-ordered, eldest first; guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private record Entry(CachedExport export, long createdAt) {}
+
+    public ExportFileCache(StudentTableVersion tableVersion,
+                           @Value("${app.export.cache.enabled:true}") boolean enabled,
+                           @Value("${app.export.cache.gzip:true}") boolean gzipEnabled,
+                           @Value("${app.export.cache.dir:${java.io.tmpdir}/student-exports}") Path directory,
+                           @Value("${app.export.cache.max-size:512MB}") DataSize maxSize,
+                           @Value("${app.export.cache.max-age:1h}") Duration maxAge) {
+        this.tableVersion = tableVersion;
+        this.enabled = enabled;
+        this.gzipEnabled = gzipEnabled;
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        this.maxAge = maxAge;
+    }
+
+    @PostConstruct
+    void prepareDirectory() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*{" + SUFFIX + "," + GZIP_SUFFIX + ",.tmp}")) {
+            for (Path file : stale) Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Returns the cached file for {@code params} at the current table version, rendering it first if
+     * needed. The file is open; the caller closes the export once it has been served.
+     *
+     * @param params normalized export parameters; equal strings must describe equal exports
+     */
+    public CachedExport getOrRender(String params, boolean gzip, Renderer renderer) throws IOException {
+        String key = key(params, gzip);
+        if (!enabled) {
+            return render(key, gzip, renderer, Files.createTempFile(directory, "export-", ".tmp"), true).open();
+        }
+        CachedExport hit = lookup(key);
+        if (hit != null) return hit;
+        Object lock = renderLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                hit = lookup(key);
+                if (hit != null) return hit;
+                CachedExport rendered = render(key, gzip, renderer, directory.resolve(key + (gzip ? GZIP_SUFFIX : SUFFIX)), false);
+                return store(key, rendered);
+            }
+        } finally {
+            renderLocks.remove(key, lock);
+        }
+    }
+
+    /**
+     * Whether to store and send the gzip variant for a request with this {@code Accept-Encoding}.
+     */
+    public boolean shouldCompress(String acceptEncoding) {
+        if (!gzipEnabled || acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (!param.startsWith("q=")) continue;
+                try {
+                    return Double.parseDouble(param.substring(2)) > 0;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) delete(entry.export().file());
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private synchronized CachedExport lookup(String key) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        boolean expired = System.currentTimeMillis() - entry.createdAt() > maxAge.toMillis();
+        if (expired || !Files.exists(entry.export().file())) {
+            entries.remove(key);
+            totalBytes -= entry.export().length();
+            delete(entry.export().file());
+            return null;
+        }
+        return entry.export().asHit().open();
+    }
+
+    // Opens the file before anything else can evict it
+    private synchronized CachedExport store(String key, CachedExport export) throws IOException {
+        CachedExport opened = export.open();
+        entries.put(key, new Entry(export, System.currentTimeMillis()));
+        totalBytes += export.length();
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            if (victim.getKey().equals(key)) continue;
+            eldest.remove();
+            totalBytes -= victim.getValue().export().length();
+            // Requests still serving it read through the descriptor they opened under this lock
+            delete(victim.getValue().export().file());
+        }
+        return opened;
+    }
+
+    private CachedExport render(String key, boolean gzip, Renderer renderer, Path target, boolean temporary) throws IOException {
+        Path tmp = temporary ? target : Files.createTempFile(directory, "export-", ".tmp");
+        long rows;
+        try (OutputStream file = Files.newOutputStream(tmp);
+             OutputStream body = gzip ? new GZIPOutputStream(file, 64 * 1024) : file;
+             Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 64 * 1024)) {
+            rows = renderer.render(out);
+        } catch (IOException | RuntimeException ex) {
+            delete(tmp);
+            throw ex;
+        }
+        if (!temporary) Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long length = Files.size(target);
+        return new CachedExport(target, length, '"' + key.substring(0, 32) + '"', rows, gzip, false, temporary);
+    }
+
+    private String key(String params, boolean gzip) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            String material = params + "|coding=" + (gzip ? "gzip" : "identity") + "|table=" + tableVersion.token();
+            return HexFormat.of().formatHex(sha.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete export file {}", file, ex);
+        }
+    }
+}
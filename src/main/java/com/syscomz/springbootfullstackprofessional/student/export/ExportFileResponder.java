@@ -0,0 +1,135 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a {@link CachedExport} to the servlet response with conditional and ranged request support.
+ * <p>
+ * Honours {@code If-None-Match} (304), a single {@code Range: bytes=...} (206, or 416 when unsatisfiable)
+ * guarded by {@code If-Range}. Multiple ranges are answered with the full file, as RFC 9110 allows.
+ * </p>
+ * <p>
+ * The body is a buffered copy, not a zero-copy transfer: it is read from the export's open channel in
+ * {@value #COPY_BUFFER_SIZE}-byte chunks and written to the servlet output stream, which takes every
+ * byte through the heap (a {@link FileChannel#transferTo} into a wrapped stream would do the same,
+ * through a smaller buffer). The kernel-side copy, Tomcat's sendfile, opens the file by name after the
+ * servlet returns, when cache eviction or the job purge may already have deleted it; reading through
+ * the descriptor opened under the cache lock is what keeps an evicted file servable. The channel is
+ * closed afterwards.
+ * </p>
+ */
+public final class ExportFileResponder {
+
+    private static final long[] UNSATISFIABLE = new long[0];
+    static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private ExportFileResponder() {}
+
+    /**
+     * Writes {@code export}, which must be {@linkplain CachedExport#open() open}, and closes it.
+     */
+    public static void serve(CachedExport export, String contentType, String filename,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            response.setHeader(HttpHeaders.ETAG, export.etag());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), export.etag())) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            if (export.gzip()) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+            long length = export.length();
+            long start = 0;
+            long end = length - 1;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(export.etag()))) {
+                long[] parsed = parseRange(range, length);
+                if (parsed == UNSATISFIABLE) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setContentLength(0);
+                    return;
+                }
+                if (parsed != null) {
+                    start = parsed[0];
+                    end = parsed[1];
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+            long count = end - start + 1;
+            response.setContentLengthLong(count);
+            if ("HEAD".equalsIgnoreCase(request.getMethod()) || count <= 0) return;
+
+            OutputStream body = response.getOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, count));
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read = export.channel().read(buffer, position);
+                if (read <= 0) break;
+                body.write(buffer.array(), 0, read);
+                position += read;
+                remaining -= read;
+            }
+            body.flush();
+        } finally {
+            export.close();
+            if (export.temporary()) ExportFileCache.delete(export.file());
+        }
+    }
+
+    /**
+     * Parses a single byte range; returns {@code null} to ignore the header (malformed or multiple ranges),
+     * {@link #UNSATISFIABLE} when it lies past the end, else the inclusive {@code [start, end]}.
+     */
+    static long[] parseRange(String header, long length) {
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) return null;
+        String spec = value.substring(6).trim();
+        if (spec.contains(",")) return null;
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return UNSATISFIABLE;
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length) return UNSATISFIABLE;
+            if (end < start) return null;
+            return new long[]{start, end};
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) return true;
+        }
+        return false;
+    }
+}
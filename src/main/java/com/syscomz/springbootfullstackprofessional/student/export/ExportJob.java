@@ -0,0 +1,74 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One background export, from submission until its file expires. Progress fields are written by the
+ * worker thread and read by status requests, hence volatile/atomic.
+ */
+public class ExportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id;
+    private final String owner;
+    private final ExportParams params;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile long estimatedRows = -1;
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant finishedAt;
+    private volatile Path file;
+    private volatile long bytes;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    ExportJob(String id, String owner, ExportParams params) {
+        this.id = id;
+        this.owner = owner;
+        this.params = params;
+    }
+
+    public String getId() { return id; }
+    public String getOwner() { return owner; }
+    public ExportParams getParams() { return params; }
+    public Instant getCreatedAt() { return createdAt; }
+    public long getRowsWritten() { return rowsWritten.get(); }
+    public long getEstimatedRows() { return estimatedRows; }
+    public Status getStatus() { return status; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public Path getFile() { return file; }
+    public long getBytes() { return bytes; }
+    public String getError() { return error; }
+
+    public boolean isActive() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    boolean isCancelRequested() { return cancelRequested; }
+    void requestCancel() { cancelRequested = true; }
+    void setFuture(Future<?> future) { this.future = future; }
+    Future<?> getFuture() { return future; }
+    void setEstimatedRows(long estimatedRows) { this.estimatedRows = estimatedRows; }
+    void rowWritten() { rowsWritten.incrementAndGet(); }
+
+    void start() {
+        status = Status.RUNNING;
+    }
+
+    void complete(Path file, long bytes) {
+        this.file = file;
+        this.bytes = bytes;
+        finish(Status.COMPLETED, null);
+    }
+
+    void finish(Status status, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+}
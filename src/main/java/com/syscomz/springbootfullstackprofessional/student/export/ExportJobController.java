@@ -0,0 +1,97 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import com.syscomz.springbootfullstackprofessional.config.ClientIdentity;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.exception.ConflictException;
+import com.syscomz.springbootfullstackprofessional.student.exception.ExportJobNotFoundException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+/**
+ * Background export jobs: submit, poll progress, download the finished file, cancel.
+ * <p>
+ * Jobs are owned by the submitting client ({@link ClientIdentity}); other clients get 404.
+ * </p>
+ */
+@RestController
+@RequestMapping(path = "api/v1/students/export/jobs")
+public class ExportJobController {
+    private final ExportJobService exportJobService;
+
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExportJobStatus> submit(@RequestParam(defaultValue = "id") String sortBy,
+                                                  @RequestParam(defaultValue = "asc") String direction,
+                                                  @RequestParam(required = false) List<String> sort,
+                                                  @RequestParam(required = false) List<String> gender,
+                                                  @RequestParam(required = false) String domain,
+                                                  @RequestParam(required = false) List<String> nationality,
+                                                  @RequestParam(required = false) List<String> college,
+                                                  @RequestParam(required = false) List<String> major,
+                                                  @RequestParam(required = false) List<String> minor,
+                                                  HttpServletRequest request) {
+        StudentFilter filter = StudentFilter.of(gender, domain, nationality, college, major, minor);
+        ExportJob job = exportJobService.submit(ClientIdentity.of(request), ExportParams.of(StudentSort.parse(sort, sortBy, direction), filter));
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl(job)))
+                .body(ExportJobStatus.of(job, fileUrl(job)));
+    }
+
+    @GetMapping("{jobId}")
+    public ExportJobStatus status(@PathVariable("jobId") String jobId, HttpServletRequest request) {
+        ExportJob job = exportJobService.get(ClientIdentity.of(request), jobId);
+        return ExportJobStatus.of(job, fileUrl(job));
+    }
+
+    @GetMapping(value = "{jobId}/file", produces = "text/csv")
+    public void download(@PathVariable("jobId") String jobId,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        ExportJob job = exportJobService.get(ClientIdentity.of(request), jobId);
+        if (job.getStatus() != ExportJob.Status.COMPLETED)
+            throw new ConflictException(String.format("Export job %s is %s", jobId, job.getStatus()));
+        CachedExport file;
+        try {
+            // Open before serving: the purge may delete the file while it is being sent
+            file = new CachedExport(job.getFile(), job.getBytes(), '"' + job.getId() + '"',
+                    job.getRowsWritten(), false, true, false).open();
+        } catch (NoSuchFileException ex) {
+            throw new ExportJobNotFoundException(String.format("Export job %s does not exist", jobId));
+        }
+        String filename = "students-export-" + job.getCreatedAt().toString().substring(0, 10) + ".csv";
+        ExportFileResponder.serve(file, "text/csv", filename, request, response);
+    }
+
+    @DeleteMapping("{jobId}")
+    public ResponseEntity<Void> cancel(@PathVariable("jobId") String jobId, HttpServletRequest request) {
+        exportJobService.cancel(ClientIdentity.of(request), jobId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String statusUrl(ExportJob job) {
+        return "/api/v1/students/export/jobs/" + job.getId();
+    }
+
+    private static String fileUrl(ExportJob job) {
+        return statusUrl(job) + "/file";
+    }
+}
@@ -0,0 +1,224 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentSpecifications;
+import com.syscomz.springbootfullstackprofessional.student.exception.ExportJobNotFoundException;
+import com.syscomz.springbootfullstackprofessional.student.exception.TooManyRequestsException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs CSV exports in the background so large filters do not hold a request thread (or fail on a
+ * load balancer timeout).
+ * <p>
+ * Jobs run on a bounded pool ({@code app.export.jobs.threads} workers, {@code app.export.jobs.queue}
+ * waiting). A client may have at most {@code app.export.jobs.per-client} jobs queued or running; past
+ * that, and when the queue is full, submission fails with 429. In one read-only transaction (served by
+ * the replica when one is configured) a worker counts the matching rows, the progress denominator, then
+ * streams them into a file under {@code app.export.jobs.dir}. It checks for cancellation between rows.
+ * Finished jobs and their files are purged {@code app.export.jobs.retention} after they end.
+ * </p>
+ */
+@Component
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+    // Rows after which the persistence context is cleared, so streamed entities do not pile up
+    private static final int CLEAR_EVERY = 1000;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final EntityManager entityManager;
+    private final int perClientLimit;
+    private final Duration retention;
+    private final Path directory;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(StudentRepository studentRepository,
+                            PlatformTransactionManager transactionManager,
+                            EntityManager entityManager,
+                            @Value("${app.export.jobs.threads:2}") int threads,
+                            @Value("${app.export.jobs.queue:20}") int queueCapacity,
+                            @Value("${app.export.jobs.per-client:2}") int perClientLimit,
+                            @Value("${app.export.jobs.retention:1h}") Duration retention,
+                            @Value("${app.export.jobs.dir:${java.io.tmpdir}/student-export-jobs}") Path directory) {
+        this.studentRepository = studentRepository;
+        this.readOnlyTx = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (this.readOnlyTx != null) this.readOnlyTx.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.perClientLimit = Math.max(1, perClientLimit);
+        this.retention = retention;
+        this.directory = directory;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "export-job-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    void prepareDirectory() throws IOException {
+        Files.createDirectories(directory);
+        // Job state is in memory only, so files left by a previous run can never be downloaded
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*.{csv,tmp}")) {
+            for (Path file : stale) Files.deleteIfExists(file);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(ExportJob::requestCancel);
+        executor.shutdownNow();
+    }
+
+    public ExportJob submit(String owner, ExportParams params) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), owner, params);
+        synchronized (this) {
+            long active = jobs.values().stream().filter(j -> j.getOwner().equals(owner) && j.isActive()).count();
+            if (active >= perClientLimit)
+                throw new TooManyRequestsException(String.format("At most %d export jobs may run at once", perClientLimit), 30);
+            jobs.put(job.getId(), job);
+        }
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.getId());
+            throw new TooManyRequestsException("The export queue is full, try again later", 60);
+        }
+        return job;
+    }
+
+    public ExportJob get(String owner, String id) {
+        ExportJob job = jobs.get(id);
+        // Other clients' jobs are reported as missing rather than forbidden, so ids cannot be probed
+        if (job == null || !job.getOwner().equals(owner))
+            throw new ExportJobNotFoundException(String.format("Export job %s does not exist", id));
+        return job;
+    }
+
+    /**
+     * Cancels a queued or running job (it stays visible as CANCELLED until it expires), or discards a
+     * finished job and its file.
+     */
+    public void cancel(String owner, String id) {
+        ExportJob job = get(owner, id);
+        if (job.isActive()) {
+            job.requestCancel();
+            if (job.getFuture() != null && job.getFuture().cancel(false)) {
+                // Never started: the worker will not run to record the outcome
+                job.finish(ExportJob.Status.CANCELLED, null);
+            }
+        } else {
+            jobs.remove(id);
+            deleteQuietly(job.getFile());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.export.jobs.cleanup-interval:5m}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        for (Iterator<ExportJob> it = jobs.values().iterator(); it.hasNext(); ) {
+            ExportJob job = it.next();
+            if (!job.isActive() && job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff)) {
+                it.remove();
+                deleteQuietly(job.getFile());
+            }
+        }
+    }
+
+    private void run(ExportJob job) {
+        if (job.isCancelRequested()) {
+            job.finish(ExportJob.Status.CANCELLED, null);
+            return;
+        }
+        job.start();
+        ExportParams params = job.getParams();
+        Path tmp = directory.resolve(job.getId() + ".tmp");
+        Path target = directory.resolve(job.getId() + ".csv");
+        try {
+            Sort sort = params.sort().toSort();
+            try (Writer out = new BufferedWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8), 64 * 1024)) {
+                StudentCsvWriter.writeHeader(out);
+                inReadOnlyTransaction(() -> {
+                    job.setEstimatedRows(studentRepository.count(StudentSpecifications.matching(params.filter())));
+                    try (Stream<Student> rows = studentRepository.streamFiltered(params.filter(), sort)) {
+                        Iterator<Student> it = rows.iterator();
+                        while (it.hasNext()) {
+                            if (job.isCancelRequested()) throw new CancellationException();
+                            StudentCsvWriter.writeRow(out, it.next());
+                            job.rowWritten();
+                            if (entityManager != null && job.getRowsWritten() % CLEAR_EVERY == 0) entityManager.clear();
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(target, Files.size(target));
+        } catch (CancellationException ex) {
+            job.finish(ExportJob.Status.CANCELLED, null);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Export job {} failed", job.getId(), ex);
+            job.finish(ExportJob.Status.FAILED, ex.getMessage());
+        } finally {
+            deleteQuietly(tmp);
+            if (job.getStatus() != ExportJob.Status.COMPLETED) deleteQuietly(target);
+        }
+    }
+
+    private void inReadOnlyTransaction(Runnable work) {
+        // Jobs run on their own threads, which no @Workload method sets up
+        if (readOnlyTx == null) WorkloadRoutingDataSource.runAs(Workload.Type.REPORTING, work);
+        else WorkloadRoutingDataSource.runAs(Workload.Type.REPORTING, () -> readOnlyTx.executeWithoutResult(status -> work.run()));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete export job file {}", file, ex);
+        }
+    }
+}
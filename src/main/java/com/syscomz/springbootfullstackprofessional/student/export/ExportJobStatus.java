@@ -0,0 +1,68 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import java.time.Instant;
+
+/**
+ * JSON view of an {@link ExportJob} returned by the job endpoints.
+ */
+public class ExportJobStatus {
+    private String id;
+    private ExportJob.Status status;
+    private long rowsWritten;
+    private long estimatedRows;
+    private Double progress;
+    private long bytes;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String error;
+    private String downloadUrl;
+
+    public ExportJobStatus() {}
+
+    public static ExportJobStatus of(ExportJob job, String downloadUrl) {
+        ExportJobStatus view = new ExportJobStatus();
+        view.id = job.getId();
+        view.status = job.getStatus();
+        view.rowsWritten = job.getRowsWritten();
+        view.estimatedRows = job.getEstimatedRows();
+        if (job.getStatus() == ExportJob.Status.COMPLETED) view.progress = 1.0;
+        else if (job.getEstimatedRows() > 0) view.progress = Math.min(1.0, (double) job.getRowsWritten() / job.getEstimatedRows());
+        else if (job.getEstimatedRows() == 0) view.progress = 0.0;
+        view.bytes = job.getBytes();
+        view.createdAt = job.getCreatedAt();
+        view.finishedAt = job.getFinishedAt();
+        view.error = job.getError();
+        view.downloadUrl = job.getStatus() == ExportJob.Status.COMPLETED ? downloadUrl : null;
+        return view;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public ExportJob.Status getStatus() { return status; }
+    public void setStatus(ExportJob.Status status) { this.status = status; }
+
+    public long getRowsWritten() { return rowsWritten; }
+    public void setRowsWritten(long rowsWritten) { this.rowsWritten = rowsWritten; }
+
+    public long getEstimatedRows() { return estimatedRows; }
+    public void setEstimatedRows(long estimatedRows) { this.estimatedRows = estimatedRows; }
+
+    public Double getProgress() { return progress; }
+    public void setProgress(Double progress) { this.progress = progress; }
+
+    public long getBytes() { return bytes; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public String getDownloadUrl() { return downloadUrl; }
+    public void setDownloadUrl(String downloadUrl) { this.downloadUrl = downloadUrl; }
+}
@@ -0,0 +1,27 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+
+/**
+ * Normalized {@code /export} parameters. Two requests that must produce the same file normalize to
+ * equal instances (and equal {@link #cacheKey()} strings).
+ *
+ * @param sort   validated sort, ending in the {@code id} tie-breaker
+ * @param filter normalized filter ({@link StudentFilter#NONE} for all students)
+ */
+public record ExportParams(StudentSort sort, StudentFilter filter) {
+
+    public static ExportParams of(StudentSort sort, StudentFilter filter) {
+        return new ExportParams(sort == null ? StudentSort.BY_ID : sort, filter == null ? StudentFilter.NONE : filter);
+    }
+
+    public String cacheKey() {
+        return "sort=" + sort + "|" + filter;
+    }
+
+    @Override
+    public String toString() {
+        return filter + ",sort=" + sort;
+    }
+}
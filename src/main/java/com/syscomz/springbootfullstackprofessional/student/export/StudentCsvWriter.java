@@ -0,0 +1,42 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import com.syscomz.springbootfullstackprofessional.student.Student;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Renders students in the {@code /export} CSV layout: a fixed header followed by one RFC 4180 row per
+ * student.
+ */
+public final class StudentCsvWriter {
+
+    public static final String HEADER = "id,name,email,gender,nationality,college,major,minor\n";
+
+    private StudentCsvWriter() {}
+
+    public static void writeHeader(Writer out) throws IOException {
+        out.write(HEADER);
+    }
+
+    public static void writeRow(Writer out, Student s) throws IOException {
+        out.append(csv(s.getId()))
+           .append(',').append(csv(s.getName()))
+           .append(',').append(csv(s.getEmail()))
+           .append(',').append(csv(s.getGender() != null ? s.getGender().name() : ""))
+           .append(',').append(csv(s.getNationality()))
+           .append(',').append(csv(s.getCollege()))
+           .append(',').append(csv(s.getMajor()))
+           .append(',').append(csv(s.getMinor()))
+           .append('\n');
+    }
+
+    static String csv(Object value) {
+        if (value == null) return "";
+        String s = String.valueOf(value);
+        if (s.contains("\"") || s.contains(",") || s.contains("\n") || s.contains("\r")) {
+            s = '"' + s.replace("\"", "\"\"") + '"';
+        }
+        return s;
+    }
+}
@@ -0,0 +1,37 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-local version of the student table, bumped on every write.
+ * <p>
+ * Cached exports are keyed by this version, so a cached file is never served after the table has
+ * changed. JPA writes bump it through {@link StudentTableVersionListener}; writers that bypass
+ * JPA (bulk JDBC loads) must call {@link #bump()} themselves. The boot id keeps versions from
+ * different application runs apart.
+ * </p>
+ */
+@Component
+public class StudentTableVersion {
+
+    private final String bootId = UUID.randomUUID().toString();
+    private final AtomicLong version = new AtomicLong();
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Opaque token identifying the current table contents within this process.
+     */
+    public String token() {
+        return bootId + ':' + version.get();
+    }
+}
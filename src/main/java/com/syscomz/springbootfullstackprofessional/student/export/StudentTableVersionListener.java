@@ -0,0 +1,49 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener on {@code Student} that bumps {@link StudentTableVersion} on every insert,
+ * update and delete, whichever code path issued it (service, repository, seeder, tests).
+ * <p>
+ * The callbacks run inside the writing transaction, so the version is bumped again once it completes:
+ * an export rendered between the flush and the commit still saw the old rows and must not survive
+ * under the new version. Hibernate creates the listener through Spring's bean container; the version
+ * bean is looked up lazily because slices such as {@code @DataJpaTest} do not define it.
+ * </p>
+ */
+public class StudentTableVersionListener {
+
+    private final ObjectProvider<StudentTableVersion> tableVersion;
+
+    public StudentTableVersionListener(ObjectProvider<StudentTableVersion> tableVersion) {
+        this.tableVersion = tableVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onWrite(Object entity) {
+        StudentTableVersion version = tableVersion.getIfAvailable();
+        if (version == null) return;
+        version.bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(version)) {
+            // One after-completion bump per transaction, however many rows it writes
+            TransactionSynchronizationManager.bindResource(version, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(version);
+                    version.bump();
+                }
+            });
+        }
+    }
+}
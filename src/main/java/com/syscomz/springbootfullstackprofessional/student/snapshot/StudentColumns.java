@@ -0,0 +1,270 @@
+package com.syscomz.springbootfullstackprofessional.student.snapshot;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable column store of students in id order: one primitive or {@code String} array per column.
+ * <p>
+ * Nationality, college, major, minor and the email domain are dictionary-encoded: the row holds an
+ * {@code int} code into a per-store {@link Dictionary}, and {@link #NULL} for no value. Each dictionary
+ * also ranks its values in sort order, so ordering rows by one of these columns compares two ints.
+ * Timestamps are kept as epoch nanoseconds. Names and emails stay {@code String}s; they are nearly unique.
+ * </p>
+ */
+final class StudentColumns {
+
+    static final int NULL = -1;
+    // Stands for a null change version or timestamp; no real one is this small
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    // Rough cost of one row in the primitive arrays, plus the per-String overhead of name and email
+    private static final int ROW_BYTES = 8 * 4 + 1 + 4 * 5 + 8 * 2;
+    private static final int STRING_OVERHEAD_BYTES = 48;
+
+    /**
+     * Dictionary-encoded columns.
+     */
+    enum Coded {
+        NATIONALITY(Student::getNationality),
+        COLLEGE(Student::getCollege),
+        MAJOR(Student::getMajor),
+        MINOR(Student::getMinor),
+        DOMAIN(s -> StudentStatsSketches.domainOf(s.getEmail()));
+
+        private final Function<Student, String> accessor;
+
+        Coded(Function<Student, String> accessor) {
+            this.accessor = accessor;
+        }
+
+        String valueOf(Student student) {
+            return accessor.apply(student);
+        }
+    }
+
+    static final StudentColumns EMPTY = new Builder(null).build();
+
+    final int size;
+    final long[] ids;
+    final String[] names;
+    final String[] emails;
+    final byte[] genders;
+    final int[][] codes;
+    final Dictionary[] dictionaries;
+    final long[] changeVersions;
+    final long[] updatedAt;
+    final long[] createdAt;
+
+    private StudentColumns(Builder b) {
+        this.size = b.size;
+        this.ids = Arrays.copyOf(b.ids, b.size);
+        this.names = Arrays.copyOf(b.names, b.size);
+        this.emails = Arrays.copyOf(b.emails, b.size);
+        this.genders = Arrays.copyOf(b.genders, b.size);
+        this.codes = new int[b.codes.length][];
+        this.dictionaries = new Dictionary[b.codes.length];
+        for (int c = 0; c < codes.length; c++) {
+            codes[c] = Arrays.copyOf(b.codes[c], b.size);
+            dictionaries[c] = new Dictionary(b.values.get(c));
+        }
+        this.changeVersions = Arrays.copyOf(b.changeVersions, b.size);
+        this.updatedAt = Arrays.copyOf(b.updatedAt, b.size);
+        this.createdAt = Arrays.copyOf(b.createdAt, b.size);
+    }
+
+    /**
+     * Row holding {@code id}, or a negative number if there is none.
+     */
+    int rowOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    Gender gender(int row) {
+        return Gender.values()[genders[row]];
+    }
+
+    int code(Coded column, int row) {
+        return codes[column.ordinal()][row];
+    }
+
+    String text(Coded column, int row) {
+        int code = codes[column.ordinal()][row];
+        return code == NULL ? null : dictionaries[column.ordinal()].values[code];
+    }
+
+    Dictionary dictionary(Coded column) {
+        return dictionaries[column.ordinal()];
+    }
+
+    /**
+     * The row as a new, detached entity.
+     */
+    Student student(int row) {
+        Student s = new Student(names[row], emails[row], gender(row), text(Coded.NATIONALITY, row),
+                text(Coded.COLLEGE, row), text(Coded.MAJOR, row), text(Coded.MINOR, row));
+        s.setId(ids[row]);
+        s.setChangeVersion(changeVersions[row] == NO_VALUE ? null : changeVersions[row]);
+        s.setUpdatedAt(instant(updatedAt[row]));
+        s.setCreatedAt(instant(createdAt[row]));
+        return s;
+    }
+
+    private static long nanos(Instant instant) {
+        return instant == null ? NO_VALUE : instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static Instant instant(long nanos) {
+        return nanos == NO_VALUE ? null : Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    /**
+     * Distinct values of one coded column, with their rank in value order ({@code String} order).
+     */
+    static final class Dictionary {
+        final String[] values;
+        final int[] ranks;
+        private final Map<String, Integer> codes;
+
+        private Dictionary(List<String> values) {
+            this.values = values.toArray(String[]::new);
+            this.codes = new HashMap<>(this.values.length * 2);
+            Integer[] order = new Integer[this.values.length];
+            for (int i = 0; i < order.length; i++) {
+                codes.put(this.values[i], i);
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> this.values[a].compareTo(this.values[b]));
+            this.ranks = new int[order.length];
+            for (int r = 0; r < order.length; r++) ranks[order[r]] = r;
+        }
+
+        /**
+         * Code of {@code value}, or {@link #NULL} if no row has it.
+         */
+        int code(String value) {
+            Integer code = value == null ? null : codes.get(value);
+            return code == null ? NULL : code;
+        }
+
+        int size() {
+            return values.length;
+        }
+    }
+
+    /**
+     * Appends rows in id order. Seeded with the dictionaries of an existing store, its rows can be
+     * copied code for code; new values get the next codes.
+     */
+    static final class Builder {
+        private int size;
+        private long[] ids = new long[16];
+        private String[] names = new String[16];
+        private String[] emails = new String[16];
+        private byte[] genders = new byte[16];
+        private final int[][] codes = new int[Coded.values().length][16];
+        private long[] changeVersions = new long[16];
+        private long[] updatedAt = new long[16];
+        private long[] createdAt = new long[16];
+        private final List<List<String>> values = new ArrayList<>();
+        private final List<Map<String, Integer>> lookup = new ArrayList<>();
+        private long estimatedBytes;
+
+        Builder(StudentColumns seed) {
+            for (Coded column : Coded.values()) {
+                List<String> v = new ArrayList<>();
+                Map<String, Integer> l = new HashMap<>();
+                if (seed != null) {
+                    Dictionary d = seed.dictionary(column);
+                    v.addAll(Arrays.asList(d.values));
+                    l.putAll(d.codes);
+                }
+                values.add(v);
+                lookup.add(l);
+            }
+        }
+
+        void add(long id, String name, String email, Gender gender, String nationality, String college,
+                 String major, String minor, Long changeVersion, Instant updated, Instant created) {
+            int row = next(id, name, email, gender);
+            codes[Coded.NATIONALITY.ordinal()][row] = intern(Coded.NATIONALITY, nationality);
+            codes[Coded.COLLEGE.ordinal()][row] = intern(Coded.COLLEGE, college);
+            codes[Coded.MAJOR.ordinal()][row] = intern(Coded.MAJOR, major);
+            codes[Coded.MINOR.ordinal()][row] = intern(Coded.MINOR, minor);
+            codes[Coded.DOMAIN.ordinal()][row] = intern(Coded.DOMAIN, StudentStatsSketches.domainOf(email));
+            changeVersions[row] = changeVersion == null ? NO_VALUE : changeVersion;
+            updatedAt[row] = nanos(updated);
+            createdAt[row] = nanos(created);
+        }
+
+        void add(Student s) {
+            add(s.getId(), s.getName(), s.getEmail(), s.getGender(), s.getNationality(), s.getCollege(),
+                    s.getMajor(), s.getMinor(), s.getChangeVersion(), s.getUpdatedAt(), s.getCreatedAt());
+        }
+
+        // Copies a row of the store this builder was seeded with
+        void copy(StudentColumns from, int row) {
+            int to = next(from.ids[row], from.names[row], from.emails[row], Gender.values()[from.genders[row]]);
+            for (int c = 0; c < codes.length; c++) codes[c][to] = from.codes[c][row];
+            changeVersions[to] = from.changeVersions[row];
+            updatedAt[to] = from.updatedAt[row];
+            createdAt[to] = from.createdAt[row];
+        }
+
+        long estimatedBytes() {
+            return estimatedBytes;
+        }
+
+        StudentColumns build() {
+            return new StudentColumns(this);
+        }
+
+        private int next(long id, String name, String email, Gender gender) {
+            if (size > 0 && id <= ids[size - 1])
+                throw new IllegalArgumentException(String.format("Rows must be added in id order: %d after %d", id, ids[size - 1]));
+            if (size == ids.length) grow();
+            int row = size++;
+            ids[row] = id;
+            names[row] = name;
+            emails[row] = email;
+            genders[row] = (byte) gender.ordinal();
+            estimatedBytes += ROW_BYTES + 2L * STRING_OVERHEAD_BYTES
+                    + (name == null ? 0 : name.length()) + (email == null ? 0 : email.length());
+            return row;
+        }
+
+        private int intern(Coded column, String value) {
+            if (value == null) return NULL;
+            Map<String, Integer> l = lookup.get(column.ordinal());
+            Integer code = l.get(value);
+            if (code == null) {
+                List<String> v = values.get(column.ordinal());
+                code = v.size();
+                v.add(value);
+                l.put(value, code);
+                estimatedBytes += STRING_OVERHEAD_BYTES + value.length();
+            }
+            return code;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            genders = Arrays.copyOf(genders, capacity);
+            for (int c = 0; c < codes.length; c++) codes[c] = Arrays.copyOf(codes[c], capacity);
+            changeVersions = Arrays.copyOf(changeVersions, capacity);
+            updatedAt = Arrays.copyOf(updatedAt, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+        }
+    }
+}
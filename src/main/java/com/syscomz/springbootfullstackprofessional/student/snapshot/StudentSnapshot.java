@@ -0,0 +1,449 @@
+package com.syscomz.springbootfullstackprofessional.student.snapshot;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.snapshot.StudentColumns.Coded;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * One immutable, consistent view of the student table: a {@link StudentColumns} base plus an overlay of
+ * the rows written since the base was built.
+ * <p>
+ * The overlay maps an id to its current row, or to {@code null} once deleted, and shadows the base row
+ * with the same id. Writes never modify a snapshot; {@link #with} returns a new one, copying only the
+ * overlay, and {@link #compact} folds the overlay into a new base. Scans address rows by reference: a
+ * base row as its index, an overlay row {@code k} as {@code -(k + 1)}.
+ * </p>
+ * <p>
+ * The base is scanned in partitions of {@code partitionRows} rows on the common fork-join pool. Each
+ * partition keeps its own count and its own best {@code offset + size} rows, and the partitions are
+ * merged at the end. Filters compare dictionary codes, and sorts compare dictionary ranks.
+ * </p>
+ */
+final class StudentSnapshot {
+
+    // Gender is stored as its name, so the database orders it alphabetically, not by ordinal
+    private static final int[] GENDER_RANKS = genderRanks();
+
+    final StudentColumns base;
+    private final int partitionRows;
+    // id -> current row, null when deleted
+    final Map<Long, Student> overlay;
+    private final Student[] overlayRows;
+    // Base rows replaced or deleted by the overlay, ascending
+    private final int[] shadowed;
+
+    private StudentSnapshot(StudentColumns base, int partitionRows, Map<Long, Student> overlay, Student[] overlayRows, int[] shadowed) {
+        this.base = base;
+        this.partitionRows = partitionRows;
+        this.overlay = overlay;
+        this.overlayRows = overlayRows;
+        this.shadowed = shadowed;
+    }
+
+    static StudentSnapshot empty(int partitionRows) {
+        return of(StudentColumns.EMPTY, partitionRows, Map.of());
+    }
+
+    static StudentSnapshot of(StudentColumns base, int partitionRows, Map<Long, Student> overlay) {
+        List<Student> rows = new ArrayList<>(overlay.size());
+        int[] shadowed = new int[overlay.size()];
+        int n = 0;
+        for (Map.Entry<Long, Student> e : overlay.entrySet()) {
+            if (e.getValue() != null) rows.add(e.getValue());
+            int row = base.rowOf(e.getKey());
+            if (row >= 0) shadowed[n++] = row;
+        }
+        shadowed = Arrays.copyOf(shadowed, n);
+        Arrays.sort(shadowed);
+        return new StudentSnapshot(base, partitionRows, Collections.unmodifiableMap(overlay), rows.toArray(Student[]::new), shadowed);
+    }
+
+    /**
+     * A snapshot of {@code base} with this snapshot's overlay, which wins over the new base as well.
+     */
+    StudentSnapshot rebase(StudentColumns base) {
+        return of(base, partitionRows, overlay);
+    }
+
+    /**
+     * This snapshot with the row of {@code id} replaced by {@code row} ({@code null} deletes it).
+     */
+    StudentSnapshot with(long id, Student row) {
+        Map<Long, Student> next = new HashMap<>(overlay);
+        next.put(id, row);
+        return of(base, partitionRows, next);
+    }
+
+    /**
+     * The same rows with an empty overlay. New dictionary values are appended to the base dictionaries,
+     * and values no row holds any more are kept until the next rebuild.
+     */
+    StudentSnapshot compact() {
+        StudentColumns.Builder builder = new StudentColumns.Builder(base);
+        Student[] pending = overlayRows.clone();
+        Arrays.sort(pending, (a, b) -> Long.compare(a.getId(), b.getId()));
+        int s = 0;
+        int p = 0;
+        for (int row = 0; row < base.size || p < pending.length; ) {
+            if (row < base.size && (p == pending.length || base.ids[row] < pending[p].getId())) {
+                if (s < shadowed.length && shadowed[s] == row) s++;
+                else builder.copy(base, row);
+                row++;
+            } else {
+                // The base row with the same id, if any, is shadowed and skipped on the next turn
+                builder.add(pending[p++]);
+            }
+        }
+        return of(builder.build(), partitionRows, Map.of());
+    }
+
+    int overlaySize() {
+        return overlay.size();
+    }
+
+    long size() {
+        return (long) base.size - shadowed.length + overlayRows.length;
+    }
+
+    record Result(List<Student> rows, long total) {}
+
+    /**
+     * The students matching {@code filter} and, when given, the lower-cased {@code term} as a substring
+     * of name or email, ordered by {@code sort}: {@code limit} of them from {@code offset}, and how many match.
+     * Nulls sort after every value in ascending order when {@code nullsLast}, before them otherwise.
+     */
+    Result search(StudentFilter filter, String term, StudentSort sort, boolean nullsLast, long offset, int limit) {
+        Matcher matcher = new Matcher(filter, term);
+        RowOrder order = new RowOrder(sort, nullsLast);
+        int keep = (int) Math.min(offset + limit, Integer.MAX_VALUE - 8);
+        TopK top = scan(() -> new TopK(keep, order), (acc, ref) -> {
+            if (matcher.test(ref)) acc.offer(ref);
+        }, TopK::merge);
+        int[] sorted = top.sorted();
+        List<Student> rows = new ArrayList<>();
+        for (long i = offset; i < sorted.length && rows.size() < limit; i++) rows.add(student(sorted[(int) i]));
+        return new Result(rows, top.total);
+    }
+
+    Map<Gender, Long> genderCounts() {
+        long[] counts = scan(() -> new long[GENDER_RANKS.length], (acc, ref) -> acc[gender(ref).ordinal()]++, (a, b) -> {
+            for (int i = 0; i < a.length; i++) a[i] += b[i];
+            return a;
+        });
+        Map<Gender, Long> result = new EnumMap<>(Gender.class);
+        for (Gender g : Gender.values()) result.put(g, counts[g.ordinal()]);
+        return result;
+    }
+
+    /**
+     * Number of rows per non-null value of {@code column}.
+     */
+    Map<String, Long> counts(Coded column) {
+        StudentColumns.Dictionary dictionary = base.dictionary(column);
+        ValueCounts counts = scan(() -> new ValueCounts(dictionary.size()), (acc, ref) -> {
+            if (ref >= 0) {
+                int code = base.code(column, ref);
+                if (code != StudentColumns.NULL) acc.byCode[code]++;
+            } else {
+                String value = column.valueOf(overlayRows[-ref - 1]);
+                if (value != null) acc.byValue.merge(value, 1L, Long::sum);
+            }
+        }, ValueCounts::merge);
+        Map<String, Long> result = new HashMap<>(counts.byValue);
+        for (int code = 0; code < counts.byCode.length; code++) {
+            if (counts.byCode[code] > 0) result.merge(dictionary.values[code], counts.byCode[code], Long::sum);
+        }
+        return result;
+    }
+
+    // Feeds every live row to an accumulator: base partitions in parallel, then the overlay
+    private <A> A scan(Supplier<A> create, ObjIntConsumer<A> accumulate, BinaryOperator<A> merge) {
+        int partitions = (base.size + partitionRows - 1) / partitionRows;
+        IntStream range = IntStream.range(0, partitions);
+        if (partitions > 1) range = range.parallel();
+        A result = range.mapToObj(p -> {
+            A acc = create.get();
+            int from = p * partitionRows;
+            int to = Math.min(base.size, from + partitionRows);
+            int s = lowerBound(shadowed, from);
+            for (int row = from; row < to; row++) {
+                if (s < shadowed.length && shadowed[s] == row) {
+                    s++;
+                    continue;
+                }
+                accumulate.accept(acc, row);
+            }
+            return acc;
+        }).reduce(merge).orElseGet(create);
+        for (int k = 0; k < overlayRows.length; k++) accumulate.accept(result, -k - 1);
+        return result;
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int pos = Arrays.binarySearch(sorted, value);
+        return pos < 0 ? -pos - 1 : pos;
+    }
+
+    private long id(int ref) {
+        return ref >= 0 ? base.ids[ref] : overlayRows[-ref - 1].getId();
+    }
+
+    private String name(int ref) {
+        return ref >= 0 ? base.names[ref] : overlayRows[-ref - 1].getName();
+    }
+
+    private String email(int ref) {
+        return ref >= 0 ? base.emails[ref] : overlayRows[-ref - 1].getEmail();
+    }
+
+    private Gender gender(int ref) {
+        return ref >= 0 ? base.gender(ref) : overlayRows[-ref - 1].getGender();
+    }
+
+    private String text(Coded column, int ref) {
+        return ref >= 0 ? base.text(column, ref) : column.valueOf(overlayRows[-ref - 1]);
+    }
+
+    private Student student(int ref) {
+        if (ref >= 0) return base.student(ref);
+        Student s = overlayRows[-ref - 1];
+        return StudentSnapshotEngine.detached(s);
+    }
+
+    // Same semantics as StudentSpecifications.matching plus nameOrEmailLike
+    private final class Matcher {
+        private final int genderMask;
+        private final StudentFilter filter;
+        private final boolean[][] accepted = new boolean[Coded.values().length][];
+        private final String domainSuffix;
+        private final String term;
+
+        Matcher(StudentFilter filter, String term) {
+            this.filter = filter;
+            int mask = 0;
+            for (Gender g : filter.genders()) mask |= 1 << g.ordinal();
+            this.genderMask = mask;
+            accept(Coded.NATIONALITY, filter.nationalities());
+            accept(Coded.COLLEGE, filter.colleges());
+            accept(Coded.MAJOR, filter.majors());
+            accept(Coded.MINOR, filter.minors());
+            this.domainSuffix = filter.domain() == null ? null : "@" + filter.domain();
+            this.term = term;
+        }
+
+        private void accept(Coded column, Set<String> values) {
+            if (values.isEmpty()) return;
+            StudentColumns.Dictionary dictionary = base.dictionary(column);
+            boolean[] codes = new boolean[dictionary.size()];
+            for (String value : values) {
+                int code = dictionary.code(value);
+                if (code != StudentColumns.NULL) codes[code] = true;
+            }
+            accepted[column.ordinal()] = codes;
+        }
+
+        boolean test(int ref) {
+            if (genderMask != 0 && (genderMask & (1 << gender(ref).ordinal())) == 0) return false;
+            if (!accepts(Coded.NATIONALITY, filter.nationalities(), ref)) return false;
+            if (!accepts(Coded.COLLEGE, filter.colleges(), ref)) return false;
+            if (!accepts(Coded.MAJOR, filter.majors(), ref)) return false;
+            if (!accepts(Coded.MINOR, filter.minors(), ref)) return false;
+            if (domainSuffix != null && !endsWithIgnoreCase(email(ref), domainSuffix)) return false;
+            return term == null || containsIgnoreCase(name(ref), term) || containsIgnoreCase(email(ref), term);
+        }
+
+        private boolean accepts(Coded column, Set<String> values, int ref) {
+            boolean[] codes = accepted[column.ordinal()];
+            if (codes == null) return true;
+            if (ref < 0) return values.contains(column.valueOf(overlayRows[-ref - 1]));
+            int code = base.code(column, ref);
+            return code != StudentColumns.NULL && codes[code];
+        }
+    }
+
+    private static boolean endsWithIgnoreCase(String value, String suffix) {
+        return value != null && value.length() >= suffix.length()
+                && value.regionMatches(true, value.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    private static boolean containsIgnoreCase(String value, String lowerCaseTerm) {
+        if (value == null) return false;
+        for (int i = 0, last = value.length() - lowerCaseTerm.length(); i <= last; i++) {
+            if (value.regionMatches(true, i, lowerCaseTerm, 0, lowerCaseTerm.length())) return true;
+        }
+        return false;
+    }
+
+    // StudentSort order over row references; text in String order
+    private final class RowOrder {
+        private final String[] fields;
+        private final boolean[] descending;
+        private final boolean nullsLast;
+
+        RowOrder(StudentSort sort, boolean nullsLast) {
+            this.nullsLast = nullsLast;
+            fields = new String[sort.orders().size()];
+            descending = new boolean[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                Sort.Order o = sort.orders().get(i);
+                fields[i] = o.getProperty();
+                descending[i] = o.isDescending();
+            }
+        }
+
+        int compare(int a, int b) {
+            for (int i = 0; i < fields.length; i++) {
+                int c = compare(fields[i], a, b);
+                if (c != 0) return descending[i] ? -c : c;
+            }
+            return 0;
+        }
+
+        private int compare(String field, int a, int b) {
+            return switch (field) {
+                case "id" -> Long.compare(id(a), id(b));
+                case "name" -> compareText(name(a), name(b));
+                case "email" -> compareText(email(a), email(b));
+                case "gender" -> Integer.compare(GENDER_RANKS[gender(a).ordinal()], GENDER_RANKS[gender(b).ordinal()]);
+                case "nationality" -> compareCoded(Coded.NATIONALITY, a, b);
+                case "college" -> compareCoded(Coded.COLLEGE, a, b);
+                case "major" -> compareCoded(Coded.MAJOR, a, b);
+                case "minor" -> compareCoded(Coded.MINOR, a, b);
+                default -> throw new IllegalArgumentException("Cannot sort by " + field);
+            };
+        }
+
+        private int compareCoded(Coded column, int a, int b) {
+            if (a >= 0 && b >= 0) {
+                StudentColumns.Dictionary dictionary = base.dictionary(column);
+                return Integer.compare(rank(dictionary, base.code(column, a)), rank(dictionary, base.code(column, b)));
+            }
+            return compareText(text(column, a), text(column, b));
+        }
+
+        private int rank(StudentColumns.Dictionary dictionary, int code) {
+            if (code == StudentColumns.NULL) return nullsLast ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            return dictionary.ranks[code];
+        }
+
+        private int compareText(String a, String b) {
+            if (a == null) return b == null ? 0 : (nullsLast ? 1 : -1);
+            if (b == null) return nullsLast ? -1 : 1;
+            return a.compareTo(b);
+        }
+    }
+
+    private static int[] genderRanks() {
+        Gender[] byName = Gender.values().clone();
+        Arrays.sort(byName, (a, b) -> a.name().compareTo(b.name()));
+        int[] ranks = new int[byName.length];
+        for (int r = 0; r < byName.length; r++) ranks[byName[r].ordinal()] = r;
+        return ranks;
+    }
+
+    // The first `keep` rows in order and the number of rows offered: a max-heap whose root is the worst kept row
+    private static final class TopK {
+        private final int keep;
+        private final RowOrder order;
+        private int[] heap = new int[16];
+        private int size;
+        private long total;
+
+        TopK(int keep, RowOrder order) {
+            this.keep = keep;
+            this.order = order;
+        }
+
+        void offer(int ref) {
+            total++;
+            add(ref);
+        }
+
+        private void add(int ref) {
+            if (keep == 0) return;
+            if (size < keep) {
+                if (size == heap.length) heap = Arrays.copyOf(heap, (int) Math.min((long) heap.length * 2, keep));
+                heap[size] = ref;
+                siftUp(size++);
+            } else if (order.compare(ref, heap[0]) < 0) {
+                heap[0] = ref;
+                siftDown(0, size);
+            }
+        }
+
+        TopK merge(TopK other) {
+            for (int i = 0; i < other.size; i++) add(other.heap[i]);
+            total += other.total;
+            return this;
+        }
+
+        // Heap sort in place: the kept rows in order
+        int[] sorted() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(heap, size);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (order.compare(heap[i], heap[parent]) <= 0) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < end && order.compare(heap[left], heap[largest]) > 0) largest = left;
+                if (right < end && order.compare(heap[right], heap[largest]) > 0) largest = right;
+                if (largest == i) return;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+
+    private static final class ValueCounts {
+        final long[] byCode;
+        final Map<String, Long> byValue = new HashMap<>();
+
+        ValueCounts(int codes) {
+            this.byCode = new long[codes];
+        }
+
+        ValueCounts merge(ValueCounts other) {
+            for (int i = 0; i < byCode.length; i++) byCode[i] += other.byCode[i];
+            other.byValue.forEach((value, count) -> byValue.merge(value, count, Long::sum));
+            return this;
+        }
+    }
+}
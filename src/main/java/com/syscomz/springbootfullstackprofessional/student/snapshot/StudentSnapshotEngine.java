@@ -0,0 +1,287 @@
+package com.syscomz.springbootfullstackprofessional.student.snapshot;
+
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentRemoteChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory read engine for {@code /page}, {@code /search} and {@code /stats/*}: a columnar
+ * {@link StudentSnapshot} of the whole table, scanned in parallel instead of queried through JDBC.
+ * <p>
+ * Off unless {@code app.columnar.enabled=true}. The snapshot is loaded by streaming the table once the
+ * application is ready, then kept current from the {@link StudentChangeEvent}s that {@code StudentService}
+ * publishes after each commit. Every write publishes a new immutable snapshot; once its overlay reaches
+ * {@code app.columnar.compact-threshold} rows it is compacted into a new base. Readers take the current
+ * snapshot from one volatile field and never lock, so a request sees one consistent version of the table
+ * from start to end. Scans run in parallel over partitions of {@code app.columnar.partition-rows} rows.
+ * </p>
+ * <p>
+ * Every method returns empty while the engine is off, not loaded yet, or the table exceeds
+ * {@code app.columnar.max-memory}; the caller then queries the database. Text is ordered by
+ * {@code String.compareTo}, which matches the database only for the {@code C} collation (and H2 without
+ * {@code SET COLLATION}): with any other collation of the sorted text columns the engine stays off and
+ * logs why. {@code String.compareTo} still differs from {@code C} between characters beyond U+FFFF and
+ * U+E000..U+FFFF. Nulls
+ * sort as the database sorts them: last in ascending order on PostgreSQL, first elsewhere. Writes made by other nodes
+ * arrive as {@link StudentRemoteChangeEvent}s when {@code app.coherence.enabled=true}, and otherwise show up with
+ * the next rebuild, every {@code app.columnar.rebuild-interval}.
+ * </p>
+ */
+@Component
+public class StudentSnapshotEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentSnapshotEngine.class);
+
+    // PostgreSQL collations ordering text by code point, as String.compareTo does
+    private static final Set<String> CODE_POINT_COLLATIONS = Set.of("C", "POSIX", "C.UTF-8", "C.utf8", "ucs_basic", "pg_c_utf8");
+
+    private final StudentRepository studentRepository;
+    private final DatabasePlatform databasePlatform;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean nullsLast;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final long maxMemoryBytes;
+    private final int compactThreshold;
+    private final int partitionRows;
+    private final Object writeLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile StudentSnapshot snapshot;
+    private volatile boolean ready;
+    // While a load streams the table, writes collect in the overlay and are not compacted away
+    private volatile boolean loading;
+    // Null until the collation check has run
+    private volatile Boolean textOrderMatches;
+
+    public StudentSnapshotEngine(StudentRepository studentRepository,
+                                 DatabasePlatform databasePlatform,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.columnar.enabled:false}") boolean enabled,
+                                 @Value("${app.columnar.max-memory:512MB}") DataSize maxMemory,
+                                 @Value("${app.columnar.compact-threshold:4096}") int compactThreshold,
+                                 @Value("${app.columnar.partition-rows:65536}") int partitionRows) {
+        this.studentRepository = studentRepository;
+        this.databasePlatform = databasePlatform;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.nullsLast = databasePlatform.isPostgres();
+        this.readOnlyTx = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (this.readOnlyTx != null) this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxMemoryBytes = maxMemory.toBytes();
+        this.compactThreshold = Math.max(1, compactThreshold);
+        this.partitionRows = Math.max(1, partitionRows);
+        this.snapshot = StudentSnapshot.empty(this.partitionRows);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * A page of the students matching {@code filter} and, when given, the lower-cased {@code term} as a
+     * substring of name or email, in {@code sort} order.
+     */
+    public Optional<Page<Student>> search(int page, int size, StudentSort sort, StudentFilter filter, String term) {
+        if (!ready) return Optional.empty();
+        StudentSnapshot.Result result = snapshot.search(filter, term, sort, nullsLast, (long) page * size, size);
+        return Optional.of(new PageImpl<>(result.rows(), PageRequest.of(page, size, sort.toSort()), result.total()));
+    }
+
+    public Optional<Map<Gender, Long>> genderCounts() {
+        return ready ? Optional.of(snapshot.genderCounts()) : Optional.empty();
+    }
+
+    /**
+     * Counts of {@code field}'s values, most frequent first (ties by value), like the exact {@code /stats/*} queries.
+     */
+    public Optional<List<DomainCount>> counts(StudentStatsSketches.Field field) {
+        if (!ready) return Optional.empty();
+        StudentColumns.Coded column = switch (field) {
+            case DOMAIN -> StudentColumns.Coded.DOMAIN;
+            case NATIONALITY -> StudentColumns.Coded.NATIONALITY;
+            case COLLEGE -> StudentColumns.Coded.COLLEGE;
+        };
+        List<DomainCount> counts = new ArrayList<>();
+        snapshot.counts(column).forEach((value, count) -> counts.add(new DomainCount(value, count)));
+        counts.sort(Comparator.comparingLong(DomainCount::getCount).reversed().thenComparing(DomainCount::getDomain));
+        return Optional.of(counts);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled || readOnlyTx == null || !textOrderMatchesDatabase()) return;
+        long started = System.nanoTime();
+        synchronized (rebuildLock) {
+            loading = true;
+            try {
+                WorkloadRoutingDataSource.runAs(Workload.Type.BULK, () -> readOnlyTx.executeWithoutResult(tx -> {
+                    try (Stream<StudentRepository.SnapshotView> rows = studentRepository.streamSnapshotViews()) {
+                        load(rows.iterator());
+                    }
+                }));
+            } catch (RuntimeException ex) {
+                // Never fail startup over a cache of the table: reads keep going to the database
+                log.warn("Could not build the columnar student snapshot; reads will use the database", ex);
+                return;
+            } finally {
+                loading = false;
+            }
+        }
+        StudentSnapshot s = snapshot;
+        if (ready) {
+            log.info("Built columnar student snapshot: {} rows in {} ms", s.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private boolean textOrderMatchesDatabase() {
+        Boolean matches = textOrderMatches;
+        if (matches != null) return matches;
+        String collation;
+        try {
+            collation = otherCollation();
+        } catch (RuntimeException ex) {
+            // Checked again with the next rebuild
+            log.warn("Could not read the collation of the student text columns; reads will use the database", ex);
+            return false;
+        }
+        if (collation != null) {
+            log.warn("Columnar student snapshot disabled: student text sorts with the {} collation, which the snapshot " +
+                    "cannot reproduce; reads will use the database", collation);
+        }
+        textOrderMatches = collation == null;
+        return collation == null;
+    }
+
+    // A collation of the sorted text columns that does not order like String.compareTo, or null if there is none
+    private String otherCollation() {
+        if (!databasePlatform.isPostgres()) {
+            // H2 compares with String.compareTo unless SET COLLATION chose a collator
+            return jdbcTemplate.queryForList("SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'COLLATION'",
+                    String.class).stream().filter(c -> !"OFF".equalsIgnoreCase(c)).findFirst().orElse(null);
+        }
+        // Columns without a collation of their own use the database's: its libc locale, or its ICU or builtin
+        // locale (PostgreSQL 15+, read through to_jsonb since older catalogs lack the columns). Dictionary
+        // names matter too: sorts by nationality, college, major or minor follow keys assigned in their order.
+        List<String> collations = jdbcTemplate.queryForList(
+                "SELECT DISTINCT CASE WHEN c.collname IS NULL OR c.collname = 'default' THEN " +
+                "CASE COALESCE(to_jsonb(d) ->> 'datlocprovider', 'c') WHEN 'c' THEN d.datcollate " +
+                "ELSE COALESCE(to_jsonb(d) ->> 'datlocale', to_jsonb(d) ->> 'daticulocale') END ELSE c.collname END " +
+                "FROM pg_attribute a LEFT JOIN pg_collation c ON c.oid = a.attcollation " +
+                "JOIN pg_database d ON d.datname = current_database() " +
+                "WHERE NOT a.attisdropped AND ((a.attrelid = 'student'::regclass AND a.attname IN ('name', 'email')) " +
+                "OR (a.attrelid IN ('student_nationality'::regclass, 'student_college'::regclass, " +
+                "'student_major'::regclass, 'student_minor'::regclass) AND a.attname = 'name'))", String.class);
+        return collations.stream().map(c -> c == null ? "unknown" : c)
+                .filter(c -> !CODE_POINT_COLLATIONS.contains(c)).findFirst().orElse(null);
+    }
+
+    @Scheduled(initialDelayString = "${app.columnar.rebuild-interval:15m}",
+               fixedDelayString = "${app.columnar.rebuild-interval:15m}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Replaces the base with the given rows (in id order); writes recorded meanwhile stay in the overlay and win
+    void load(Iterator<? extends StudentRepository.SnapshotView> rows) {
+        StudentColumns.Builder builder = new StudentColumns.Builder(null);
+        while (rows.hasNext()) {
+            StudentRepository.SnapshotView row = rows.next();
+            builder.add(row.getId(), row.getName(), row.getEmail(), row.getGender(), row.getNationality(), row.getCollege(),
+                    row.getMajor(), row.getMinor(), row.getChangeVersion(), row.getUpdatedAt(), row.getCreatedAt());
+            if (builder.estimatedBytes() > maxMemoryBytes) {
+                log.warn("Columnar student snapshot exceeds app.columnar.max-memory={} bytes; reads will use the database", maxMemoryBytes);
+                synchronized (writeLock) {
+                    ready = false;
+                    snapshot = StudentSnapshot.empty(partitionRows);
+                }
+                return;
+            }
+        }
+        StudentColumns base = builder.build();
+        synchronized (writeLock) {
+            StudentSnapshot next = snapshot.rebase(base);
+            snapshot = next.overlaySize() >= compactThreshold ? next.compact() : next;
+            ready = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        if (!enabled) return;
+        switch (event.type()) {
+            case CREATED, UPDATED -> apply(event.current().getId(), detached(event.current()));
+            case DELETED -> apply(event.studentId(), null);
+            case RELOADED -> rebuild();
+        }
+    }
+
+    @EventListener
+    public void onRemoteChange(StudentRemoteChangeEvent event) {
+        if (!enabled) return;
+        if (event.flush()) {
+            rebuild();
+            return;
+        }
+        for (Long id : event.ids()) {
+            Student current = event.current().get(id);
+            apply(id, current == null ? null : detached(current));
+        }
+    }
+
+    // Publishes a snapshot with the row of id replaced (null deletes it)
+    void apply(Long id, Student row) {
+        synchronized (writeLock) {
+            // Before the first load only the writes racing with it matter
+            if (!ready && !loading) return;
+            StudentSnapshot next = snapshot.with(id, row);
+            snapshot = !loading && next.overlaySize() >= compactThreshold ? next.compact() : next;
+        }
+    }
+
+    // Copy that later changes to a managed entity cannot reach
+    static Student detached(Student s) {
+        Student copy = new Student(s.getName(), s.getEmail(), s.getGender(), s.getNationality(), s.getCollege(), s.getMajor(), s.getMinor());
+        copy.setId(s.getId());
+        copy.setChangeVersion(s.getChangeVersion());
+        copy.setUpdatedAt(s.getUpdatedAt());
+        copy.setCreatedAt(s.getCreatedAt());
+        return copy;
+    }
+}
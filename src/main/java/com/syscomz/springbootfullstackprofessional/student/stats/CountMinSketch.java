@@ -0,0 +1,65 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+/**
+ * Count-Min sketch: a {@code depth x width} table of counters, one row per hash function.
+ * <p>
+ * Counts may go up and down (a student changing college moves one count from the old value to the
+ * new one). While no true count is negative, {@link #estimate} never under-counts, and it over-counts
+ * by at most {@code epsilon * total} with probability {@code 1 - delta}. Here
+ * {@code width = ceil(e / epsilon)} and {@code depth = ceil(ln(1 / delta))}. Not thread-safe.
+ * </p>
+ */
+final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final double epsilon;
+    private final long[] counters;
+    private long total;
+
+    CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1)
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1)");
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.epsilon = Math.E / width;
+        this.counters = new long[width * depth];
+    }
+
+    void add(String value, long delta) {
+        long h = Hash64.of(value);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        // Kirsch-Mitzenmacher: row i uses h1 + i * h2, as good as depth independent hashes here
+        for (int i = 0; i < depth; i++) {
+            counters[i * width + Math.floorMod(h1 + i * h2, width)] += delta;
+        }
+        total += delta;
+    }
+
+    long estimate(String value) {
+        long h = Hash64.of(value);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters[i * width + Math.floorMod(h1 + i * h2, width)]);
+        }
+        return Math.max(0, min);
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * Largest over-count {@link #estimate} makes with probability {@code 1 - delta}.
+     */
+    long errorBound() {
+        return (long) Math.ceil(epsilon * Math.max(0, total));
+    }
+
+    long sizeInBytes() {
+        return (long) counters.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,75 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate statistics of one column: heavy hitters and a distinct count.
+ * <p>
+ * Frequencies live in a {@link CountMinSketch}. Beside it, at most {@code capacity} candidate values
+ * are kept with their latest estimate. A value whose estimate passes the smallest candidate's
+ * replaces that candidate. Values well above {@code total / capacity} therefore hold a place, which
+ * makes the top entries reliable for {@code top} much smaller than the capacity. Each count is
+ * over-stated by at most {@link CountMinSketch#errorBound()}. Distinct values are estimated by a {@link HyperLogLog}.
+ * </p>
+ */
+final class FieldSketch {
+
+    private static final Comparator<DomainCount> BY_COUNT_THEN_VALUE =
+            Comparator.comparingLong(DomainCount::getCount).reversed().thenComparing(DomainCount::getDomain);
+
+    private final CountMinSketch counts;
+    private final HyperLogLog distinct;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+
+    FieldSketch(double epsilon, double delta, int capacity, int precision) {
+        this.counts = new CountMinSketch(epsilon, delta);
+        this.distinct = new HyperLogLog(precision);
+        this.capacity = Math.max(1, capacity);
+    }
+
+    synchronized void add(String value, long delta) {
+        if (value == null) return;
+        counts.add(value, delta);
+        if (delta > 0) distinct.add(value);
+        long estimate = counts.estimate(value);
+        if (candidates.containsKey(value) || candidates.size() < capacity) {
+            candidates.put(value, estimate);
+        } else if (delta > 0) {
+            Map.Entry<String, Long> smallest = null;
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                if (smallest == null || candidate.getValue() < smallest.getValue()) smallest = candidate;
+            }
+            if (smallest != null && estimate > smallest.getValue()) {
+                candidates.remove(smallest.getKey());
+                candidates.put(value, estimate);
+            }
+        }
+    }
+
+    /**
+     * The {@code top} most frequent values by estimated count; {@code top} is capped at the capacity.
+     */
+    synchronized FieldStats top(int top) {
+        List<DomainCount> ranked = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            // Refresh: collisions and decrements of other values move estimates after they were stored
+            long estimate = counts.estimate(candidate.getKey());
+            candidate.setValue(estimate);
+            if (estimate > 0) ranked.add(new DomainCount(candidate.getKey(), estimate));
+        }
+        ranked.sort(BY_COUNT_THEN_VALUE);
+        List<DomainCount> result = List.copyOf(ranked.subList(0, Math.min(Math.min(top, capacity), ranked.size())));
+        return new FieldStats(result, true, distinct.estimate(), counts.errorBound(), distinct.relativeStandardError());
+    }
+
+    long sizeInBytes() {
+        return counts.sizeInBytes() + distinct.sizeInBytes();
+    }
+}
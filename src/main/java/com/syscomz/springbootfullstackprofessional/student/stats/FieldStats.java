@@ -0,0 +1,26 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+
+import java.util.List;
+
+/**
+ * Counts of one column's values, most frequent first, with the accuracy they were computed at.
+ *
+ * @param counts                   values and their counts
+ * @param approximate              whether the counts come from the in-memory sketches
+ * @param distinct                 number of distinct values (an estimate when approximate)
+ * @param countErrorBound          most any count over-states the true one, with 99% confidence by default (0 when exact)
+ * @param distinctRelativeError    relative standard error of {@code distinct} (0 when exact)
+ */
+public record FieldStats(List<DomainCount> counts,
+                         boolean approximate,
+                         long distinct,
+                         long countErrorBound,
+                         double distinctRelativeError) {
+
+    public static FieldStats exact(List<DomainCount> all, Integer top) {
+        List<DomainCount> counts = top == null || top >= all.size() ? all : all.subList(0, top);
+        return new FieldStats(counts, false, all.size(), 0, 0);
+    }
+}
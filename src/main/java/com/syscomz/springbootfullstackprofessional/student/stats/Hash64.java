@@ -0,0 +1,26 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+/**
+ * 64-bit string hash for the sketches. Multiply-rotate over the UTF-16 chars, finished with the
+ * MurmurHash3 fmix64 step so that every output bit depends on every input char.
+ */
+final class Hash64 {
+
+    private Hash64() {
+    }
+
+    static long of(String value) {
+        long h = 0x9E3779B97F4A7C15L ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0xFF51AFD7ED558CCDL;
+            h = Long.rotateLeft(h, 31);
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,52 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+/**
+ * HyperLogLog distinct-value estimator with {@code 2^precision} one-byte registers.
+ * <p>
+ * The relative standard error is {@code 1.04 / sqrt(2^precision)}; at the default precision 14 that
+ * is 0.81% in 16 KB. Small cardinalities use linear counting. Values can only be added, so a value that
+ * no student holds any more is still counted until the sketch is rebuilt. Not thread-safe.
+ * </p>
+ */
+final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) throw new IllegalArgumentException("precision must be in [4, 18]");
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(String value) {
+        long h = Hash64.of(value);
+        int index = (int) (h >>> (64 - precision));
+        // The marker bit caps the rank at 64 - precision + 1
+        long rest = (h << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) registers[index] = rank;
+    }
+
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += Math.scalb(1.0, -r);
+            if (r == 0) zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) estimate = m * Math.log((double) m / zeros);
+        return Math.round(estimate);
+    }
+
+    double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    long sizeInBytes() {
+        return registers.length;
+    }
+}
@@ -0,0 +1,233 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Daily registration counts behind {@code GET /api/v1/students/stats/timeline}.
+ * <p>
+ * {@code student_daily_rollup} holds one row per UTC day and gender: the number of current students
+ * who registered that day. Service writes upsert it in the writing transaction (a listener in the
+ * {@code BEFORE_COMMIT} phase), so a row and its rollup commit together. A create adds one, a delete
+ * subtracts one, and a gender change moves one. After bulk loads, which bypass JPA, it is recomputed
+ * from {@code student.created_at}.
+ * </p>
+ * <p>
+ * A timeline reads only rollup rows, at most {@code days x genders} of them. Week (ISO, starting
+ * Monday) and month buckets are summed from days in memory, so a year-long chart costs about a
+ * thousand rows however many students there are. Buckets without registrations are reported as zero.
+ * </p>
+ */
+@Component
+public class RegistrationRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrationRollups.class);
+    static final long MAX_DAYS = 3660;
+
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO student_daily_rollup (registration_day, gender, registrations) VALUES (?, ?, ?) " +
+            "ON CONFLICT (registration_day, gender) " +
+            "DO UPDATE SET registrations = student_daily_rollup.registrations + EXCLUDED.registrations";
+    // Standard MERGE for H2 and others
+    private static final String UPSERT_MERGE =
+            "MERGE INTO student_daily_rollup r " +
+            "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) v (registration_day, gender, registrations) " +
+            "ON r.registration_day = v.registration_day AND r.gender = v.gender " +
+            "WHEN MATCHED THEN UPDATE SET registrations = r.registrations + v.registrations " +
+            "WHEN NOT MATCHED THEN INSERT (registration_day, gender, registrations) VALUES (v.registration_day, v.gender, v.registrations)";
+    private static final String RECOMPUTE =
+            "INSERT INTO student_daily_rollup (registration_day, gender, registrations) " +
+            "SELECT CAST(created_at AT TIME ZONE 'UTC' AS DATE), gender, COUNT(*) FROM student " +
+            "GROUP BY CAST(created_at AT TIME ZONE 'UTC' AS DATE), gender";
+
+    /**
+     * Timeline granularity.
+     */
+    public enum Bucket {
+        DAY, WEEK, MONTH;
+
+        public static Bucket parse(String bucket) {
+            if (bucket == null || bucket.isBlank()) return DAY;
+            for (Bucket b : values()) {
+                if (b.name().equalsIgnoreCase(bucket.trim())) return b;
+            }
+            throw new BadRequestException(String.format("Unknown bucket %s, expected day, week or month", bucket));
+        }
+
+        LocalDate start(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+
+        LocalDate next(LocalDate start) {
+            return switch (this) {
+                case DAY -> start.plusDays(1);
+                case WEEK -> start.plusWeeks(1);
+                case MONTH -> start.plusMonths(1);
+            };
+        }
+    }
+
+    /**
+     * Registrations in the bucket starting on {@code bucket}; {@code gender} is absent unless split by gender.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Point(LocalDate bucket, Gender gender, long registrations) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final StudentDailyRollupRepository rollupRepository;
+    private final TransactionTemplate writeTx;
+
+    public RegistrationRollups(JdbcTemplate jdbcTemplate,
+                               DatabasePlatform databasePlatform,
+                               StudentDailyRollupRepository rollupRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.rollupRepository = rollupRepository;
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStudentWrite(StudentChangeEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.current(), 1);
+            case UPDATED -> {
+                if (event.previous().getGender() != event.current().getGender()) {
+                    add(event.previous(), -1);
+                    add(event.current(), 1);
+                }
+            }
+            // Deletes published without the row cannot be subtracted; the next recompute corrects them
+            case DELETED -> add(event.previous(), -1);
+            case RELOADED -> { }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        if (event.type() == StudentChangeEvent.Type.RELOADED) recompute();
+    }
+
+    /**
+     * Rebuilds the rollup from {@code student.created_at} in one transaction (one full scan).
+     */
+    public void recompute() {
+        long started = System.nanoTime();
+        WorkloadRoutingDataSource.runAs(Workload.Type.BULK, () -> writeTx.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM student_daily_rollup");
+            jdbcTemplate.update(RECOMPUTE);
+        }));
+        log.info("Recomputed student registration rollups in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Registrations per bucket from {@code from} to {@code to} (inclusive, UTC days), optionally per gender.
+     */
+    @Transactional(readOnly = true)
+    public List<Point> timeline(LocalDate from, LocalDate to, Bucket bucket, boolean byGender) {
+        if (from.isAfter(to)) throw new BadRequestException("from must not be after to");
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS)
+            throw new BadRequestException(String.format("A timeline spans at most %d days", MAX_DAYS));
+        // Buckets in order, each with a zero per series, so charts get a contiguous axis
+        Map<LocalDate, Map<Gender, Long>> buckets = new TreeMap<>();
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            Map<Gender, Long> series = new EnumMap<>(Gender.class);
+            if (byGender) for (Gender g : Gender.values()) series.put(g, 0L);
+            buckets.put(start, series);
+        }
+        for (StudentDailyRollup row : rollupRepository.findBetween(from, to)) {
+            buckets.get(bucket.start(row.getDay())).merge(row.getGender(), row.getRegistrations(), Long::sum);
+        }
+        List<Point> points = new ArrayList<>();
+        buckets.forEach((start, series) -> {
+            if (byGender) series.forEach((gender, count) -> points.add(new Point(start, gender, count)));
+            else points.add(new Point(start, null, series.values().stream().mapToLong(Long::longValue).sum()));
+        });
+        return points;
+    }
+
+    /**
+     * Registrations per bucket for request parameters; {@code to} defaults to today (UTC) and {@code from}
+     * to a year before it.
+     */
+    public List<Point> timeline(String from, String to, String bucket, List<String> dims) {
+        LocalDate end = to == null || to.isBlank() ? LocalDate.now(ZoneOffset.UTC) : parseDate("to", to);
+        LocalDate start = from == null || from.isBlank() ? end.minusYears(1).plusDays(1) : parseDate("from", from);
+        return timeline(start, end, Bucket.parse(bucket), byGender(dims));
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException(String.format("Invalid %s date %s, expected yyyy-MM-dd", name, value));
+        }
+    }
+
+    /**
+     * Parses {@code dims}: empty for the total, or {@code gender}.
+     */
+    public static boolean byGender(List<String> dims) {
+        boolean gender = false;
+        if (dims != null) {
+            for (String dim : dims) {
+                if (dim == null || dim.isBlank()) continue;
+                if (!dim.trim().toLowerCase(Locale.ROOT).equals("gender"))
+                    throw new BadRequestException(String.format("Unknown dimension %s, expected gender", dim));
+                gender = true;
+            }
+        }
+        return gender;
+    }
+
+    private void add(Student student, long delta) {
+        if (student == null || student.getCreatedAt() == null || student.getGender() == null) return;
+        add(day(student.getCreatedAt()), student.getGender(), delta);
+    }
+
+    void add(LocalDate day, Gender gender, long delta) {
+        jdbcTemplate.update(databasePlatform.isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE,
+                Date.valueOf(day), gender.name(), delta);
+    }
+
+    static LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(Objects.requireNonNull(instant), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,69 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of current students who registered on one UTC day, per gender (table from
+ * V7__add_student_registration_rollups.sql). Written only by {@link RegistrationRollups}; mapped so the
+ * timeline can be read with JPQL and so schemas generated by Hibernate (tests) contain the table.
+ */
+@Entity
+@Table(name = "student_daily_rollup")
+@IdClass(StudentDailyRollup.Key.class)
+public class StudentDailyRollup {
+
+    @Id
+    @Column(name = "registration_day", nullable = false)
+    private LocalDate day;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "gender", nullable = false)
+    private Gender gender;
+
+    @Column(name = "registrations", nullable = false)
+    private long registrations;
+
+    protected StudentDailyRollup() {
+        // for JPA
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Gender getGender() {
+        return gender;
+    }
+
+    public long getRegistrations() {
+        return registrations;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Gender gender;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(day, key.day) && gender == key.gender;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, gender);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StudentDailyRollupRepository extends JpaRepository<StudentDailyRollup, StudentDailyRollup.Key> {
+
+    // At most one row per day and gender: a year is ~1100 rows whatever the table size (primary key range scan)
+    @Query("SELECT r FROM StudentDailyRollup r WHERE r.day BETWEEN :from AND :to")
+    List<StudentDailyRollup> findBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,298 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentRemoteChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * In-memory sketches behind {@code GET /api/v1/students/stats/{domains|nationalities|colleges}?mode=approx}.
+ * <p>
+ * Each column has a {@link FieldSketch}: Count-Min counts with a bounded heavy-hitter candidate set, and
+ * a HyperLogLog distinct count. All three together take well under a megabyte at the defaults, however
+ * large the table is. The sketches are built by streaming the table once the application is ready,
+ * then kept current from {@link StudentChangeEvent}s. They are rebuilt every
+ * {@code app.stats.sketch.rebuild-interval}, which drops values no student holds any more from the
+ * distinct counts, and after bulk reloads. Writes committed on other nodes carry no previous row to
+ * subtract, so one that changes a sketched column marks the sketches stale, and they are rebuilt at
+ * most once every {@code app.stats.sketch.remote-rebuild-delay} however many such writes arrive. Those
+ * rebuilds run on a thread of their own, at most one
+ * queued at a time, so a scan of the table never holds up the scheduler or the thread publishing a change.
+ * </p>
+ * <p>
+ * Error bounds, with {@code N} students: a count is never under-stated, and is over-stated by at most
+ * {@code epsilon * N} with probability {@code confidence}. A distinct count has a relative standard
+ * error of {@code 1.04 / sqrt(2^precision)}. A write that commits while a rebuild scans the table may
+ * be counted twice or missed until the next rebuild.
+ * </p>
+ */
+@Component
+public class StudentStatsSketches {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentStatsSketches.class);
+
+    /**
+     * Columns with approximate statistics, keyed like the exact {@code /stats/*} queries.
+     */
+    public enum Field {
+        DOMAIN("email", StudentStatsSketches::domainOf),
+        NATIONALITY("nationality", Student::getNationality),
+        COLLEGE("college", Student::getCollege);
+
+        // Column name in StudentRemoteChangeEvent#fields()
+        private final String column;
+        private final Function<Student, String> accessor;
+
+        Field(String column, Function<Student, String> accessor) {
+            this.column = column;
+            this.accessor = accessor;
+        }
+
+        String valueOf(Student student) {
+            return student == null ? null : accessor.apply(student);
+        }
+    }
+
+    /**
+     * How {@code /stats/*} counts.
+     */
+    public enum Mode {
+        EXACT, APPROX;
+
+        public static Mode parse(String mode) {
+            if (mode == null || mode.isBlank()) return EXACT;
+            for (Mode m : values()) {
+                if (m.name().equalsIgnoreCase(mode.trim())) return m;
+            }
+            throw new BadRequestException(String.format("Unknown mode %s, expected exact or approx", mode));
+        }
+    }
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final double epsilon;
+    private final double confidence;
+    private final int capacity;
+    private final int precision;
+    private final Object rebuildLock = new Object();
+    private final Executor rebuilder;
+    private final ExecutorService ownedRebuilder;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final AtomicBoolean remotelyChanged = new AtomicBoolean();
+
+    // Null until the first build completes
+    private volatile Map<Field, FieldSketch> sketches;
+    // Being built: also receives the writes that commit during the scan
+    private volatile Map<Field, FieldSketch> building;
+
+    @Autowired
+    public StudentStatsSketches(StudentRepository studentRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.stats.sketch.enabled:true}") boolean enabled,
+                                @Value("${app.stats.sketch.epsilon:0.0005}") double epsilon,
+                                @Value("${app.stats.sketch.confidence:0.99}") double confidence,
+                                @Value("${app.stats.sketch.capacity:1000}") int capacity,
+                                @Value("${app.stats.sketch.precision:14}") int precision) {
+        this(studentRepository, transactionManager, enabled, epsilon, confidence, capacity, precision, newRebuilder());
+    }
+
+    StudentStatsSketches(StudentRepository studentRepository, PlatformTransactionManager transactionManager, boolean enabled,
+                         double epsilon, double confidence, int capacity, int precision, Executor rebuilder) {
+        this.studentRepository = studentRepository;
+        this.readOnlyTx = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (this.readOnlyTx != null) this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.epsilon = epsilon;
+        this.confidence = confidence;
+        this.capacity = capacity;
+        this.precision = precision;
+        this.rebuilder = rebuilder;
+        this.ownedRebuilder = rebuilder instanceof ExecutorService service ? service : null;
+        newSketches(); // fail fast on invalid settings
+    }
+
+    private static ExecutorService newRebuilder() {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "student-stats-sketches");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The {@code top} most frequent values of {@code field}, or empty while the sketches are not built.
+     */
+    public Optional<FieldStats> top(Field field, int top) {
+        Map<Field, FieldSketch> current = sketches;
+        return current == null ? Optional.empty() : Optional.of(current.get(field).top(top));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isReady() {
+        return sketches != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled || readOnlyTx == null) return;
+        long started = System.nanoTime();
+        try {
+            WorkloadRoutingDataSource.runAs(Workload.Type.BULK, () -> readOnlyTx.executeWithoutResult(tx -> {
+                try (Stream<StudentRepository.StatsView> rows = studentRepository.streamStatsViews()) {
+                    load(rows.iterator());
+                }
+            }));
+        } catch (RuntimeException ex) {
+            // Never fail startup over statistics: approximate requests are answered exactly meanwhile
+            log.warn("Could not build student statistics sketches; mode=approx will count exactly", ex);
+            return;
+        }
+        log.info("Built student statistics sketches: ~{} KB in {} ms",
+                sketches.values().stream().mapToLong(FieldSketch::sizeInBytes).sum() / 1024,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Replaces the sketches with ones built from the given rows
+    void load(Iterator<? extends StudentRepository.StatsView> rows) {
+        synchronized (rebuildLock) {
+            Map<Field, FieldSketch> fresh = newSketches();
+            building = fresh;
+            try {
+                while (rows.hasNext()) {
+                    StudentRepository.StatsView row = rows.next();
+                    fresh.get(Field.DOMAIN).add(domainOf(row.getEmail()), 1);
+                    fresh.get(Field.NATIONALITY).add(row.getNationality(), 1);
+                    fresh.get(Field.COLLEGE).add(row.getCollege(), 1);
+                }
+                sketches = fresh;
+            } finally {
+                building = null;
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.stats.sketch.rebuild-interval:6h}",
+               fixedDelayString = "${app.stats.sketch.rebuild-interval:6h}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    // Rebuilds on the sketch thread; a request made while one is already queued is covered by it
+    void requestRebuild() {
+        if (!enabled || !rebuildQueued.compareAndSet(false, true)) return;
+        try {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        } catch (RejectedExecutionException ex) {
+            // Shutting down
+            rebuildQueued.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ownedRebuilder != null) ownedRebuilder.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChange(StudentChangeEvent event) {
+        if (!enabled) return;
+        if (event.type() == StudentChangeEvent.Type.RELOADED) {
+            requestRebuild();
+            return;
+        }
+        apply(sketches, event);
+        apply(building, event);
+    }
+
+    // Remote writes carry no previous row to subtract: a flush rebuilds now, a change to a sketched column
+    // marks the sketches stale for rebuildAfterRemoteChanges
+    @EventListener
+    public void onRemoteChange(StudentRemoteChangeEvent event) {
+        if (!enabled) return;
+        if (event.flush()) {
+            requestRebuild();
+            return;
+        }
+        for (Field field : Field.values()) {
+            if (event.fields().contains(field.column)) {
+                remotelyChanged.set(true);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.sketch.remote-rebuild-delay:1m}")
+    public void rebuildAfterRemoteChanges() {
+        if (remotelyChanged.getAndSet(false)) requestRebuild();
+    }
+
+    private static void apply(Map<Field, FieldSketch> target, StudentChangeEvent event) {
+        if (target == null) return;
+        for (Field field : Field.values()) {
+            String before = field.valueOf(event.previous());
+            String after = field.valueOf(event.current());
+            // Deletes published without the previous row cannot be subtracted; the next rebuild corrects them
+            if (Objects.equals(before, after)) continue;
+            FieldSketch sketch = target.get(field);
+            if (before != null) sketch.add(before, -1);
+            if (after != null) sketch.add(after, 1);
+        }
+    }
+
+    Map<Field, FieldSketch> newSketches() {
+        Map<Field, FieldSketch> map = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) map.put(field, new FieldSketch(epsilon, 1 - confidence, capacity, precision));
+        return map;
+    }
+
+    // Same key as the exact query: lower(split_part(email, '@', 2)) for emails containing '@'
+    static String domainOf(Student student) {
+        return domainOf(student.getEmail());
+    }
+
+    public static String domainOf(String email) {
+        if (email == null) return null;
+        int at = email.indexOf('@');
+        if (at < 0) return null;
+        int end = email.indexOf('@', at + 1);
+        return email.substring(at + 1, end < 0 ? email.length() : end).toLowerCase(Locale.ROOT);
+    }
+}
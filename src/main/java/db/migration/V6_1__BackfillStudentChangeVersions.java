@@ -0,0 +1,68 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Flyway migration: gives the students that existed before V6 their change versions, in id order.
+ * <p>
+ * student is updated in primary-key ranges of {@value #BATCH_SIZE} rows, and each range is committed
+ * on its own. No single transaction holds row locks on the whole table or keeps vacuum from cleaning
+ * up behind it, and replicas apply the change in small pieces. Rows that already have a version are
+ * skipped, so a failed run can be repeated. Rows inserted in the meantime get theirs from the column
+ * defaults added by V6.
+ * </p>
+ */
+public class V6_1__BackfillStudentChangeVersions extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V6_1__BackfillStudentChangeVersions.class);
+    static final int BATCH_SIZE = 10_000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false; // commits every batch
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            backfill(connection);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void backfill(Connection connection) throws SQLException {
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM student")) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        // Versions are taken in id order within a range, and ranges go in id order
+        String update = "UPDATE student s SET change_version = v.version, updated_at = COALESCE(s.updated_at, now()) " +
+                "FROM (SELECT id, nextval('student_change_version_seq') AS version FROM " +
+                "(SELECT id FROM student WHERE id > ? AND id <= ? AND change_version IS NULL ORDER BY id) ordered) v " +
+                "WHERE s.id = v.id";
+        long updated = 0;
+        try (PreparedStatement statement = connection.prepareStatement(update)) {
+            for (long from = 0; from < maxId; from += BATCH_SIZE) {
+                statement.setLong(1, from);
+                statement.setLong(2, Math.min(from + BATCH_SIZE, maxId));
+                updated += statement.executeUpdate();
+            }
+        }
+        log.info("Backfilled change versions of {} students", updated);
+    }
+}
@@ -0,0 +1,65 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Flyway migration: gives the students that existed before V7 a registration time.
+ * <p>
+ * Registration times were not recorded before, so the best known bound is the last change. student
+ * is updated in primary-key ranges of {@value #BATCH_SIZE} rows, and each range is committed on its
+ * own, as in {@link V6_1__BackfillStudentChangeVersions}. Rows that already have a registration time
+ * are skipped, so a failed run can be repeated. Rows inserted in the meantime get theirs from the
+ * column default added by V7.
+ * </p>
+ */
+public class V7_1__BackfillStudentRegistrationTimes extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V7_1__BackfillStudentRegistrationTimes.class);
+    static final int BATCH_SIZE = 10_000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false; // commits every batch
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            backfill(connection);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void backfill(Connection connection) throws SQLException {
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM student")) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        String update = "UPDATE student SET created_at = COALESCE(updated_at, now()) " +
+                "WHERE id > ? AND id <= ? AND created_at IS NULL";
+        long updated = 0;
+        try (PreparedStatement statement = connection.prepareStatement(update)) {
+            for (long from = 0; from < maxId; from += BATCH_SIZE) {
+                statement.setLong(1, from);
+                statement.setLong(2, Math.min(from + BATCH_SIZE, maxId));
+                updated += statement.executeUpdate();
+            }
+        }
+        log.info("Backfilled registration times of {} students", updated);
+    }
+}
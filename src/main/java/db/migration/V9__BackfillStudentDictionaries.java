@@ -0,0 +1,93 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flyway migration: fills the dictionary tables created by V8 and the student key columns.
+ * <p>
+ * The distinct values go into the dictionaries first, one by one in value order through
+ * {@code student_dictionary_intern}, so that the keys are evenly spaced in the order of the values and
+ * leave room for values added later. Then student is updated in primary-key ranges of
+ * {@value #BATCH_SIZE} rows, and each range is committed on its own. No single transaction holds row
+ * locks on the whole table or keeps vacuum from cleaning up behind it, and replicas apply the change
+ * in small pieces. Rows that already have their keys are skipped, so a failed run can be repeated.
+ * Rows that instances of the previous release write in the meantime get their keys from the V8 trigger.
+ * </p>
+ */
+public class V9__BackfillStudentDictionaries extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V9__BackfillStudentDictionaries.class);
+    static final int BATCH_SIZE = 10_000;
+    private static final String[] COLUMNS = {"nationality", "college", "major", "minor"};
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false; // commits every batch
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            for (String column : COLUMNS) {
+                intern(connection, column);
+            }
+            backfill(connection);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void intern(Connection connection, String column) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT " + column + " FROM student " +
+                     "WHERE " + column + " IS NOT NULL ORDER BY " + column)) {
+            while (rs.next()) values.add(rs.getString(1));
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT student_dictionary_intern(?::regclass, ?)")) {
+            for (String value : values) {
+                statement.setString(1, "student_" + column);
+                statement.setString(2, value);
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    private void backfill(Connection connection) throws SQLException {
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM student")) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        String update = "UPDATE student s SET " +
+                "nationality_id = (SELECT d.id FROM student_nationality d WHERE d.name = s.nationality AND d.replaced_by IS NULL), " +
+                "college_id = (SELECT d.id FROM student_college d WHERE d.name = s.college AND d.replaced_by IS NULL), " +
+                "major_id = (SELECT d.id FROM student_major d WHERE d.name = s.major AND d.replaced_by IS NULL), " +
+                "minor_id = (SELECT d.id FROM student_minor d WHERE d.name = s.minor AND d.replaced_by IS NULL) " +
+                "WHERE s.id > ? AND s.id <= ? AND s.nationality_id IS NULL";
+        long updated = 0;
+        try (PreparedStatement statement = connection.prepareStatement(update)) {
+            for (long from = 0; from < maxId; from += BATCH_SIZE) {
+                statement.setLong(1, from);
+                statement.setLong(2, Math.min(from + BATCH_SIZE, maxId));
+                updated += statement.executeUpdate();
+            }
+        }
+        log.info("Backfilled dictionary keys of {} students", updated);
+    }
+}
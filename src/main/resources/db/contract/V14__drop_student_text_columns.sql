@@ -0,0 +1,36 @@
+-- Flyway migration, contract step of the dictionary encoding (V8-V13). Ship it in the release after
+-- the one that added V8-V13, once no instance of the release before that is running: that release
+-- still reads and writes the text columns dropped here. It is enabled by adding classpath:db/contract
+-- to spring.flyway.locations (see application.properties).
+-- It also finishes the rollouts of V6 and V7 by making their columns NOT NULL. SET NOT NULL skips its
+-- scan because the validated CHECK constraints from V6_3, V7_3 and V12 already prove it, and dropping
+-- columns only changes the catalog, so the exclusive locks taken here are brief. Dropped columns keep
+-- their space until rows are rewritten: reclaim it with VACUUM FULL student (or pg_repack, online) in
+-- a maintenance window.
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE student
+    ALTER COLUMN nationality_id SET NOT NULL,
+    ALTER COLUMN college_id SET NOT NULL,
+    ALTER COLUMN change_version SET NOT NULL,
+    ALTER COLUMN updated_at SET NOT NULL,
+    ALTER COLUMN created_at SET NOT NULL;
+
+ALTER TABLE student
+    DROP CONSTRAINT IF EXISTS ck_student_nationality_id_not_null,
+    DROP CONSTRAINT IF EXISTS ck_student_college_id_not_null,
+    DROP CONSTRAINT IF EXISTS ck_student_change_version_not_null,
+    DROP CONSTRAINT IF EXISTS ck_student_updated_at_not_null,
+    DROP CONSTRAINT IF EXISTS ck_student_created_at_not_null;
+
+DROP TRIGGER IF EXISTS student_dictionary_sync ON student;
+DROP FUNCTION IF EXISTS student_dictionary_sync();
+DROP FUNCTION IF EXISTS student_dictionary_value(regclass, integer);
+
+-- Also drops the V4/V5 indexes on the text columns
+ALTER TABLE student
+    DROP COLUMN IF EXISTS nationality,
+    DROP COLUMN IF EXISTS college,
+    DROP COLUMN IF EXISTS major,
+    DROP COLUMN IF EXISTS minor;
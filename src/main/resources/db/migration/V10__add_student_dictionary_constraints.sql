@@ -0,0 +1,17 @@
+-- Flyway migration: constraints on the dictionary keys from V8, added without checking existing rows.
+-- NOT VALID constraints apply to every row written from now on but skip the scan of the table, so
+-- the brief lock they need is all that writers wait for; V12 validates them without blocking writes.
+-- The CHECK constraints let the next release set NOT NULL (db/contract/V14) without a scan under an
+-- exclusive lock. If a long-running query holds student, fail fast and retry rather than queue
+-- every other statement behind this one.
+-- Mirrored on Student for schemas generated by Hibernate (tests).
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE student
+    ADD CONSTRAINT fk_student_nationality FOREIGN KEY (nationality_id) REFERENCES student_nationality (id) NOT VALID,
+    ADD CONSTRAINT fk_student_college FOREIGN KEY (college_id) REFERENCES student_college (id) NOT VALID,
+    ADD CONSTRAINT fk_student_major FOREIGN KEY (major_id) REFERENCES student_major (id) NOT VALID,
+    ADD CONSTRAINT fk_student_minor FOREIGN KEY (minor_id) REFERENCES student_minor (id) NOT VALID,
+    ADD CONSTRAINT ck_student_nationality_id_not_null CHECK (nationality_id IS NOT NULL) NOT VALID,
+    ADD CONSTRAINT ck_student_college_id_not_null CHECK (college_id IS NOT NULL) NOT VALID;
@@ -0,0 +1,36 @@
+-- Flyway migration: keeps the change feed (GET /api/v1/students/changes?since=<version>) from skipping versions.
+-- change_version is taken when a row is written, not when its transaction commits, so version 11 can be
+-- visible while the transaction holding version 10 is still running; a client that moved past 11 would
+-- never see 10. Before its first student or tombstone write, every transaction now takes a shared,
+-- transaction-scoped advisory lock keyed 2^62 + the last version handed out so far (its floor), and only
+-- then takes its versions, which all lie above the floor. Every session on the primary sees the lock in
+-- pg_locks until the transaction ends; StudentChangeHorizon stops the feed at the lowest floor held.
+-- The trigger takes the version itself, after the lock, replacing the value of the column default or of
+-- the Hibernate statement. Row triggers also fire for COPY, so bulk loads are covered.
+-- H2 (tests) has no advisory locks; there the application registers floors in process instead.
+
+CREATE OR REPLACE FUNCTION student_change_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    last_version BIGINT;
+BEGIN
+    -- Once per transaction: the setting is transaction-local
+    IF COALESCE(current_setting('students.change_floor', true), '') = '' THEN
+        last_version := COALESCE(pg_sequence_last_value('student_change_version_seq'::regclass), 0);
+        PERFORM pg_advisory_xact_lock_shared(4611686018427387904 + last_version);
+        PERFORM set_config('students.change_floor', last_version::text, true);
+    END IF;
+    NEW.change_version := nextval('student_change_version_seq');
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS student_change_version ON student;
+CREATE TRIGGER student_change_version
+    BEFORE INSERT OR UPDATE ON student
+    FOR EACH ROW EXECUTE FUNCTION student_change_version();
+
+DROP TRIGGER IF EXISTS student_tombstone_change_version ON student_tombstone;
+CREATE TRIGGER student_tombstone_change_version
+    BEFORE INSERT ON student_tombstone
+    FOR EACH ROW EXECUTE FUNCTION student_change_version();
@@ -0,0 +1,10 @@
+-- Flyway migration: validate the constraints V10 added as NOT VALID, once V9 has backfilled every key.
+-- VALIDATE CONSTRAINT scans student under a SHARE UPDATE EXCLUSIVE lock, which lets reads and writes
+-- through; only other schema changes and VACUUM wait for it.
+
+ALTER TABLE student VALIDATE CONSTRAINT fk_student_nationality;
+ALTER TABLE student VALIDATE CONSTRAINT fk_student_college;
+ALTER TABLE student VALIDATE CONSTRAINT fk_student_major;
+ALTER TABLE student VALIDATE CONSTRAINT fk_student_minor;
+ALTER TABLE student VALIDATE CONSTRAINT ck_student_nationality_id_not_null;
+ALTER TABLE student VALIDATE CONSTRAINT ck_student_college_id_not_null;
@@ -0,0 +1,15 @@
+-- Flyway migration: the V4/V5 filter and sort indexes, on the dictionary keys.
+-- Built with CONCURRENTLY, which does not block writes but cannot run in a transaction, so this
+-- script runs outside one (V13__add_student_dictionary_key_indexes.sql.conf). The V4/V5 indexes on
+-- the text columns still serve the previous release during the rollout; they go with the columns
+-- in db/contract/V14. A failed concurrent build leaves an INVALID index that IF NOT EXISTS would
+-- skip: drop it (DROP INDEX CONCURRENTLY) before repairing and rerunning this migration.
+-- Mirrored on Student for schemas generated by Hibernate (tests).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_nationality_key_id      ON student (nationality_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_college_key_major_key_id ON student (college_id, major_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_major_key_id            ON student (major_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_minor_key_id            ON student (minor_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_college_key_id          ON student (college_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_college_key_name_id     ON student (college_id, name, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_nationality_key_name_id ON student (nationality_id, name, id);
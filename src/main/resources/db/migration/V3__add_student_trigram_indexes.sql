@@ -0,0 +1,13 @@
+-- Flyway migration: trigram indexes for the free-text `q` filter on /api/v1/students/search.
+-- The GIN indexes serve case-insensitive substring matches (LOWER(col) LIKE '%term%')
+-- and the similarity() ranking on both name and email.
+-- Built with CONCURRENTLY, which does not block writes but cannot run in a transaction, so this
+-- script runs outside one (V3__add_student_trigram_indexes.sql.conf). A GIN build reads the whole
+-- table, and a concurrent one reads it twice, so expect it to take a while on a large table. A failed
+-- concurrent build leaves an INVALID index that IF NOT EXISTS would skip: drop it (DROP INDEX
+-- CONCURRENTLY) before repairing and rerunning this migration.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_name_trgm  ON student USING gin (LOWER(name)  gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_email_trgm ON student USING gin (LOWER(email) gin_trgm_ops);
@@ -0,0 +1,16 @@
+-- Flyway migration: composite indexes for the dynamic filters on /search, /export and export jobs.
+-- Each filter column leads, followed by id (the default sort and tie-breaker), so an equality or IN
+-- filter is answered from the index and, for a single value, already in id order.
+-- college + major share one index: it also serves college alone. The email domain filter
+-- (LOWER(email) LIKE '%@domain') is served by the trigram index from V3.
+-- Built with CONCURRENTLY, which does not block writes but cannot run in a transaction, so this
+-- script runs outside one (V4__add_student_filter_indexes.sql.conf). A failed concurrent build leaves
+-- an INVALID index that IF NOT EXISTS would skip: drop it (DROP INDEX CONCURRENTLY) before repairing
+-- and rerunning this migration.
+-- Mirrored by @Table(indexes = ...) on Student for schemas generated by Hibernate (tests).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_gender_id        ON student (gender, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_nationality_id   ON student (nationality, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_college_major_id ON student (college, major, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_major_id         ON student (major, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_minor_id         ON student (minor, id);
@@ -0,0 +1,13 @@
+-- Flyway migration: indexes behind the sort whitelist (StudentSort) for /page, /search and exports.
+-- Every accepted sort ends in id (the tie-breaker), so a top-N page is a range scan of one of these
+-- indexes, or of the V4 (gender|nationality|major|minor, id) indexes, the primary key or the unique email.
+-- Built with CONCURRENTLY, which does not block writes but cannot run in a transaction, so this
+-- script runs outside one (V5__add_student_sort_indexes.sql.conf). A failed concurrent build leaves
+-- an INVALID index that IF NOT EXISTS would skip: drop it (DROP INDEX CONCURRENTLY) before repairing
+-- and rerunning this migration.
+-- Mirrored by @Table(indexes = ...) on Student for schemas generated by Hibernate (tests).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_name_id             ON student (name, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_college_id          ON student (college, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_college_name_id     ON student (college, name, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_student_nationality_name_id ON student (nationality, name, id);
@@ -0,0 +1,11 @@
+-- Flyway migration: NOT NULL for the change tracking columns from V6, added without checking existing
+-- rows (V6_1 has backfilled them). NOT VALID constraints apply to every row written from now on but
+-- skip the scan of the table, so the brief lock they need is all that writers wait for; V6_3 validates
+-- them without blocking writes. If a long-running query holds student, fail fast and retry rather than
+-- queue every other statement behind this one.
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE student
+    ADD CONSTRAINT ck_student_change_version_not_null CHECK (change_version IS NOT NULL) NOT VALID,
+    ADD CONSTRAINT ck_student_updated_at_not_null CHECK (updated_at IS NOT NULL) NOT VALID;
@@ -0,0 +1,12 @@
+-- Flyway migration: validates the V6_2 constraints and builds the change_version index.
+-- VALIDATE CONSTRAINT scans student under a SHARE UPDATE EXCLUSIVE lock, which lets reads and writes
+-- through. CREATE INDEX CONCURRENTLY does not block writes either, but cannot run in a transaction, so
+-- this script runs outside one (V6_3__validate_student_change_tracking.sql.conf). A failed concurrent
+-- build leaves an INVALID index that IF NOT EXISTS would skip: drop it (DROP INDEX CONCURRENTLY)
+-- before repairing and rerunning this migration.
+-- Mirrored on Student for schemas generated by Hibernate (tests).
+
+ALTER TABLE student VALIDATE CONSTRAINT ck_student_change_version_not_null;
+ALTER TABLE student VALIDATE CONSTRAINT ck_student_updated_at_not_null;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_student_change_version ON student (change_version);
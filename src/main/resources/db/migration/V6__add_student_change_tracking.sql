@@ -0,0 +1,31 @@
+-- Flyway migration: change tracking for delta sync (GET /api/v1/students/changes?since=<version>).
+-- Every insert and update of a student, and every delete (as a tombstone), takes the next value of one
+-- sequence, so "everything after version v" is a keyset range scan of a unique index.
+-- Inserts and updates through JPA assign change_version and updated_at in the statement itself (@Generated
+-- on Student); the column defaults cover COPY and plain INSERTs such as the seeder's.
+-- Rolled out without blocking writes, like the dictionary keys (V8-V13):
+--   V6 adds the columns, nullable, with their defaults: only the catalog changes, not the rows;
+--   V6_1 gives existing rows their versions in id order, in committed batches;
+--   V6_2 adds NOT NULL as CHECK constraints without checking existing rows;
+--   V6_3 validates them and builds the unique index concurrently.
+--   db/contract/V14 turns the checks into NOT NULL, without a scan.
+-- Mirrored on Student/StudentTombstone for schemas generated by Hibernate (tests).
+
+CREATE SEQUENCE IF NOT EXISTS student_change_version_seq;
+
+ALTER TABLE student ADD COLUMN IF NOT EXISTS change_version BIGINT;
+ALTER TABLE student ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ;
+
+-- Rows inserted from here on, also by instances still running the previous release, need no backfill
+ALTER TABLE student
+    ALTER COLUMN change_version SET DEFAULT nextval('student_change_version_seq'),
+    ALTER COLUMN updated_at SET DEFAULT now();
+
+-- New and empty: nothing waits for its index
+CREATE TABLE IF NOT EXISTS student_tombstone (
+    student_id     BIGINT PRIMARY KEY,
+    change_version BIGINT NOT NULL DEFAULT nextval('student_change_version_seq'),
+    deleted_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_student_tombstone_change_version ON student_tombstone (change_version);
@@ -0,0 +1,10 @@
+-- Flyway migration: NOT NULL for student.created_at from V7, added without checking existing rows
+-- (V7_1 has backfilled them). The NOT VALID constraint applies to every row written from now on but
+-- skips the scan of the table, so the brief lock it needs is all that writers wait for; V7_3
+-- validates it without blocking writes. If a long-running query holds student, fail fast and retry
+-- rather than queue every other statement behind this one.
+
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE student
+    ADD CONSTRAINT ck_student_created_at_not_null CHECK (created_at IS NOT NULL) NOT VALID;
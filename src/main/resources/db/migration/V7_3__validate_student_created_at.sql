@@ -0,0 +1,11 @@
+-- Flyway migration: validates the V7_2 constraint and fills the registration rollup from V7.
+-- VALIDATE CONSTRAINT scans student under a SHARE UPDATE EXCLUSIVE lock, which lets reads and writes
+-- through. The rollup is counted only now that every row has its registration time (V7_1).
+
+ALTER TABLE student VALIDATE CONSTRAINT ck_student_created_at_not_null;
+
+INSERT INTO student_daily_rollup (registration_day, gender, registrations)
+SELECT CAST(created_at AT TIME ZONE 'UTC' AS DATE), gender, COUNT(*)
+FROM student
+GROUP BY CAST(created_at AT TIME ZONE 'UTC' AS DATE), gender
+ON CONFLICT (registration_day, gender) DO NOTHING;
@@ -0,0 +1,201 @@
+-- Flyway migration: dictionary tables for the low-cardinality text columns of student.
+-- nationality, college, major and minor repeat a few hundred distinct strings across every row and
+-- every index on them. Each moves to a lookup table, referenced from student by a 4-byte key.
+-- The switch is rolled out in two releases, so instances of the previous release keep working
+-- during a rolling deploy:
+--   this release: V8 adds the tables, the (still empty) key columns and a trigger keeping text and
+--   keys in step; V9 backfills the keys in batches; V10/V12 add and validate the constraints;
+--   V13 builds the key indexes concurrently.
+--   next release: db/contract/V14 makes the keys NOT NULL and drops the text columns and the trigger.
+-- Keys are assigned in value order (student_dictionary_intern below), so ORDER BY the key is
+-- ORDER BY the value and sorts keep using the (key, id) indexes. When values crowd between two
+-- neighbours, StudentDictionaryRenumbering moves them to new, evenly spaced keys: it inserts a row
+-- with the new key, retires the old one (replaced_by), rewrites the student keys in batches and
+-- deletes the old row. Only rows with replaced_by IS NULL are current; a name is unique among them.
+-- Mirrored on DictionaryEntry/Student for schemas generated by Hibernate (tests).
+
+CREATE TABLE IF NOT EXISTS student_nationality (
+    id          INTEGER PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    replaced_by INTEGER
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_student_nationality_name ON student_nationality (name) WHERE replaced_by IS NULL;
+
+CREATE TABLE IF NOT EXISTS student_college (
+    id          INTEGER PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    replaced_by INTEGER
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_student_college_name ON student_college (name) WHERE replaced_by IS NULL;
+
+CREATE TABLE IF NOT EXISTS student_major (
+    id          INTEGER PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    replaced_by INTEGER
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_student_major_name ON student_major (name) WHERE replaced_by IS NULL;
+
+CREATE TABLE IF NOT EXISTS student_minor (
+    id          INTEGER PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    replaced_by INTEGER
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_student_minor_name ON student_minor (name) WHERE replaced_by IS NULL;
+
+-- Nullable and without defaults: adding them only touches the catalog, not the rows
+ALTER TABLE student ADD COLUMN IF NOT EXISTS nationality_id INTEGER;
+ALTER TABLE student ADD COLUMN IF NOT EXISTS college_id INTEGER;
+ALTER TABLE student ADD COLUMN IF NOT EXISTS major_id INTEGER;
+ALTER TABLE student ADD COLUMN IF NOT EXISTS minor_id INTEGER;
+
+-- Key of value, adding it if needed. A new value takes a key between the keys of its neighbours in
+-- the column's collation: 65536 past the last one at either end, otherwise the midpoint. Keys stay in
+-- 1..2147483646 (-1 is StudentDictionary.UNKNOWN). Retired keys are ignored. When the neighbours are
+-- adjacent it raises check_violation and StudentDictionary has the dictionary renumbered. Additions to one dictionary are serialized by a
+-- self-conflicting table lock, held until the adding transaction ends; readers and the foreign key
+-- checks from student are not blocked. Also called by StudentDictionary.intern.
+CREATE OR REPLACE FUNCTION student_dictionary_intern(dictionary regclass, value varchar) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    key   integer;
+    below bigint;
+    above bigint;
+    next  bigint;
+BEGIN
+    IF value IS NULL THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('SELECT id FROM %s WHERE name = $1 AND replaced_by IS NULL', dictionary) INTO key USING value;
+    IF key IS NOT NULL THEN
+        RETURN key;
+    END IF;
+    EXECUTE format('LOCK TABLE %s IN SHARE ROW EXCLUSIVE MODE', dictionary);
+    -- Another transaction may have added it while we waited
+    EXECUTE format('SELECT id FROM %s WHERE name = $1 AND replaced_by IS NULL', dictionary) INTO key USING value;
+    IF key IS NOT NULL THEN
+        RETURN key;
+    END IF;
+    EXECUTE format('SELECT id FROM %s WHERE name < $1 AND replaced_by IS NULL ORDER BY name DESC LIMIT 1', dictionary) INTO below USING value;
+    EXECUTE format('SELECT id FROM %s WHERE name > $1 AND replaced_by IS NULL ORDER BY name LIMIT 1', dictionary) INTO above USING value;
+    IF below IS NOT NULL AND above IS NULL AND below + 65536 < 2147483647 THEN
+        next := below + 65536;
+    ELSIF below IS NULL AND above IS NOT NULL AND above - 65536 > 0 THEN
+        next := above - 65536;
+    ELSE
+        next := (COALESCE(below, 0) + COALESCE(above, 2147483647)) / 2;
+    END IF;
+    IF next <= COALESCE(below, 0) OR next >= COALESCE(above, 2147483647) THEN
+        RAISE EXCEPTION 'No key left in % between the neighbours of %', dictionary, value
+            USING ERRCODE = 'check_violation';
+    END IF;
+    EXECUTE format('INSERT INTO %s (id, name) VALUES ($1, $2)', dictionary) USING next::integer, value;
+    RETURN next::integer;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION student_dictionary_value(dictionary regclass, key integer) RETURNS varchar
+LANGUAGE plpgsql STABLE AS $$
+DECLARE
+    value varchar;
+BEGIN
+    IF key IS NULL THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('SELECT name FROM %s WHERE id = $1', dictionary) INTO value USING key;
+    RETURN value;
+END
+$$;
+
+-- Until the text columns are dropped, whichever side a writer sets wins: the previous release writes
+-- only text (and needs nationality and college, still NOT NULL, on rows the new release inserts),
+-- this release writes only keys. Rows written by either are complete for both.
+CREATE OR REPLACE FUNCTION student_dictionary_sync() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.nationality_id IS NULL THEN
+            NEW.nationality_id := student_dictionary_intern('student_nationality', NEW.nationality);
+        ELSE
+            NEW.nationality := student_dictionary_value('student_nationality', NEW.nationality_id);
+        END IF;
+        IF NEW.college_id IS NULL THEN
+            NEW.college_id := student_dictionary_intern('student_college', NEW.college);
+        ELSE
+            NEW.college := student_dictionary_value('student_college', NEW.college_id);
+        END IF;
+        IF NEW.major_id IS NULL THEN
+            NEW.major_id := student_dictionary_intern('student_major', NEW.major);
+        ELSE
+            NEW.major := student_dictionary_value('student_major', NEW.major_id);
+        END IF;
+        IF NEW.minor_id IS NULL THEN
+            NEW.minor_id := student_dictionary_intern('student_minor', NEW.minor);
+        ELSE
+            NEW.minor := student_dictionary_value('student_minor', NEW.minor_id);
+        END IF;
+        RETURN NEW;
+    END IF;
+    IF NEW.nationality_id IS DISTINCT FROM OLD.nationality_id THEN
+        NEW.nationality := student_dictionary_value('student_nationality', NEW.nationality_id);
+    ELSIF NEW.nationality IS DISTINCT FROM OLD.nationality THEN
+        NEW.nationality_id := student_dictionary_intern('student_nationality', NEW.nationality);
+    END IF;
+    IF NEW.college_id IS DISTINCT FROM OLD.college_id THEN
+        NEW.college := student_dictionary_value('student_college', NEW.college_id);
+    ELSIF NEW.college IS DISTINCT FROM OLD.college THEN
+        NEW.college_id := student_dictionary_intern('student_college', NEW.college);
+    END IF;
+    IF NEW.major_id IS DISTINCT FROM OLD.major_id THEN
+        NEW.major := student_dictionary_value('student_major', NEW.major_id);
+    ELSIF NEW.major IS DISTINCT FROM OLD.major THEN
+        NEW.major_id := student_dictionary_intern('student_major', NEW.major);
+    END IF;
+    IF NEW.minor_id IS DISTINCT FROM OLD.minor_id THEN
+        NEW.minor := student_dictionary_value('student_minor', NEW.minor_id);
+    ELSIF NEW.minor IS DISTINCT FROM OLD.minor THEN
+        NEW.minor_id := student_dictionary_intern('student_minor', NEW.minor);
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+-- Created before V9 runs: rows the previous release writes during the backfill get their keys here
+DROP TRIGGER IF EXISTS student_dictionary_sync ON student;
+CREATE TRIGGER student_dictionary_sync
+    BEFORE INSERT OR UPDATE ON student
+    FOR EACH ROW EXECUTE FUNCTION student_dictionary_sync();
+
+-- A writer may still hold a retired key (another node that has not dropped its cached keys yet, or
+-- a transaction that looked it up just before the renumbering): it is replaced by the current key
+-- of the same value, so rows never land on a key that is being moved away from. One primary-key
+-- lookup per changed key, next to the one the foreign key check does anyway.
+CREATE OR REPLACE FUNCTION student_dictionary_current() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    moved_to integer;
+BEGIN
+    IF TG_OP = 'INSERT' OR NEW.nationality_id IS DISTINCT FROM OLD.nationality_id THEN
+        SELECT replaced_by INTO moved_to FROM student_nationality WHERE id = NEW.nationality_id;
+        NEW.nationality_id := COALESCE(moved_to, NEW.nationality_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR NEW.college_id IS DISTINCT FROM OLD.college_id THEN
+        SELECT replaced_by INTO moved_to FROM student_college WHERE id = NEW.college_id;
+        NEW.college_id := COALESCE(moved_to, NEW.college_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR NEW.major_id IS DISTINCT FROM OLD.major_id THEN
+        SELECT replaced_by INTO moved_to FROM student_major WHERE id = NEW.major_id;
+        NEW.major_id := COALESCE(moved_to, NEW.major_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR NEW.minor_id IS DISTINCT FROM OLD.minor_id THEN
+        SELECT replaced_by INTO moved_to FROM student_minor WHERE id = NEW.minor_id;
+        NEW.minor_id := COALESCE(moved_to, NEW.minor_id);
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+-- Kept by the contract step (V14), unlike student_dictionary_sync
+DROP TRIGGER IF EXISTS student_dictionary_current ON student;
+CREATE TRIGGER student_dictionary_current
+    BEFORE INSERT OR UPDATE ON student
+    FOR EACH ROW EXECUTE FUNCTION student_dictionary_current();
@@ -0,0 +1,157 @@
+package com.syscomz.springbootfullstackprofessional.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private AdmissionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+    }
+
+    @Test
+    void classifiesOnlyTheExpensiveReads() {
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students"))).isEqualTo(AdmissionControlFilter.Endpoint.LIST);
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/page"))).isEqualTo(AdmissionControlFilter.Endpoint.LIST);
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/search/"))).isEqualTo(AdmissionControlFilter.Endpoint.LIST);
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/export"))).isEqualTo(AdmissionControlFilter.Endpoint.EXPORT);
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/export/jobs/abc/file"))).isEqualTo(AdmissionControlFilter.Endpoint.EXPORT);
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/stats/gender"))).isEqualTo(AdmissionControlFilter.Endpoint.STATS);
+
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/42"))).isNull();
+        assertThat(AdmissionControlFilter.classify(get("/api/v1/students/export/jobs/abc"))).isNull();
+        assertThat(AdmissionControlFilter.classify(new MockHttpServletRequest("POST", "/api/v1/students"))).isNull();
+    }
+
+    @Test
+    void rejectsAClientThatRunsOutOfTokensUntilTheBucketRefills() throws Exception {
+        // given
+        properties.getList().setBurst(2);
+        properties.getList().setRatePerSecond(1);
+        AdmissionControlFilter underTest = filter();
+
+        // when
+        int first = run(underTest, get("/api/v1/students")).getStatus();
+        int second = run(underTest, get("/api/v1/students")).getStatus();
+        MockHttpServletResponse third = run(underTest, get("/api/v1/students"));
+        MockHttpServletRequest otherClient = get("/api/v1/students");
+        otherClient.setRemoteAddr("10.0.0.2");
+        int other = run(underTest, otherClient).getStatus();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        int afterRefill = run(underTest, get("/api/v1/students")).getStatus();
+
+        // then
+        assertThat(first).isEqualTo(200);
+        assertThat(second).isEqualTo(200);
+        assertThat(third.getStatus()).isEqualTo(429);
+        assertThat(third.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(third.getContentAsString()).contains("\"status\":429", "\"path\":\"/api/v1/students\"");
+        assertThat(other).isEqualTo(200);
+        assertThat(afterRefill).isEqualTo(200);
+        assertThat(count("list", "accepted", "none")).isEqualTo(4);
+        assertThat(count("list", "rejected", "rate_limit")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenTheBulkheadAndItsQueueAreFull() throws Exception {
+        // given
+        properties.getExport().setMaxConcurrent(1);
+        properties.getExport().setMaxQueued(0);
+        properties.getExport().setMaxWait(Duration.ofSeconds(3));
+        AdmissionControlFilter underTest = filter();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, resp) -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> {
+                underTest.doFilter(get("/api/v1/students/export"), new MockHttpServletResponse(), slow);
+                return null;
+            });
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // when
+            MockHttpServletRequest otherClient = get("/api/v1/students/export");
+            otherClient.setRemoteAddr("10.0.0.2");
+            MockHttpServletResponse rejected = run(underTest, otherClient);
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+
+            // then
+            assertThat(rejected.getStatus()).isEqualTo(429);
+            assertThat(rejected.getHeader("Retry-After")).isEqualTo("3");
+            assertThat(count("export", "rejected", "concurrency")).isEqualTo(1);
+            assertThat(run(underTest, otherClient).getStatus()).isEqualTo(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void idleBucketsArePurged() throws Exception {
+        // given
+        AdmissionControlFilter underTest = filter();
+        run(underTest, get("/api/v1/students/stats/gender"));
+        run(underTest, get("/api/v1/students/42"));
+        assertThat(underTest.bucketCount()).isEqualTo(1);
+
+        // when
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        underTest.purgeIdleBuckets();
+
+        // then
+        assertThat(underTest.bucketCount()).isZero();
+    }
+
+    private AdmissionControlFilter filter() {
+        return new AdmissionControlFilter(properties, objectMapper, meterRegistry, clock::get);
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static MockHttpServletResponse run(AdmissionControlFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private double count(String endpoint, String outcome, String reason) {
+        return meterRegistry.get("app.admission.requests")
+                .tags("endpoint", endpoint, "outcome", outcome, "reason", reason)
+                .counter().count();
+    }
+}
@@ -0,0 +1,55 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuatorsecurity;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "management.endpoints.web.exposure.include=health,flightrecorder",
+        "spring.security.user.name=ops",
+        "spring.security.user.password=secret",
+        "spring.security.user.roles=ACTUATOR_ADMIN",
+        "app.jfr.settings=default"
+})
+@AutoConfigureMockMvc
+class ActuatorSecurityIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void flightRecorderNeedsActuatorAdmin() throws Exception {
+        mockMvc.perform(post("/actuator/flightrecorder/start")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/flightrecorder")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/flightrecorder").header(HttpHeaders.AUTHORIZATION, basic("ops", "wrong")))
+            .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/flightrecorder").header(HttpHeaders.AUTHORIZATION, basic("ops", "secret")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value("NONE"));
+    }
+
+    @Test
+    void healthAndApiStayOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/students/stats/gender")).andExpect(status().isOk());
+    }
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
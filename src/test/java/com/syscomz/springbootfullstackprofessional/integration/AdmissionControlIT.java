@@ -0,0 +1,42 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.admission.enabled=true",
+        "app.admission.stats.burst=2",
+        "app.admission.stats.rate-per-second=0.1"
+})
+@AutoConfigureMockMvc
+class AdmissionControlIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void throttledRequestsGetTooManyRequestsWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/api/v1/students/stats/gender")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/students/stats/colleges")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/students/stats/gender"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "10"))
+            .andExpect(jsonPath("$.status").value(429))
+            .andExpect(jsonPath("$.path").value("/api/v1/students/stats/gender"));
+
+        // Endpoints outside the limited classes are unaffected
+        mockMvc.perform(get("/api/v1/students/suggest").param("prefix", "a")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,104 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties")
+@AutoConfigureMockMvc
+class ExportJobIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        studentRepository.deleteAll();
+        studentRepository.save(new Student("Alice", "alice@gmail.com", Gender.FEMALE, "USA", "MIT", "Computer Science", null));
+        studentRepository.save(new Student("Bob", "bob@gmail.com", Gender.MALE, "Canada", "UBC", "Engineering", null));
+        studentRepository.save(new Student("Carol", "carol@outlook.com", Gender.FEMALE, "UK", "Oxford", "Mathematics", null));
+    }
+
+    @Test
+    void jobRunsInTheBackgroundAndItsFileCanBeDownloaded() throws Exception {
+        MvcResult submitted = mockMvc.perform(post("/api/v1/students/export/jobs").param("gender", "FEMALE").param("sortBy", "name"))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists(HttpHeaders.LOCATION))
+            .andReturn();
+        String location = submitted.getResponse().getHeader(HttpHeaders.LOCATION);
+
+        JsonNode status = poll(location);
+        assertThat(status.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(status.get("rowsWritten").asLong()).isEqualTo(2);
+        assertThat(status.get("estimatedRows").asLong()).isEqualTo(2);
+        assertThat(status.get("progress").asDouble()).isEqualTo(1.0);
+
+        String csv = mockMvc.perform(get(status.get("downloadUrl").asText()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andReturn().getResponse().getContentAsString();
+        assertThat(csv).startsWith("id,name,email,gender,nationality,college,major,minor\n");
+        assertThat(csv.lines()).hasSize(3);
+        assertThat(csv.indexOf("alice@gmail.com")).isLessThan(csv.indexOf("carol@outlook.com"));
+        assertThat(csv).doesNotContain("bob@gmail.com");
+
+        // Discarding a finished job removes it
+        mockMvc.perform(delete(location)).andExpect(status().isNoContent());
+        mockMvc.perform(get(location)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void jobsAreOnlyVisibleToTheSubmittingClient() throws Exception {
+        String location = mockMvc.perform(post("/api/v1/students/export/jobs"))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        mockMvc.perform(get(location).with(request -> { request.setRemoteAddr("10.0.0.9"); return request; }))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.status").value(404));
+    }
+
+    @Test
+    void rejectsUnknownSortProperties() throws Exception {
+        mockMvc.perform(post("/api/v1/students/export/jobs").param("sortBy", "nope"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode poll(String location) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            JsonNode status = objectMapper.readTree(mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+            if (!status.get("status").asText().equals("QUEUED") && !status.get("status").asText().equals("RUNNING")) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("export job did not finish");
+    }
+}
@@ -0,0 +1,49 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("fast-startup")
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:faststartup;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "management.endpoint.health.probes.enabled=true"
+})
+class FastStartupIT {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void onlyStartupCriticalBeansAreCreatedBeforeTheFirstRequest() {
+        // given
+        var beanFactory = context.getBeanFactory();
+
+        // then
+        assertThat(beanFactory.containsSingleton("dataSource")).isTrue();
+        assertThat(beanFactory.containsSingleton("entityManagerFactory")).isTrue();
+        assertThat(beanFactory.containsSingleton("exportJobService")).isTrue();
+        assertThat(beanFactory.containsSingleton("studentController")).isFalse();
+
+        // when
+        ResponseEntity<String> ready = restTemplate.getForEntity("/actuator/health/readiness", String.class);
+        ResponseEntity<String> page = restTemplate.getForEntity("/api/v1/students/page?page=0&size=5", String.class);
+
+        // then
+        assertThat(ready.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(beanFactory.containsSingleton("studentController")).isTrue();
+    }
+}
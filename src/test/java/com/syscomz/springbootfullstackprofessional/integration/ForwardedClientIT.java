@@ -0,0 +1,55 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Forwarded headers are applied by Tomcat, so this needs a real server rather than MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:forwarded;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "server.forward-headers-strategy=native",
+        "app.admission.enabled=true",
+        "app.admission.stats.burst=2",
+        "app.admission.stats.rate-per-second=0.1"
+})
+class ForwardedClientIT {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void clientsBehindTheProxyAreLimitedSeparately() {
+        // given - both arrive from the proxy on 127.0.0.1
+        String first = "203.0.113.7";
+        String second = "203.0.113.8";
+
+        // when
+        HttpStatusCode firstOne = stats(first);
+        HttpStatusCode firstTwo = stats(first);
+        HttpStatusCode firstThree = stats(first);
+        HttpStatusCode secondOne = stats(second);
+
+        // then
+        assertThat(firstOne).isEqualTo(HttpStatus.OK);
+        assertThat(firstTwo).isEqualTo(HttpStatus.OK);
+        assertThat(firstThree).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(secondOne).isEqualTo(HttpStatus.OK);
+    }
+
+    private HttpStatusCode stats(String client) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", client);
+        return restTemplate.exchange("/api/v1/students/stats/gender", HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode();
+    }
+}
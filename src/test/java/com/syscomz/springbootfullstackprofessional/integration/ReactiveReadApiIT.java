@@ -0,0 +1,164 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syscomz.springbootfullstackprofessional.reactive.ReactiveReadApplication;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Starts the reactive read API over R2DBC on the same in-memory H2 database that the servlet application
+ * seeds through JPA, and expects the same answers from both.
+ */
+@SpringBootTest
+@ActiveProfiles("seed")
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.seed.count=600",
+        "app.seed.seed=11",
+        "app.seed.parallelism=2"
+})
+class ReactiveReadApiIT {
+
+    private static ConfigurableApplicationContext reactive;
+    private static WebTestClient client;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void startReactiveApplication() {
+        if (reactive != null) return;
+        reactive = ReactiveReadApplication.application().run(
+                "--server.port=0",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password=",
+                // A cursor fetch of a few rows, so that an export crosses many fetch boundaries
+                "--app.reactive.export.fetch-size=7");
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactive.getEnvironment().getProperty("local.server.port"))
+                .build();
+    }
+
+    @AfterAll
+    static void stopReactiveApplication() {
+        if (reactive != null) reactive.close();
+        reactive = null;
+    }
+
+    @Test
+    void pagesAndSearchesMatchTheServletApi() throws Exception {
+        for (String query : new String[]{
+                "/page",
+                "/page?page=3&size=20&sort=college,asc&sort=name,desc",
+                "/page?page=1&size=25&sortBy=major&direction=desc",
+                "/page?page=100&size=50",
+                "/search?gender=female&size=30&sort=nationality,asc&sort=name,asc",
+                "/search?gender=male,other&minor=Statistics,History&sortBy=email&direction=desc",
+                "/search?domain=GMAIL.com&page=2&size=10&sortBy=minor",
+                "/search?q=mar&size=15&sortBy=name",
+                "/search?q=son&gender=female&page=1&size=5&sortBy=gender&direction=desc",
+                "/search?q=no+such+student",
+                "/stats/gender"}) {
+            assertSameJson(query);
+        }
+    }
+
+    @Test
+    void exactStatsMatchTheServletApi() throws Exception {
+        for (String field : new String[]{"nationalities", "colleges"}) {
+            assertThat(counts(reactiveJson("/stats/" + field + "?mode=exact")))
+                    .as(field).isEqualTo(counts(servletJson("/stats/" + field)));
+        }
+        // split_part, behind the servlet domain query, is PostgreSQL only: count domains here instead
+        Map<String, Long> domains = studentRepository.findAll().stream()
+                .collect(Collectors.groupingBy(s -> s.getEmail().split("@", -1)[1].toLowerCase(), Collectors.counting()));
+        assertThat(counts(reactiveJson("/stats/domains"))).isEqualTo(domains);
+
+        client.get().uri("/api/v1/students/stats/colleges?top=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Stats-Mode", "exact")
+                .expectHeader().valueEquals("X-Distinct-Count", Integer.toString(counts(servletJson("/stats/colleges")).size()))
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void exportStreamsTheSameCsvAsTheServletApi() throws Exception {
+        for (String query : new String[]{"/export", "/export?gender=female&sort=college,asc&sort=name,desc"}) {
+            String servlet = mockMvc.perform(get("/api/v1/students" + query))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            byte[] body = client.get().uri("/api/v1/students" + query).exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith("text/csv")
+                    .expectHeader().value(HttpHeaders.CONTENT_DISPOSITION, cd -> assertThat(cd).contains("attachment"))
+                    .expectBody().returnResult().getResponseBody();
+            assertThat(new String(body, StandardCharsets.UTF_8)).as(query).isEqualTo(servlet);
+        }
+    }
+
+    @Test
+    void rejectsInvalidRequestsLikeTheServletApi() {
+        client.get().uri("/api/v1/students/search?sortBy=password").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.message").isEqualTo("Cannot sort by password")
+                .jsonPath("$.path").isEqualTo("/api/v1/students/search");
+        client.get().uri("/api/v1/students/search?q=ab").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/v1/students/stats/domains?mode=fuzzy").exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/v1/students/page?page=abc").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private void assertSameJson(String query) throws Exception {
+        assertThat(objectMapper.readTree(reactiveJson(query))).as(query).isEqualTo(objectMapper.readTree(servletJson(query)));
+    }
+
+    private String servletJson(String query) throws Exception {
+        return mockMvc.perform(get("/api/v1/students" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private String reactiveJson(String query) {
+        byte[] body = client.get().uri("/api/v1/students" + query).exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, Long> counts(String json) throws Exception {
+        Map<String, Long> counts = new java.util.HashMap<>();
+        objectMapper.readTree(json).forEach(row -> counts.put(row.get("domain").asText(), row.get("count").asLong()));
+        return counts;
+    }
+}
@@ -0,0 +1,113 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the application against two separate in-memory databases standing in for the primary and the
+ * replica. Replication is simulated by hand: the replica gets the schema but only the rows a test puts
+ * there, so every response shows which database served it.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.replica.read-your-writes-window=30s"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingIT {
+
+    private static final JdbcTemplate PRIMARY = jdbc("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+    private static final JdbcTemplate REPLICA = jdbc("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void setup() {
+        // Hibernate created the schema on the primary only (DDL runs outside read-only transactions)
+        REPLICA.execute("DROP ALL OBJECTS");
+        List<String> ddl = PRIMARY.queryForList("SCRIPT NODATA", String.class);
+        ddl.stream().filter(sql -> !sql.startsWith("CREATE USER")).forEach(REPLICA::execute);
+
+        studentRepository.deleteAll();
+        studentRepository.save(new Student("Primary Only", "primary@gmail.com", Gender.FEMALE, "USA", "MIT", null, null));
+        REPLICA.update("INSERT INTO student_nationality (id, name) VALUES (?, ?)", 1000, "Canada");
+        REPLICA.update("INSERT INTO student_college (id, name) VALUES (?, ?)", 1000, "UBC");
+        REPLICA.update("INSERT INTO student (id, name, email, gender, nationality_id, college_id) VALUES (?, ?, ?, ?, ?, ?)",
+                1000L, "Replica Only", "replica@gmail.com", "MALE", 1000, 1000);
+    }
+
+    @Test
+    void readOnlyEndpointsAreServedByTheReplica() throws Exception {
+        mockMvc.perform(get("/api/v1/students"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].email").value("replica@gmail.com"));
+
+        mockMvc.perform(get("/api/v1/students/page"))
+            .andExpect(jsonPath("$.content[0].email").value("replica@gmail.com"));
+
+        mockMvc.perform(get("/api/v1/students/search").param("gender", "MALE"))
+            .andExpect(jsonPath("$.page.totalElements").value(1));
+
+        mockMvc.perform(get("/api/v1/students/stats/gender"))
+            .andExpect(jsonPath("$.Male").value(1))
+            .andExpect(jsonPath("$.Female").value(0));
+    }
+
+    @Test
+    void writesGoToThePrimaryAndTheWriterReadsThemBack() throws Exception {
+        MvcResult write = mockMvc.perform(post("/api/v1/students")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Carol\",\"email\":\"carol@outlook.com\",\"gender\":\"FEMALE\",\"nationality\":\"UK\",\"college\":\"Oxford\"}"))
+            .andExpect(status().isOk())
+            .andExpect(cookie().exists("rw-pin"))
+            .andReturn();
+        Cookie pin = write.getResponse().getCookie("rw-pin");
+
+        assertThat(PRIMARY.queryForObject("SELECT COUNT(*) FROM student WHERE email = 'carol@outlook.com'", Long.class)).isEqualTo(1);
+        assertThat(REPLICA.queryForObject("SELECT COUNT(*) FROM student WHERE email = 'carol@outlook.com'", Long.class)).isZero();
+
+        // The writer is pinned to the primary for the read-your-writes window...
+        mockMvc.perform(get("/api/v1/students").cookie(pin))
+            .andExpect(jsonPath("$[*].email").value(containsInAnyOrder("primary@gmail.com", "carol@outlook.com")));
+
+        // ...while everyone else keeps reading the (lagging) replica
+        mockMvc.perform(get("/api/v1/students"))
+            .andExpect(jsonPath("$[*].email").value(contains("replica@gmail.com")));
+
+        // An expired pin no longer counts
+        mockMvc.perform(get("/api/v1/students").cookie(new Cookie("rw-pin", String.valueOf(System.currentTimeMillis() - 1))))
+            .andExpect(jsonPath("$[*].email").value(contains("replica@gmail.com")));
+    }
+
+    private static JdbcTemplate jdbc(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+}
@@ -0,0 +1,127 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.SpringBootFullStackProfessionalApplication;
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentService;
+import com.syscomz.springbootfullstackprofessional.student.StudentSuggestion;
+import com.syscomz.springbootfullstackprofessional.student.exception.StudentNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two application contexts on one database: writes through the first must reach the caches of the
+ * second (entity cache, value picker, typeahead). H2 has no LISTEN/NOTIFY, so this runs the polling fallback.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:coherence;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.coherence.enabled=true",
+        "app.coherence.poll-interval=100ms"
+})
+class StudentCoherenceIT {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private ConfigurableApplicationContext otherNode;
+    private StudentService otherService;
+
+    @BeforeEach
+    void startOtherNode() {
+        studentRepository.deleteAll();
+        otherNode = new SpringApplicationBuilder(SpringBootFullStackProfessionalApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:coherence;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                // The schema belongs to the first node
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.flyway.enabled=false",
+                "--spring.main.web-application-type=none",
+                "--app.admission.enabled=false",
+                "--app.coherence.enabled=true",
+                "--app.coherence.poll-interval=100ms",
+                "--app.coherence.max-poll-rows=3");
+        otherService = otherNode.getBean(StudentService.class);
+    }
+
+    @AfterEach
+    void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @Test
+    void writesOnOneNodeReachTheCachesOfTheOther() {
+        // given a student the other node has read and cached
+        studentService.addStudent(new Student("Ada Lovelace", "ada@coherence.example", Gender.FEMALE, "UK", "Cambridge", "Mathematics", null));
+        Long id = studentRepository.findAll().get(0).getId();
+        awaitOnOtherNode("the new student", () -> suggestions("ada").size() == 1 && values("college").contains("Cambridge"));
+        assertThat(otherService.getStudent(id).getCollege()).isEqualTo("Cambridge");
+
+        // when it is updated on this node
+        Student update = new Student();
+        update.setName("Ada King");
+        update.setCollege("Oxford");
+        studentService.updateStudent(id, update);
+
+        // then the other node stops serving its cached copies
+        awaitOnOtherNode("the update", () -> "Oxford".equals(otherService.getStudent(id).getCollege()));
+        assertThat(otherService.getStudent(id).getName()).isEqualTo("Ada King");
+        awaitOnOtherNode("the new values", () -> values("college").contains("Oxford") && !values("college").contains("Cambridge"));
+        assertThat(suggestions("king")).extracting(StudentSuggestion::getId).containsExactly(id);
+
+        // and forgets it once it is deleted
+        studentService.deleteStudent(id);
+        awaitOnOtherNode("the delete", () -> suggestions("ada").isEmpty());
+        assertThatThrownBy(() -> otherService.getStudent(id)).isInstanceOf(StudentNotFoundException.class);
+    }
+
+    @Test
+    void moreChangesThanOnePollTakesFlushEverything() {
+        assertThat(values("college")).isEmpty();
+        for (int i = 0; i < 5; i++) {
+            studentService.addStudent(new Student("Burst " + i, "burst" + i + "@coherence.example", Gender.OTHER, "Chile", "College " + i, null, null));
+        }
+        awaitOnOtherNode("the flush", () -> values("college").size() == 5 && suggestions("burst").size() == 5);
+    }
+
+    private List<StudentSuggestion> suggestions(String prefix) {
+        return otherService.suggestStudents(prefix, 10);
+    }
+
+    private List<String> values(String field) {
+        return otherService.getFieldValues(field, null, 100).stream().map(DomainCount::getDomain).toList();
+    }
+
+    private static void awaitOnOtherNode(String what, BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("other node to see " + what).isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentColumnarHttpMessageConverter;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties")
+@AutoConfigureMockMvc
+class StudentColumnarIT {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentColumnarIT.class);
+    private static final int ROWS = 2000;
+    private static final String[] NATIONALITIES = {"United States", "Canada", "United Kingdom", "Brazil", "India", "Germany"};
+    private static final String[] COLLEGES = {"College of Engineering", "College of Arts and Sciences", "School of Business"};
+    private static final String[] MAJORS = {"Computer Science", "Mechanical Engineering", "Economics", "Psychology", "Biology"};
+    private static final String[] MINORS = {"Mathematics", "Philosophy", "Statistics", "History"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        studentRepository.deleteAll();
+        List<Student> students = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            students.add(new Student("Student " + i, "student" + i + "@example.com", Gender.values()[i % 3],
+                    NATIONALITIES[i % NATIONALITIES.length], COLLEGES[i % COLLEGES.length],
+                    MAJORS[i % MAJORS.length], i % 7 == 0 ? null : MINORS[i % MINORS.length]));
+        }
+        studentRepository.saveAll(students);
+    }
+
+    @Test
+    void defaultsToJsonWithoutAnAcceptHeader() throws Exception {
+        mockMvc.perform(get("/api/v1/students/page").param("size", "5"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.content.length()").value(5))
+            .andExpect(jsonPath("$.page.totalElements").value(ROWS));
+    }
+
+    @Test
+    void columnarPageDecodesToTheSameRowsAndIsSmaller() throws Exception {
+        byte[] json = fetch("/api/v1/students/page", MediaType.APPLICATION_JSON_VALUE);
+        byte[] columnar = fetch("/api/v1/students/page", StudentColumnarHttpMessageConverter.MEDIA_TYPE_VALUE);
+
+        JsonNode expected = objectMapper.readTree(json);
+        JsonNode actual = objectMapper.readTree(columnar);
+        assertThat(actual.get("page")).isEqualTo(expected.get("page"));
+        assertThat(actual.get("rowCount").asInt()).isEqualTo(ROWS);
+        JsonNode columns = actual.get("columns");
+        for (int i = 0; i < ROWS; i++) {
+            JsonNode row = expected.get("content").get(i);
+            assertThat(columns.get("id").get(i).asLong()).isEqualTo(row.get("id").asLong());
+            assertThat(columns.get("email").get(i).asText()).isEqualTo(row.get("email").asText());
+            for (String field : List.of("gender", "nationality", "college", "major", "minor")) {
+                int code = columns.get(field).get("codes").get(i).asInt();
+                JsonNode decoded = code < 0 ? null : columns.get(field).get("dictionary").get(code);
+                assertThat(decoded == null ? null : decoded.asText()).as(field).isEqualTo(row.get(field).isNull() ? null : row.get(field).asText());
+            }
+        }
+
+        long jsonNanos = time("/api/v1/students/page", MediaType.APPLICATION_JSON_VALUE);
+        long columnarNanos = time("/api/v1/students/page", StudentColumnarHttpMessageConverter.MEDIA_TYPE_VALUE);
+        log.info("{} rows: VIA_DTO json {} bytes in {} us, columnar {} bytes in {} us ({}x smaller)",
+                ROWS, json.length, jsonNanos / 1000, columnar.length, columnarNanos / 1000,
+                String.format("%.1f", (double) json.length / columnar.length));
+        assertThat(columnar.length * 3).isLessThan(json.length);
+    }
+
+    @Test
+    void searchAndFullListAlsoNegotiateColumnar() throws Exception {
+        mockMvc.perform(get("/api/v1/students/search").param("gender", "FEMALE").param("size", "10")
+                .accept(StudentColumnarHttpMessageConverter.MEDIA_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(StudentColumnarHttpMessageConverter.MEDIA_TYPE))
+            .andExpect(jsonPath("$.rowCount").value(10))
+            .andExpect(jsonPath("$.columns.gender.dictionary.length()").value(1));
+
+        mockMvc.perform(get("/api/v1/students").accept(StudentColumnarHttpMessageConverter.MEDIA_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.page").doesNotExist())
+            .andExpect(jsonPath("$.rowCount").value(ROWS))
+            .andExpect(jsonPath("$.columns.nationality.dictionary.length()").value(NATIONALITIES.length));
+    }
+
+    private byte[] fetch(String path, String accept) throws Exception {
+        return mockMvc.perform(get(path).param("size", String.valueOf(ROWS)).accept(accept))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(accept))
+            .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    // Best of a few runs, so the first-call warm-up does not dominate the comparison
+    private long time(String path, String accept) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            fetch(path, accept);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,99 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.StudentSpecifications;
+import com.syscomz.springbootfullstackprofessional.student.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:dictionary-renumbering;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.dictionary.renumber-grace=0s",
+        "app.dictionary.renumber-batch-size=2",
+        "app.seed.count=0"
+})
+class StudentDictionaryRenumberingIT {
+
+    // Far more than the 16 midpoints between two keys 65536 apart
+    private static final int VALUES = 60;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void valuesAddedInOrderBetweenTwoNeighboursKeepFitting() throws InterruptedException {
+        // given
+        save("Business", 0);
+        save("Biology", 1);
+        save("Biology", 2);
+
+        // when
+        for (int i = 1; i <= VALUES; i++) {
+            save(String.format("Biology %02d", i), 2 + i);
+        }
+        awaitNoRetiredKeys();
+
+        // then
+        List<String> majors = studentRepository.findAll(PageRequest.of(0, 1000, StudentSort.of("major", "asc").toSort()))
+                .map(Student::getMajor).getContent().stream().filter(m -> m.startsWith("B")).toList();
+        assertThat(majors).hasSize(VALUES + 3).isSorted();
+        assertThat(studentRepository.findAll(StudentSpecifications.matching(
+                StudentFilter.of(null, null, null, null, List.of("Biology"), null)))).hasSize(2);
+        List<Integer> keys = jdbcTemplate.queryForList("SELECT id FROM student_major WHERE name LIKE 'B%' ORDER BY name", Integer.class);
+        assertThat(keys).hasSize(VALUES + 2).isSorted().doesNotHaveDuplicates();
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : studentRepository.countByMajor()) counts.put((String) row[0], ((Number) row[1]).longValue());
+        assertThat(counts).containsEntry("Biology", 2L).containsEntry("Biology 01", 1L).containsEntry("Business", 1L);
+    }
+
+    // Retries a 503 as a client would after Retry-After, while the dictionary is renumbered
+    private void save(String major, int n) throws InterruptedException {
+        Student student = new Student("Student " + n, "student" + n + "@renumber.com", Gender.OTHER, "UK", "Science", major, null);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            try {
+                studentRepository.save(student);
+                return;
+            } catch (ServiceUnavailableException ex) {
+                assertThat(System.currentTimeMillis()).isLessThan(deadline);
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    private void awaitNoRetiredKeys() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_major WHERE replaced_by IS NOT NULL", Integer.class) > 0) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
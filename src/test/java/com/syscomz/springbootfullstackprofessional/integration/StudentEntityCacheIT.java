@@ -0,0 +1,113 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties")
+@AutoConfigureMockMvc
+class StudentEntityCacheIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private Long id;
+
+    @BeforeEach
+    void setup() {
+        studentRepository.deleteAll();
+        id = studentRepository.save(new Student("Ada Lovelace", "ada@cache.com", Gender.FEMALE, "UK", "Cambridge", null, null)).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedReadsByIdAreServedFromTheCache() throws Exception {
+        // when
+        mockMvc.perform(get("/api/v1/students/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.email").value("ada@cache.com"));
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        mockMvc.perform(get("/api/v1/students/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Ada Lovelace"));
+
+        // then
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Student.CACHE_REGION);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getPutCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", Student.CACHE_REGION, "result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void updatesReadFromTheCacheAndKeepItCurrent() throws Exception {
+        // given
+        mockMvc.perform(get("/api/v1/students/{id}", id)).andExpect(status().isOk());
+
+        // when
+        mockMvc.perform(put("/api/v1/students/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Ada King\",\"email\":\"ada@cache.com\",\"gender\":\"FEMALE\",\"nationality\":\"UK\",\"college\":\"Cambridge\"}"))
+            .andExpect(status().isOk());
+
+        // then
+        assertThat(statistics.getDomainDataRegionStatistics(Student.CACHE_REGION).getHitCount()).isEqualTo(1);
+        long statementsAfterUpdate = statistics.getPrepareStatementCount();
+        mockMvc.perform(get("/api/v1/students/{id}", id))
+            .andExpect(jsonPath("$.name").value("Ada King"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterUpdate);
+    }
+
+    @Test
+    void deleteEvictsTheEntry() throws Exception {
+        // given
+        mockMvc.perform(get("/api/v1/students/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/students/{id}", id)).andExpect(status().isOk());
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Student.CACHE_REGION);
+        assertThat(region.getHitCount()).isEqualTo(1);
+
+        // when
+        mockMvc.perform(delete("/api/v1/students/{id}", id)).andExpect(status().isOk());
+
+        // then the delete's own lookup was a hit, and the deleted row is never served from the cache again
+        assertThat(region.getHitCount()).isEqualTo(2);
+        mockMvc.perform(get("/api/v1/students/{id}", id))
+            .andExpect(status().isNotFound());
+        assertThat(region.getHitCount()).isEqualTo(2);
+    }
+}
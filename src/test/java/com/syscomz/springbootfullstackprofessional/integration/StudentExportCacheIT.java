@@ -0,0 +1,110 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties")
+@AutoConfigureMockMvc
+class StudentExportCacheIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void setup() {
+        studentRepository.deleteAll();
+        studentRepository.save(new Student("Alice", "alice@gmail.com", Gender.FEMALE, "USA", "MIT", "Computer Science", null));
+        studentRepository.save(new Student("Bob", "bob@gmail.com", Gender.MALE, "Canada", "UBC", "Engineering", null));
+    }
+
+    @Test
+    void repeatDownloadsRevalidateAndResumeFromTheSameFile() throws Exception {
+        MvcResult full = mockMvc.perform(get("/api/v1/students/export"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andReturn();
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+        byte[] body = full.getResponse().getContentAsByteArray();
+        assertThat(etag).isNotBlank();
+        assertThat(full.getResponse().getContentLengthLong()).isEqualTo(body.length);
+
+        mockMvc.perform(get("/api/v1/students/export").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        MvcResult tail = mockMvc.perform(get("/api/v1/students/export")
+                .header(HttpHeaders.RANGE, "bytes=10-")
+                .header(HttpHeaders.IF_RANGE, etag))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-" + (body.length - 1) + "/" + body.length))
+            .andReturn();
+        assertThat(tail.getResponse().getContentAsByteArray())
+            .isEqualTo(java.util.Arrays.copyOfRange(body, 10, body.length));
+
+        mockMvc.perform(get("/api/v1/students/export").header(HttpHeaders.RANGE, "bytes=" + body.length + "-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + body.length));
+
+        // A stale If-Range validator gets the whole current file instead of a spliced one
+        mockMvc.perform(get("/api/v1/students/export")
+                .header(HttpHeaders.RANGE, "bytes=10-")
+                .header(HttpHeaders.IF_RANGE, "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(body));
+    }
+
+    @Test
+    void writesInvalidateTheCachedFile() throws Exception {
+        String before = mockMvc.perform(get("/api/v1/students/export"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/v1/students")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Carol\",\"email\":\"carol@outlook.com\",\"gender\":\"FEMALE\",\"nationality\":\"UK\",\"college\":\"Oxford\"}"))
+            .andExpect(status().isOk());
+
+        MvcResult after = mockMvc.perform(get("/api/v1/students/export").header(HttpHeaders.IF_NONE_MATCH, before))
+            .andExpect(status().isOk())
+            .andReturn();
+        assertThat(after.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+        assertThat(after.getResponse().getContentAsString()).contains("carol@outlook.com");
+    }
+
+    @Test
+    void sendsTheGzipVariantWhenAccepted() throws Exception {
+        MvcResult res = mockMvc.perform(get("/api/v1/students/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(res.getResponse().getContentAsByteArray()))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(csv).startsWith("id,name,email,gender,nationality,college,major,minor\n");
+            assertThat(csv).contains("alice@gmail.com", "bob@gmail.com");
+        }
+    }
+}
@@ -16,8 +16,12 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,6 +46,9 @@ public class StudentIT {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private final Faker faker = new Faker();
 
     @SuppressWarnings("null")
@@ -164,5 +171,224 @@ public class StudentIT {
         }
     }
 
+    @Test
+    void searchCombinesFiltersWithCommaSeparatedAndRepeatedValues() throws Exception {
+        // given - unique nationalities keep the assertion independent of the other tests' data
+        String tag = faker.lorem().characters(8);
+        studentRepository.save(new Student("Filter One", tag + ".1@syscomz.com", Gender.FEMALE, "Atlantis-" + tag, "Engineering", "Physics", null));
+        studentRepository.save(new Student("Filter Two", tag + ".2@syscomz.com", Gender.MALE, "Lemuria-" + tag, "Engineering", "Physics", null));
+        studentRepository.save(new Student("Filter Three", tag + ".3@syscomz.com", Gender.FEMALE, "Atlantis-" + tag, "Business", "Physics", null));
+        studentRepository.save(new Student("Filter Four", tag + ".4@syscomz.com", Gender.OTHER, "Atlantis-" + tag, "Engineering", "Physics", null));
+
+        // when
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/students/search")
+                        .param("nationality", "Atlantis-" + tag + ",Lemuria-" + tag)
+                        .param("gender", "FEMALE")
+                        .param("gender", "male")
+                        .param("college", "Engineering")
+                        .param("major", "Physics"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        JsonNode content = objectMapper.readTree(mvcResult.getResponse().getContentAsString()).get("content");
+        List<Student> students = objectMapper.convertValue(content, new TypeReference<List<Student>>() {});
+        assertThat(students.stream().map(Student::getName).sorted().toList()).isEqualTo(List.of("Filter One", "Filter Two"));
+    }
+
+    @Test
+    void searchSortsByMultipleKeysWithIdAsTieBreaker() throws Exception {
+        // given
+        String tag = faker.lorem().characters(8);
+        String nationality = "Sortland-" + tag;
+        Student b = studentRepository.save(new Student("Bea", tag + ".b@syscomz.com", Gender.FEMALE, nationality, "Arts", "History", null));
+        Student a1 = studentRepository.save(new Student("Ann", tag + ".a1@syscomz.com", Gender.FEMALE, nationality, "Science", "Physics", null));
+        Student a2 = studentRepository.save(new Student("Ann", tag + ".a2@syscomz.com", Gender.FEMALE, nationality, "Science", "Biology", null));
+
+        // when
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/students/search")
+                        .param("nationality", nationality)
+                        .param("sort", "college,desc")
+                        .param("sort", "name,asc"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        JsonNode content = objectMapper.readTree(mvcResult.getResponse().getContentAsString()).get("content");
+        List<Student> students = objectMapper.convertValue(content, new TypeReference<List<Student>>() {});
+        assertThat(students.stream().map(Student::getId).toList()).isEqualTo(List.of(a1.getId(), a2.getId(), b.getId()));
+    }
+
+    @Test
+    void rejectsSortsOutsideTheWhitelist() throws Exception {
+        mockMvc.perform(get("/api/v1/students/page").param("sortBy", "password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/students/search").param("sort", "minor,asc").param("sort", "major,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void changesReturnOnlyWhatChangedSinceAVersionKeysetPaged() throws Exception {
+        // given
+        String tag = faker.lorem().characters(8);
+        Student a = studentRepository.save(new Student("Delta A", tag + ".a@syscomz.com", Gender.FEMALE, "UK", "Arts", "History", null));
+        Student b = studentRepository.save(new Student("Delta B", tag + ".b@syscomz.com", Gender.MALE, "UK", "Arts", "History", null));
+        Student c = studentRepository.save(new Student("Delta C", tag + ".c@syscomz.com", Gender.OTHER, "UK", "Arts", "History", null));
+        long since = a.getChangeVersion() - 1;
+
+        // when: b is updated after c was created, then c is deleted
+        b.setMajor("Philosophy");
+        mockMvc.perform(put("/api/v1/students/{id}", b.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(b)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/students/{id}", c.getId())).andExpect(status().isOk());
+
+        // then: a, then b at its new version, then the delete of c
+        JsonNode first = changes(since, 2);
+        assertThat(ids(first.get("upserted"))).isEqualTo(List.of(a.getId(), b.getId()));
+        assertThat(first.get("upserted").get(1).get("major").asText()).isEqualTo("Philosophy");
+        assertThat(first.get("deleted").size()).isEqualTo(0);
+        assertThat(first.get("hasMore").asBoolean()).isTrue();
+
+        JsonNode second = changes(first.get("next").asLong(), 2);
+        assertThat(second.get("upserted").size()).isEqualTo(0);
+        assertThat(second.get("deleted").get(0).asLong()).isEqualTo(c.getId());
+        assertThat(second.get("hasMore").asBoolean()).isFalse();
+
+        JsonNode caughtUp = changes(second.get("next").asLong(), 2);
+        assertThat(caughtUp.get("next").asLong()).isEqualTo(second.get("next").asLong());
+        assertThat(caughtUp.get("upserted").size() + caughtUp.get("deleted").size()).isEqualTo(0);
+    }
+
+    @Test
+    void changesDoNotRunPastAVersionWhoseTransactionIsStillOpen() throws Exception {
+        // given
+        String tag = faker.lorem().characters(8);
+        Student before = studentRepository.save(new Student("Open Before", tag + ".0@syscomz.com", Gender.FEMALE, "UK", "Arts", "History", null));
+        long since = before.getChangeVersion();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // when: this transaction takes a version, then another one commits a higher version
+            Student open = studentRepository.saveAndFlush(new Student("Open Slow", tag + ".1@syscomz.com", Gender.FEMALE, "UK", "Arts", "History", null));
+            Student committed = CompletableFuture.supplyAsync(() -> studentRepository.save(
+                    new Student("Open Fast", tag + ".2@syscomz.com", Gender.MALE, "UK", "Arts", "History", null))).join();
+            assertThat(committed.getChangeVersion()).isGreaterThan(open.getChangeVersion());
+
+            // then: the committed version is held back, or a client moving past it would never see the open one
+            JsonNode held = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return changes(since, 10);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }).join();
+            assertThat(held.get("upserted").size()).isEqualTo(0);
+            assertThat(held.get("next").asLong()).isEqualTo(since);
+        });
+
+        // once it commits, both arrive in version order
+        JsonNode settled = changes(since, 10);
+        List<String> names = new ArrayList<>();
+        settled.get("upserted").forEach(s -> names.add(s.get("name").asText()));
+        assertThat(names).isEqualTo(List.of("Open Slow", "Open Fast"));
+    }
+
+    @Test
+    void statsCanBeApproximateAndLimitedToTheTopValues() throws Exception {
+        // given - written through the API, so the sketches see the writes
+        String college = "Sketch College " + faker.lorem().characters(8);
+        for (int i = 0; i < 3; i++) {
+            String email = faker.lorem().characters(12) + "@sketch.example";
+            mockMvc.perform(post("/api/v1/students")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new Student("Sketch " + i, email, Gender.FEMALE, "UK", college, "History", null))))
+                    .andExpect(status().isOk());
+        }
+
+        // when
+        MvcResult approx = mockMvc.perform(get("/api/v1/students/stats/colleges").param("mode", "approx").param("top", "1000"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult exact = mockMvc.perform(get("/api/v1/students/stats/colleges").param("top", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        assertThat(approx.getResponse().getHeader("X-Stats-Mode")).isEqualTo("approx");
+        long bound = Long.parseLong(approx.getResponse().getHeader("X-Count-Error-Bound"));
+        JsonNode counts = objectMapper.readTree(approx.getResponse().getContentAsString());
+        long estimate = 0;
+        for (JsonNode count : counts) {
+            if (count.get("domain").asText().equals(college)) estimate = count.get("count").asLong();
+        }
+        assertThat(estimate).isBetween(3L, 3L + bound);
+        assertThat(exact.getResponse().getHeader("X-Stats-Mode")).isEqualTo("exact");
+        assertThat(objectMapper.readTree(exact.getResponse().getContentAsString()).size()).isEqualTo(1);
+        mockMvc.perform(get("/api/v1/students/stats/colleges").param("mode", "fuzzy"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void timelineCountsRegistrationsFromTheRollups() throws Exception {
+        // given
+        String today = java.time.LocalDate.now(java.time.ZoneOffset.UTC).toString();
+        JsonNode before = timeline(today);
+        String tag = faker.lorem().characters(8);
+        List<Long> ids = new ArrayList<>();
+        for (Gender gender : List.of(Gender.FEMALE, Gender.FEMALE, Gender.OTHER)) {
+            String email = tag + ids.size() + "@timeline.example";
+            mockMvc.perform(post("/api/v1/students")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new Student("Timeline", email, gender, "UK", "Arts", "History", null))))
+                    .andExpect(status().isOk());
+            ids.add(studentRepository.findAll().stream().filter(s -> s.getEmail().equals(email)).findFirst().orElseThrow().getId());
+        }
+
+        // when: one of the women is deleted
+        mockMvc.perform(delete("/api/v1/students/{id}", ids.get(0))).andExpect(status().isOk());
+        JsonNode after = timeline(today);
+
+        // then: one point per gender for the current month
+        assertThat(after.size()).isEqualTo(Gender.values().length);
+        assertThat(after.get(0).get("bucket").asText()).isEqualTo(today.substring(0, 8) + "01");
+        assertThat(registrations(after, Gender.FEMALE) - registrations(before, Gender.FEMALE)).isEqualTo(1L);
+        assertThat(registrations(after, Gender.OTHER) - registrations(before, Gender.OTHER)).isEqualTo(1L);
+        assertThat(registrations(after, Gender.MALE) - registrations(before, Gender.MALE)).isEqualTo(0L);
+        mockMvc.perform(get("/api/v1/students/stats/timeline").param("dims", "college"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/students/stats/timeline").param("from", today).param("to", "2000-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode timeline(String day) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/students/stats/timeline")
+                        .param("from", day).param("to", day)
+                        .param("bucket", "month").param("dims", "gender"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
 
+    private static long registrations(JsonNode points, Gender gender) {
+        for (JsonNode point : points) {
+            if (point.get("gender").asText().equals(gender.name())) return point.get("registrations").asLong();
+        }
+        throw new IllegalStateException("no point for " + gender);
+    }
+
+    private JsonNode changes(long since, int limit) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/students/changes")
+                        .param("since", String.valueOf(since))
+                        .param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode students) {
+        List<Long> ids = new ArrayList<>();
+        students.forEach(s -> ids.add(s.get("id").asLong()));
+        return ids;
+    }
 }
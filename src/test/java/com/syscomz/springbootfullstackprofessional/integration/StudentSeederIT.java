@@ -0,0 +1,75 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentDataGenerator;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentSeeder;
+import com.syscomz.springbootfullstackprofessional.student.export.StudentTableVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("seed")
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:seeder;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.seed.count=5000",
+        "app.seed.seed=11",
+        "app.seed.parallelism=3",
+        "app.seed.batch-size=700"
+})
+class StudentSeederIT {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentSeeder studentSeeder;
+
+    @Autowired
+    private StudentTableVersion tableVersion;
+
+    @Test
+    void startupFillsTheTableWithTheSeededDatasetAndLaterRunsContinueIt() {
+        // then the startup run loaded the dataset for seed 11
+        List<Student> all = studentRepository.findAll(Sort.by("email"));
+        assertThat(all).hasSize(5000);
+        assertThat(all.stream().map(Student::getEmail).distinct().count()).isEqualTo(5000);
+        Student expected = new StudentDataGenerator(11).row(1234);
+        assertThat(all).anySatisfy(s -> assertThat(s)
+                .usingRecursiveComparison().ignoringFields("id", "changeVersion", "updatedAt", "createdAt").isEqualTo(expected));
+
+        // when
+        long version = tableVersion.current();
+        StudentSeeder.SeedReport report = studentSeeder.seed(5000, 5100);
+
+        // then
+        assertThat(report.rows()).isEqualTo(100);
+        assertThat(report.rowsPerSecond()).isPositive();
+        assertThat(tableVersion.current()).isGreaterThan(version);
+        assertThat(studentRepository.count()).isEqualTo(5100);
+    }
+
+    @Test
+    void aRerunAfterDeletesRefillsTheTableWithoutReusingEmails() {
+        // given rows deleted from the seeded table, including the one with the highest index
+        List<Long> ids = studentRepository.findAll(Sort.by("id")).stream().map(Student::getId).toList();
+        List<Long> deleted = ids.subList(ids.size() - 300, ids.size());
+        studentRepository.deleteAllByIdInBatch(deleted);
+
+        // when
+        studentSeeder.run();
+
+        // then
+        List<Student> all = studentRepository.findAll();
+        assertThat(all).hasSize(5000);
+        assertThat(all.stream().map(Student::getEmail).distinct().count()).isEqualTo(all.size());
+    }
+}
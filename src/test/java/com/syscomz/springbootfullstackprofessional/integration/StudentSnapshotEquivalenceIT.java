@@ -0,0 +1,175 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentService;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.StudentSpecifications;
+import com.syscomz.springbootfullstackprofessional.student.snapshot.StudentSnapshotEngine;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same reads through the columnar snapshot and through JPA over the same data, after the snapshot
+ * has absorbed creates, updates and deletes (several compactions plus a pending overlay). The snapshot
+ * orders text like H2's default; on a database collating differently it must stay off.
+ */
+@SpringBootTest
+@ActiveProfiles("seed")
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.seed.count=3000",
+        "app.seed.seed=7",
+        "app.seed.parallelism=2",
+        "app.columnar.enabled=true",
+        "app.columnar.compact-threshold=16",
+        "app.columnar.partition-rows=512"
+})
+class StudentSnapshotEquivalenceIT {
+
+    @Autowired
+    private StudentSnapshotEngine engine;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Test
+    void snapshotAnswersLikeTheDatabaseAfterWrites() {
+        // given a seeded table changed through the service
+        assertThat(engine.isReady()).isTrue();
+        List<Student> seeded = studentRepository.findAll(Sort.by("id"));
+        for (int i = 0; i < 45; i++) {
+            String major = i % 5 == 0 ? null : "Snapshot Major " + (i % 3);
+            studentService.addStudent(new Student("Snapshot Student " + i, "snapshot" + i + "@Snapshot.Example",
+                    Gender.values()[i % 3], i % 4 == 0 ? "Atlantis" : "Portugal", "Snapshot College", major, null));
+        }
+        for (int i = 0; i < 30; i++) {
+            Student update = new Student();
+            update.setName(i % 2 == 0 ? "Zed Renamed " + i : null);
+            update.setCollege(i % 3 == 0 ? "Snapshot College" : null);
+            update.setGender(i % 4 == 0 ? Gender.OTHER : null);
+            studentService.updateStudent(seeded.get(i * 50).getId(), update);
+        }
+        for (int i = 0; i < 20; i++) studentService.deleteStudent(seeded.get(i * 70 + 1).getId());
+
+        // then every read matches
+        List<StudentSort> sorts = new ArrayList<>();
+        for (String field : StudentSort.FIELDS) {
+            sorts.add(StudentSort.of(field, "asc"));
+            sorts.add(StudentSort.of(field, "desc"));
+        }
+        sorts.add(StudentSort.parse(List.of("college,asc", "name,desc"), null, null));
+        sorts.add(StudentSort.parse(List.of("nationality,desc", "name,desc"), null, null));
+        // split_part, behind the domain query, is PostgreSQL only: count domains the way it does
+        Map<String, Long> domains = studentRepository.findAll().stream()
+                .collect(Collectors.groupingBy(s -> s.getEmail().split("@", -1)[1].toLowerCase(), Collectors.counting()));
+        String topDomain = domains.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        String topNationality = topValue(studentRepository.countByNationality());
+        String topCollege = topValue(studentRepository.countByCollege());
+        List<StudentFilter> filters = List.of(
+                StudentFilter.NONE,
+                StudentFilter.of(List.of("female"), null, null, null, null, null),
+                StudentFilter.of(null, null, List.of(topNationality, "Atlantis", "Nowhere"), null, null, null),
+                StudentFilter.of(List.of("male", "other"), null, null, List.of(topCollege, "Snapshot College"), List.of("Snapshot Major 1", "Computer Science"), null),
+                StudentFilter.of(null, "snapshot.example", null, null, null, null),
+                StudentFilter.of(null, topDomain.toUpperCase(), null, null, null, List.of("Statistics", "Music")));
+        for (StudentSort sort : sorts) {
+            for (StudentFilter filter : filters) {
+                assertSamePage(sort, filter, null, 0, 25);
+                assertSamePage(sort, filter, null, 3, 25);
+            }
+            for (String term : List.of("snapshot", "mar", "no such student")) {
+                assertSamePage(sort, StudentFilter.NONE, term, 1, 10);
+                assertSamePage(sort, filters.get(3), term, 0, 10);
+            }
+        }
+        assertSamePage(StudentSort.BY_ID, StudentFilter.NONE, null, 1000, 25);
+
+        assertThat(counts(engine.counts(StudentStatsSketches.Field.DOMAIN).orElseThrow()))
+                .isEqualTo(domains);
+        assertThat(counts(engine.counts(StudentStatsSketches.Field.NATIONALITY).orElseThrow()))
+                .isEqualTo(counts(studentRepository.countByNationality()));
+        assertThat(counts(engine.counts(StudentStatsSketches.Field.COLLEGE).orElseThrow()))
+                .isEqualTo(counts(studentRepository.countByCollege()));
+        Map<Gender, Long> genders = new HashMap<>();
+        studentRepository.countByGender().forEach(row -> genders.put(row.getGender(), row.getCount()));
+        assertThat(engine.genderCounts().orElseThrow()).isEqualTo(genders);
+        assertThat(studentService.getStudentsPage(0, 5, StudentSort.BY_ID).getTotalElements()).isEqualTo(3000 + 45 - 20);
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:snapshot-collated;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;INIT=SET COLLATION ENGLISH",
+            "app.seed.count=200"
+    })
+    class UnderAnotherCollation {
+
+        @Autowired
+        private StudentSnapshotEngine engine;
+
+        @Autowired
+        private StudentService studentService;
+
+        @Autowired
+        private StudentRepository studentRepository;
+
+        @Test
+        void snapshotStaysOffAndReadsUseTheDatabase() {
+            // given a name only the collation places first
+            studentService.addStudent(new Student("aaron lowercase", "aaron@collated.example", Gender.MALE, "Peru", "UBC", null, null));
+            StudentSort byName = StudentSort.of("name", "asc");
+
+            // then
+            assertThat(engine.isReady()).isFalse();
+            assertThat(engine.search(0, 5, byName, StudentFilter.NONE, null)).isEmpty();
+            assertThat(studentService.getStudentsPage(0, 5, byName).getContent())
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(studentRepository.findAll(PageRequest.of(0, 5, byName.toSort())).getContent());
+        }
+    }
+
+    private void assertSamePage(StudentSort sort, StudentFilter filter, String term, int page, int size) {
+        Specification<Student> spec = StudentSpecifications.matching(filter);
+        if (term != null) spec = spec.and(StudentSpecifications.nameOrEmailLike("%" + term + "%"));
+        Page<Student> expected = studentRepository.findAll(spec, PageRequest.of(page, size, sort.toSort()));
+        Page<Student> actual = engine.search(page, size, sort, filter, term).orElseThrow();
+        String query = String.format("sort=%s filter=%s q=%s page=%d", sort, filter, term, page);
+        assertThat(actual.getTotalElements()).as(query).isEqualTo(expected.getTotalElements());
+        assertThat(actual.getContent()).as(query)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expected.getContent());
+    }
+
+    private static String topValue(List<Object[]> rows) {
+        return String.valueOf(rows.get(0)[0]);
+    }
+
+    private static Map<String, Long> counts(List<?> rows) {
+        return rows.stream().collect(Collectors.toMap(
+                row -> row instanceof DomainCount d ? d.getDomain() : String.valueOf(((Object[]) row)[0]),
+                row -> row instanceof DomainCount d ? d.getCount() : ((Number) ((Object[]) row)[1]).longValue()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentService;
+import com.syscomz.springbootfullstackprofessional.student.StudentWarmup;
+import com.syscomz.springbootfullstackprofessional.student.stats.RegistrationRollups;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts a seeded application with the warm-up on and checks that it ran before readiness switched to
+ * accepting traffic, primed the entity cache and published its metrics.
+ */
+@SpringBootTest
+@ActiveProfiles("seed")
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.seed.count=400",
+        "app.seed.parallelism=2",
+        "app.warmup.enabled=true",
+        "app.warmup.rounds=6",
+        "app.warmup.threads=2",
+        "app.warmup.cache-rows=120"
+})
+class StudentWarmupIT {
+
+    // Warm-up runs recorded at the moment readiness switched to ACCEPTING_TRAFFIC
+    private static final AtomicLong RUNS_WHEN_READY = new AtomicLong(-1);
+
+    @TestConfiguration
+    static class ReadinessProbe {
+        @Bean
+        ApplicationListener<AvailabilityChangeEvent<ReadinessState>> readinessRecorder(MeterRegistry meterRegistry) {
+            return event -> {
+                if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) RUNS_WHEN_READY.set(warmups(meterRegistry));
+            };
+        }
+    }
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private RegistrationRollups registrationRollups;
+
+    @Test
+    void readinessWaitsForTheWarmup() {
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(RUNS_WHEN_READY.get()).isEqualTo(1);
+
+        Timer pages = meterRegistry.find("app.warmup.calls").tags("call", "page", "outcome", "success").timer();
+        assertThat(pages).isNotNull();
+        assertThat(pages.count()).isEqualTo(6);
+        assertThat(meterRegistry.find("app.warmup.calls").tags("call", "search", "outcome", "success").timer().count()).isEqualTo(6);
+
+        List<Student> first = studentRepository.findAll(PageRequest.of(0, 120, Sort.by("id"))).getContent();
+        assertThat(first).allSatisfy(s -> assertThat(entityManagerFactory.getCache().contains(Student.class, s.getId())).isTrue());
+    }
+
+    @Test
+    void stopsAtTheBudget() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StudentWarmup warmup = new StudentWarmup(studentService, registrationRollups, registry, true, Duration.ZERO, 50, 2, 10);
+
+        StudentWarmup.Report report = warmup.warmUp();
+
+        assertThat(report.budgetExceeded()).isTrue();
+        assertThat(report.rounds()).isZero();
+        assertThat(registry.find("app.warmup.duration").tag("outcome", "budget_exceeded").timer().count()).isEqualTo(1);
+    }
+
+    private static long warmups(MeterRegistry meterRegistry) {
+        Timer timer = meterRegistry.find("app.warmup.duration").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,132 @@
+package com.syscomz.springbootfullstackprofessional.integration;
+
+import com.syscomz.springbootfullstackprofessional.config.Workload;
+import com.syscomz.springbootfullstackprofessional.config.WorkloadRoutingDataSource;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentService;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.stats.RegistrationRollups;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the application with one connection each for bulk and reporting work, and checks that requests
+ * land on their own pools and that CRUD keeps working while reporting has no connection to spare.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-it.properties", properties = {
+        "spring.datasource.url=jdbc:h2:mem:workloads;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.workloads.enabled=true",
+        "app.datasource.workloads.reporting.statement-timeout=7s",
+        "app.datasource.workloads.reporting.hikari.maximum-pool-size=1",
+        "app.datasource.workloads.reporting.hikari.connection-timeout=250",
+        "app.datasource.workloads.bulk.hikari.maximum-pool-size=1"
+})
+@AutoConfigureMockMvc
+class WorkloadPoolsIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private RegistrationRollups registrationRollups;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("reportingDataSource")
+    private HikariDataSource reportingPool;
+
+    @Autowired
+    @Qualifier("bulkDataSource")
+    private HikariDataSource bulkPool;
+
+    @Test
+    void eachWorkloadAcquiresFromItsOwnPool() throws Exception {
+        long interactive = acquisitions("interactive");
+        long reporting = acquisitions("reporting");
+        long bulk = acquisitions("bulk");
+
+        mockMvc.perform(post("/api/v1/students")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Dana\",\"email\":\"dana@workloads.example\",\"gender\":\"FEMALE\",\"nationality\":\"UK\",\"college\":\"Oxford\"}"))
+            .andExpect(status().isOk());
+        assertThat(acquisitions("interactive")).isGreaterThan(interactive);
+        assertThat(acquisitions("reporting")).isEqualTo(reporting);
+
+        mockMvc.perform(get("/api/v1/students/export")).andExpect(status().isOk());
+        assertThat(acquisitions("reporting")).isGreaterThan(reporting);
+
+        registrationRollups.recompute();
+        assertThat(acquisitions("bulk")).isGreaterThan(bulk);
+
+        // Only the reporting pool was given a statement timeout
+        assertThat(reportingPool.getConnectionInitSql()).isEqualTo("SET QUERY_TIMEOUT 7000");
+        assertThat(bulkPool.getConnectionInitSql()).isNull();
+    }
+
+    @Test
+    void crudKeepsWorkingWhileReportingIsExhausted() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> export = CompletableFuture.runAsync(() -> WorkloadRoutingDataSource.runAs(Workload.Type.REPORTING, () -> {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+                holding.countDown();
+                release.await(30, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }));
+        try {
+            assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+
+            mockMvc.perform(post("/api/v1/students")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"Eve\",\"email\":\"eve@workloads.example\",\"gender\":\"FEMALE\",\"nationality\":\"UK\",\"college\":\"Oxford\"}"))
+                .andExpect(status().isOk());
+            mockMvc.perform(get("/api/v1/students/page")).andExpect(status().isOk());
+
+            assertThatThrownBy(() -> studentService.searchStudentsAll(StudentSort.BY_ID, StudentFilter.NONE))
+                .hasRootCauseInstanceOf(SQLTransientConnectionException.class);
+        } finally {
+            release.countDown();
+            export.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private long acquisitions(String pool) {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
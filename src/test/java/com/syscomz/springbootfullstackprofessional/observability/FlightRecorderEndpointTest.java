@@ -0,0 +1,94 @@
+package com.syscomz.springbootfullstackprofessional.observability;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderEndpointTest {
+
+    @TempDir
+    Path dumpDir;
+
+    private FlightRecorderEndpoint underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FlightRecorderEndpoint(dumpDir.toString(), Duration.ofMinutes(1), DataSize.ofMegabytes(10), 2, "default");
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    void startDumpAndStopWritesRecordingWithCustomEvents() throws Exception {
+        // given
+        underTest.control("start");
+        assertThat(underTest.status()).containsEntry("state", "RUNNING");
+
+        StudentQueryEvent event = new StudentQueryEvent();
+        event.begin();
+        event.repository = "StudentRepository";
+        event.query = "countByDomain";
+        event.rows = 7;
+        event.commit();
+
+        // when
+        Map<String, Object> stopped = underTest.control("stop");
+
+        // then
+        assertThat(stopped).containsEntry("state", "NONE");
+        Path file = Path.of((String) stopped.get("file"));
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events)
+                .filteredOn(e -> e.getEventType().getName().equals("com.syscomz.students.Query"))
+                .anySatisfy(e -> {
+                    assertThat(e.getString("query")).isEqualTo("countByDomain");
+                    assertThat(e.getLong("rows")).isEqualTo(7);
+                });
+    }
+
+    @Test
+    void keepsOnlyTheNewestDumps() {
+        // given
+        underTest.control("start");
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            underTest.control("dump");
+        }
+
+        // then
+        assertThat((List<?>) underTest.status().get("dumps")).hasSize(2);
+    }
+
+    @Test
+    void willRejectDumpWhenNothingIsRecording() {
+        assertThatThrownBy(() -> underTest.control("dump"))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> underTest.control("explode"))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+    }
+
+    @Test
+    void rowCountReflectsRepositoryResultShape() {
+        assertThat(FlightRecorderQueryInterceptor.rowCount(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(FlightRecorderQueryInterceptor.rowCount(java.util.Optional.empty())).isZero();
+        assertThat(FlightRecorderQueryInterceptor.rowCount(42L)).isEqualTo(1);
+        assertThat(FlightRecorderQueryInterceptor.rowCount(null)).isZero();
+    }
+}
@@ -0,0 +1,182 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Thread> waiting = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneRead() throws Exception {
+        // given
+        SingleFlight underTest = new SingleFlight(null, meterRegistry, Duration.ofSeconds(5), true);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        Supplier<List<String>> read = () -> {
+            reads.incrementAndGet();
+            await(release);
+            return List.of("gmail.com");
+        };
+
+        // when
+        Future<List<String>> leader = submit(() -> underTest.execute("stats.domains", List.of(), read));
+        waitUntilBlocked(1);
+        List<Future<List<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) followers.add(submit(() -> underTest.execute("stats.domains", List.of(), read)));
+        waitUntilBlocked(5);
+        release.countDown();
+
+        // then
+        List<String> result = leader.get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> follower : followers) assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        assertThat(reads).hasValue(1);
+        assertThat(count("leader")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(4);
+        assertThat(underTest.inFlight()).isZero();
+    }
+
+    @Test
+    void leaderFailureIsRethrownToFollowers() throws Exception {
+        // given
+        SingleFlight underTest = new SingleFlight(null, meterRegistry, Duration.ofSeconds(5), true);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> read = () -> {
+            await(release);
+            throw new IllegalArgumentException("boom");
+        };
+        Future<String> leader = submit(() -> underTest.execute("search", List.of(50), read));
+        waitUntilBlocked(1);
+        Future<String> follower = submit(() -> underTest.execute("search", List.of(50), read));
+        waitUntilBlocked(2);
+
+        // when
+        release.countDown();
+
+        // then
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void followerFallsBackToItsOwnReadAfterTheTimeout() throws Exception {
+        // given
+        SingleFlight underTest = new SingleFlight(null, meterRegistry, Duration.ofMillis(50), true);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = submit(() -> underTest.execute("export", List.of("id"), () -> {
+            await(release);
+            return "slow";
+        }));
+        waitUntilBlocked(1);
+
+        // when
+        String result = underTest.execute("export", List.of("id"), () -> "own");
+        release.countDown();
+
+        // then
+        assertThat(result).isEqualTo("own");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(count("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void followerWaitsForTheLeaderUpToTheOperationsOwnTimeout() throws Exception {
+        // given
+        SingleFlight underTest = new SingleFlight(null, meterRegistry, Duration.ofMillis(50), true);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = submit(() -> underTest.execute("export", List.of("id"), Duration.ofSeconds(5), () -> {
+            await(release);
+            return "slow";
+        }));
+        waitUntilBlocked(1);
+        Future<String> follower = submit(() -> underTest.execute("export", List.of("id"), Duration.ofSeconds(5), () -> "own"));
+        waitUntilBlocked(2);
+
+        // when
+        Thread.sleep(200);
+        release.countDown();
+
+        // then
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(count("coalesced")).isEqualTo(1);
+        assertThat(count("timeout")).isZero();
+    }
+
+    @Test
+    void callsInsideATransactionAreNotCoalesced() {
+        // given
+        SingleFlight underTest = new SingleFlight(null, meterRegistry, Duration.ofSeconds(5), true);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // when
+            String result = underTest.execute("stats.gender", List.of(), () -> "direct");
+
+            // then
+            assertThat(result).isEqualTo("direct");
+            assertThat(count("bypassed")).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private <T> Future<T> submit(java.util.concurrent.Callable<T> call) {
+        return executor.submit(() -> {
+            synchronized (waiting) {
+                waiting.add(Thread.currentThread());
+            }
+            return call.call();
+        });
+    }
+
+    // Blocks until that many submitted calls are parked (in the read or waiting for the leader)
+    private void waitUntilBlocked(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            synchronized (waiting) {
+                long blocked = waiting.stream()
+                        .filter(t -> t.getState() == Thread.State.WAITING || t.getState() == Thread.State.TIMED_WAITING)
+                        .count();
+                if (blocked >= count) return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Calls did not block in time");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.find("app.singleflight.calls").tag("outcome", outcome).counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+    }
+}
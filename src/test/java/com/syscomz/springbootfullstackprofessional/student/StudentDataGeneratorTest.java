@@ -0,0 +1,54 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentDataGeneratorTest {
+
+    @Test
+    void sameSeedAndIndexGiveTheSameRowInAnyOrder() {
+        // given
+        StudentDataGenerator first = new StudentDataGenerator(7);
+        StudentDataGenerator second = new StudentDataGenerator(7);
+
+        // when
+        Student late = second.row(999);
+        Student early = second.row(3);
+
+        // then
+        assertThat(first.row(3)).usingRecursiveComparison().isEqualTo(early);
+        assertThat(first.row(999)).usingRecursiveComparison().isEqualTo(late);
+        assertThat(new StudentDataGenerator(8).row(3).getEmail()).isNotEqualTo(early.getEmail());
+    }
+
+    @Test
+    void emailsAreUniqueAndValuesAreSkewed() {
+        // given
+        StudentDataGenerator underTest = new StudentDataGenerator(42);
+        Set<String> emails = new HashSet<>();
+        Map<String, Integer> colleges = new HashMap<>();
+        int withoutMinor = 0;
+
+        // when
+        for (long i = 0; i < 100_000; i++) {
+            Student s = underTest.row(i);
+            emails.add(s.getEmail());
+            colleges.merge(s.getCollege(), 1, Integer::sum);
+            if (s.getMinor() == null) withoutMinor++;
+            assertThat(s.getName()).isNotBlank();
+            assertThat(s.getNationality()).isNotBlank();
+            assertThat(s.getEmail()).matches("[a-z.]+\\.\\d+@[a-z.]+");
+        }
+
+        // then
+        assertThat(emails).hasSize(100_000);
+        assertThat(colleges.get("Engineering")).isGreaterThan(5 * colleges.get("General Studies"));
+        assertThat(withoutMinor).isBetween(60_000, 70_000);
+    }
+}
@@ -0,0 +1,273 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentEventStreamTest {
+
+    private final List<Runnable> dispatched = new ArrayList<>();
+    private final List<String> sent = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private boolean failWrites;
+
+    @BeforeEach
+    void setUp() {
+        dispatched.clear();
+        sent.clear();
+        failWrites = false;
+    }
+
+    @Test
+    void sendsAHeartbeatOnConnectAndCoalescesChangesPerStudent() {
+        // given
+        StudentEventStream underTest = stream(256, 10);
+        underTest.subscribe(null);
+        dispatch();
+        Student ada = student(1L, "Ada");
+        Student renamed = student(1L, "Ada Lovelace");
+        Student bob = student(2L, "Bob");
+
+        // when
+        underTest.onStudentChange(StudentChangeEvent.created(ada));
+        underTest.onStudentChange(StudentChangeEvent.created(bob));
+        underTest.onStudentChange(StudentChangeEvent.updated(ada, renamed));
+        dispatch();
+
+        // then
+        assertThat(sent).hasSize(3);
+        assertThat(sent.get(0)).startsWith(":heartbeat");
+        assertThat(sent.get(1)).startsWith("id:boot.2\nevent:created\n").contains("Bob");
+        assertThat(sent.get(2)).startsWith("id:boot.3\nevent:created\n").contains("Ada Lovelace");
+        assertThat(dispatched).isEmpty();
+    }
+
+    @Test
+    void aDeleteReplacesThePendingUpdate() {
+        // given
+        StudentEventStream underTest = stream(256, 10);
+        underTest.subscribe(null);
+        dispatch();
+        Student ada = student(1L, "Ada");
+
+        // when
+        underTest.onStudentChange(StudentChangeEvent.updated(ada, ada));
+        underTest.onStudentChange(StudentChangeEvent.deleted(1L));
+        dispatch();
+
+        // then
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1)).startsWith("id:boot.2\nevent:deleted\n").contains("1 null");
+    }
+
+    @Test
+    void aSlowSubscriberThatOverflowsGetsOneResync() {
+        // given
+        StudentEventStream underTest = stream(2, 10);
+        underTest.subscribe(null);
+        dispatch();
+
+        // when
+        for (long id = 1; id <= 5; id++) underTest.onStudentChange(StudentChangeEvent.created(student(id, "S" + id)));
+        dispatch();
+
+        // then
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1)).startsWith("id:boot.5\nevent:resync\n");
+        assertThat(meterRegistry.counter("app.events.resyncs").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void aReconnectWithAnOldLastEventIdStartsWithAResync() {
+        // given
+        StudentEventStream underTest = stream(256, 10);
+        underTest.onStudentChange(StudentChangeEvent.created(student(1L, "Ada")));
+
+        // when
+        underTest.subscribe("boot.1");
+        dispatch();
+        underTest.subscribe("boot.0");
+        dispatch();
+
+        // then
+        assertThat(sent).hasSize(3);
+        assertThat(sent.get(0)).startsWith(":heartbeat");
+        assertThat(sent.get(1)).startsWith(":heartbeat");
+        assertThat(sent.get(2)).startsWith("id:boot.1\nevent:resync\n");
+    }
+
+    @Test
+    void aReconnectWithAnIdFromAnotherProcessStartsWithAResync() {
+        // given - another node, or this one before a restart, got further in its own sequence
+        StudentEventStream underTest = stream(256, 10);
+        underTest.onStudentChange(StudentChangeEvent.created(student(1L, "Ada")));
+
+        // when
+        underTest.subscribe("other.7");
+        dispatch();
+        underTest.subscribe("1");
+        dispatch();
+
+        // then
+        assertThat(sent).hasSize(4);
+        assertThat(sent.get(1)).startsWith("id:boot.1\nevent:resync\n");
+        assertThat(sent.get(3)).startsWith("id:boot.1\nevent:resync\n");
+    }
+
+    @Test
+    void writesOnOtherNodesArePushedAsUpdatesAndDeletes() {
+        // given
+        StudentEventStream underTest = stream(256, 10);
+        underTest.subscribe(null);
+        dispatch();
+        Student ada = student(1L, "Ada");
+
+        // when
+        underTest.onRemoteChange(StudentRemoteChangeEvent.changed(new LinkedHashSet<>(List.of(1L, 2L)), Map.of(1L, ada), Set.of("name")));
+        dispatch();
+        underTest.onRemoteChange(StudentRemoteChangeEvent.flushAll());
+        dispatch();
+
+        // then
+        assertThat(sent).hasSize(4);
+        assertThat(sent.get(1)).startsWith("id:boot.1\nevent:updated\n").contains("1 Ada");
+        assertThat(sent.get(2)).startsWith("id:boot.2\nevent:deleted\n").contains("2 null");
+        assertThat(sent.get(3)).startsWith("id:boot.3\nevent:resync\n");
+    }
+
+    @Test
+    void rejectsSubscribersBeyondTheLimit() {
+        // given
+        StudentEventStream underTest = stream(256, 1);
+        underTest.subscribe(null);
+
+        // when / then
+        assertThatThrownBy(() -> underTest.subscribe(null)).isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void aFailedWriteRemovesTheSubscriber() {
+        // given
+        StudentEventStream underTest = stream(256, 10);
+        underTest.subscribe(null);
+        failWrites = true;
+
+        // when
+        dispatch();
+        underTest.heartbeat();
+        dispatch();
+
+        // then
+        assertThat(underTest.subscriberCount()).isZero();
+        assertThat(dispatched).isEmpty();
+    }
+
+    @Test
+    void aSubscriberWhoseWriteStallsIsDroppedWhileTheOthersKeepReceiving() throws InterruptedException {
+        // given - one dispatch thread, taken by a client that stopped reading
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(2);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        AtomicInteger emitters = new AtomicInteger();
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) StudentEventStream.newDispatcher(1);
+        StudentEventStream underTest = new StudentEventStream(meterRegistry, "boot", pool, 256, Duration.ofMinutes(1), 10, Duration.ZERO) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                boolean blocking = emitters.incrementAndGet() == 1;
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        if (blocking) {
+                            stalled.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return;
+                        }
+                        delivered.add(builder.build().stream().map(d -> render(d.getData())).collect(Collectors.joining()));
+                        received.countDown();
+                    }
+                };
+            }
+        };
+        try {
+            underTest.subscribe(null);
+            assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+            underTest.subscribe(null);
+
+            // when
+            underTest.dropStalled();
+            underTest.onStudentChange(StudentChangeEvent.created(student(1L, "Ada")));
+
+            // then
+            assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(delivered.get(0)).startsWith(":heartbeat");
+            assertThat(delivered.get(1)).startsWith("id:boot.1\nevent:created\n").contains("1 Ada");
+            assertThat(underTest.subscriberCount()).isEqualTo(1);
+            assertThat(pool.getCorePoolSize()).isEqualTo(2);
+            assertThat(meterRegistry.counter("app.events.stalled").count()).isEqualTo(1.0);
+
+            // and once the stalled write returns, the extra thread goes
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getCorePoolSize() != 1 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+            assertThat(pool.getCorePoolSize()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private StudentEventStream stream(int bufferSize, int maxSubscribers) {
+        return new StudentEventStream(meterRegistry, "boot", dispatched::add, bufferSize, Duration.ofMinutes(1), maxSubscribers, Duration.ofSeconds(10)) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new SseEmitter(timeoutMillis) {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        if (failWrites) throw new IOException("Broken pipe");
+                        sent.add(builder.build().stream().map(d -> render(d.getData())).collect(Collectors.joining()));
+                    }
+                };
+            }
+        };
+    }
+
+    // Event data as "<studentId> <name>", the SSE framing as is
+    private static String render(Object data) {
+        if (!(data instanceof StudentEventStream.Change change)) return String.valueOf(data);
+        return change.studentId() + " " + (change.student() == null ? null : change.student().getName());
+    }
+
+    private void dispatch() {
+        while (!dispatched.isEmpty()) dispatched.remove(0).run();
+    }
+
+    private static Student student(Long id, String name) {
+        Student student = new Student(name, name.toLowerCase().replace(' ', '.') + "@gmail.com", Gender.FEMALE, "UK", "Science", "Physics", "");
+        student.setId(id);
+        return student;
+    }
+}
@@ -0,0 +1,83 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentPrefixIndexTest {
+
+    private StudentPrefixIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new StudentPrefixIndex(null, null, true, DataSize.ofMegabytes(1), 4);
+        underTest.load(List.of(
+                row(1L, "Ada Lovelace", "ada@gmail.com"),
+                row(2L, "Alan Turing", "alan.turing@outlook.com"),
+                row(3L, "Grace Hopper", "grace@navy.mil"),
+                row(4L, "José Álvarez", "jose@example.org")
+        ).iterator());
+    }
+
+    @Test
+    void matchesNamesLaterWordsAndEmailsIgnoringCaseAndAccents() {
+        assertThat(ids(underTest.suggest("A", 10))).containsExactly(1L, 2L, 4L);
+        assertThat(ids(underTest.suggest("hop", 10))).containsExactly(3L);
+        assertThat(ids(underTest.suggest("ALVA", 10))).containsExactly(4L);
+        assertThat(ids(underTest.suggest("alan.t", 10))).containsExactly(2L);
+        assertThat(underTest.suggest("zzz", 10)).isEmpty();
+        assertThat(underTest.suggest("a", 2)).hasSize(2);
+    }
+
+    @Test
+    void reflectsWritesBeforeAndAfterCompaction() {
+        // when
+        underTest.upsert(5L, "Barbara Liskov", "barbara@mit.edu");
+        underTest.upsert(1L, "Augusta King", "ada@gmail.com");
+        underTest.remove(3L);
+
+        // then
+        assertThat(ids(underTest.suggest("lis", 10))).containsExactly(5L);
+        assertThat(underTest.suggest("lovelace", 10)).isEmpty();
+        assertThat(underTest.suggest("king", 10)).extracting(StudentSuggestion::getName).containsExactly("Augusta King");
+        assertThat(underTest.suggest("grace", 10)).isEmpty();
+
+        // when - enough writes to trigger a merge into the sorted base
+        underTest.upsert(6L, "Edsger Dijkstra", "edsger@utexas.edu");
+        underTest.upsert(7L, "Donald Knuth", "knuth@stanford.edu");
+
+        // then
+        assertThat(ids(underTest.suggest("k", 10))).containsExactly(1L, 7L);
+        assertThat(ids(underTest.suggest("d", 10))).containsExactly(6L, 7L);
+        assertThat(underTest.suggest("grace", 10)).isEmpty();
+    }
+
+    @Test
+    void reportsNotReadyWhenTheTableExceedsTheMemoryBudget() {
+        // given
+        StudentPrefixIndex tiny = new StudentPrefixIndex(null, null, true, DataSize.ofBytes(200), 100);
+
+        // when
+        tiny.load(List.of(row(1L, "Ada Lovelace", "ada@gmail.com"), row(2L, "Alan Turing", "alan@outlook.com")).iterator());
+
+        // then
+        assertThat(tiny.isReady()).isFalse();
+        assertThat(underTest.isReady()).isTrue();
+    }
+
+    private static List<Long> ids(List<StudentSuggestion> suggestions) {
+        return suggestions.stream().map(StudentSuggestion::getId).toList();
+    }
+
+    private static StudentRepository.SuggestView row(Long id, String name, String email) {
+        return new StudentRepository.SuggestView() {
+            @Override public Long getId() { return id; }
+            @Override public String getName() { return name; }
+            @Override public String getEmail() { return email; }
+        };
+    }
+}
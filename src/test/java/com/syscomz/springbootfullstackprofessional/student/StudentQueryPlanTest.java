@@ -0,0 +1,152 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Values are inlined so the captured statements can be EXPLAINed as they are
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.syscomz.springbootfullstackprofessional.student.StudentQueryPlanTest$Capture"
+})
+@Import({StudentDictionary.class, DatabasePlatform.class})
+class StudentQueryPlanTest {
+
+    public static class Capture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.save(new Student("Alice", "alice@gmail.com", Gender.FEMALE, "USA", "Engineering", "Physics", null));
+        studentRepository.save(new Student("Bob", "bob@gmail.com", Gender.MALE, "India", "Business", "Economics", "Music"));
+        Capture.STATEMENTS.clear();
+    }
+
+    @Test
+    void onlyPresentFiltersAreRendered() {
+        // when
+        String none = select(StudentFilter.NONE);
+        String gender = select(StudentFilter.of(Gender.FEMALE, null));
+        String inList = select(StudentFilter.of(null, null, List.of("USA", "India"), null, null, null));
+
+        // then
+        assertThat(none).doesNotContain(" where ");
+        assertThat(where(gender)).isEqualTo("s1_0.gender='female'");
+        assertThat(where(inList)).matches("s1_0\\.nationality_id in \\(\\d+,\\d+\\)");
+    }
+
+    @Test
+    void filtersUseTheirCompositeIndexes() throws SQLException {
+        assertThat(plan(StudentFilter.of(Gender.FEMALE, null))).contains("IDX_STUDENT_GENDER_ID");
+        assertThat(plan(StudentFilter.of(null, null, List.of("USA", "India"), null, null, null))).contains("IDX_STUDENT_NATIONALITY_KEY_ID");
+        assertThat(plan(StudentFilter.of(null, null, null, List.of("Engineering"), List.of("Physics"), null))).contains("IDX_STUDENT_COLLEGE_KEY_MAJOR_KEY_ID");
+        assertThat(plan(StudentFilter.of(null, null, null, List.of("Engineering"), null, null))).contains("IDX_STUDENT_COLLEGE_KEY_ID");
+        assertThat(plan(StudentFilter.of(null, null, null, null, List.of("Physics", "Economics"), null))).contains("IDX_STUDENT_MAJOR_KEY_ID");
+        assertThat(plan(StudentFilter.of(null, null, null, null, null, List.of("Music")))).contains("IDX_STUDENT_MINOR_KEY_ID");
+    }
+
+    @Test
+    void unknownFilterValuesMatchNothingWithoutGrowingTheDictionary() {
+        // when
+        String sql = select(StudentFilter.of(null, null, List.of("Atlantis"), null, null, null));
+
+        // then
+        assertThat(where(sql)).isEqualTo("s1_0.nationality_id=" + StudentDictionary.UNKNOWN);
+        assertThat(studentRepository.findAll(StudentSpecifications.matching(StudentFilter.of(null, null, List.of("Atlantis"), null, null, null)))).isEmpty();
+    }
+
+    @Test
+    void everyAcceptedSortIsAnIndexOrderedScan() throws SQLException {
+        assertIndexSorted(StudentSort.of("id", "asc"), "PRIMARY_KEY");
+        assertIndexSorted(StudentSort.of("name", "desc"), "IDX_STUDENT_NAME_ID");
+        assertIndexSorted(StudentSort.of("gender", "asc"), "IDX_STUDENT_GENDER_ID");
+        assertIndexSorted(StudentSort.of("nationality", "asc"), "IDX_STUDENT_NATIONALITY_KEY_ID");
+        assertIndexSorted(StudentSort.of("college", "asc"), "IDX_STUDENT_COLLEGE_KEY_ID");
+        assertIndexSorted(StudentSort.of("major", "asc"), "IDX_STUDENT_MAJOR_KEY_ID");
+        assertIndexSorted(StudentSort.of("minor", "desc"), "IDX_STUDENT_MINOR_KEY_ID");
+        assertIndexSorted(StudentSort.parse(List.of("college,asc", "name,asc"), null, null), "IDX_STUDENT_COLLEGE_KEY_NAME_ID");
+        assertIndexSorted(StudentSort.parse(List.of("nationality,desc", "name,desc"), null, null), "IDX_STUDENT_NATIONALITY_KEY_NAME_ID");
+    }
+
+    @Test
+    void dictionaryKeysFollowTheOrderOfTheirValues() {
+        // given - Engineering was added to the dictionary before Business, yet gets the larger key
+        studentRepository.save(new Student("Carol", "carol@gmail.com", Gender.FEMALE, "Canada", "Arts", "History", null));
+        studentRepository.save(new Student("Dave", "dave@gmail.com", Gender.MALE, "Chile", "Design", "Film", null));
+        Capture.STATEMENTS.clear();
+
+        // when
+        List<Student> byCollege = studentRepository.findAll(PageRequest.of(0, 20, StudentSort.of("college", "asc").toSort())).getContent();
+
+        // then
+        assertThat(byCollege).extracting(Student::getCollege).containsExactly("Arts", "Business", "Design", "Engineering");
+        assertThat(Capture.STATEMENTS.get(0).toLowerCase(Locale.ROOT)).doesNotContain(" join ").contains("order by s1_0.college_id");
+    }
+
+    // A top-N page read in index order: H2 reports the index and "index sorted" instead of sorting rows
+    private void assertIndexSorted(StudentSort sort, String index) throws SQLException {
+        Capture.STATEMENTS.clear();
+        studentRepository.findAll(PageRequest.of(0, 20, sort.toSort()));
+        String plan = explain(Capture.STATEMENTS.get(0));
+        assertThat(plan).as(sort.toString()).contains(index).contains("INDEX SORTED");
+    }
+
+    // The SQL Hibernate generates for a filtered, id-sorted read
+    private String select(StudentFilter filter) {
+        Capture.STATEMENTS.clear();
+        studentRepository.findAll(StudentSpecifications.matching(filter), Sort.by("id"));
+        assertThat(Capture.STATEMENTS).hasSize(1);
+        return Capture.STATEMENTS.get(0).toLowerCase(Locale.ROOT);
+    }
+
+    private static String where(String sql) {
+        return sql.substring(sql.indexOf(" where ") + " where ".length(), sql.indexOf(" order by "));
+    }
+
+    private String plan(StudentFilter filter) throws SQLException {
+        Capture.STATEMENTS.clear();
+        studentRepository.findAll(StudentSpecifications.matching(filter), Sort.by("id"));
+        return explain(Capture.STATEMENTS.get(0));
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            rs.next();
+            return rs.getString(1).toUpperCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.syscomz.springbootfullstackprofessional.student;
 
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionary;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 // Testing Unit StudentRepositoryTest
 // @SpringBootTest(classes = StudentRepositoryTest.class)
 @DataJpaTest
+// Converters of the dictionary-encoded columns need the dictionary, which the JPA slice does not scan
+@Import({StudentDictionary.class, DatabasePlatform.class})
 class StudentRepositoryTest {
     // We should test only our own custom methods
     // Spring Data JPA methods are already tested for us
@@ -59,7 +68,7 @@ class StudentRepositoryTest {
         underTest.save(new Student("Carol", "carol@outlook.com", Gender.FEMALE, "USA", "Engineering", "CS", "Math"));
 
         // when
-        Page<Student> page = underTest.search(null, "gmail.com", PageRequest.of(0, 10, Sort.by("id")));
+        Page<Student> page = underTest.findAll(StudentSpecifications.matching(StudentFilter.of(null, "gmail.com")), PageRequest.of(0, 10, Sort.by("id")));
 
         // then
         assertThat(page.getTotalElements()).isEqualTo(2);
@@ -73,9 +82,73 @@ class StudentRepositoryTest {
         underTest.save(new Student("Carol", "carol@outlook.com", Gender.FEMALE, "USA", "Engineering", "CS", "Math"));
 
         // when
-        java.util.List<Student> list = underTest.search("FEMALE", null, Sort.by("id"));
+        java.util.List<Student> list = underTest.findAll(StudentSpecifications.matching(StudentFilter.of(Gender.FEMALE, null)), Sort.by("id"));
 
         // then
         assertThat(list.size()).isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void portableTextSearchMatchesNameOrEmailSubstringIgnoringCase() {
+        // given
+        underTest.save(new Student("Alice Smithson", "alice@gmail.com", Gender.FEMALE, "USA", "Engineering", "CS", "Math"));
+        underTest.save(new Student("Bob", "bob.smith@outlook.com", Gender.MALE, "USA", "Engineering", "CS", "Math"));
+        underTest.save(new Student("Carol", "carol@outlook.com", Gender.FEMALE, "USA", "Engineering", "CS", "Math"));
+
+        // when
+        Page<Student> all = underTest.findAll(StudentSpecifications.nameOrEmailLike("%smith%"), PageRequest.of(0, 10, Sort.by("id")));
+        Page<Student> females = underTest.findAll(StudentSpecifications.matching(StudentFilter.of(Gender.FEMALE, null))
+                .and(StudentSpecifications.nameOrEmailLike("%smith%")), PageRequest.of(0, 10, Sort.by("id")));
+
+        // then
+        assertThat(all.getTotalElements()).isEqualTo(2);
+        assertThat(females.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void filterCombinesPresentFieldsWithInLists() {
+        // given
+        underTest.save(new Student("Alice", "alice@gmail.com", Gender.FEMALE, "USA", "Engineering", "Physics", null));
+        underTest.save(new Student("Bob", "bob@gmail.com", Gender.MALE, "India", "Engineering", "Physics", "Music"));
+        underTest.save(new Student("Carol", "carol@outlook.com", Gender.FEMALE, "UK", "Engineering", "Biology", null));
+        underTest.save(new Student("Dan", "dan@gmail.com", Gender.OTHER, "USA", "Business", "Physics", null));
+        StudentFilter filter = StudentFilter.of(null, null, List.of("USA", "India"), List.of("Engineering"), List.of("Physics"), null);
+
+        // when
+        List<Student> students = underTest.findAll(StudentSpecifications.matching(filter), Sort.by("id"));
+
+        // then
+        assertThat(students.stream().map(Student::getName).toList()).isEqualTo(List.of("Alice", "Bob"));
+    }
+
+    @Test
+    void streamFilteredAppliesFilterAndSort() {
+        // given
+        underTest.save(new Student("Alice", "alice@gmail.com", Gender.FEMALE, "USA", "Engineering", "Physics", null));
+        underTest.save(new Student("Bob", "bob@gmail.com", Gender.MALE, "India", "Engineering", "Physics", "Music"));
+        underTest.save(new Student("Carol", "carol@gmail.com", Gender.FEMALE, "UK", "Engineering", "Biology", null));
+        StudentFilter filter = StudentFilter.of(List.of("female", "male"), "GMAIL.com", null, null, List.of("Physics"), null);
+
+        // when
+        List<String> names;
+        try (Stream<Student> rows = underTest.streamFiltered(filter, Sort.by(Sort.Direction.DESC, "name"))) {
+            names = rows.map(Student::getName).toList();
+        }
+
+        // then
+        assertThat(names).isEqualTo(List.of("Bob", "Alice"));
+    }
+
+    @Test
+    void textMatchTreatsLikeWildcardsLiterally() {
+        // given
+        underTest.save(new Student("Ann_50%", "ann@gmail.com", Gender.FEMALE, "USA", "Engineering", "CS", "Math"));
+        underTest.save(new Student("Ann 500", "ann500@gmail.com", Gender.FEMALE, "USA", "Engineering", "CS", "Math"));
+
+        // when
+        long matches = underTest.count(StudentSpecifications.nameOrEmailLike("%" + StudentSpecifications.escapeLike("ann_50%") + "%"));
+
+        // then
+        assertThat(matches).isEqualTo(1);
+    }
+}
@@ -1,21 +1,35 @@
 package com.syscomz.springbootfullstackprofessional.student;
 
+import com.syscomz.springbootfullstackprofessional.config.DatabasePlatform;
 import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
 import com.syscomz.springbootfullstackprofessional.student.exception.StudentNotFoundException;
+import com.syscomz.springbootfullstackprofessional.student.stats.FieldStats;
+import com.syscomz.springbootfullstackprofessional.student.stats.StudentStatsSketches;
+import com.syscomz.springbootfullstackprofessional.student.snapshot.StudentSnapshotEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
 
 
 // Testing Unit StudentServiceTest
@@ -23,13 +37,28 @@ class StudentServiceTest {
 
     @Mock // Mock already tested unit - we didn't need to test it again, so we mock it
     private StudentRepository studentRepository;
+    @Mock
+    private StudentTombstoneRepository tombstoneRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private StudentPrefixIndex prefixIndex;
+    @Mock
+    private StudentValueCache valueCache;
+    @Mock
+    private StudentStatsSketches statsSketches;
+    @Mock
+    private StudentSnapshotEngine snapshotEngine;
+    @Mock
+    private StudentChangeHorizon changeHorizon;
+    private final SingleFlight singleFlight = new SingleFlight(null, new SimpleMeterRegistry(), Duration.ofSeconds(5), true);
     private AutoCloseable autoCloseable;
     private StudentService underTest;
 
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this); // initialize all the @Mock 's in this class
-        underTest = new StudentService(studentRepository);
+        underTest = new StudentService(studentRepository, tombstoneRepository, DatabasePlatform.named("H2"), eventPublisher, prefixIndex, valueCache, singleFlight, statsSketches, snapshotEngine, changeHorizon, Duration.ofMinutes(5));
     }
 
     @AfterEach
@@ -60,6 +89,7 @@ class StudentServiceTest {
         verify(studentRepository).save(studentArgumentCaptor.capture());
         Student capturedStudent = studentArgumentCaptor.getValue();
         assertThat(capturedStudent).isEqualTo(student);
+        verify(eventPublisher).publishEvent(StudentChangeEvent.created(student));
     }
     @SuppressWarnings("null")
     @Test
@@ -87,13 +117,35 @@ class StudentServiceTest {
     void canDeleteStudent() {
         // given
         long id = 10;
-        given(studentRepository.existsById(id))
-                .willReturn(true);
+        Student existing = new Student("Ada", "ada@gmail.com", Gender.FEMALE, "UK", "Science", "Mathematics", null);
+        existing.setId(id);
+        given(studentRepository.findById(id))
+                .willReturn(java.util.Optional.of(existing));
         // when
         underTest.deleteStudent(id);
 
         // then
-        verify(studentRepository).deleteById(id);
+        verify(studentRepository).delete(existing);
+        ArgumentCaptor<StudentChangeEvent> eventCaptor = ArgumentCaptor.forClass(StudentChangeEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().type()).isEqualTo(StudentChangeEvent.Type.DELETED);
+        assertThat(eventCaptor.getValue().previous().getCollege()).isEqualTo("Science");
+        ArgumentCaptor<StudentTombstone> tombstoneCaptor = ArgumentCaptor.forClass(StudentTombstone.class);
+        verify(tombstoneRepository).save(tombstoneCaptor.capture());
+        assertThat(tombstoneCaptor.getValue().getStudentId()).isEqualTo(id);
+    }
+
+    @Test
+    void willThrowWhenGetStudentNotFound() {
+        // given
+        long id = 10;
+        given(studentRepository.findById(id))
+                .willReturn(java.util.Optional.empty());
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getStudent(id))
+                .isInstanceOf(StudentNotFoundException.class)
+                .hasMessageContaining(String.format("Student with id %d, does not exists!", id));
     }
 
     @SuppressWarnings("null")
@@ -101,14 +153,151 @@ class StudentServiceTest {
     void willThrowWhenDeleteStudentNotFound() {
         // given
         long id = 10;
-        given(studentRepository.existsById(id))
-                .willReturn(false);
+        given(studentRepository.findById(id))
+                .willReturn(java.util.Optional.empty());
         // when
         // then
         assertThatThrownBy(() -> underTest.deleteStudent(id))
                 .isInstanceOf(StudentNotFoundException.class)
                 .hasMessageContaining(String.format("Student with id %d, does not exists!", id));
 
+        verify(studentRepository, never()).delete(any(Student.class));
         verify(studentRepository, never()).deleteById(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void textSearchUsesTrigramQueryOnPostgresWithEscapedPattern() {
+        // given
+        underTest = new StudentService(studentRepository, tombstoneRepository, DatabasePlatform.named("PostgreSQL"), eventPublisher, prefixIndex, valueCache, singleFlight, statsSketches, snapshotEngine, changeHorizon, Duration.ofMinutes(5));
+
+        // when
+        underTest.searchStudents(0, 20, StudentSort.BY_ID, StudentFilter.of(Gender.FEMALE, null), "  Ann_50% ");
+
+        // then: unsorted page, the ranking is part of the specification
+        verify(studentRepository).findAll(ArgumentMatchers.<Specification<Student>>any(), eq(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void textSearchFallsBackToPortableQueryElsewhere() {
+        // when
+        underTest.searchStudents(1, 10, StudentSort.of("name", "desc"), StudentFilter.of(null, "gmail.com"), "Smith");
+
+        // then
+        verify(studentRepository).findAll(ArgumentMatchers.<Specification<Student>>any(),
+                eq(PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "name", "id"))));
+    }
+
+    @Test
+    void willThrowWhenTextSearchTermIsTooShort() {
+        assertThatThrownBy(() -> underTest.searchStudents(0, 10, StudentSort.BY_ID, StudentFilter.NONE, "ab"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at least 3 characters");
+    }
+
+    @Test
+    void updatePublishesPreviousAndCurrentState() {
+        // given
+        Student existing = new Student("Ada", "ada@gmail.com", Gender.FEMALE, "UK", "Science", "Mathematics", null);
+        existing.setId(7L);
+        given(studentRepository.findById(7L)).willReturn(java.util.Optional.of(existing));
+        Student update = new Student();
+        update.setName("Ada Lovelace");
+
+        // when
+        underTest.updateStudent(7L, update);
+
+        // then
+        ArgumentCaptor<StudentChangeEvent> eventCaptor = ArgumentCaptor.forClass(StudentChangeEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        StudentChangeEvent event = eventCaptor.getValue();
+        assertThat(event.type()).isEqualTo(StudentChangeEvent.Type.UPDATED);
+        assertThat(event.previous().getName()).isEqualTo("Ada");
+        assertThat(event.current().getName()).isEqualTo("Ada Lovelace");
+    }
+
+    @Test
+    void suggestionsClampTheRequestedLimit() {
+        // when
+        underTest.suggestStudents("ada", 1000);
+
+        // then
+        verify(prefixIndex).suggest("ada", StudentService.MAX_SUGGESTIONS);
+    }
+
+    @Test
+    void changesMergeUpsertsAndDeletesInVersionOrder() {
+        // given: versions 3 (student), 4 (delete), 6 (student), 7 (delete) after since=2
+        given(changeHorizon.settledVersion()).willReturn(20L);
+        given(studentRepository.findChangedBetween(2L, 20L, PageRequest.of(0, 4)))
+                .willReturn(List.of(versioned(1L, 3L), versioned(2L, 6L)));
+        given(tombstoneRepository.findDeletedBetween(2L, 20L, PageRequest.of(0, 4)))
+                .willReturn(List.of(tombstone(9L, 4L), tombstone(8L, 7L)));
+
+        // when
+        StudentChanges changes = underTest.getChangesSince(2L, 3);
+
+        // then
+        assertThat(changes.upserted()).extracting(Student::getId).containsExactly(1L, 2L);
+        assertThat(changes.deleted()).containsExactly(9L);
+        assertThat(changes.next()).isEqualTo(6L);
+        assertThat(changes.hasMore()).isTrue();
+    }
+
+    @Test
+    void changesStopAtTheSettledVersion() {
+        // given: version 5 may still be followed by a lower one that has not committed yet
+        given(changeHorizon.settledVersion()).willReturn(4L);
+        given(studentRepository.findChangedBetween(2L, 4L, PageRequest.of(0, 11)))
+                .willReturn(List.of(versioned(1L, 3L)));
+        given(tombstoneRepository.findDeletedBetween(2L, 4L, PageRequest.of(0, 11)))
+                .willReturn(List.of());
+
+        // when
+        StudentChanges changes = underTest.getChangesSince(2L, 10);
+
+        // then
+        assertThat(changes.upserted()).extracting(Student::getId).containsExactly(1L);
+        assertThat(changes.next()).isEqualTo(3L);
+        assertThat(changes.hasMore()).isFalse();
+    }
+
+    @Test
+    void changesRejectANegativeVersion() {
+        assertThatThrownBy(() -> underTest.getChangesSince(-1L, 10)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static Student versioned(Long id, Long version) {
+        Student student = new Student("S" + id, "s" + id + "@gmail.com", Gender.FEMALE, "UK", "Science", "Physics", "");
+        student.setId(id);
+        student.setChangeVersion(version);
+        return student;
+    }
+
+    private static StudentTombstone tombstone(Long studentId, Long version) {
+        StudentTombstone tombstone = new StudentTombstone(studentId);
+        ReflectionTestUtils.setField(tombstone, "changeVersion", version);
+        return tombstone;
+    }
+
+    @Test
+    void approximateStatsComeFromTheSketchesAndExactStatsAreTruncatedToTop() {
+        // given
+        FieldStats approx = new FieldStats(List.of(new DomainCount("gmail.com", 7)), true, 3, 1, 0.0081);
+        given(statsSketches.capacity()).willReturn(1000);
+        given(statsSketches.top(StudentStatsSketches.Field.DOMAIN, 1)).willReturn(java.util.Optional.of(approx));
+        given(studentRepository.countByCollege()).willReturn(List.<Object[]>of(
+                new Object[]{"MIT", 5L}, new Object[]{"UBC", 3L}, new Object[]{"Oxford", 1L}));
+
+        // when
+        FieldStats domains = underTest.getStats(StudentStatsSketches.Field.DOMAIN, 1, StudentStatsSketches.Mode.APPROX);
+        FieldStats colleges = underTest.getStats(StudentStatsSketches.Field.COLLEGE, 2, StudentStatsSketches.Mode.EXACT);
+
+        // then
+        assertThat(domains).isSameAs(approx);
+        assertThat(colleges.approximate()).isFalse();
+        assertThat(colleges.distinct()).isEqualTo(3);
+        assertThat(colleges.counts()).extracting(DomainCount::getDomain).containsExactly("MIT", "UBC");
+        assertThatThrownBy(() -> underTest.getStats(StudentStatsSketches.Field.DOMAIN, 1001, StudentStatsSketches.Mode.APPROX))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentSortTest {
+
+    @Test
+    void appendsTheIdTieBreakerInTheLastKeysDirection() {
+        assertThat(StudentSort.of("name", "desc").toSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "name", "id"));
+        assertThat(StudentSort.of(null, null).toSort()).isEqualTo(Sort.by("id"));
+        assertThat(StudentSort.of("email", "asc").toSort()).isEqualTo(Sort.by("email"));
+    }
+
+    @Test
+    void parsesRepeatedAndCommaSplitSortParameters() {
+        // given
+        Sort expected = Sort.by(Sort.Order.asc("college"), Sort.Order.desc("name"), Sort.Order.desc("id"));
+
+        // then
+        assertThat(StudentSort.parse(List.of("college,asc", "name,desc"), "id", "asc").toSort()).isEqualTo(expected);
+        assertThat(StudentSort.parse(List.of("college", "asc", "name", "DESC"), "id", "asc").toSort()).isEqualTo(expected);
+        assertThat(StudentSort.parse(List.of("college", "name,desc"), "major", "desc").toSort()).isEqualTo(expected);
+    }
+
+    @Test
+    void explicitIdIsTheTieBreaker() {
+        assertThat(StudentSort.parse(List.of("nationality,asc", "name,asc", "id,desc"), null, null).toSort())
+                .isEqualTo(Sort.by(Sort.Order.asc("nationality"), Sort.Order.asc("name"), Sort.Order.desc("id")));
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndUnindexedCombinations() {
+        assertThatThrownBy(() -> StudentSort.of("password", "asc"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Cannot sort by password");
+        assertThatThrownBy(() -> StudentSort.parse(List.of("minor,asc", "major,asc"), null, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("college,name");
+        assertThatThrownBy(() -> StudentSort.parse(List.of("name", "name"), null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> StudentSort.parse(List.of("desc"), null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
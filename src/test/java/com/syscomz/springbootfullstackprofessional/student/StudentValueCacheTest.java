@@ -0,0 +1,101 @@
+package com.syscomz.springbootfullstackprofessional.student;
+
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class StudentValueCacheTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+    private AutoCloseable autoCloseable;
+    private StudentValueCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        underTest = new StudentValueCache(studentRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    @Test
+    void loadsOnceAndFiltersByPrefix() {
+        // given
+        given(studentRepository.countByCollege()).willReturn(rows(
+                new Object[]{"Engineering", 5L}, new Object[]{"Arts", 3L}, new Object[]{"", 2L}, new Object[]{"Economics", 3L}));
+
+        // when
+        List<DomainCount> all = underTest.values(StudentValueCache.Field.COLLEGE, null, 10);
+        List<DomainCount> filtered = underTest.values(StudentValueCache.Field.COLLEGE, "e", 10);
+
+        // then
+        assertThat(all).extracting(DomainCount::getDomain).containsExactly("Engineering", "Arts", "Economics");
+        assertThat(filtered).extracting(DomainCount::getDomain).containsExactly("Engineering", "Economics");
+        assertThat(underTest.values(StudentValueCache.Field.COLLEGE, null, 1)).hasSize(1);
+        verify(studentRepository, times(1)).countByCollege();
+    }
+
+    @Test
+    void appliesWritesWithoutReloading() {
+        // given
+        given(studentRepository.countByMajor()).willReturn(rows(new Object[]{"Physics", 1L}, new Object[]{"Biology", 2L}));
+        underTest.values(StudentValueCache.Field.MAJOR, null, 10);
+        Student before = new Student("Ada", "ada@gmail.com", Gender.FEMALE, "UK", "Science", "Physics", "");
+        before.setId(1L);
+        Student after = new Student("Ada", "ada@gmail.com", Gender.FEMALE, "UK", "Science", "Chemistry", "");
+        after.setId(1L);
+
+        // when
+        underTest.onStudentChange(StudentChangeEvent.updated(before, after));
+        underTest.onStudentChange(StudentChangeEvent.created(after));
+
+        // then
+        assertThat(underTest.values(StudentValueCache.Field.MAJOR, null, 10))
+                .extracting(DomainCount::getDomain, DomainCount::getCount)
+                .containsExactly(tuple("Biology", 2L), tuple("Chemistry", 2L));
+        verify(studentRepository, times(1)).countByMajor();
+    }
+
+    @Test
+    void deletesForceAReload() {
+        // given
+        given(studentRepository.countByMinor()).willReturn(rows(new Object[]{"History", 1L}));
+        underTest.values(StudentValueCache.Field.MINOR, null, 10);
+
+        // when
+        underTest.onStudentChange(StudentChangeEvent.deleted(1L));
+        underTest.values(StudentValueCache.Field.MINOR, null, 10);
+
+        // then
+        verify(studentRepository, times(2)).countByMinor();
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThat(StudentValueCache.Field.parse("Nationality")).isEqualTo(StudentValueCache.Field.NATIONALITY);
+        assertThatThrownBy(() -> StudentValueCache.Field.parse("email"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Unknown field email");
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
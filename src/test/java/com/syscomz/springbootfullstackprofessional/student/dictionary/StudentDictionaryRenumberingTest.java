@@ -0,0 +1,81 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionaryRenumbering.Entry;
+import com.syscomz.springbootfullstackprofessional.student.dictionary.StudentDictionaryRenumbering.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentDictionaryRenumberingTest {
+
+    private static final int STEP = StudentDictionary.KEY_STEP;
+
+    @Test
+    void evenlySpacedDictionariesAreLeftAlone() {
+        assertThat(StudentDictionaryRenumbering.plan(List.of())).isEmpty();
+        assertThat(StudentDictionaryRenumbering.plan(entries(STEP, 2 * STEP, 3 * STEP))).isEmpty();
+    }
+
+    @Test
+    void aCrowdedGapIsRespacedAcrossAWindowWideEnough() {
+        // given: sixteen values appended in order between a and b, 65536 apart
+        List<Entry> current = new ArrayList<>(entries(STEP, 2 * STEP, 3 * STEP, 4 * STEP, 5 * STEP));
+        int low = 2 * STEP;
+        for (int i = 0; i < 14; i++) {
+            low = StudentDictionary.keyBetween(low, 3 * STEP);
+            current.add(new Entry(low, "v" + low));
+        }
+        current.sort((x, y) -> Integer.compare(x.key(), y.key()));
+
+        // when
+        List<Move> moves = StudentDictionaryRenumbering.plan(current);
+
+        // then
+        List<Entry> after = apply(current, moves);
+        assertThat(after).extracting(Entry::name).containsExactlyElementsOf(current.stream().map(Entry::name).toList());
+        for (int i = 1; i < after.size(); i++) {
+            assertThat(after.get(i).key() - after.get(i - 1).key()).isGreaterThanOrEqualTo(2 * StudentDictionary.RENUMBER_GAP);
+        }
+    }
+
+    @Test
+    void everyMoveLandsBetweenItsNeighboursAsTheyAreAtThatMoment() {
+        // given: crowded at the low end
+        List<Entry> current = entries(1, 2, 3, 4, STEP, 2 * STEP);
+
+        // when
+        List<Move> moves = StudentDictionaryRenumbering.plan(current);
+
+        // then
+        assertThat(moves).isNotEmpty();
+        Map<String, Integer> keys = new HashMap<>();
+        current.forEach(e -> keys.put(e.name(), e.key()));
+        List<String> order = current.stream().map(Entry::name).toList();
+        for (Move move : moves) {
+            int at = order.indexOf(move.name());
+            long below = at == 0 ? 0 : keys.get(order.get(at - 1));
+            long above = at == order.size() - 1 ? Integer.MAX_VALUE : keys.get(order.get(at + 1));
+            assertThat((long) move.to()).isGreaterThan(below).isLessThan(above);
+            keys.put(move.name(), move.to());
+        }
+    }
+
+    private static List<Entry> entries(int... keys) {
+        List<Entry> entries = new ArrayList<>();
+        for (int key : keys) entries.add(new Entry(key, "v" + key));
+        return entries;
+    }
+
+    private static List<Entry> apply(List<Entry> current, List<Move> moves) {
+        Map<String, Integer> keys = new HashMap<>();
+        current.forEach(e -> keys.put(e.name(), e.key()));
+        moves.forEach(m -> keys.put(m.name(), m.to()));
+        return keys.entrySet().stream().map(e -> new Entry(e.getValue(), e.getKey()))
+                .sorted((x, y) -> Integer.compare(x.key(), y.key())).toList();
+    }
+}
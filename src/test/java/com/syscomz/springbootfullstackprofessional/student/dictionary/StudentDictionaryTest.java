@@ -0,0 +1,32 @@
+package com.syscomz.springbootfullstackprofessional.student.dictionary;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentDictionaryTest {
+
+    @Test
+    void firstKeyIsInTheMiddleAndLaterOnesStepAwayAtEitherEnd() {
+        int first = StudentDictionary.keyBetween(null, null);
+
+        assertThat(first).isEqualTo(Integer.MAX_VALUE / 2);
+        assertThat(StudentDictionary.keyBetween(first, null)).isEqualTo(first + StudentDictionary.KEY_STEP);
+        assertThat(StudentDictionary.keyBetween(null, first)).isEqualTo(first - StudentDictionary.KEY_STEP);
+    }
+
+    @Test
+    void valuesBetweenNeighboursTakeTheMidpointUntilNoKeyIsLeft() {
+        assertThat(StudentDictionary.keyBetween(100, 200)).isEqualTo(150);
+        assertThat(StudentDictionary.keyBetween(100, 102)).isEqualTo(101);
+        assertThat(StudentDictionary.keyBetween(100, 101)).isEqualTo(StudentDictionary.UNKNOWN);
+    }
+
+    @Test
+    void keysStayPositiveAndBelowIntegerMax() {
+        assertThat(StudentDictionary.keyBetween(null, 10)).isEqualTo(5);
+        assertThat(StudentDictionary.keyBetween(null, 1)).isEqualTo(StudentDictionary.UNKNOWN);
+        assertThat(StudentDictionary.keyBetween(Integer.MAX_VALUE - 10, null)).isEqualTo(Integer.MAX_VALUE - 5);
+        assertThat(StudentDictionary.keyBetween(Integer.MAX_VALUE - 1, null)).isEqualTo(StudentDictionary.UNKNOWN);
+    }
+}
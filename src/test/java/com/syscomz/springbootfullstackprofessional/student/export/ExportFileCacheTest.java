@@ -0,0 +1,127 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportFileCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final StudentTableVersion tableVersion = new StudentTableVersion();
+    private final AtomicInteger renders = new AtomicInteger();
+    private ExportFileCache underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        underTest = new ExportFileCache(tableVersion, true, true, dir, DataSize.ofBytes(250), Duration.ofHours(1));
+        underTest.prepareDirectory();
+    }
+
+    @Test
+    void rendersOncePerParametersAndTableVersion() throws IOException {
+        // when
+        CachedExport first = underTest.getOrRender("a", false, body("x".repeat(100)));
+        CachedExport second = underTest.getOrRender("a", false, body("x".repeat(100)));
+        tableVersion.bump();
+        CachedExport third = underTest.getOrRender("a", false, body("y".repeat(100)));
+
+        // then
+        assertThat(renders).hasValue(2);
+        assertThat(first.cacheHit()).isFalse();
+        assertThat(second.cacheHit()).isTrue();
+        assertThat(second.etag()).isEqualTo(first.etag());
+        assertThat(third.etag()).isNotEqualTo(first.etag());
+        assertThat(Files.readString(third.file())).isEqualTo("y".repeat(100));
+    }
+
+    @Test
+    void evictsLeastRecentlyServedFilesPastTheSizeBound() throws IOException {
+        // given
+        CachedExport a = underTest.getOrRender("a", false, body("a".repeat(100)));
+        CachedExport b = underTest.getOrRender("b", false, body("b".repeat(100)));
+        underTest.getOrRender("a", false, body("a".repeat(100)));
+
+        // when
+        underTest.getOrRender("c", false, body("c".repeat(100)));
+
+        // then
+        assertThat(underTest.size()).isEqualTo(2);
+        assertThat(underTest.totalBytes()).isEqualTo(200);
+        assertThat(a.file()).exists();
+        assertThat(b.file()).doesNotExist();
+    }
+
+    @Test
+    void aFileEvictedWhileBeingServedStaysReadable() throws IOException {
+        // given - a is being served, then expires from the cache
+        try (CachedExport a = underTest.getOrRender("a", false, body("a".repeat(100)))) {
+            underTest.getOrRender("b", false, body("b".repeat(100))).close();
+            underTest.getOrRender("c", false, body("c".repeat(100))).close();
+            assertThat(a.file()).doesNotExist();
+
+            // when
+            ByteBuffer content = ByteBuffer.allocate(100);
+            a.channel().read(content, 0);
+
+            // then
+            assertThat(new String(content.array(), StandardCharsets.UTF_8)).isEqualTo("a".repeat(100));
+        }
+    }
+
+    @Test
+    void storesAGzipVariantSeparately() throws IOException {
+        // when
+        CachedExport plain = underTest.getOrRender("a", false, body("id,name\n1,Ada\n"));
+        CachedExport gzip = underTest.getOrRender("a", true, body("id,name\n1,Ada\n"));
+
+        // then
+        assertThat(gzip.gzip()).isTrue();
+        assertThat(gzip.etag()).isNotEqualTo(plain.etag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Files.readAllBytes(gzip.file())))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,name\n1,Ada\n");
+        }
+    }
+
+    @Test
+    void negotiatesGzipFromAcceptEncoding() {
+        assertThat(underTest.shouldCompress("gzip, deflate, br")).isTrue();
+        assertThat(underTest.shouldCompress("br;q=1.0, gzip;q=0.5")).isTrue();
+        assertThat(underTest.shouldCompress("gzip;q=0")).isFalse();
+        assertThat(underTest.shouldCompress("identity")).isFalse();
+        assertThat(underTest.shouldCompress(null)).isFalse();
+    }
+
+    @Test
+    void parsesSingleByteRanges() {
+        assertThat(ExportFileResponder.parseRange("bytes=0-9", 100)).containsExactly(0, 9);
+        assertThat(ExportFileResponder.parseRange("bytes=90-", 100)).containsExactly(90, 99);
+        assertThat(ExportFileResponder.parseRange("bytes=-10", 100)).containsExactly(90, 99);
+        assertThat(ExportFileResponder.parseRange("bytes=50-500", 100)).containsExactly(50, 99);
+        assertThat(ExportFileResponder.parseRange("bytes=100-", 100)).isEmpty();
+        assertThat(ExportFileResponder.parseRange("bytes=0-1,5-6", 100)).isNull();
+        assertThat(ExportFileResponder.parseRange("items=0-1", 100)).isNull();
+    }
+
+    private ExportFileCache.Renderer body(String content) {
+        return out -> {
+            renders.incrementAndGet();
+            out.write(content);
+            return 1;
+        };
+    }
+}
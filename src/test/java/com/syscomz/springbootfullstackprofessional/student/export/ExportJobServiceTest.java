@@ -0,0 +1,139 @@
+package com.syscomz.springbootfullstackprofessional.student.export;
+
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentFilter;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import com.syscomz.springbootfullstackprofessional.student.StudentSort;
+import com.syscomz.springbootfullstackprofessional.student.exception.BadRequestException;
+import com.syscomz.springbootfullstackprofessional.student.exception.ExportJobNotFoundException;
+import com.syscomz.springbootfullstackprofessional.student.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+class ExportJobServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private StudentRepository studentRepository;
+    private AutoCloseable autoCloseable;
+    private ExportJobService underTest;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        underTest = new ExportJobService(studentRepository, null, null, 1, 1, 1, Duration.ZERO, dir);
+        underTest.prepareDirectory();
+        given(studentRepository.count(ArgumentMatchers.<Specification<Student>>any())).willReturn(3L);
+        given(studentRepository.streamFiltered(eq(StudentFilter.NONE), any())).willAnswer(inv -> IntStream.range(0, 3).mapToObj(i -> {
+            awaitRelease();
+            Student s = new Student("Student " + i, "s" + i + "@gmail.com", Gender.OTHER, "UK", "Oxford", null, null);
+            s.setId((long) i);
+            return s;
+        }));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        underTest.shutdown();
+        autoCloseable.close();
+    }
+
+    @Test
+    void writesTheFileAndReportsProgress() throws IOException {
+        // when
+        ExportJob job = underTest.submit("alice", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE));
+        release.countDown();
+
+        // then
+        waitFor(() -> job.getStatus() == ExportJob.Status.COMPLETED);
+        assertThat(job.getEstimatedRows()).isEqualTo(3);
+        assertThat(job.getRowsWritten()).isEqualTo(3);
+        assertThat(Files.readString(job.getFile()))
+                .startsWith(StudentCsvWriter.HEADER)
+                .contains("s2@gmail.com");
+        assertThat(job.getBytes()).isEqualTo(Files.size(job.getFile()));
+    }
+
+    @Test
+    void enforcesThePerClientLimitAndTheQueueBound() {
+        // given
+        underTest.submit("alice", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE));
+
+        // then
+        assertThatThrownBy(() -> underTest.submit("alice", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE)))
+                .isInstanceOf(TooManyRequestsException.class);
+        underTest.submit("bob", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE));
+        assertThatThrownBy(() -> underTest.submit("carol", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE)))
+                .isInstanceOf(TooManyRequestsException.class)
+                .hasMessageContaining("queue is full");
+    }
+
+    @Test
+    void cancelsRunningAndQueuedJobsAndHidesOtherClientsJobs() {
+        // given
+        ExportJob running = underTest.submit("alice", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE));
+        ExportJob queued = underTest.submit("bob", ExportParams.of(StudentSort.of("id", "asc"), StudentFilter.NONE));
+        waitFor(() -> running.getStatus() == ExportJob.Status.RUNNING);
+
+        // when
+        assertThatThrownBy(() -> underTest.cancel("bob", running.getId())).isInstanceOf(ExportJobNotFoundException.class);
+        underTest.cancel("alice", running.getId());
+        underTest.cancel("bob", queued.getId());
+        release.countDown();
+
+        // then
+        waitFor(() -> running.getStatus() == ExportJob.Status.CANCELLED);
+        assertThat(queued.getStatus()).isEqualTo(ExportJob.Status.CANCELLED);
+        assertThat(running.getFile()).isNull();
+        underTest.purgeExpired();
+        assertThatThrownBy(() -> underTest.get("alice", running.getId())).isInstanceOf(ExportJobNotFoundException.class);
+    }
+
+    @Test
+    void rejectsUnknownSortProperties() {
+        assertThatThrownBy(() -> underTest.submit("alice", ExportParams.of(StudentSort.of("password", "asc"), StudentFilter.NONE)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
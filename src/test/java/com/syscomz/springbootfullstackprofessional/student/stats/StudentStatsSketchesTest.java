@@ -0,0 +1,154 @@
+package com.syscomz.springbootfullstackprofessional.student.stats;
+
+import com.syscomz.springbootfullstackprofessional.student.DomainCount;
+import com.syscomz.springbootfullstackprofessional.student.Gender;
+import com.syscomz.springbootfullstackprofessional.student.Student;
+import com.syscomz.springbootfullstackprofessional.student.StudentChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentRemoteChangeEvent;
+import com.syscomz.springbootfullstackprofessional.student.StudentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentStatsSketchesTest {
+
+    @Test
+    void hyperLogLogStaysWithinThreeStandardErrors() {
+        // given
+        HyperLogLog underTest = new HyperLogLog(14);
+
+        // when
+        for (int i = 0; i < 200_000; i++) underTest.add("value-" + i);
+        for (int i = 0; i < 50_000; i++) underTest.add("value-" + i); // repeats do not count
+
+        // then
+        double error = Math.abs(underTest.estimate() - 200_000) / 200_000.0;
+        assertThat(error).isLessThan(3 * underTest.relativeStandardError());
+        assertThat(new HyperLogLog(14).estimate()).isZero();
+    }
+
+    @Test
+    void heavyHittersOfASkewedStreamAreFoundWithinTheErrorBound() {
+        // given: Zipf-like, value i appears 20000 / i times, shuffled
+        FieldSketch underTest = new FieldSketch(0.001, 0.01, 100, 14);
+        Map<String, Long> truth = new HashMap<>();
+        List<String> stream = new ArrayList<>();
+        for (int i = 1; i <= 5_000; i++) {
+            for (int n = 0; n < Math.max(1, 20_000 / i); n++) stream.add("v" + i);
+            truth.put("v" + i, (long) Math.max(1, 20_000 / i));
+        }
+        Collections.shuffle(stream, new Random(42));
+
+        // when
+        stream.forEach(v -> underTest.add(v, 1));
+        FieldStats stats = underTest.top(10);
+
+        // then
+        assertThat(stats.approximate()).isTrue();
+        assertThat(stats.counts()).extracting(DomainCount::getDomain)
+                .containsExactly("v1", "v2", "v3", "v4", "v5", "v6", "v7", "v8", "v9", "v10");
+        for (DomainCount count : stats.counts()) {
+            long trueCount = truth.get(count.getDomain());
+            assertThat(count.getCount()).isBetween(trueCount, trueCount + stats.countErrorBound());
+        }
+        assertThat(stats.countErrorBound()).isLessThanOrEqualTo((long) Math.ceil(0.001 * stream.size()));
+        assertThat((double) Math.abs(stats.distinct() - 5_000)).isLessThan(5_000 * 3 * stats.distinctRelativeError());
+    }
+
+    @Test
+    void writesMoveCountsBetweenValues() {
+        // given
+        StudentStatsSketches underTest = new StudentStatsSketches(null, null, true, 0.001, 0.99, 100, 14);
+        underTest.load(List.of(row("a@gmail.com", "UK", "MIT"), row("b@gmail.com", "UK", "MIT"),
+                row("c@Yahoo.com", "Peru", "UBC")).iterator());
+        Student before = student(3L, "c@yahoo.com", "Peru", "UBC");
+        Student after = student(3L, "c@gmail.com", "Peru", "MIT");
+
+        // when
+        underTest.onStudentChange(StudentChangeEvent.updated(before, after));
+        underTest.onStudentChange(StudentChangeEvent.created(student(4L, "d@outlook.com", "UK", "Oxford")));
+        underTest.onStudentChange(StudentChangeEvent.deleted(student(4L, "d@outlook.com", "UK", "Oxford")));
+
+        // then
+        assertThat(counts(underTest, StudentStatsSketches.Field.DOMAIN)).containsExactly(Map.entry("gmail.com", 3L));
+        assertThat(counts(underTest, StudentStatsSketches.Field.COLLEGE)).containsExactly(Map.entry("MIT", 3L));
+        assertThat(counts(underTest, StudentStatsSketches.Field.NATIONALITY))
+                .containsExactly(Map.entry("UK", 2L), Map.entry("Peru", 1L));
+    }
+
+    @Test
+    void notReadyUntilBuilt() {
+        StudentStatsSketches underTest = new StudentStatsSketches(null, null, true, 0.001, 0.99, 100, 14);
+        assertThat(underTest.top(StudentStatsSketches.Field.DOMAIN, 5)).isEmpty();
+        assertThat(StudentStatsSketches.domainOf("Ada@Example.ORG")).isEqualTo("example.org");
+        assertThat(StudentStatsSketches.domainOf("no-at-sign")).isNull();
+    }
+
+    @Test
+    void rebuildsRunOnTheirOwnThreadOneQueuedAtATime() {
+        // given
+        List<Runnable> queued = new ArrayList<>();
+        StudentStatsSketches underTest = new StudentStatsSketches(null, null, true, 0.001, 0.99, 100, 14, queued::add);
+
+        // when
+        underTest.scheduledRebuild();
+        underTest.onStudentChange(StudentChangeEvent.reloaded());
+        underTest.onRemoteChange(StudentRemoteChangeEvent.flushAll());
+
+        // then
+        assertThat(queued).hasSize(1);
+        queued.remove(0).run();
+        underTest.scheduledRebuild();
+        assertThat(queued).hasSize(1);
+    }
+
+    @Test
+    void remoteWritesToSketchedColumnsRebuildOncePerDelay() {
+        // given
+        List<Runnable> queued = new ArrayList<>();
+        StudentStatsSketches underTest = new StudentStatsSketches(null, null, true, 0.001, 0.99, 100, 14, queued::add);
+
+        // when
+        underTest.onRemoteChange(StudentRemoteChangeEvent.changed(Set.of(1L), Map.of(), Set.of("name")));
+        underTest.rebuildAfterRemoteChanges();
+
+        // then
+        assertThat(queued).isEmpty();
+
+        // when
+        underTest.onRemoteChange(StudentRemoteChangeEvent.changed(Set.of(1L), Map.of(), Set.of("college")));
+        underTest.onRemoteChange(StudentRemoteChangeEvent.changed(Set.of(2L), Map.of(), Set.of("email", "name")));
+        underTest.rebuildAfterRemoteChanges();
+        underTest.rebuildAfterRemoteChanges();
+
+        // then
+        assertThat(queued).hasSize(1);
+    }
+
+    private static List<Map.Entry<String, Long>> counts(StudentStatsSketches sketches, StudentStatsSketches.Field field) {
+        return sketches.top(field, 10).orElseThrow().counts().stream()
+                .map(c -> Map.entry(c.getDomain(), c.getCount())).toList();
+    }
+
+    private static StudentRepository.StatsView row(String email, String nationality, String college) {
+        return new StudentRepository.StatsView() {
+            public String getEmail() { return email; }
+            public String getNationality() { return nationality; }
+            public String getCollege() { return college; }
+        };
+    }
+
+    private static Student student(Long id, String email, String nationality, String college) {
+        Student student = new Student("S" + id, email, Gender.FEMALE, nationality, college, "", "");
+        student.setId(id);
+        return student;
+    }
+}